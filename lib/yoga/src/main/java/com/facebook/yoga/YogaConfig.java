@@ -8,7 +8,6 @@
 package com.facebook.yoga;
 
 import com.facebook.proguard.annotations.DoNotStrip;
-import com.facebook.soloader.SoLoader;
 
 @DoNotStrip
 public class YogaConfig {
@@ -16,19 +15,37 @@ public class YogaConfig {
   public static int SPACING_TYPE = 1;
 
   static {
-    if (YogaConstants.shouldUseFastMath) {
-      SoLoader.loadLibrary("yogafastmath");
-    } else {
-      SoLoader.loadLibrary("yoga");
-    }
+    YogaNativeLibrary.load();
   }
 
   long mNativePointer;
   private YogaLogger mLogger;
   private YogaNodeClonedFunction mNodeClonedFunction;
 
-  private native long jni_YGConfigNew();
+  // The settings read by the Java layout, which has no native config.
+  final boolean mUseJavaLayout;
+  boolean mUseWebDefaults;
+  boolean mUseLegacyStretchBehaviour;
+  float mPointScaleFactor = 1f;
+
   public YogaConfig() {
+    this(false);
+  }
+
+  private native long jni_YGConfigNew();
+
+  /**
+   * @param useJavaLayout whether the nodes created with this config are laid out in Java rather
+   *     than by the native Yoga library, e.g. to run or profile layouts on a plain JVM. Nodes that
+   *     use the Java layout can't be added to nodes that don't, and vice versa.
+   */
+  public YogaConfig(boolean useJavaLayout) {
+    mUseJavaLayout = useJavaLayout;
+    if (useJavaLayout) {
+      return;
+    }
+
+    YogaNativeLibrary.ensureLoaded();
     mNativePointer = jni_YGConfigNew();
     if (mNativePointer == 0) {
       throw new IllegalStateException("Failed to allocate native memory");
@@ -39,7 +56,9 @@ public class YogaConfig {
   @Override
   protected void finalize() throws Throwable {
     try {
-      jni_YGConfigFree(mNativePointer);
+      if (!mUseJavaLayout) {
+        jni_YGConfigFree(mNativePointer);
+      }
     } finally {
       super.finalize();
     }
@@ -50,16 +69,28 @@ public class YogaConfig {
       int feature,
       boolean enabled);
   public void setExperimentalFeatureEnabled(YogaExperimentalFeature feature, boolean enabled) {
+    if (mUseJavaLayout) {
+      // The Java layout doesn't implement the experimental features.
+      return;
+    }
     jni_YGConfigSetExperimentalFeatureEnabled(mNativePointer, feature.intValue(), enabled);
   }
 
   private native void jni_YGConfigSetUseWebDefaults(long nativePointer, boolean useWebDefaults);
   public void setUseWebDefaults(boolean useWebDefaults) {
+    mUseWebDefaults = useWebDefaults;
+    if (mUseJavaLayout) {
+      return;
+    }
     jni_YGConfigSetUseWebDefaults(mNativePointer, useWebDefaults);
   }
 
   private native void jni_YGConfigSetPointScaleFactor(long nativePointer, float pixelsInPoint);
   public void setPointScaleFactor(float pixelsInPoint) {
+    mPointScaleFactor = pixelsInPoint;
+    if (mUseJavaLayout) {
+      return;
+    }
     jni_YGConfigSetPointScaleFactor(mNativePointer, pixelsInPoint);
   }
 
@@ -71,12 +102,19 @@ public class YogaConfig {
    * Because this was such a long-standing bug we must allow legacy users to switch back to this behaviour.
    */
   public void setUseLegacyStretchBehaviour(boolean useLegacyStretchBehaviour) {
+    mUseLegacyStretchBehaviour = useLegacyStretchBehaviour;
+    if (mUseJavaLayout) {
+      return;
+    }
     jni_YGConfigSetUseLegacyStretchBehaviour(mNativePointer, useLegacyStretchBehaviour);
   }
 
   private native void jni_YGConfigSetLogger(long nativePointer, Object logger);
   public void setLogger(YogaLogger logger) {
     mLogger = logger;
+    if (mUseJavaLayout) {
+      return;
+    }
     jni_YGConfigSetLogger(mNativePointer, logger);
   }
 
@@ -88,9 +126,16 @@ public class YogaConfig {
 
   public void setOnNodeCloned(YogaNodeClonedFunction nodeClonedFunction) {
     mNodeClonedFunction = nodeClonedFunction;
+    if (mUseJavaLayout) {
+      return;
+    }
     jni_YGConfigSetHasNodeClonedFunc(mNativePointer, nodeClonedFunction != null);
   }
 
+  boolean hasOnNodeCloned() {
+    return mNodeClonedFunction != null;
+  }
+
   @DoNotStrip
   public final void onNodeCloned(
       YogaNode oldNode, YogaNode newNode, YogaNode parent, int childIndex) {
@@ -0,0 +1,2365 @@
+/*
+ * Copyright (c) 2014-present, Facebook, Inc.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.yoga;
+
+import static com.facebook.yoga.YogaConstants.UNDEFINED;
+import static com.facebook.yoga.YogaConstants.isUndefined;
+import static com.facebook.yoga.YogaJavaNode.DIMENSION;
+import static com.facebook.yoga.YogaJavaNode.DIMENSION_HEIGHT;
+import static com.facebook.yoga.YogaJavaNode.DIMENSION_WIDTH;
+import static com.facebook.yoga.YogaJavaNode.EDGE_BOTTOM;
+import static com.facebook.yoga.YogaJavaNode.EDGE_END;
+import static com.facebook.yoga.YogaJavaNode.EDGE_LEFT;
+import static com.facebook.yoga.YogaJavaNode.EDGE_START;
+import static com.facebook.yoga.YogaJavaNode.EDGE_TOP;
+import static com.facebook.yoga.YogaJavaNode.FLEX_DIRECTION_COLUMN;
+import static com.facebook.yoga.YogaJavaNode.FLEX_DIRECTION_COLUMN_REVERSE;
+import static com.facebook.yoga.YogaJavaNode.FLEX_DIRECTION_ROW;
+import static com.facebook.yoga.YogaJavaNode.FLEX_DIRECTION_ROW_REVERSE;
+import static com.facebook.yoga.YogaJavaNode.LEADING;
+import static com.facebook.yoga.YogaJavaNode.MAX_CACHED_RESULT_COUNT;
+import static com.facebook.yoga.YogaJavaNode.TRAILING;
+import static com.facebook.yoga.YogaJavaNode.crossFlexDirection;
+import static com.facebook.yoga.YogaJavaNode.floatMax;
+import static com.facebook.yoga.YogaJavaNode.floatMin;
+import static com.facebook.yoga.YogaJavaNode.floatsEqual;
+import static com.facebook.yoga.YogaJavaNode.isColumn;
+import static com.facebook.yoga.YogaJavaNode.isRow;
+import static com.facebook.yoga.YogaJavaNode.resolveFlexDirection;
+import static com.facebook.yoga.YogaJavaNode.resolveValue;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The flexbox algorithm of Yoga, ported from Yoga.cpp, that lays out the nodes whose config uses
+ * the Java layout. The port follows the native code closely, so that both produce the same
+ * layouts; changes to one should be made to the other.
+ */
+final class YogaJavaLayout {
+
+  private static final int MEASURE_MODE_UNDEFINED = 0;
+  private static final int MEASURE_MODE_EXACTLY = 1;
+  private static final int MEASURE_MODE_AT_MOST = 2;
+
+  private static final int ALIGN_AUTO = 0;
+  private static final int ALIGN_FLEX_START = 1;
+  private static final int ALIGN_CENTER = 2;
+  private static final int ALIGN_FLEX_END = 3;
+  private static final int ALIGN_STRETCH = 4;
+  private static final int ALIGN_BASELINE = 5;
+  private static final int ALIGN_SPACE_BETWEEN = 6;
+  private static final int ALIGN_SPACE_AROUND = 7;
+
+  private static final int JUSTIFY_CENTER = 1;
+  private static final int JUSTIFY_FLEX_END = 2;
+  private static final int JUSTIFY_SPACE_BETWEEN = 3;
+  private static final int JUSTIFY_SPACE_AROUND = 4;
+  private static final int JUSTIFY_SPACE_EVENLY = 5;
+
+  private static final int POSITION_TYPE_RELATIVE = 0;
+  private static final int POSITION_TYPE_ABSOLUTE = 1;
+  private static final int WRAP_NO_WRAP = 0;
+  private static final int WRAP_WRAP_REVERSE = 2;
+  private static final int OVERFLOW_SCROLL = 2;
+  private static final int DISPLAY_NONE = 1;
+
+  private static final AtomicInteger sCurrentGenerationCount = new AtomicInteger();
+
+  private final YogaConfig mConfig;
+  private final int mGenerationCount;
+
+  // The results of constrainMaxSizeForMode(), which updates both a measure mode and a size.
+  private int mConstrainedMeasureMode;
+  private float mConstrainedSize;
+
+  private YogaJavaLayout(YogaConfig config) {
+    mConfig = config;
+    mGenerationCount = sCurrentGenerationCount.incrementAndGet();
+  }
+
+  /** Lays out the tree of root, see YGNodeCalculateLayout. */
+  static void calculateLayout(
+      YogaJavaNode root, float parentWidth, float parentHeight, int parentDirection) {
+    new YogaJavaLayout(root.mConfig)
+        .calculateLayoutInternal(root, parentWidth, parentHeight, parentDirection);
+  }
+
+  private void calculateLayoutInternal(
+      YogaJavaNode node, float parentWidth, float parentHeight, int parentDirection) {
+    node.resolveDimensions();
+    float width;
+    int widthMeasureMode;
+    if (isStyleDimDefined(node, FLEX_DIRECTION_ROW, parentWidth)) {
+      width =
+          resolveValue(node.mResolvedDimensions[DIMENSION[FLEX_DIRECTION_ROW]], parentWidth)
+              + node.getMarginForAxis(FLEX_DIRECTION_ROW, parentWidth);
+      widthMeasureMode = MEASURE_MODE_EXACTLY;
+    } else if (!isUndefined(resolveValue(node.mMaxDimensions[DIMENSION_WIDTH], parentWidth))) {
+      width = resolveValue(node.mMaxDimensions[DIMENSION_WIDTH], parentWidth);
+      widthMeasureMode = MEASURE_MODE_AT_MOST;
+    } else {
+      width = parentWidth;
+      widthMeasureMode = isUndefined(width) ? MEASURE_MODE_UNDEFINED : MEASURE_MODE_EXACTLY;
+    }
+
+    float height;
+    int heightMeasureMode;
+    if (isStyleDimDefined(node, FLEX_DIRECTION_COLUMN, parentHeight)) {
+      height =
+          resolveValue(node.mResolvedDimensions[DIMENSION[FLEX_DIRECTION_COLUMN]], parentHeight)
+              + node.getMarginForAxis(FLEX_DIRECTION_COLUMN, parentWidth);
+      heightMeasureMode = MEASURE_MODE_EXACTLY;
+    } else if (!isUndefined(resolveValue(node.mMaxDimensions[DIMENSION_HEIGHT], parentHeight))) {
+      height = resolveValue(node.mMaxDimensions[DIMENSION_HEIGHT], parentHeight);
+      heightMeasureMode = MEASURE_MODE_AT_MOST;
+    } else {
+      height = parentHeight;
+      heightMeasureMode = isUndefined(height) ? MEASURE_MODE_UNDEFINED : MEASURE_MODE_EXACTLY;
+    }
+
+    if (layoutNodeInternal(
+        node,
+        width,
+        height,
+        parentDirection,
+        widthMeasureMode,
+        heightMeasureMode,
+        parentWidth,
+        parentHeight,
+        true)) {
+      node.setPosition(node.mLayoutDirection, parentWidth, parentHeight, parentWidth);
+      roundToPixelGrid(node, node.mConfig.mPointScaleFactor, 0f, 0f);
+    }
+  }
+
+  private static float paddingAndBorderForAxis(YogaJavaNode node, int axis, float widthSize) {
+    return node.getLeadingPaddingAndBorder(axis, widthSize)
+        + node.getTrailingPaddingAndBorder(axis, widthSize);
+  }
+
+  private static int alignItem(YogaJavaNode node, YogaJavaNode child) {
+    final int align = child.mAlignSelf == ALIGN_AUTO ? node.mAlignItems : child.mAlignSelf;
+    if (align == ALIGN_BASELINE && isColumn(node.mFlexDirection)) {
+      return ALIGN_FLEX_START;
+    }
+    return align;
+  }
+
+  private static float baseline(YogaJavaNode node) {
+    if (node.hasBaselineFunction()) {
+      final float baseline =
+          node.mNode.baseline(
+              node.mMeasuredDimensions[DIMENSION_WIDTH],
+              node.mMeasuredDimensions[DIMENSION_HEIGHT]);
+      if (isUndefined(baseline)) {
+        throw new IllegalStateException("Expect custom baseline function to not return NaN");
+      }
+      return baseline;
+    }
+
+    YogaJavaNode baselineChild = null;
+    for (int i = 0, childCount = node.getChildCount(); i < childCount; i++) {
+      final YogaJavaNode child = node.getChild(i);
+      if (child.mLineIndex > 0) {
+        break;
+      }
+      if (child.mPositionType == POSITION_TYPE_ABSOLUTE) {
+        continue;
+      }
+      if (alignItem(node, child) == ALIGN_BASELINE) {
+        baselineChild = child;
+        break;
+      }
+
+      if (baselineChild == null) {
+        baselineChild = child;
+      }
+    }
+
+    if (baselineChild == null) {
+      return node.mMeasuredDimensions[DIMENSION_HEIGHT];
+    }
+
+    final float baseline = baseline(baselineChild);
+    return baseline + baselineChild.mLayoutPosition[EDGE_TOP];
+  }
+
+  private static boolean isBaselineLayout(YogaJavaNode node) {
+    if (isColumn(node.mFlexDirection)) {
+      return false;
+    }
+    if (node.mAlignItems == ALIGN_BASELINE) {
+      return true;
+    }
+    for (int i = 0, childCount = node.getChildCount(); i < childCount; i++) {
+      final YogaJavaNode child = node.getChild(i);
+      if (child.mPositionType == POSITION_TYPE_RELATIVE && child.mAlignSelf == ALIGN_BASELINE) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static float dimWithMargin(YogaJavaNode node, int axis, float widthSize) {
+    return node.mMeasuredDimensions[DIMENSION[axis]]
+        + node.getLeadingMargin(axis, widthSize)
+        + node.getTrailingMargin(axis, widthSize);
+  }
+
+  private static boolean isStyleDimDefined(YogaJavaNode node, int axis, float parentSize) {
+    final YogaValue resolvedDimension = node.mResolvedDimensions[DIMENSION[axis]];
+    final boolean isUndefined = isUndefined(resolvedDimension.value);
+    return !(resolvedDimension.unit == YogaUnit.AUTO
+        || resolvedDimension.unit == YogaUnit.UNDEFINED
+        || (resolvedDimension.unit == YogaUnit.POINT
+            && !isUndefined
+            && resolvedDimension.value < 0f)
+        || (resolvedDimension.unit == YogaUnit.PERCENT
+            && !isUndefined
+            && (resolvedDimension.value < 0f || isUndefined(parentSize))));
+  }
+
+  private static boolean isLayoutDimDefined(YogaJavaNode node, int axis) {
+    final float value = node.mMeasuredDimensions[DIMENSION[axis]];
+    return !isUndefined(value) && value >= 0f;
+  }
+
+  private static float boundAxisWithinMinAndMax(
+      YogaJavaNode node, int axis, float value, float axisSize) {
+    float min = UNDEFINED;
+    float max = UNDEFINED;
+
+    if (isColumn(axis)) {
+      min = resolveValue(node.mMinDimensions[DIMENSION_HEIGHT], axisSize);
+      max = resolveValue(node.mMaxDimensions[DIMENSION_HEIGHT], axisSize);
+    } else if (isRow(axis)) {
+      min = resolveValue(node.mMinDimensions[DIMENSION_WIDTH], axisSize);
+      max = resolveValue(node.mMaxDimensions[DIMENSION_WIDTH], axisSize);
+    }
+
+    float boundValue = value;
+
+    if (!isUndefined(max) && max >= 0f && boundValue > max) {
+      boundValue = max;
+    }
+
+    if (!isUndefined(min) && min >= 0f && boundValue < min) {
+      boundValue = min;
+    }
+
+    return boundValue;
+  }
+
+  // Like boundAxisWithinMinAndMax but also ensures that the value doesn't go below the padding and
+  // border amount.
+  private static float boundAxis(
+      YogaJavaNode node, int axis, float value, float axisSize, float widthSize) {
+    return floatMax(
+        boundAxisWithinMinAndMax(node, axis, value, axisSize),
+        paddingAndBorderForAxis(node, axis, widthSize));
+  }
+
+  private static void setChildTrailingPosition(YogaJavaNode node, YogaJavaNode child, int axis) {
+    final float size = child.mMeasuredDimensions[DIMENSION[axis]];
+    child.mLayoutPosition[TRAILING[axis]] =
+        node.mMeasuredDimensions[DIMENSION[axis]] - size - child.mLayoutPosition[LEADING[axis]];
+  }
+
+  private void constrainMaxSizeForMode(
+      YogaJavaNode node, int axis, float parentAxisSize, float parentWidth, int mode, float size) {
+    final float maxSize =
+        resolveValue(node.mMaxDimensions[DIMENSION[axis]], parentAxisSize)
+            + node.getMarginForAxis(axis, parentWidth);
+    mConstrainedMeasureMode = mode;
+    mConstrainedSize = size;
+    switch (mode) {
+      case MEASURE_MODE_EXACTLY:
+      case MEASURE_MODE_AT_MOST:
+        mConstrainedSize = (isUndefined(maxSize) || size < maxSize) ? size : maxSize;
+        break;
+      case MEASURE_MODE_UNDEFINED:
+        if (!isUndefined(maxSize)) {
+          mConstrainedMeasureMode = MEASURE_MODE_AT_MOST;
+          mConstrainedSize = maxSize;
+        }
+        break;
+    }
+  }
+
+  private void computeFlexBasisForChild(
+      YogaJavaNode node,
+      YogaJavaNode child,
+      float width,
+      int widthMode,
+      float height,
+      float parentWidth,
+      float parentHeight,
+      int heightMode,
+      int direction) {
+    final int mainAxis = resolveFlexDirection(node.mFlexDirection, direction);
+    final boolean isMainAxisRow = isRow(mainAxis);
+    final float mainAxisSize = isMainAxisRow ? width : height;
+    final float mainAxisParentSize = isMainAxisRow ? parentWidth : parentHeight;
+
+    float childWidth;
+    float childHeight;
+    int childWidthMeasureMode;
+    int childHeightMeasureMode;
+
+    final float resolvedFlexBasis = resolveValue(child.resolveFlexBasis(), mainAxisParentSize);
+    final boolean isRowStyleDimDefined = isStyleDimDefined(child, FLEX_DIRECTION_ROW, parentWidth);
+    final boolean isColumnStyleDimDefined =
+        isStyleDimDefined(child, FLEX_DIRECTION_COLUMN, parentHeight);
+
+    if (!isUndefined(resolvedFlexBasis) && !isUndefined(mainAxisSize)) {
+      if (isUndefined(child.mComputedFlexBasis)) {
+        child.mComputedFlexBasis =
+            floatMax(resolvedFlexBasis, paddingAndBorderForAxis(child, mainAxis, parentWidth));
+      }
+    } else if (isMainAxisRow && isRowStyleDimDefined) {
+      // The width is definite, so use that as the flex basis.
+      child.mComputedFlexBasis =
+          floatMax(
+              resolveValue(child.mResolvedDimensions[DIMENSION_WIDTH], parentWidth),
+              paddingAndBorderForAxis(child, FLEX_DIRECTION_ROW, parentWidth));
+    } else if (!isMainAxisRow && isColumnStyleDimDefined) {
+      // The height is definite, so use that as the flex basis.
+      child.mComputedFlexBasis =
+          floatMax(
+              resolveValue(child.mResolvedDimensions[DIMENSION_HEIGHT], parentHeight),
+              paddingAndBorderForAxis(child, FLEX_DIRECTION_COLUMN, parentWidth));
+    } else {
+      // Compute the flex basis and hypothetical main size (i.e. the clamped flex basis).
+      childWidth = UNDEFINED;
+      childHeight = UNDEFINED;
+      childWidthMeasureMode = MEASURE_MODE_UNDEFINED;
+      childHeightMeasureMode = MEASURE_MODE_UNDEFINED;
+
+      final float marginRow = child.getMarginForAxis(FLEX_DIRECTION_ROW, parentWidth);
+      final float marginColumn = child.getMarginForAxis(FLEX_DIRECTION_COLUMN, parentWidth);
+
+      if (isRowStyleDimDefined) {
+        childWidth =
+            resolveValue(child.mResolvedDimensions[DIMENSION_WIDTH], parentWidth) + marginRow;
+        childWidthMeasureMode = MEASURE_MODE_EXACTLY;
+      }
+      if (isColumnStyleDimDefined) {
+        childHeight =
+            resolveValue(child.mResolvedDimensions[DIMENSION_HEIGHT], parentHeight)
+                + marginColumn;
+        childHeightMeasureMode = MEASURE_MODE_EXACTLY;
+      }
+
+      // The W3C spec doesn't say anything about the 'overflow' property, but all major browsers
+      // appear to implement the following logic.
+      if ((!isMainAxisRow && node.mOverflow == OVERFLOW_SCROLL)
+          || node.mOverflow != OVERFLOW_SCROLL) {
+        if (isUndefined(childWidth) && !isUndefined(width)) {
+          childWidth = width;
+          childWidthMeasureMode = MEASURE_MODE_AT_MOST;
+        }
+      }
+
+      if ((isMainAxisRow && node.mOverflow == OVERFLOW_SCROLL)
+          || node.mOverflow != OVERFLOW_SCROLL) {
+        if (isUndefined(childHeight) && !isUndefined(height)) {
+          childHeight = height;
+          childHeightMeasureMode = MEASURE_MODE_AT_MOST;
+        }
+      }
+
+      if (!isUndefined(child.mAspectRatio)) {
+        if (!isMainAxisRow && childWidthMeasureMode == MEASURE_MODE_EXACTLY) {
+          childHeight = marginColumn + (childWidth - marginRow) / child.mAspectRatio;
+          childHeightMeasureMode = MEASURE_MODE_EXACTLY;
+        } else if (isMainAxisRow && childHeightMeasureMode == MEASURE_MODE_EXACTLY) {
+          childWidth = marginRow + (childHeight - marginColumn) * child.mAspectRatio;
+          childWidthMeasureMode = MEASURE_MODE_EXACTLY;
+        }
+      }
+
+      // If child has no defined size in the cross axis and is set to stretch, set the cross axis
+      // to be measured exactly with the available inner width
+      final boolean hasExactWidth = !isUndefined(width) && widthMode == MEASURE_MODE_EXACTLY;
+      final boolean childWidthStretch =
+          alignItem(node, child) == ALIGN_STRETCH
+              && childWidthMeasureMode != MEASURE_MODE_EXACTLY;
+      if (!isMainAxisRow && !isRowStyleDimDefined && hasExactWidth && childWidthStretch) {
+        childWidth = width;
+        childWidthMeasureMode = MEASURE_MODE_EXACTLY;
+        if (!isUndefined(child.mAspectRatio)) {
+          childHeight = (childWidth - marginRow) / child.mAspectRatio;
+          childHeightMeasureMode = MEASURE_MODE_EXACTLY;
+        }
+      }
+
+      final boolean hasExactHeight = !isUndefined(height) && heightMode == MEASURE_MODE_EXACTLY;
+      final boolean childHeightStretch =
+          alignItem(node, child) == ALIGN_STRETCH
+              && childHeightMeasureMode != MEASURE_MODE_EXACTLY;
+      if (isMainAxisRow && !isColumnStyleDimDefined && hasExactHeight && childHeightStretch) {
+        childHeight = height;
+        childHeightMeasureMode = MEASURE_MODE_EXACTLY;
+
+        if (!isUndefined(child.mAspectRatio)) {
+          childWidth = (childHeight - marginColumn) * child.mAspectRatio;
+          childWidthMeasureMode = MEASURE_MODE_EXACTLY;
+        }
+      }
+
+      constrainMaxSizeForMode(
+          child, FLEX_DIRECTION_ROW, parentWidth, parentWidth, childWidthMeasureMode, childWidth);
+      childWidthMeasureMode = mConstrainedMeasureMode;
+      childWidth = mConstrainedSize;
+      constrainMaxSizeForMode(
+          child,
+          FLEX_DIRECTION_COLUMN,
+          parentHeight,
+          parentWidth,
+          childHeightMeasureMode,
+          childHeight);
+      childHeightMeasureMode = mConstrainedMeasureMode;
+      childHeight = mConstrainedSize;
+
+      // Measure the child
+      layoutNodeInternal(
+          child,
+          childWidth,
+          childHeight,
+          direction,
+          childWidthMeasureMode,
+          childHeightMeasureMode,
+          parentWidth,
+          parentHeight,
+          false);
+
+      child.mComputedFlexBasis =
+          floatMax(
+              child.mMeasuredDimensions[DIMENSION[mainAxis]],
+              paddingAndBorderForAxis(child, mainAxis, parentWidth));
+    }
+    child.mComputedFlexBasisGeneration = mGenerationCount;
+  }
+
+  private void absoluteLayoutChild(
+      YogaJavaNode node,
+      YogaJavaNode child,
+      float width,
+      int widthMode,
+      float height,
+      int direction) {
+    final int mainAxis = resolveFlexDirection(node.mFlexDirection, direction);
+    final int crossAxis = crossFlexDirection(mainAxis, direction);
+    final boolean isMainAxisRow = isRow(mainAxis);
+
+    float childWidth = UNDEFINED;
+    float childHeight = UNDEFINED;
+    int childWidthMeasureMode;
+    int childHeightMeasureMode;
+
+    final float marginRow = child.getMarginForAxis(FLEX_DIRECTION_ROW, width);
+    final float marginColumn = child.getMarginForAxis(FLEX_DIRECTION_COLUMN, width);
+
+    if (isStyleDimDefined(child, FLEX_DIRECTION_ROW, width)) {
+      childWidth = resolveValue(child.mResolvedDimensions[DIMENSION_WIDTH], width) + marginRow;
+    } else {
+      // If the child doesn't have a specified width, compute the width based on the left/right
+      // offsets if they're defined.
+      if (child.isLeadingPositionDefined(FLEX_DIRECTION_ROW)
+          && child.isTrailingPositionDefined(FLEX_DIRECTION_ROW)) {
+        childWidth =
+            node.mMeasuredDimensions[DIMENSION_WIDTH]
+                - (node.getLeadingBorder(FLEX_DIRECTION_ROW)
+                    + node.getTrailingBorder(FLEX_DIRECTION_ROW))
+                - (child.getLeadingPosition(FLEX_DIRECTION_ROW, width)
+                    + child.getTrailingPosition(FLEX_DIRECTION_ROW, width));
+        childWidth = boundAxis(child, FLEX_DIRECTION_ROW, childWidth, width, width);
+      }
+    }
+
+    if (isStyleDimDefined(child, FLEX_DIRECTION_COLUMN, height)) {
+      childHeight =
+          resolveValue(child.mResolvedDimensions[DIMENSION_HEIGHT], height) + marginColumn;
+    } else {
+      // If the child doesn't have a specified height, compute the height based on the top/bottom
+      // offsets if they're defined.
+      if (child.isLeadingPositionDefined(FLEX_DIRECTION_COLUMN)
+          && child.isTrailingPositionDefined(FLEX_DIRECTION_COLUMN)) {
+        childHeight =
+            node.mMeasuredDimensions[DIMENSION_HEIGHT]
+                - (node.getLeadingBorder(FLEX_DIRECTION_COLUMN)
+                    + node.getTrailingBorder(FLEX_DIRECTION_COLUMN))
+                - (child.getLeadingPosition(FLEX_DIRECTION_COLUMN, height)
+                    + child.getTrailingPosition(FLEX_DIRECTION_COLUMN, height));
+        childHeight = boundAxis(child, FLEX_DIRECTION_COLUMN, childHeight, height, width);
+      }
+    }
+
+    // Exactly one dimension needs to be defined for us to be able to do aspect ratio calculation.
+    // One dimension being the anchor and the other being flexible.
+    if (isUndefined(childWidth) ^ isUndefined(childHeight)) {
+      if (!isUndefined(child.mAspectRatio)) {
+        if (isUndefined(childWidth)) {
+          childWidth = marginRow + (childHeight - marginColumn) * child.mAspectRatio;
+        } else if (isUndefined(childHeight)) {
+          childHeight = marginColumn + (childWidth - marginRow) / child.mAspectRatio;
+        }
+      }
+    }
+
+    // If we're still missing one or the other dimension, measure the content.
+    if (isUndefined(childWidth) || isUndefined(childHeight)) {
+      childWidthMeasureMode =
+          isUndefined(childWidth) ? MEASURE_MODE_UNDEFINED : MEASURE_MODE_EXACTLY;
+      childHeightMeasureMode =
+          isUndefined(childHeight) ? MEASURE_MODE_UNDEFINED : MEASURE_MODE_EXACTLY;
+
+      // If the size of the parent is defined then try to constrain the absolute child to that size
+      // as well. This allows text within the absolute child to wrap to the size of its parent.
+      // This is the same behavior as many browsers implement.
+      if (!isMainAxisRow
+          && isUndefined(childWidth)
+          && widthMode != MEASURE_MODE_UNDEFINED
+          && !isUndefined(width)
+          && width > 0) {
+        childWidth = width;
+        childWidthMeasureMode = MEASURE_MODE_AT_MOST;
+      }
+
+      layoutNodeInternal(
+          child,
+          childWidth,
+          childHeight,
+          direction,
+          childWidthMeasureMode,
+          childHeightMeasureMode,
+          childWidth,
+          childHeight,
+          false);
+      childWidth =
+          child.mMeasuredDimensions[DIMENSION_WIDTH]
+              + child.getMarginForAxis(FLEX_DIRECTION_ROW, width);
+      childHeight =
+          child.mMeasuredDimensions[DIMENSION_HEIGHT]
+              + child.getMarginForAxis(FLEX_DIRECTION_COLUMN, width);
+    }
+
+    layoutNodeInternal(
+        child,
+        childWidth,
+        childHeight,
+        direction,
+        MEASURE_MODE_EXACTLY,
+        MEASURE_MODE_EXACTLY,
+        childWidth,
+        childHeight,
+        true);
+
+    if (child.isTrailingPositionDefined(mainAxis) && !child.isLeadingPositionDefined(mainAxis)) {
+      child.mLayoutPosition[LEADING[mainAxis]] =
+          node.mMeasuredDimensions[DIMENSION[mainAxis]]
+              - child.mMeasuredDimensions[DIMENSION[mainAxis]]
+              - node.getTrailingBorder(mainAxis)
+              - child.getTrailingMargin(mainAxis, width)
+              - child.getTrailingPosition(mainAxis, isMainAxisRow ? width : height);
+    } else if (!child.isLeadingPositionDefined(mainAxis)
+        && node.mJustifyContent == JUSTIFY_CENTER) {
+      child.mLayoutPosition[LEADING[mainAxis]] =
+          (node.mMeasuredDimensions[DIMENSION[mainAxis]]
+                  - child.mMeasuredDimensions[DIMENSION[mainAxis]])
+              / 2.0f;
+    } else if (!child.isLeadingPositionDefined(mainAxis)
+        && node.mJustifyContent == JUSTIFY_FLEX_END) {
+      child.mLayoutPosition[LEADING[mainAxis]] =
+          (node.mMeasuredDimensions[DIMENSION[mainAxis]]
+              - child.mMeasuredDimensions[DIMENSION[mainAxis]]);
+    }
+
+    if (child.isTrailingPositionDefined(crossAxis)
+        && !child.isLeadingPositionDefined(crossAxis)) {
+      child.mLayoutPosition[LEADING[crossAxis]] =
+          node.mMeasuredDimensions[DIMENSION[crossAxis]]
+              - child.mMeasuredDimensions[DIMENSION[crossAxis]]
+              - node.getTrailingBorder(crossAxis)
+              - child.getTrailingMargin(crossAxis, width)
+              - child.getTrailingPosition(crossAxis, isMainAxisRow ? height : width);
+    } else if (!child.isLeadingPositionDefined(crossAxis)
+        && alignItem(node, child) == ALIGN_CENTER) {
+      child.mLayoutPosition[LEADING[crossAxis]] =
+          (node.mMeasuredDimensions[DIMENSION[crossAxis]]
+                  - child.mMeasuredDimensions[DIMENSION[crossAxis]])
+              / 2.0f;
+    } else if (!child.isLeadingPositionDefined(crossAxis)
+        && ((alignItem(node, child) == ALIGN_FLEX_END)
+            ^ (node.mFlexWrap == WRAP_WRAP_REVERSE))) {
+      child.mLayoutPosition[LEADING[crossAxis]] =
+          (node.mMeasuredDimensions[DIMENSION[crossAxis]]
+              - child.mMeasuredDimensions[DIMENSION[crossAxis]]);
+    }
+  }
+
+  private static void withMeasureFuncSetMeasuredDimensions(
+      YogaJavaNode node,
+      float availableWidth,
+      float availableHeight,
+      int widthMeasureMode,
+      int heightMeasureMode,
+      float parentWidth,
+      float parentHeight) {
+    final float paddingAndBorderAxisRow =
+        paddingAndBorderForAxis(node, FLEX_DIRECTION_ROW, availableWidth);
+    final float paddingAndBorderAxisColumn =
+        paddingAndBorderForAxis(node, FLEX_DIRECTION_COLUMN, availableWidth);
+    final float marginAxisRow = node.getMarginForAxis(FLEX_DIRECTION_ROW, availableWidth);
+    final float marginAxisColumn = node.getMarginForAxis(FLEX_DIRECTION_COLUMN, availableWidth);
+
+    // We want to make sure we don't call measure with negative size
+    final float innerWidth =
+        isUndefined(availableWidth)
+            ? availableWidth
+            : floatMax(0, availableWidth - marginAxisRow - paddingAndBorderAxisRow);
+    final float innerHeight =
+        isUndefined(availableHeight)
+            ? availableHeight
+            : floatMax(0, availableHeight - marginAxisColumn - paddingAndBorderAxisColumn);
+
+    if (widthMeasureMode == MEASURE_MODE_EXACTLY && heightMeasureMode == MEASURE_MODE_EXACTLY) {
+      // Don't bother sizing the text if both dimensions are already defined.
+      node.mMeasuredDimensions[DIMENSION_WIDTH] =
+          boundAxis(
+              node, FLEX_DIRECTION_ROW, availableWidth - marginAxisRow, parentWidth, parentWidth);
+      node.mMeasuredDimensions[DIMENSION_HEIGHT] =
+          boundAxis(
+              node,
+              FLEX_DIRECTION_COLUMN,
+              availableHeight - marginAxisColumn,
+              parentHeight,
+              parentWidth);
+    } else {
+      // Measure the text under the current constraints.
+      final long measuredSize =
+          node.mNode.measureFromJavaLayout(
+              innerWidth, widthMeasureMode, innerHeight, heightMeasureMode);
+
+      node.mMeasuredDimensions[DIMENSION_WIDTH] =
+          boundAxis(
+              node,
+              FLEX_DIRECTION_ROW,
+              (widthMeasureMode == MEASURE_MODE_UNDEFINED
+                      || widthMeasureMode == MEASURE_MODE_AT_MOST)
+                  ? YogaMeasureOutput.getWidth(measuredSize) + paddingAndBorderAxisRow
+                  : availableWidth - marginAxisRow,
+              parentWidth,
+              parentWidth);
+
+      node.mMeasuredDimensions[DIMENSION_HEIGHT] =
+          boundAxis(
+              node,
+              FLEX_DIRECTION_COLUMN,
+              (heightMeasureMode == MEASURE_MODE_UNDEFINED
+                      || heightMeasureMode == MEASURE_MODE_AT_MOST)
+                  ? YogaMeasureOutput.getHeight(measuredSize) + paddingAndBorderAxisColumn
+                  : availableHeight - marginAxisColumn,
+              parentHeight,
+              parentWidth);
+    }
+  }
+
+  // For nodes with no children, use the available values if they were provided, or the minimum
+  // size as indicated by the padding and border sizes.
+  private static void emptyContainerSetMeasuredDimensions(
+      YogaJavaNode node,
+      float availableWidth,
+      float availableHeight,
+      int widthMeasureMode,
+      int heightMeasureMode,
+      float parentWidth,
+      float parentHeight) {
+    final float paddingAndBorderAxisRow =
+        paddingAndBorderForAxis(node, FLEX_DIRECTION_ROW, parentWidth);
+    final float paddingAndBorderAxisColumn =
+        paddingAndBorderForAxis(node, FLEX_DIRECTION_COLUMN, parentWidth);
+    final float marginAxisRow = node.getMarginForAxis(FLEX_DIRECTION_ROW, parentWidth);
+    final float marginAxisColumn = node.getMarginForAxis(FLEX_DIRECTION_COLUMN, parentWidth);
+
+    node.mMeasuredDimensions[DIMENSION_WIDTH] =
+        boundAxis(
+            node,
+            FLEX_DIRECTION_ROW,
+            (widthMeasureMode == MEASURE_MODE_UNDEFINED
+                    || widthMeasureMode == MEASURE_MODE_AT_MOST)
+                ? paddingAndBorderAxisRow
+                : availableWidth - marginAxisRow,
+            parentWidth,
+            parentWidth);
+
+    node.mMeasuredDimensions[DIMENSION_HEIGHT] =
+        boundAxis(
+            node,
+            FLEX_DIRECTION_COLUMN,
+            (heightMeasureMode == MEASURE_MODE_UNDEFINED
+                    || heightMeasureMode == MEASURE_MODE_AT_MOST)
+                ? paddingAndBorderAxisColumn
+                : availableHeight - marginAxisColumn,
+            parentHeight,
+            parentWidth);
+  }
+
+  private static boolean fixedSizeSetMeasuredDimensions(
+      YogaJavaNode node,
+      float availableWidth,
+      float availableHeight,
+      int widthMeasureMode,
+      int heightMeasureMode,
+      float parentWidth,
+      float parentHeight) {
+    if ((!isUndefined(availableWidth)
+            && widthMeasureMode == MEASURE_MODE_AT_MOST
+            && availableWidth <= 0f)
+        || (!isUndefined(availableHeight)
+            && heightMeasureMode == MEASURE_MODE_AT_MOST
+            && availableHeight <= 0f)
+        || (widthMeasureMode == MEASURE_MODE_EXACTLY
+            && heightMeasureMode == MEASURE_MODE_EXACTLY)) {
+      final float marginAxisColumn = node.getMarginForAxis(FLEX_DIRECTION_COLUMN, parentWidth);
+      final float marginAxisRow = node.getMarginForAxis(FLEX_DIRECTION_ROW, parentWidth);
+
+      node.mMeasuredDimensions[DIMENSION_WIDTH] =
+          boundAxis(
+              node,
+              FLEX_DIRECTION_ROW,
+              isUndefined(availableWidth)
+                      || (widthMeasureMode == MEASURE_MODE_AT_MOST && availableWidth < 0f)
+                  ? 0f
+                  : availableWidth - marginAxisRow,
+              parentWidth,
+              parentWidth);
+
+      node.mMeasuredDimensions[DIMENSION_HEIGHT] =
+          boundAxis(
+              node,
+              FLEX_DIRECTION_COLUMN,
+              isUndefined(availableHeight)
+                      || (heightMeasureMode == MEASURE_MODE_AT_MOST && availableHeight < 0f)
+                  ? 0f
+                  : availableHeight - marginAxisColumn,
+              parentHeight,
+              parentWidth);
+      return true;
+    }
+
+    return false;
+  }
+
+  private static float calculateAvailableInnerDim(
+      YogaJavaNode node, int axis, float availableDim, float parentDim) {
+    final int direction = isRow(axis) ? FLEX_DIRECTION_ROW : FLEX_DIRECTION_COLUMN;
+    final int dimension = isRow(axis) ? DIMENSION_WIDTH : DIMENSION_HEIGHT;
+
+    final float margin = node.getMarginForAxis(direction, parentDim);
+    final float paddingAndBorder = paddingAndBorderForAxis(node, direction, parentDim);
+
+    float availableInnerDim = availableDim - margin - paddingAndBorder;
+    // Max dimension overrides predefined dimension value; Min dimension in turn overrides both of
+    // the above
+    if (!isUndefined(availableInnerDim)) {
+      // We want to make sure our available height does not violate min and max constraints
+      final float minInnerDim =
+          isUndefined(resolveValue(node.mMinDimensions[dimension], parentDim))
+              ? 0f
+              : resolveValue(node.mMinDimensions[dimension], parentDim) - paddingAndBorder;
+      final float maxInnerDim =
+          resolveValue(node.mMaxDimensions[dimension], parentDim) - paddingAndBorder;
+      availableInnerDim = floatMax(floatMin(availableInnerDim, maxInnerDim), minInnerDim);
+    }
+
+    return availableInnerDim;
+  }
+
+  /** @return the total outer flex basis of the children. */
+  private float computeFlexBasisForChildren(
+      YogaJavaNode node,
+      float availableInnerWidth,
+      float availableInnerHeight,
+      int widthMeasureMode,
+      int heightMeasureMode,
+      int direction,
+      int mainAxis,
+      boolean performLayout) {
+    float totalOuterFlexBasis = 0;
+    YogaJavaNode singleFlexChild = null;
+    final int childCount = node.getChildCount();
+    final int measureModeMainDim = isRow(mainAxis) ? widthMeasureMode : heightMeasureMode;
+    // If there is only one child with flexGrow + flexShrink it means we can set the
+    // computedFlexBasis to 0 instead of measuring and shrinking / flexing the child to exactly
+    // match the remaining space
+    if (measureModeMainDim == MEASURE_MODE_EXACTLY) {
+      for (int i = 0; i < childCount; i++) {
+        final YogaJavaNode child = node.getChild(i);
+        if (singleFlexChild != null) {
+          if (child.isFlexible()) {
+            // There is already a flexible child, abort
+            singleFlexChild = null;
+            break;
+          }
+        } else if (child.resolveFlexGrow() > 0f && child.resolveFlexShrink() > 0f) {
+          singleFlexChild = child;
+        }
+      }
+    }
+
+    for (int i = 0; i < childCount; i++) {
+      final YogaJavaNode child = node.getChild(i);
+      child.resolveDimensions();
+      if (child.mDisplay == DISPLAY_NONE) {
+        child.zeroOutLayoutRecursively();
+        child.mHasNewLayout = true;
+        child.mIsDirty = false;
+        continue;
+      }
+      if (performLayout) {
+        // Set the initial position (relative to the parent).
+        final int childDirection = child.resolveDirection(direction);
+        final float mainDim = isRow(mainAxis) ? availableInnerWidth : availableInnerHeight;
+        final float crossDim = isRow(mainAxis) ? availableInnerHeight : availableInnerWidth;
+        child.setPosition(childDirection, mainDim, crossDim, availableInnerWidth);
+      }
+
+      if (child.mPositionType == POSITION_TYPE_ABSOLUTE) {
+        continue;
+      }
+      if (child == singleFlexChild) {
+        child.mComputedFlexBasisGeneration = mGenerationCount;
+        child.mComputedFlexBasis = 0;
+      } else {
+        computeFlexBasisForChild(
+            node,
+            child,
+            availableInnerWidth,
+            widthMeasureMode,
+            availableInnerHeight,
+            availableInnerWidth,
+            availableInnerHeight,
+            heightMeasureMode,
+            direction);
+      }
+
+      totalOuterFlexBasis +=
+          child.mComputedFlexBasis + child.getMarginForAxis(mainAxis, availableInnerWidth);
+    }
+
+    return totalOuterFlexBasis;
+  }
+
+  // This function assumes that all the children of node have their computedFlexBasis properly
+  // computed (to do this use computeFlexBasisForChildren).
+  private static void collectFlexItemsRowValues(
+      FlexLine line,
+      YogaJavaNode node,
+      int parentDirection,
+      float mainAxisParentSize,
+      float availableInnerWidth,
+      float availableInnerMainDim,
+      int startOfLineIndex,
+      int lineCount) {
+    line.reset();
+
+    float sizeConsumedOnCurrentLineIncludingMinConstraint = 0;
+    final int mainAxis =
+        resolveFlexDirection(node.mFlexDirection, node.resolveDirection(parentDirection));
+    final boolean isNodeFlexWrap = node.mFlexWrap != WRAP_NO_WRAP;
+
+    // Add items to the current line until it's full or we run out of items.
+    int endOfLineIndex = startOfLineIndex;
+    for (final int childCount = node.getChildCount(); endOfLineIndex < childCount;
+        endOfLineIndex++) {
+      final YogaJavaNode child = node.getChild(endOfLineIndex);
+      if (child.mDisplay == DISPLAY_NONE || child.mPositionType == POSITION_TYPE_ABSOLUTE) {
+        continue;
+      }
+      child.mLineIndex = lineCount;
+      final float childMarginMainAxis = child.getMarginForAxis(mainAxis, availableInnerWidth);
+      final float flexBasisWithMinAndMaxConstraints =
+          boundAxisWithinMinAndMax(child, mainAxis, child.mComputedFlexBasis, mainAxisParentSize);
+
+      // If this is a multi-line flow and this item pushes us over the available size, we've hit
+      // the end of the current line. Break out of the loop and lay out the current line.
+      if (sizeConsumedOnCurrentLineIncludingMinConstraint
+                  + flexBasisWithMinAndMaxConstraints
+                  + childMarginMainAxis
+              > availableInnerMainDim
+          && isNodeFlexWrap
+          && line.itemsOnLine > 0) {
+        break;
+      }
+
+      sizeConsumedOnCurrentLineIncludingMinConstraint +=
+          flexBasisWithMinAndMaxConstraints + childMarginMainAxis;
+      line.sizeConsumedOnCurrentLine += flexBasisWithMinAndMaxConstraints + childMarginMainAxis;
+      line.itemsOnLine++;
+
+      if (child.isFlexible()) {
+        line.totalFlexGrowFactors += child.resolveFlexGrow();
+
+        // Unlike the grow factor, the shrink factor is scaled relative to the child dimension.
+        line.totalFlexShrinkScaledFactors += -child.resolveFlexShrink() * child.mComputedFlexBasis;
+      }
+
+      line.relativeChildren.add(child);
+    }
+
+    // The total flex factor needs to be floored to 1.
+    if (line.totalFlexGrowFactors > 0 && line.totalFlexGrowFactors < 1) {
+      line.totalFlexGrowFactors = 1;
+    }
+
+    // The total flex shrink factor needs to be floored to 1.
+    if (line.totalFlexShrinkScaledFactors > 0 && line.totalFlexShrinkScaledFactors < 1) {
+      line.totalFlexShrinkScaledFactors = 1;
+    }
+    line.endOfLineIndex = endOfLineIndex;
+  }
+
+  // It distributes the free space to the flexible items and ensures that the size of the flex
+  // items abide the min and max constraints. At the end of this function the child nodes would
+  // have proper size. Prior using this function please ensure that distributeFreeSpaceFirstPass is
+  // called.
+  private float distributeFreeSpaceSecondPass(
+      FlexLine line,
+      YogaJavaNode node,
+      int mainAxis,
+      int crossAxis,
+      float mainAxisParentSize,
+      float availableInnerMainDim,
+      float availableInnerCrossDim,
+      float availableInnerWidth,
+      float availableInnerHeight,
+      boolean flexBasisOverflows,
+      int measureModeCrossDim,
+      boolean performLayout) {
+    float childFlexBasis;
+    float flexShrinkScaledFactor;
+    float flexGrowFactor;
+    float deltaFreeSpace = 0;
+    final boolean isMainAxisRow = isRow(mainAxis);
+    final boolean isNodeFlexWrap = node.mFlexWrap != WRAP_NO_WRAP;
+
+    for (int i = 0, size = line.relativeChildren.size(); i < size; i++) {
+      final YogaJavaNode currentRelativeChild = line.relativeChildren.get(i);
+      childFlexBasis =
+          boundAxisWithinMinAndMax(
+              currentRelativeChild,
+              mainAxis,
+              currentRelativeChild.mComputedFlexBasis,
+              mainAxisParentSize);
+      float updatedMainSize = childFlexBasis;
+
+      if (!isUndefined(line.remainingFreeSpace) && line.remainingFreeSpace < 0) {
+        flexShrinkScaledFactor = -currentRelativeChild.resolveFlexShrink() * childFlexBasis;
+        // Is this child able to shrink?
+        if (flexShrinkScaledFactor != 0) {
+          float childSize;
+
+          if (!isUndefined(line.totalFlexShrinkScaledFactors)
+              && line.totalFlexShrinkScaledFactors == 0) {
+            childSize = childFlexBasis + flexShrinkScaledFactor;
+          } else {
+            childSize =
+                childFlexBasis
+                    + (line.remainingFreeSpace / line.totalFlexShrinkScaledFactors)
+                        * flexShrinkScaledFactor;
+          }
+
+          updatedMainSize =
+              boundAxis(
+                  currentRelativeChild,
+                  mainAxis,
+                  childSize,
+                  availableInnerMainDim,
+                  availableInnerWidth);
+        }
+      } else if (!isUndefined(line.remainingFreeSpace) && line.remainingFreeSpace > 0) {
+        flexGrowFactor = currentRelativeChild.resolveFlexGrow();
+
+        // Is this child able to grow?
+        if (!isUndefined(flexGrowFactor) && flexGrowFactor != 0) {
+          updatedMainSize =
+              boundAxis(
+                  currentRelativeChild,
+                  mainAxis,
+                  childFlexBasis
+                      + line.remainingFreeSpace / line.totalFlexGrowFactors * flexGrowFactor,
+                  availableInnerMainDim,
+                  availableInnerWidth);
+        }
+      }
+
+      deltaFreeSpace += updatedMainSize - childFlexBasis;
+
+      final float marginMain = currentRelativeChild.getMarginForAxis(mainAxis, availableInnerWidth);
+      final float marginCross =
+          currentRelativeChild.getMarginForAxis(crossAxis, availableInnerWidth);
+
+      float childCrossSize;
+      float childMainSize = updatedMainSize + marginMain;
+      int childCrossMeasureMode;
+      int childMainMeasureMode = MEASURE_MODE_EXACTLY;
+
+      if (!isUndefined(currentRelativeChild.mAspectRatio)) {
+        childCrossSize =
+            isMainAxisRow
+                ? (childMainSize - marginMain) / currentRelativeChild.mAspectRatio
+                : (childMainSize - marginMain) * currentRelativeChild.mAspectRatio;
+        childCrossMeasureMode = MEASURE_MODE_EXACTLY;
+
+        childCrossSize += marginCross;
+      } else if (!isUndefined(availableInnerCrossDim)
+          && !isStyleDimDefined(currentRelativeChild, crossAxis, availableInnerCrossDim)
+          && measureModeCrossDim == MEASURE_MODE_EXACTLY
+          && !(isNodeFlexWrap && flexBasisOverflows)
+          && alignItem(node, currentRelativeChild) == ALIGN_STRETCH
+          && currentRelativeChild.marginLeadingValue(crossAxis).unit != YogaUnit.AUTO
+          && currentRelativeChild.marginTrailingValue(crossAxis).unit != YogaUnit.AUTO) {
+        childCrossSize = availableInnerCrossDim;
+        childCrossMeasureMode = MEASURE_MODE_EXACTLY;
+      } else if (!isStyleDimDefined(currentRelativeChild, crossAxis, availableInnerCrossDim)) {
+        childCrossSize = availableInnerCrossDim;
+        childCrossMeasureMode =
+            isUndefined(childCrossSize) ? MEASURE_MODE_UNDEFINED : MEASURE_MODE_AT_MOST;
+      } else {
+        childCrossSize =
+            resolveValue(
+                    currentRelativeChild.mResolvedDimensions[DIMENSION[crossAxis]],
+                    availableInnerCrossDim)
+                + marginCross;
+        final boolean isLoosePercentageMeasurement =
+            currentRelativeChild.mResolvedDimensions[DIMENSION[crossAxis]].unit
+                    == YogaUnit.PERCENT
+                && measureModeCrossDim != MEASURE_MODE_EXACTLY;
+        childCrossMeasureMode =
+            isUndefined(childCrossSize) || isLoosePercentageMeasurement
+                ? MEASURE_MODE_UNDEFINED
+                : MEASURE_MODE_EXACTLY;
+      }
+
+      constrainMaxSizeForMode(
+          currentRelativeChild,
+          mainAxis,
+          availableInnerMainDim,
+          availableInnerWidth,
+          childMainMeasureMode,
+          childMainSize);
+      childMainMeasureMode = mConstrainedMeasureMode;
+      childMainSize = mConstrainedSize;
+      constrainMaxSizeForMode(
+          currentRelativeChild,
+          crossAxis,
+          availableInnerCrossDim,
+          availableInnerWidth,
+          childCrossMeasureMode,
+          childCrossSize);
+      childCrossMeasureMode = mConstrainedMeasureMode;
+      childCrossSize = mConstrainedSize;
+
+      final boolean requiresStretchLayout =
+          !isStyleDimDefined(currentRelativeChild, crossAxis, availableInnerCrossDim)
+              && alignItem(node, currentRelativeChild) == ALIGN_STRETCH
+              && currentRelativeChild.marginLeadingValue(crossAxis).unit != YogaUnit.AUTO
+              && currentRelativeChild.marginTrailingValue(crossAxis).unit != YogaUnit.AUTO;
+
+      final float childWidth = isMainAxisRow ? childMainSize : childCrossSize;
+      final float childHeight = !isMainAxisRow ? childMainSize : childCrossSize;
+
+      final int childWidthMeasureMode =
+          isMainAxisRow ? childMainMeasureMode : childCrossMeasureMode;
+      final int childHeightMeasureMode =
+          !isMainAxisRow ? childMainMeasureMode : childCrossMeasureMode;
+
+      // Recursively call the layout algorithm for this child with the updated main size.
+      layoutNodeInternal(
+          currentRelativeChild,
+          childWidth,
+          childHeight,
+          node.mLayoutDirection,
+          childWidthMeasureMode,
+          childHeightMeasureMode,
+          availableInnerWidth,
+          availableInnerHeight,
+          performLayout && !requiresStretchLayout);
+      node.mHadOverflow |= currentRelativeChild.mHadOverflow;
+    }
+    return deltaFreeSpace;
+  }
+
+  // It distributes the free space to the flexible items. For those flexible items whose min and
+  // max constraints are triggered, those flex item's clamped size is removed from the
+  // remainingFreeSpace.
+  private static void distributeFreeSpaceFirstPass(
+      FlexLine line,
+      int mainAxis,
+      float mainAxisParentSize,
+      float availableInnerMainDim,
+      float availableInnerWidth) {
+    float flexShrinkScaledFactor;
+    float flexGrowFactor;
+    float baseMainSize;
+    float boundMainSize;
+    float deltaFreeSpace = 0;
+
+    for (int i = 0, size = line.relativeChildren.size(); i < size; i++) {
+      final YogaJavaNode currentRelativeChild = line.relativeChildren.get(i);
+      final float childFlexBasis =
+          boundAxisWithinMinAndMax(
+              currentRelativeChild,
+              mainAxis,
+              currentRelativeChild.mComputedFlexBasis,
+              mainAxisParentSize);
+
+      if (line.remainingFreeSpace < 0) {
+        flexShrinkScaledFactor = -currentRelativeChild.resolveFlexShrink() * childFlexBasis;
+
+        // Is this child able to shrink?
+        if (!isUndefined(flexShrinkScaledFactor) && flexShrinkScaledFactor != 0) {
+          baseMainSize =
+              childFlexBasis
+                  + line.remainingFreeSpace
+                      / line.totalFlexShrinkScaledFactors
+                      * flexShrinkScaledFactor;
+          boundMainSize =
+              boundAxis(
+                  currentRelativeChild,
+                  mainAxis,
+                  baseMainSize,
+                  availableInnerMainDim,
+                  availableInnerWidth);
+          if (!isUndefined(baseMainSize)
+              && !isUndefined(boundMainSize)
+              && baseMainSize != boundMainSize) {
+            // By excluding this item's size and flex factor from remaining, this item's min/max
+            // constraints should also trigger in the second pass resulting in the item's size
+            // calculation being identical in the first and second passes.
+            deltaFreeSpace += boundMainSize - childFlexBasis;
+            line.totalFlexShrinkScaledFactors -= flexShrinkScaledFactor;
+          }
+        }
+      } else if (!isUndefined(line.remainingFreeSpace) && line.remainingFreeSpace > 0) {
+        flexGrowFactor = currentRelativeChild.resolveFlexGrow();
+
+        // Is this child able to grow?
+        if (!isUndefined(flexGrowFactor) && flexGrowFactor != 0) {
+          baseMainSize =
+              childFlexBasis
+                  + line.remainingFreeSpace / line.totalFlexGrowFactors * flexGrowFactor;
+          boundMainSize =
+              boundAxis(
+                  currentRelativeChild,
+                  mainAxis,
+                  baseMainSize,
+                  availableInnerMainDim,
+                  availableInnerWidth);
+
+          if (!isUndefined(baseMainSize)
+              && !isUndefined(boundMainSize)
+              && baseMainSize != boundMainSize) {
+            // By excluding this item's size and flex factor from remaining, this item's min/max
+            // constraints should also trigger in the second pass resulting in the item's size
+            // calculation being identical in the first and second passes.
+            deltaFreeSpace += boundMainSize - childFlexBasis;
+            line.totalFlexGrowFactors -= flexGrowFactor;
+          }
+        }
+      }
+    }
+    line.remainingFreeSpace -= deltaFreeSpace;
+  }
+
+  // Do two passes over the flex items to figure out how to distribute the remaining space. The
+  // first pass finds the items whose min/max constraints trigger, freezes them at those sizes, and
+  // excludes those sizes from the remaining space. The second pass sets the size of each flexible
+  // item. It distributes the remaining space amongst the items whose min/max constraints didn't
+  // trigger in pass 1. For the other items, it sets their sizes by forcing their min/max
+  // constraints to trigger again. See YGResolveFlexibleLength for how this deviates from the spec.
+  private void resolveFlexibleLength(
+      YogaJavaNode node,
+      FlexLine line,
+      int mainAxis,
+      int crossAxis,
+      float mainAxisParentSize,
+      float availableInnerMainDim,
+      float availableInnerCrossDim,
+      float availableInnerWidth,
+      float availableInnerHeight,
+      boolean flexBasisOverflows,
+      int measureModeCrossDim,
+      boolean performLayout) {
+    final float originalFreeSpace = line.remainingFreeSpace;
+    // First pass: detect the flex items whose min/max constraints trigger
+    distributeFreeSpaceFirstPass(
+        line, mainAxis, mainAxisParentSize, availableInnerMainDim, availableInnerWidth);
+
+    // Second pass: resolve the sizes of the flexible items
+    final float distributedFreeSpace =
+        distributeFreeSpaceSecondPass(
+            line,
+            node,
+            mainAxis,
+            crossAxis,
+            mainAxisParentSize,
+            availableInnerMainDim,
+            availableInnerCrossDim,
+            availableInnerWidth,
+            availableInnerHeight,
+            flexBasisOverflows,
+            measureModeCrossDim,
+            performLayout);
+
+    line.remainingFreeSpace = originalFreeSpace - distributedFreeSpace;
+  }
+
+  private static void justifyMainAxis(
+      YogaJavaNode node,
+      FlexLine line,
+      int startOfLineIndex,
+      int mainAxis,
+      int crossAxis,
+      int measureModeMainDim,
+      int measureModeCrossDim,
+      float mainAxisParentSize,
+      float parentWidth,
+      float availableInnerMainDim,
+      float availableInnerCrossDim,
+      float availableInnerWidth,
+      boolean performLayout) {
+    // If we are using "at most" rules in the main axis. Calculate the remaining space when
+    // constraint by the min size defined for the main axis.
+    if (measureModeMainDim == MEASURE_MODE_AT_MOST && line.remainingFreeSpace > 0) {
+      final YogaValue minDimension = node.mMinDimensions[DIMENSION[mainAxis]];
+      if (minDimension.unit != YogaUnit.UNDEFINED
+          && !isUndefined(resolveValue(minDimension, mainAxisParentSize))) {
+        line.remainingFreeSpace =
+            floatMax(
+                0,
+                resolveValue(minDimension, mainAxisParentSize)
+                    - (availableInnerMainDim - line.remainingFreeSpace));
+      } else {
+        line.remainingFreeSpace = 0;
+      }
+    }
+
+    int numberOfAutoMarginsOnCurrentLine = 0;
+    for (int i = startOfLineIndex; i < line.endOfLineIndex; i++) {
+      final YogaJavaNode child = node.getChild(i);
+      if (child.mPositionType == POSITION_TYPE_RELATIVE) {
+        if (child.marginLeadingValue(mainAxis).unit == YogaUnit.AUTO) {
+          numberOfAutoMarginsOnCurrentLine++;
+        }
+        if (child.marginTrailingValue(mainAxis).unit == YogaUnit.AUTO) {
+          numberOfAutoMarginsOnCurrentLine++;
+        }
+      }
+    }
+
+    // In order to position the elements in the main axis, we have two controls. The space between
+    // the beginning and the first element and the space between each two elements.
+    float leadingMainDim = 0;
+    float betweenMainDim = 0;
+
+    if (numberOfAutoMarginsOnCurrentLine == 0) {
+      switch (node.mJustifyContent) {
+        case JUSTIFY_CENTER:
+          leadingMainDim = line.remainingFreeSpace / 2;
+          break;
+        case JUSTIFY_FLEX_END:
+          leadingMainDim = line.remainingFreeSpace;
+          break;
+        case JUSTIFY_SPACE_BETWEEN:
+          if (line.itemsOnLine > 1) {
+            betweenMainDim = floatMax(line.remainingFreeSpace, 0) / (line.itemsOnLine - 1);
+          } else {
+            betweenMainDim = 0;
+          }
+          break;
+        case JUSTIFY_SPACE_EVENLY:
+          // Space is distributed evenly across all elements
+          betweenMainDim = line.remainingFreeSpace / (line.itemsOnLine + 1);
+          leadingMainDim = betweenMainDim;
+          break;
+        case JUSTIFY_SPACE_AROUND:
+          // Space on the edges is half of the space between elements
+          betweenMainDim = line.remainingFreeSpace / line.itemsOnLine;
+          leadingMainDim = betweenMainDim / 2;
+          break;
+        default:
+          break;
+      }
+    }
+
+    final float leadingPaddingAndBorderMain =
+        node.getLeadingPaddingAndBorder(mainAxis, parentWidth);
+    line.mainDim = leadingPaddingAndBorderMain + leadingMainDim;
+    line.crossDim = 0;
+
+    for (int i = startOfLineIndex; i < line.endOfLineIndex; i++) {
+      final YogaJavaNode child = node.getChild(i);
+      if (child.mDisplay == DISPLAY_NONE) {
+        continue;
+      }
+      if (child.mPositionType == POSITION_TYPE_ABSOLUTE
+          && child.isLeadingPositionDefined(mainAxis)) {
+        if (performLayout) {
+          // In case the child is position absolute and has left/top being defined, we override
+          // the position to whatever the user said (and margin/border).
+          child.mLayoutPosition[LEADING[mainAxis]] =
+              child.getLeadingPosition(mainAxis, availableInnerMainDim)
+                  + node.getLeadingBorder(mainAxis)
+                  + child.getLeadingMargin(mainAxis, availableInnerWidth);
+        }
+      } else {
+        // Now that we placed the element, we need to update the variables. We need to do that
+        // only for relative elements. Absolute elements do not take part in that phase.
+        if (child.mPositionType == POSITION_TYPE_RELATIVE) {
+          if (child.marginLeadingValue(mainAxis).unit == YogaUnit.AUTO) {
+            line.mainDim += line.remainingFreeSpace / numberOfAutoMarginsOnCurrentLine;
+          }
+
+          if (performLayout) {
+            child.mLayoutPosition[LEADING[mainAxis]] += line.mainDim;
+          }
+
+          if (child.marginTrailingValue(mainAxis).unit == YogaUnit.AUTO) {
+            line.mainDim += line.remainingFreeSpace / numberOfAutoMarginsOnCurrentLine;
+          }
+          final boolean canSkipFlex =
+              !performLayout && measureModeCrossDim == MEASURE_MODE_EXACTLY;
+          if (canSkipFlex) {
+            // If we skipped the flex step, then we can't rely on the measuredDims because they
+            // weren't computed. This means we can't call dimWithMargin.
+            line.mainDim +=
+                betweenMainDim
+                    + child.getMarginForAxis(mainAxis, availableInnerWidth)
+                    + child.mComputedFlexBasis;
+            line.crossDim = availableInnerCrossDim;
+          } else {
+            // The main dimension is the sum of all the elements dimension plus the spacing.
+            line.mainDim += betweenMainDim + dimWithMargin(child, mainAxis, availableInnerWidth);
+
+            // The cross dimension is the max of the elements dimension since there can only be
+            // one element in that cross dimension.
+            line.crossDim =
+                floatMax(line.crossDim, dimWithMargin(child, crossAxis, availableInnerWidth));
+          }
+        } else if (performLayout) {
+          child.mLayoutPosition[LEADING[mainAxis]] +=
+              node.getLeadingBorder(mainAxis) + leadingMainDim;
+        }
+      }
+    }
+    line.mainDim += node.getTrailingPaddingAndBorder(mainAxis, parentWidth);
+  }
+
+  // The main routine of the algorithm, see YGNodelayoutImpl for a description of its parameters
+  // and of how it deviates from the flexbox spec.
+  private void layoutImpl(
+      YogaJavaNode node,
+      float availableWidth,
+      float availableHeight,
+      int parentDirection,
+      int widthMeasureMode,
+      int heightMeasureMode,
+      float parentWidth,
+      float parentHeight,
+      boolean performLayout) {
+    if (isUndefined(availableWidth) && widthMeasureMode != MEASURE_MODE_UNDEFINED) {
+      throw new IllegalStateException(
+          "availableWidth is indefinite so widthMeasureMode must be UNDEFINED");
+    }
+    if (isUndefined(availableHeight) && heightMeasureMode != MEASURE_MODE_UNDEFINED) {
+      throw new IllegalStateException(
+          "availableHeight is indefinite so heightMeasureMode must be UNDEFINED");
+    }
+
+    // Set the resolved resolution in the node's layout.
+    final int direction = node.resolveDirection(parentDirection);
+    node.mLayoutDirection = direction;
+
+    final int flexRowDirection = resolveFlexDirection(FLEX_DIRECTION_ROW, direction);
+    final int flexColumnDirection = resolveFlexDirection(FLEX_DIRECTION_COLUMN, direction);
+
+    node.mLayoutMargin[EDGE_START] = node.getLeadingMargin(flexRowDirection, parentWidth);
+    node.mLayoutMargin[EDGE_END] = node.getTrailingMargin(flexRowDirection, parentWidth);
+    node.mLayoutMargin[EDGE_TOP] = node.getLeadingMargin(flexColumnDirection, parentWidth);
+    node.mLayoutMargin[EDGE_BOTTOM] = node.getTrailingMargin(flexColumnDirection, parentWidth);
+
+    node.mLayoutBorder[EDGE_START] = node.getLeadingBorder(flexRowDirection);
+    node.mLayoutBorder[EDGE_END] = node.getTrailingBorder(flexRowDirection);
+    node.mLayoutBorder[EDGE_TOP] = node.getLeadingBorder(flexColumnDirection);
+    node.mLayoutBorder[EDGE_BOTTOM] = node.getTrailingBorder(flexColumnDirection);
+
+    node.mLayoutPadding[EDGE_START] = node.getLeadingPadding(flexRowDirection, parentWidth);
+    node.mLayoutPadding[EDGE_END] = node.getTrailingPadding(flexRowDirection, parentWidth);
+    node.mLayoutPadding[EDGE_TOP] = node.getLeadingPadding(flexColumnDirection, parentWidth);
+    node.mLayoutPadding[EDGE_BOTTOM] = node.getTrailingPadding(flexColumnDirection, parentWidth);
+
+    if (node.hasMeasureFunction()) {
+      withMeasureFuncSetMeasuredDimensions(
+          node,
+          availableWidth,
+          availableHeight,
+          widthMeasureMode,
+          heightMeasureMode,
+          parentWidth,
+          parentHeight);
+      return;
+    }
+
+    final int childCount = node.getChildCount();
+    if (childCount == 0) {
+      emptyContainerSetMeasuredDimensions(
+          node,
+          availableWidth,
+          availableHeight,
+          widthMeasureMode,
+          heightMeasureMode,
+          parentWidth,
+          parentHeight);
+      return;
+    }
+
+    // If we're not being asked to perform a full layout we can skip the algorithm if we already
+    // know the size
+    if (!performLayout
+        && fixedSizeSetMeasuredDimensions(
+            node,
+            availableWidth,
+            availableHeight,
+            widthMeasureMode,
+            heightMeasureMode,
+            parentWidth,
+            parentHeight)) {
+      return;
+    }
+
+    // At this point we know we're going to perform work. Ensure that each child has a mutable
+    // copy.
+    node.mNode.cloneChildrenIfNeeded();
+    // Reset layout flags, as they could have changed.
+    node.mHadOverflow = false;
+
+    // STEP 1: CALCULATE VALUES FOR REMAINDER OF ALGORITHM
+    final int mainAxis = resolveFlexDirection(node.mFlexDirection, direction);
+    final int crossAxis = crossFlexDirection(mainAxis, direction);
+    final boolean isMainAxisRow = isRow(mainAxis);
+    final boolean isNodeFlexWrap = node.mFlexWrap != WRAP_NO_WRAP;
+
+    final float mainAxisParentSize = isMainAxisRow ? parentWidth : parentHeight;
+    final float crossAxisParentSize = isMainAxisRow ? parentHeight : parentWidth;
+
+    final float leadingPaddingAndBorderCross =
+        node.getLeadingPaddingAndBorder(crossAxis, parentWidth);
+    final float paddingAndBorderAxisMain = paddingAndBorderForAxis(node, mainAxis, parentWidth);
+    final float paddingAndBorderAxisCross = paddingAndBorderForAxis(node, crossAxis, parentWidth);
+
+    int measureModeMainDim = isMainAxisRow ? widthMeasureMode : heightMeasureMode;
+    final int measureModeCrossDim = isMainAxisRow ? heightMeasureMode : widthMeasureMode;
+
+    final float paddingAndBorderAxisRow =
+        isMainAxisRow ? paddingAndBorderAxisMain : paddingAndBorderAxisCross;
+    final float paddingAndBorderAxisColumn =
+        isMainAxisRow ? paddingAndBorderAxisCross : paddingAndBorderAxisMain;
+
+    final float marginAxisRow = node.getMarginForAxis(FLEX_DIRECTION_ROW, parentWidth);
+    final float marginAxisColumn = node.getMarginForAxis(FLEX_DIRECTION_COLUMN, parentWidth);
+
+    final float minInnerWidth =
+        resolveValue(node.mMinDimensions[DIMENSION_WIDTH], parentWidth) - paddingAndBorderAxisRow;
+    final float maxInnerWidth =
+        resolveValue(node.mMaxDimensions[DIMENSION_WIDTH], parentWidth) - paddingAndBorderAxisRow;
+    final float minInnerHeight =
+        resolveValue(node.mMinDimensions[DIMENSION_HEIGHT], parentHeight)
+            - paddingAndBorderAxisColumn;
+    final float maxInnerHeight =
+        resolveValue(node.mMaxDimensions[DIMENSION_HEIGHT], parentHeight)
+            - paddingAndBorderAxisColumn;
+
+    final float minInnerMainDim = isMainAxisRow ? minInnerWidth : minInnerHeight;
+    final float maxInnerMainDim = isMainAxisRow ? maxInnerWidth : maxInnerHeight;
+
+    // STEP 2: DETERMINE AVAILABLE SIZE IN MAIN AND CROSS DIRECTIONS
+
+    final float availableInnerWidth =
+        calculateAvailableInnerDim(node, FLEX_DIRECTION_ROW, availableWidth, parentWidth);
+    final float availableInnerHeight =
+        calculateAvailableInnerDim(node, FLEX_DIRECTION_COLUMN, availableHeight, parentHeight);
+
+    float availableInnerMainDim = isMainAxisRow ? availableInnerWidth : availableInnerHeight;
+    final float availableInnerCrossDim =
+        isMainAxisRow ? availableInnerHeight : availableInnerWidth;
+
+    // STEP 3: DETERMINE FLEX BASIS FOR EACH ITEM
+
+    final float totalOuterFlexBasis =
+        computeFlexBasisForChildren(
+            node,
+            availableInnerWidth,
+            availableInnerHeight,
+            widthMeasureMode,
+            heightMeasureMode,
+            direction,
+            mainAxis,
+            performLayout);
+
+    final boolean flexBasisOverflows =
+        measureModeMainDim == MEASURE_MODE_UNDEFINED
+            ? false
+            : totalOuterFlexBasis > availableInnerMainDim;
+    if (isNodeFlexWrap && flexBasisOverflows && measureModeMainDim == MEASURE_MODE_AT_MOST) {
+      measureModeMainDim = MEASURE_MODE_EXACTLY;
+    }
+    // STEP 4: COLLECT FLEX ITEMS INTO FLEX LINES
+
+    // Indexes of children that represent the first and last items in the line.
+    int startOfLineIndex = 0;
+    int endOfLineIndex = 0;
+
+    // Number of lines.
+    int lineCount = 0;
+
+    // Accumulated cross dimensions of all lines so far.
+    float totalLineCrossDim = 0;
+
+    // Max main dimension of all the lines.
+    float maxLineMainDim = 0;
+    final FlexLine line = new FlexLine();
+    for (; endOfLineIndex < childCount; lineCount++, startOfLineIndex = endOfLineIndex) {
+      collectFlexItemsRowValues(
+          line,
+          node,
+          parentDirection,
+          mainAxisParentSize,
+          availableInnerWidth,
+          availableInnerMainDim,
+          startOfLineIndex,
+          lineCount);
+      endOfLineIndex = line.endOfLineIndex;
+
+      // If we don't need to measure the cross axis, we can skip the entire flex step.
+      final boolean canSkipFlex = !performLayout && measureModeCrossDim == MEASURE_MODE_EXACTLY;
+
+      // STEP 5: RESOLVING FLEXIBLE LENGTHS ON MAIN AXIS
+      // Calculate the remaining available space that needs to be allocated. If the main dimension
+      // size isn't known, it is computed based on the line length, so there's no more space left
+      // to distribute.
+
+      boolean sizeBasedOnContent = false;
+      // If we don't measure with exact main dimension we want to ensure we don't violate min and
+      // max
+      if (measureModeMainDim != MEASURE_MODE_EXACTLY) {
+        if (!isUndefined(minInnerMainDim) && line.sizeConsumedOnCurrentLine < minInnerMainDim) {
+          availableInnerMainDim = minInnerMainDim;
+        } else if (!isUndefined(maxInnerMainDim)
+            && line.sizeConsumedOnCurrentLine > maxInnerMainDim) {
+          availableInnerMainDim = maxInnerMainDim;
+        } else {
+          // The native condition can never be true, it is kept as is so that both layouts match.
+          if (!node.mConfig.mUseLegacyStretchBehaviour
+              && ((isUndefined(line.totalFlexGrowFactors) && line.totalFlexGrowFactors == 0)
+                  || (isUndefined(node.resolveFlexGrow()) && node.resolveFlexGrow() == 0))) {
+            // If we don't have any children to flex or we can't flex the node itself, space we've
+            // used is all space we need. Root node also should be shrunk to minimum
+            availableInnerMainDim = line.sizeConsumedOnCurrentLine;
+          }
+
+          sizeBasedOnContent = !node.mConfig.mUseLegacyStretchBehaviour;
+        }
+      }
+
+      if (!sizeBasedOnContent && !isUndefined(availableInnerMainDim)) {
+        line.remainingFreeSpace = availableInnerMainDim - line.sizeConsumedOnCurrentLine;
+      } else if (line.sizeConsumedOnCurrentLine < 0) {
+        // availableInnerMainDim is indefinite which means the node is being sized based on its
+        // content. sizeConsumedOnCurrentLine is negative which means the node will allocate 0
+        // points for its content. Consequently, remainingFreeSpace is 0 -
+        // sizeConsumedOnCurrentLine.
+        line.remainingFreeSpace = -line.sizeConsumedOnCurrentLine;
+      }
+
+      if (!canSkipFlex) {
+        resolveFlexibleLength(
+            node,
+            line,
+            mainAxis,
+            crossAxis,
+            mainAxisParentSize,
+            availableInnerMainDim,
+            availableInnerCrossDim,
+            availableInnerWidth,
+            availableInnerHeight,
+            flexBasisOverflows,
+            measureModeCrossDim,
+            performLayout);
+      }
+
+      node.mHadOverflow |= line.remainingFreeSpace < 0;
+
+      // STEP 6: MAIN-AXIS JUSTIFICATION & CROSS-AXIS SIZE DETERMINATION
+
+      // At this point, all the children have their dimensions set in the main axis. Their
+      // dimensions are also set in the cross axis with the exception of items that are aligned
+      // "stretch". We need to compute these stretch values and set the final positions.
+
+      justifyMainAxis(
+          node,
+          line,
+          startOfLineIndex,
+          mainAxis,
+          crossAxis,
+          measureModeMainDim,
+          measureModeCrossDim,
+          mainAxisParentSize,
+          parentWidth,
+          availableInnerMainDim,
+          availableInnerCrossDim,
+          availableInnerWidth,
+          performLayout);
+
+      float containerCrossAxis = availableInnerCrossDim;
+      if (measureModeCrossDim == MEASURE_MODE_UNDEFINED
+          || measureModeCrossDim == MEASURE_MODE_AT_MOST) {
+        // Compute the cross axis from the max cross dimension of the children.
+        containerCrossAxis =
+            boundAxis(
+                    node,
+                    crossAxis,
+                    line.crossDim + paddingAndBorderAxisCross,
+                    crossAxisParentSize,
+                    parentWidth)
+                - paddingAndBorderAxisCross;
+      }
+
+      // If there's no flex wrap, the cross dimension is defined by the container.
+      if (!isNodeFlexWrap && measureModeCrossDim == MEASURE_MODE_EXACTLY) {
+        line.crossDim = availableInnerCrossDim;
+      }
+
+      // Clamp to the min/max size specified on the container.
+      line.crossDim =
+          boundAxis(
+                  node,
+                  crossAxis,
+                  line.crossDim + paddingAndBorderAxisCross,
+                  crossAxisParentSize,
+                  parentWidth)
+              - paddingAndBorderAxisCross;
+
+      // STEP 7: CROSS-AXIS ALIGNMENT
+      // We can skip child alignment if we're just measuring the container.
+      if (performLayout) {
+        for (int i = startOfLineIndex; i < endOfLineIndex; i++) {
+          final YogaJavaNode child = node.getChild(i);
+          if (child.mDisplay == DISPLAY_NONE) {
+            continue;
+          }
+          if (child.mPositionType == POSITION_TYPE_ABSOLUTE) {
+            // If the child is absolutely positioned and has a top/left/bottom/right set, override
+            // all the previously computed positions to set it correctly.
+            final boolean isChildLeadingPosDefined = child.isLeadingPositionDefined(crossAxis);
+            if (isChildLeadingPosDefined) {
+              child.mLayoutPosition[LEADING[crossAxis]] =
+                  child.getLeadingPosition(crossAxis, availableInnerCrossDim)
+                      + node.getLeadingBorder(crossAxis)
+                      + child.getLeadingMargin(crossAxis, availableInnerWidth);
+            }
+            // If leading position is not defined or calculations result in Nan, default to
+            // border + margin
+            if (!isChildLeadingPosDefined
+                || isUndefined(child.mLayoutPosition[LEADING[crossAxis]])) {
+              child.mLayoutPosition[LEADING[crossAxis]] =
+                  node.getLeadingBorder(crossAxis)
+                      + child.getLeadingMargin(crossAxis, availableInnerWidth);
+            }
+          } else {
+            float leadingCrossDim = leadingPaddingAndBorderCross;
+
+            // For a relative children, we're either using alignItems (parent) or alignSelf
+            // (child) in order to determine the position in the cross axis
+            final int alignItem = alignItem(node, child);
+
+            // If the child uses align stretch, we need to lay it out one more time, this time
+            // forcing the cross-axis size to be the computed cross size for the current line.
+            if (alignItem == ALIGN_STRETCH
+                && child.marginLeadingValue(crossAxis).unit != YogaUnit.AUTO
+                && child.marginTrailingValue(crossAxis).unit != YogaUnit.AUTO) {
+              // If the child defines a definite size for its cross axis, there's no need to
+              // stretch.
+              if (!isStyleDimDefined(child, crossAxis, availableInnerCrossDim)) {
+                float childMainSize = child.mMeasuredDimensions[DIMENSION[mainAxis]];
+                float childCrossSize =
+                    !isUndefined(child.mAspectRatio)
+                        ? ((child.getMarginForAxis(crossAxis, availableInnerWidth)
+                            + (isMainAxisRow
+                                ? childMainSize / child.mAspectRatio
+                                : childMainSize * child.mAspectRatio)))
+                        : line.crossDim;
+
+                childMainSize += child.getMarginForAxis(mainAxis, availableInnerWidth);
+
+                constrainMaxSizeForMode(
+                    child,
+                    mainAxis,
+                    availableInnerMainDim,
+                    availableInnerWidth,
+                    MEASURE_MODE_EXACTLY,
+                    childMainSize);
+                childMainSize = mConstrainedSize;
+                constrainMaxSizeForMode(
+                    child,
+                    crossAxis,
+                    availableInnerCrossDim,
+                    availableInnerWidth,
+                    MEASURE_MODE_EXACTLY,
+                    childCrossSize);
+                childCrossSize = mConstrainedSize;
+
+                final float childWidth = isMainAxisRow ? childMainSize : childCrossSize;
+                final float childHeight = !isMainAxisRow ? childMainSize : childCrossSize;
+
+                final int childWidthMeasureMode =
+                    isUndefined(childWidth) ? MEASURE_MODE_UNDEFINED : MEASURE_MODE_EXACTLY;
+                final int childHeightMeasureMode =
+                    isUndefined(childHeight) ? MEASURE_MODE_UNDEFINED : MEASURE_MODE_EXACTLY;
+
+                layoutNodeInternal(
+                    child,
+                    childWidth,
+                    childHeight,
+                    direction,
+                    childWidthMeasureMode,
+                    childHeightMeasureMode,
+                    availableInnerWidth,
+                    availableInnerHeight,
+                    true);
+              }
+            } else {
+              final float remainingCrossDim =
+                  containerCrossAxis - dimWithMargin(child, crossAxis, availableInnerWidth);
+
+              if (child.marginLeadingValue(crossAxis).unit == YogaUnit.AUTO
+                  && child.marginTrailingValue(crossAxis).unit == YogaUnit.AUTO) {
+                leadingCrossDim += floatMax(0f, remainingCrossDim / 2);
+              } else if (child.marginTrailingValue(crossAxis).unit == YogaUnit.AUTO) {
+                // No-Op
+              } else if (child.marginLeadingValue(crossAxis).unit == YogaUnit.AUTO) {
+                leadingCrossDim += floatMax(0f, remainingCrossDim);
+              } else if (alignItem == ALIGN_FLEX_START) {
+                // No-Op
+              } else if (alignItem == ALIGN_CENTER) {
+                leadingCrossDim += remainingCrossDim / 2;
+              } else {
+                leadingCrossDim += remainingCrossDim;
+              }
+            }
+            // And we apply the position
+            child.mLayoutPosition[LEADING[crossAxis]] += totalLineCrossDim + leadingCrossDim;
+          }
+        }
+      }
+
+      totalLineCrossDim += line.crossDim;
+      maxLineMainDim = floatMax(maxLineMainDim, line.mainDim);
+    }
+
+    // STEP 8: MULTI-LINE CONTENT ALIGNMENT
+    if (performLayout
+        && (lineCount > 1 || isBaselineLayout(node))
+        && !isUndefined(availableInnerCrossDim)) {
+      final float remainingAlignContentDim = availableInnerCrossDim - totalLineCrossDim;
+
+      float crossDimLead = 0;
+      float currentLead = leadingPaddingAndBorderCross;
+
+      switch (node.mAlignContent) {
+        case ALIGN_FLEX_END:
+          currentLead += remainingAlignContentDim;
+          break;
+        case ALIGN_CENTER:
+          currentLead += remainingAlignContentDim / 2;
+          break;
+        case ALIGN_STRETCH:
+          if (availableInnerCrossDim > totalLineCrossDim) {
+            crossDimLead = remainingAlignContentDim / lineCount;
+          }
+          break;
+        case ALIGN_SPACE_AROUND:
+          if (availableInnerCrossDim > totalLineCrossDim) {
+            currentLead += remainingAlignContentDim / (2 * lineCount);
+            if (lineCount > 1) {
+              crossDimLead = remainingAlignContentDim / lineCount;
+            }
+          } else {
+            currentLead += remainingAlignContentDim / 2;
+          }
+          break;
+        case ALIGN_SPACE_BETWEEN:
+          if (availableInnerCrossDim > totalLineCrossDim && lineCount > 1) {
+            crossDimLead = remainingAlignContentDim / (lineCount - 1);
+          }
+          break;
+        default:
+          break;
+      }
+
+      int endIndex = 0;
+      for (int i = 0; i < lineCount; i++) {
+        final int startIndex = endIndex;
+        int ii;
+
+        // compute the line's height and find the endIndex
+        float lineHeight = 0;
+        float maxAscentForCurrentLine = 0;
+        float maxDescentForCurrentLine = 0;
+        for (ii = startIndex; ii < childCount; ii++) {
+          final YogaJavaNode child = node.getChild(ii);
+          if (child.mDisplay == DISPLAY_NONE) {
+            continue;
+          }
+          if (child.mPositionType == POSITION_TYPE_RELATIVE) {
+            if (child.mLineIndex != i) {
+              break;
+            }
+            if (isLayoutDimDefined(child, crossAxis)) {
+              lineHeight =
+                  floatMax(
+                      lineHeight,
+                      child.mMeasuredDimensions[DIMENSION[crossAxis]]
+                          + child.getMarginForAxis(crossAxis, availableInnerWidth));
+            }
+            if (alignItem(node, child) == ALIGN_BASELINE) {
+              final float ascent =
+                  baseline(child)
+                      + child.getLeadingMargin(FLEX_DIRECTION_COLUMN, availableInnerWidth);
+              final float descent =
+                  child.mMeasuredDimensions[DIMENSION_HEIGHT]
+                      + child.getMarginForAxis(FLEX_DIRECTION_COLUMN, availableInnerWidth)
+                      - ascent;
+              maxAscentForCurrentLine = floatMax(maxAscentForCurrentLine, ascent);
+              maxDescentForCurrentLine = floatMax(maxDescentForCurrentLine, descent);
+              lineHeight =
+                  floatMax(lineHeight, maxAscentForCurrentLine + maxDescentForCurrentLine);
+            }
+          }
+        }
+        endIndex = ii;
+        lineHeight += crossDimLead;
+
+        if (performLayout) {
+          for (ii = startIndex; ii < endIndex; ii++) {
+            final YogaJavaNode child = node.getChild(ii);
+            if (child.mDisplay == DISPLAY_NONE) {
+              continue;
+            }
+            if (child.mPositionType == POSITION_TYPE_RELATIVE) {
+              switch (alignItem(node, child)) {
+                case ALIGN_FLEX_START:
+                  child.mLayoutPosition[LEADING[crossAxis]] =
+                      currentLead + child.getLeadingMargin(crossAxis, availableInnerWidth);
+                  break;
+                case ALIGN_FLEX_END:
+                  child.mLayoutPosition[LEADING[crossAxis]] =
+                      currentLead
+                          + lineHeight
+                          - child.getTrailingMargin(crossAxis, availableInnerWidth)
+                          - child.mMeasuredDimensions[DIMENSION[crossAxis]];
+                  break;
+                case ALIGN_CENTER:
+                  final float childHeight = child.mMeasuredDimensions[DIMENSION[crossAxis]];
+                  child.mLayoutPosition[LEADING[crossAxis]] =
+                      currentLead + (lineHeight - childHeight) / 2;
+                  break;
+                case ALIGN_STRETCH:
+                  child.mLayoutPosition[LEADING[crossAxis]] =
+                      currentLead + child.getLeadingMargin(crossAxis, availableInnerWidth);
+
+                  // Remeasure child with the line height as it as been only measured with the
+                  // parents height yet.
+                  if (!isStyleDimDefined(child, crossAxis, availableInnerCrossDim)) {
+                    final float childWidth =
+                        isMainAxisRow
+                            ? (child.mMeasuredDimensions[DIMENSION_WIDTH]
+                                + child.getMarginForAxis(mainAxis, availableInnerWidth))
+                            : lineHeight;
+
+                    final float stretchedChildHeight =
+                        !isMainAxisRow
+                            ? (child.mMeasuredDimensions[DIMENSION_HEIGHT]
+                                + child.getMarginForAxis(crossAxis, availableInnerWidth))
+                            : lineHeight;
+
+                    if (!(floatsEqual(childWidth, child.mMeasuredDimensions[DIMENSION_WIDTH])
+                        && floatsEqual(
+                            stretchedChildHeight, child.mMeasuredDimensions[DIMENSION_HEIGHT]))) {
+                      layoutNodeInternal(
+                          child,
+                          childWidth,
+                          stretchedChildHeight,
+                          direction,
+                          MEASURE_MODE_EXACTLY,
+                          MEASURE_MODE_EXACTLY,
+                          availableInnerWidth,
+                          availableInnerHeight,
+                          true);
+                    }
+                  }
+                  break;
+                case ALIGN_BASELINE:
+                  child.mLayoutPosition[EDGE_TOP] =
+                      currentLead
+                          + maxAscentForCurrentLine
+                          - baseline(child)
+                          + child.getLeadingPosition(FLEX_DIRECTION_COLUMN, availableInnerCrossDim);
+                  break;
+                default:
+                  break;
+              }
+            }
+          }
+        }
+
+        currentLead += lineHeight;
+      }
+    }
+
+    // STEP 9: COMPUTING FINAL DIMENSIONS
+
+    node.mMeasuredDimensions[DIMENSION_WIDTH] =
+        boundAxis(
+            node, FLEX_DIRECTION_ROW, availableWidth - marginAxisRow, parentWidth, parentWidth);
+
+    node.mMeasuredDimensions[DIMENSION_HEIGHT] =
+        boundAxis(
+            node,
+            FLEX_DIRECTION_COLUMN,
+            availableHeight - marginAxisColumn,
+            parentHeight,
+            parentWidth);
+
+    // If the user didn't specify a width or height for the node, set the dimensions based on the
+    // children.
+    if (measureModeMainDim == MEASURE_MODE_UNDEFINED
+        || (node.mOverflow != OVERFLOW_SCROLL && measureModeMainDim == MEASURE_MODE_AT_MOST)) {
+      // Clamp the size to the min/max size, if specified, and make sure it doesn't go below the
+      // padding and border amount.
+      node.mMeasuredDimensions[DIMENSION[mainAxis]] =
+          boundAxis(node, mainAxis, maxLineMainDim, mainAxisParentSize, parentWidth);
+
+    } else if (measureModeMainDim == MEASURE_MODE_AT_MOST && node.mOverflow == OVERFLOW_SCROLL) {
+      node.mMeasuredDimensions[DIMENSION[mainAxis]] =
+          floatMax(
+              floatMin(
+                  availableInnerMainDim + paddingAndBorderAxisMain,
+                  boundAxisWithinMinAndMax(node, mainAxis, maxLineMainDim, mainAxisParentSize)),
+              paddingAndBorderAxisMain);
+    }
+
+    if (measureModeCrossDim == MEASURE_MODE_UNDEFINED
+        || (node.mOverflow != OVERFLOW_SCROLL && measureModeCrossDim == MEASURE_MODE_AT_MOST)) {
+      // Clamp the size to the min/max size, if specified, and make sure it doesn't go below the
+      // padding and border amount.
+      node.mMeasuredDimensions[DIMENSION[crossAxis]] =
+          boundAxis(
+              node,
+              crossAxis,
+              totalLineCrossDim + paddingAndBorderAxisCross,
+              crossAxisParentSize,
+              parentWidth);
+
+    } else if (measureModeCrossDim == MEASURE_MODE_AT_MOST && node.mOverflow == OVERFLOW_SCROLL) {
+      node.mMeasuredDimensions[DIMENSION[crossAxis]] =
+          floatMax(
+              floatMin(
+                  availableInnerCrossDim + paddingAndBorderAxisCross,
+                  boundAxisWithinMinAndMax(
+                      node,
+                      crossAxis,
+                      totalLineCrossDim + paddingAndBorderAxisCross,
+                      crossAxisParentSize)),
+              paddingAndBorderAxisCross);
+    }
+
+    // As we only wrapped in normal direction yet, we need to reverse the positions on
+    // wrap-reverse.
+    if (performLayout && node.mFlexWrap == WRAP_WRAP_REVERSE) {
+      for (int i = 0; i < childCount; i++) {
+        final YogaJavaNode child = node.getChild(i);
+        if (child.mPositionType == POSITION_TYPE_RELATIVE) {
+          child.mLayoutPosition[LEADING[crossAxis]] =
+              node.mMeasuredDimensions[DIMENSION[crossAxis]]
+                  - child.mLayoutPosition[LEADING[crossAxis]]
+                  - child.mMeasuredDimensions[DIMENSION[crossAxis]];
+        }
+      }
+    }
+
+    if (performLayout) {
+      // STEP 10: SIZING AND POSITIONING ABSOLUTE CHILDREN
+      for (int i = 0; i < childCount; i++) {
+        final YogaJavaNode child = node.getChild(i);
+        if (child.mPositionType != POSITION_TYPE_ABSOLUTE) {
+          continue;
+        }
+        absoluteLayoutChild(
+            node,
+            child,
+            availableInnerWidth,
+            isMainAxisRow ? measureModeMainDim : measureModeCrossDim,
+            availableInnerHeight,
+            direction);
+      }
+
+      // STEP 11: SETTING TRAILING POSITIONS FOR CHILDREN
+      final boolean needsMainTrailingPos =
+          mainAxis == FLEX_DIRECTION_ROW_REVERSE || mainAxis == FLEX_DIRECTION_COLUMN_REVERSE;
+      final boolean needsCrossTrailingPos =
+          crossAxis == FLEX_DIRECTION_ROW_REVERSE || crossAxis == FLEX_DIRECTION_COLUMN_REVERSE;
+
+      // Set trailing position if necessary.
+      if (needsMainTrailingPos || needsCrossTrailingPos) {
+        for (int i = 0; i < childCount; i++) {
+          final YogaJavaNode child = node.getChild(i);
+          if (child.mDisplay == DISPLAY_NONE) {
+            continue;
+          }
+          if (needsMainTrailingPos) {
+            setChildTrailingPosition(node, child, mainAxis);
+          }
+
+          if (needsCrossTrailingPos) {
+            setChildTrailingPosition(node, child, crossAxis);
+          }
+        }
+      }
+    }
+  }
+
+  private static boolean measureModeSizeIsExactAndMatchesOldMeasuredSize(
+      int sizeMode, float size, float lastComputedSize) {
+    return sizeMode == MEASURE_MODE_EXACTLY && floatsEqual(size, lastComputedSize);
+  }
+
+  private static boolean measureModeOldSizeIsUnspecifiedAndStillFits(
+      int sizeMode, float size, int lastSizeMode, float lastComputedSize) {
+    return sizeMode == MEASURE_MODE_AT_MOST
+        && lastSizeMode == MEASURE_MODE_UNDEFINED
+        && (size >= lastComputedSize || floatsEqual(size, lastComputedSize));
+  }
+
+  private static boolean measureModeNewMeasureSizeIsStricterAndStillValid(
+      int sizeMode, float size, int lastSizeMode, float lastSize, float lastComputedSize) {
+    return lastSizeMode == MEASURE_MODE_AT_MOST
+        && sizeMode == MEASURE_MODE_AT_MOST
+        && !isUndefined(lastSize)
+        && !isUndefined(size)
+        && !isUndefined(lastComputedSize)
+        && lastSize > size
+        && (lastComputedSize <= size || floatsEqual(size, lastComputedSize));
+  }
+
+  static float roundValueToPixelGrid(
+      float value, float pointScaleFactor, boolean forceCeil, boolean forceFloor) {
+    float scaledValue = value * pointScaleFactor;
+    final float fractial = scaledValue % 1.0f;
+    if (floatsEqual(fractial, 0)) {
+      // First we check if the value is already rounded
+      scaledValue = scaledValue - fractial;
+    } else if (floatsEqual(fractial, 1.0f)) {
+      scaledValue = (float) (scaledValue - fractial + 1.0);
+    } else if (forceCeil) {
+      // Next we check if we need to use forced rounding
+      scaledValue = scaledValue - fractial + 1.0f;
+    } else if (forceFloor) {
+      scaledValue = scaledValue - fractial;
+    } else {
+      // Finally we just round the value
+      scaledValue =
+          scaledValue
+              - fractial
+              + (!isUndefined(fractial) && (fractial > 0.5f || floatsEqual(fractial, 0.5f))
+                  ? 1.0f
+                  : 0.0f);
+    }
+    return (isUndefined(scaledValue) || isUndefined(pointScaleFactor))
+        ? UNDEFINED
+        : scaledValue / pointScaleFactor;
+  }
+
+  private boolean canUseCachedMeasurement(
+      int widthMode,
+      float width,
+      int heightMode,
+      float height,
+      YogaJavaNode.CachedMeasurement cachedMeasurement,
+      float marginRow,
+      float marginColumn) {
+    final int lastWidthMode = cachedMeasurement.widthMeasureMode;
+    final float lastWidth = cachedMeasurement.availableWidth;
+    final int lastHeightMode = cachedMeasurement.heightMeasureMode;
+    final float lastHeight = cachedMeasurement.availableHeight;
+    final float lastComputedWidth = cachedMeasurement.computedWidth;
+    final float lastComputedHeight = cachedMeasurement.computedHeight;
+
+    if ((!isUndefined(lastComputedHeight) && lastComputedHeight < 0)
+        || (!isUndefined(lastComputedWidth) && lastComputedWidth < 0)) {
+      return false;
+    }
+    final float pointScaleFactor = mConfig.mPointScaleFactor;
+    final boolean useRoundedComparison = pointScaleFactor != 0;
+    final float effectiveWidth =
+        useRoundedComparison
+            ? roundValueToPixelGrid(width, pointScaleFactor, false, false)
+            : width;
+    final float effectiveHeight =
+        useRoundedComparison
+            ? roundValueToPixelGrid(height, pointScaleFactor, false, false)
+            : height;
+    final float effectiveLastWidth =
+        useRoundedComparison
+            ? roundValueToPixelGrid(lastWidth, pointScaleFactor, false, false)
+            : lastWidth;
+    final float effectiveLastHeight =
+        useRoundedComparison
+            ? roundValueToPixelGrid(lastHeight, pointScaleFactor, false, false)
+            : lastHeight;
+
+    final boolean hasSameWidthSpec =
+        lastWidthMode == widthMode && floatsEqual(effectiveLastWidth, effectiveWidth);
+    final boolean hasSameHeightSpec =
+        lastHeightMode == heightMode && floatsEqual(effectiveLastHeight, effectiveHeight);
+
+    final boolean widthIsCompatible =
+        hasSameWidthSpec
+            || measureModeSizeIsExactAndMatchesOldMeasuredSize(
+                widthMode, width - marginRow, lastComputedWidth)
+            || measureModeOldSizeIsUnspecifiedAndStillFits(
+                widthMode, width - marginRow, lastWidthMode, lastComputedWidth)
+            || measureModeNewMeasureSizeIsStricterAndStillValid(
+                widthMode, width - marginRow, lastWidthMode, lastWidth, lastComputedWidth);
+
+    final boolean heightIsCompatible =
+        hasSameHeightSpec
+            || measureModeSizeIsExactAndMatchesOldMeasuredSize(
+                heightMode, height - marginColumn, lastComputedHeight)
+            || measureModeOldSizeIsUnspecifiedAndStillFits(
+                heightMode, height - marginColumn, lastHeightMode, lastComputedHeight)
+            || measureModeNewMeasureSizeIsStricterAndStillValid(
+                heightMode, height - marginColumn, lastHeightMode, lastHeight, lastComputedHeight);
+
+    return widthIsCompatible && heightIsCompatible;
+  }
+
+  // A wrapper around layoutImpl that determines whether the layout request is redundant and can be
+  // skipped. Returns true if layout was performed, false if skipped.
+  private boolean layoutNodeInternal(
+      YogaJavaNode node,
+      float availableWidth,
+      float availableHeight,
+      int parentDirection,
+      int widthMeasureMode,
+      int heightMeasureMode,
+      float parentWidth,
+      float parentHeight,
+      boolean performLayout) {
+    final boolean needToVisitNode =
+        (node.mIsDirty && node.mGenerationCount != mGenerationCount)
+            || node.mLastParentDirection != parentDirection;
+
+    if (needToVisitNode) {
+      node.invalidateCachedLayout();
+    }
+
+    YogaJavaNode.CachedMeasurement cachedResults = null;
+
+    if (node.hasMeasureFunction()) {
+      final float marginAxisRow = node.getMarginForAxis(FLEX_DIRECTION_ROW, parentWidth);
+      final float marginAxisColumn = node.getMarginForAxis(FLEX_DIRECTION_COLUMN, parentWidth);
+
+      if (canUseCachedMeasurement(
+          widthMeasureMode,
+          availableWidth,
+          heightMeasureMode,
+          availableHeight,
+          node.mCachedLayout,
+          marginAxisRow,
+          marginAxisColumn)) {
+        cachedResults = node.mCachedLayout;
+      } else {
+        for (int i = 0; i < node.mNextCachedMeasurementsIndex; i++) {
+          if (canUseCachedMeasurement(
+              widthMeasureMode,
+              availableWidth,
+              heightMeasureMode,
+              availableHeight,
+              node.mCachedMeasurements[i],
+              marginAxisRow,
+              marginAxisColumn)) {
+            cachedResults = node.mCachedMeasurements[i];
+            break;
+          }
+        }
+      }
+    } else if (performLayout) {
+      if (floatsEqual(node.mCachedLayout.availableWidth, availableWidth)
+          && floatsEqual(node.mCachedLayout.availableHeight, availableHeight)
+          && node.mCachedLayout.widthMeasureMode == widthMeasureMode
+          && node.mCachedLayout.heightMeasureMode == heightMeasureMode) {
+        cachedResults = node.mCachedLayout;
+      }
+    } else {
+      for (int i = 0; i < node.mNextCachedMeasurementsIndex; i++) {
+        final YogaJavaNode.CachedMeasurement cachedMeasurement = node.mCachedMeasurements[i];
+        if (floatsEqual(cachedMeasurement.availableWidth, availableWidth)
+            && floatsEqual(cachedMeasurement.availableHeight, availableHeight)
+            && cachedMeasurement.widthMeasureMode == widthMeasureMode
+            && cachedMeasurement.heightMeasureMode == heightMeasureMode) {
+          cachedResults = cachedMeasurement;
+          break;
+        }
+      }
+    }
+
+    if (!needToVisitNode && cachedResults != null) {
+      node.mMeasuredDimensions[DIMENSION_WIDTH] = cachedResults.computedWidth;
+      node.mMeasuredDimensions[DIMENSION_HEIGHT] = cachedResults.computedHeight;
+    } else {
+      layoutImpl(
+          node,
+          availableWidth,
+          availableHeight,
+          parentDirection,
+          widthMeasureMode,
+          heightMeasureMode,
+          parentWidth,
+          parentHeight,
+          performLayout);
+
+      node.mLastParentDirection = parentDirection;
+
+      if (cachedResults == null) {
+        if (node.mNextCachedMeasurementsIndex == MAX_CACHED_RESULT_COUNT) {
+          node.mNextCachedMeasurementsIndex = 0;
+        }
+
+        final YogaJavaNode.CachedMeasurement newCacheEntry;
+        if (performLayout) {
+          newCacheEntry = node.mCachedLayout;
+        } else {
+          newCacheEntry = node.mCachedMeasurements[node.mNextCachedMeasurementsIndex];
+          node.mNextCachedMeasurementsIndex++;
+        }
+
+        newCacheEntry.availableWidth = availableWidth;
+        newCacheEntry.availableHeight = availableHeight;
+        newCacheEntry.widthMeasureMode = widthMeasureMode;
+        newCacheEntry.heightMeasureMode = heightMeasureMode;
+        newCacheEntry.computedWidth = node.mMeasuredDimensions[DIMENSION_WIDTH];
+        newCacheEntry.computedHeight = node.mMeasuredDimensions[DIMENSION_HEIGHT];
+      }
+    }
+
+    if (performLayout) {
+      node.mLayoutDimensions[DIMENSION_WIDTH] = node.mMeasuredDimensions[DIMENSION_WIDTH];
+      node.mLayoutDimensions[DIMENSION_HEIGHT] = node.mMeasuredDimensions[DIMENSION_HEIGHT];
+
+      node.mHasNewLayout = true;
+      node.mIsDirty = false;
+    }
+
+    node.mGenerationCount = mGenerationCount;
+    return (needToVisitNode || cachedResults == null);
+  }
+
+  private static void roundToPixelGrid(
+      YogaJavaNode node, float pointScaleFactor, float absoluteLeft, float absoluteTop) {
+    if (pointScaleFactor == 0.0f) {
+      return;
+    }
+
+    final float nodeLeft = node.mLayoutPosition[EDGE_LEFT];
+    final float nodeTop = node.mLayoutPosition[EDGE_TOP];
+
+    final float nodeWidth = node.mLayoutDimensions[DIMENSION_WIDTH];
+    final float nodeHeight = node.mLayoutDimensions[DIMENSION_HEIGHT];
+
+    final float absoluteNodeLeft = absoluteLeft + nodeLeft;
+    final float absoluteNodeTop = absoluteTop + nodeTop;
+
+    final float absoluteNodeRight = absoluteNodeLeft + nodeWidth;
+    final float absoluteNodeBottom = absoluteNodeTop + nodeHeight;
+
+    // Nodes with a measure function are text nodes, whose size is rounded up rather than down.
+    final boolean textRounding = node.hasMeasureFunction();
+
+    node.mLayoutPosition[EDGE_LEFT] =
+        roundValueToPixelGrid(nodeLeft, pointScaleFactor, false, textRounding);
+
+    node.mLayoutPosition[EDGE_TOP] =
+        roundValueToPixelGrid(nodeTop, pointScaleFactor, false, textRounding);
+
+    final boolean hasFractionalWidth =
+        !floatsEqual((nodeWidth * pointScaleFactor) % 1.0f, 0)
+            && !floatsEqual((nodeWidth * pointScaleFactor) % 1.0f, 1.0f);
+    final boolean hasFractionalHeight =
+        !floatsEqual((nodeHeight * pointScaleFactor) % 1.0f, 0)
+            && !floatsEqual((nodeHeight * pointScaleFactor) % 1.0f, 1.0f);
+
+    node.mLayoutDimensions[DIMENSION_WIDTH] =
+        roundValueToPixelGrid(
+                absoluteNodeRight,
+                pointScaleFactor,
+                (textRounding && hasFractionalWidth),
+                (textRounding && !hasFractionalWidth))
+            - roundValueToPixelGrid(absoluteNodeLeft, pointScaleFactor, false, textRounding);
+
+    node.mLayoutDimensions[DIMENSION_HEIGHT] =
+        roundValueToPixelGrid(
+                absoluteNodeBottom,
+                pointScaleFactor,
+                (textRounding && hasFractionalHeight),
+                (textRounding && !hasFractionalHeight))
+            - roundValueToPixelGrid(absoluteNodeTop, pointScaleFactor, false, textRounding);
+
+    for (int i = 0, childCount = node.getChildCount(); i < childCount; i++) {
+      roundToPixelGrid(node.getChild(i), pointScaleFactor, absoluteNodeLeft, absoluteNodeTop);
+    }
+  }
+
+  /** The items of a flex line and the space they take, see YGCollectFlexItemsRowValues. */
+  private static final class FlexLine {
+    int itemsOnLine;
+    float sizeConsumedOnCurrentLine;
+    float totalFlexGrowFactors;
+    float totalFlexShrinkScaledFactors;
+    int endOfLineIndex;
+    final ArrayList<YogaJavaNode> relativeChildren = new ArrayList<>();
+    float remainingFreeSpace;
+    float mainDim;
+    float crossDim;
+
+    void reset() {
+      itemsOnLine = 0;
+      sizeConsumedOnCurrentLine = 0;
+      totalFlexGrowFactors = 0;
+      totalFlexShrinkScaledFactors = 0;
+      endOfLineIndex = 0;
+      relativeChildren.clear();
+      remainingFreeSpace = 0;
+      mainDim = 0;
+      crossDim = 0;
+    }
+  }
+}
@@ -0,0 +1,962 @@
+/*
+ * Copyright (c) 2014-present, Facebook, Inc.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.yoga;
+
+import static com.facebook.yoga.YogaConstants.UNDEFINED;
+import static com.facebook.yoga.YogaConstants.isUndefined;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * The style and the layout of a {@link YogaNode} whose config uses the Java layout, the Java
+ * counterpart of YGNode. Enums are stored as their int values, which match the native ones.
+ */
+final class YogaJavaNode {
+
+  static final int EDGE_LEFT = 0;
+  static final int EDGE_TOP = 1;
+  static final int EDGE_RIGHT = 2;
+  static final int EDGE_BOTTOM = 3;
+  static final int EDGE_START = 4;
+  static final int EDGE_END = 5;
+  static final int EDGE_HORIZONTAL = 6;
+  static final int EDGE_VERTICAL = 7;
+  static final int EDGE_ALL = 8;
+  static final int EDGE_COUNT = 9;
+
+  static final int DIMENSION_WIDTH = 0;
+  static final int DIMENSION_HEIGHT = 1;
+
+  static final int FLEX_DIRECTION_COLUMN = 0;
+  static final int FLEX_DIRECTION_COLUMN_REVERSE = 1;
+  static final int FLEX_DIRECTION_ROW = 2;
+  static final int FLEX_DIRECTION_ROW_REVERSE = 3;
+
+  static final int DIRECTION_INHERIT = 0;
+  static final int DIRECTION_LTR = 1;
+  static final int DIRECTION_RTL = 2;
+
+  static final int MAX_CACHED_RESULT_COUNT = 16;
+
+  // Indexed by flex direction.
+  static final int[] LEADING = {EDGE_TOP, EDGE_BOTTOM, EDGE_LEFT, EDGE_RIGHT};
+  static final int[] TRAILING = {EDGE_BOTTOM, EDGE_TOP, EDGE_RIGHT, EDGE_LEFT};
+  static final int[] DIMENSION = {
+    DIMENSION_HEIGHT, DIMENSION_HEIGHT, DIMENSION_WIDTH, DIMENSION_WIDTH
+  };
+
+  private static final float DEFAULT_FLEX_GROW = 0f;
+  private static final float DEFAULT_FLEX_SHRINK = 0f;
+  private static final float WEB_DEFAULT_FLEX_SHRINK = 1f;
+
+  final YogaNode mNode;
+  final YogaConfig mConfig;
+
+  // Style
+  int mDirection = DIRECTION_INHERIT;
+  int mFlexDirection = FLEX_DIRECTION_COLUMN;
+  int mJustifyContent = YogaJustify.FLEX_START.intValue();
+  int mAlignContent = YogaAlign.FLEX_START.intValue();
+  int mAlignItems = YogaAlign.STRETCH.intValue();
+  int mAlignSelf = YogaAlign.AUTO.intValue();
+  int mPositionType = YogaPositionType.RELATIVE.intValue();
+  int mFlexWrap = YogaWrap.NO_WRAP.intValue();
+  int mOverflow = YogaOverflow.VISIBLE.intValue();
+  int mDisplay = YogaDisplay.FLEX.intValue();
+  float mFlex = UNDEFINED;
+  float mFlexGrow = UNDEFINED;
+  float mFlexShrink = UNDEFINED;
+  YogaValue mFlexBasis = YogaValue.AUTO;
+  final YogaValue[] mMargin = new YogaValue[EDGE_COUNT];
+  final YogaValue[] mPosition = new YogaValue[EDGE_COUNT];
+  final YogaValue[] mPadding = new YogaValue[EDGE_COUNT];
+  final YogaValue[] mBorder = new YogaValue[EDGE_COUNT];
+  final YogaValue[] mDimensions = {YogaValue.AUTO, YogaValue.AUTO};
+  final YogaValue[] mMinDimensions = {YogaValue.UNDEFINED, YogaValue.UNDEFINED};
+  final YogaValue[] mMaxDimensions = {YogaValue.UNDEFINED, YogaValue.UNDEFINED};
+  float mAspectRatio = UNDEFINED;
+
+  // Layout
+  final float[] mLayoutPosition = new float[4];
+  final float[] mLayoutDimensions = {UNDEFINED, UNDEFINED};
+  final float[] mMeasuredDimensions = {UNDEFINED, UNDEFINED};
+  final float[] mLayoutMargin = new float[6];
+  final float[] mLayoutBorder = new float[6];
+  final float[] mLayoutPadding = new float[6];
+  int mLayoutDirection = DIRECTION_INHERIT;
+  float mComputedFlexBasis = UNDEFINED;
+  int mComputedFlexBasisGeneration;
+  boolean mHadOverflow;
+  int mGenerationCount;
+  int mLastParentDirection = -1;
+  int mNextCachedMeasurementsIndex;
+  final CachedMeasurement[] mCachedMeasurements = new CachedMeasurement[MAX_CACHED_RESULT_COUNT];
+  final CachedMeasurement mCachedLayout = new CachedMeasurement();
+  final YogaValue[] mResolvedDimensions = {YogaValue.UNDEFINED, YogaValue.UNDEFINED};
+  int mLineIndex;
+  boolean mIsDirty;
+  boolean mHasNewLayout = true;
+
+  YogaJavaNode(YogaNode node, YogaConfig config) {
+    mNode = node;
+    mConfig = config;
+    for (int i = 0; i < MAX_CACHED_RESULT_COUNT; i++) {
+      mCachedMeasurements[i] = new CachedMeasurement();
+    }
+    resetStyle();
+  }
+
+  /** Creates a copy of other, with the same style and layout, for the clone node. */
+  YogaJavaNode(YogaNode node, YogaJavaNode other) {
+    this(node, other.mConfig);
+    copyStyleFrom(other);
+    System.arraycopy(other.mLayoutPosition, 0, mLayoutPosition, 0, mLayoutPosition.length);
+    System.arraycopy(other.mLayoutDimensions, 0, mLayoutDimensions, 0, 2);
+    System.arraycopy(other.mMeasuredDimensions, 0, mMeasuredDimensions, 0, 2);
+    System.arraycopy(other.mLayoutMargin, 0, mLayoutMargin, 0, mLayoutMargin.length);
+    System.arraycopy(other.mLayoutBorder, 0, mLayoutBorder, 0, mLayoutBorder.length);
+    System.arraycopy(other.mLayoutPadding, 0, mLayoutPadding, 0, mLayoutPadding.length);
+    mLayoutDirection = other.mLayoutDirection;
+    mComputedFlexBasis = other.mComputedFlexBasis;
+    mComputedFlexBasisGeneration = other.mComputedFlexBasisGeneration;
+    mHadOverflow = other.mHadOverflow;
+    mGenerationCount = other.mGenerationCount;
+    mLastParentDirection = other.mLastParentDirection;
+    mNextCachedMeasurementsIndex = other.mNextCachedMeasurementsIndex;
+    for (int i = 0; i < MAX_CACHED_RESULT_COUNT; i++) {
+      mCachedMeasurements[i].set(other.mCachedMeasurements[i]);
+    }
+    mCachedLayout.set(other.mCachedLayout);
+    mResolvedDimensions[0] = other.mResolvedDimensions[0];
+    mResolvedDimensions[1] = other.mResolvedDimensions[1];
+    mLineIndex = other.mLineIndex;
+    mIsDirty = other.mIsDirty;
+    mHasNewLayout = other.mHasNewLayout;
+  }
+
+  /** Resets the style and the layout, see YGNodeReset. */
+  void reset() {
+    resetStyle();
+    Arrays.fill(mLayoutPosition, 0);
+    Arrays.fill(mLayoutDimensions, UNDEFINED);
+    Arrays.fill(mMeasuredDimensions, UNDEFINED);
+    Arrays.fill(mLayoutMargin, 0);
+    Arrays.fill(mLayoutBorder, 0);
+    Arrays.fill(mLayoutPadding, 0);
+    mLayoutDirection = DIRECTION_INHERIT;
+    mComputedFlexBasis = UNDEFINED;
+    mComputedFlexBasisGeneration = 0;
+    mHadOverflow = false;
+    mGenerationCount = 0;
+    mLastParentDirection = -1;
+    invalidateCachedLayout();
+    for (int i = 0; i < MAX_CACHED_RESULT_COUNT; i++) {
+      mCachedMeasurements[i].reset();
+    }
+    mResolvedDimensions[0] = YogaValue.UNDEFINED;
+    mResolvedDimensions[1] = YogaValue.UNDEFINED;
+    mLineIndex = 0;
+    mIsDirty = false;
+    mHasNewLayout = true;
+  }
+
+  private void resetStyle() {
+    mDirection = DIRECTION_INHERIT;
+    mJustifyContent = YogaJustify.FLEX_START.intValue();
+    mAlignItems = YogaAlign.STRETCH.intValue();
+    mAlignSelf = YogaAlign.AUTO.intValue();
+    mPositionType = YogaPositionType.RELATIVE.intValue();
+    mFlexWrap = YogaWrap.NO_WRAP.intValue();
+    mOverflow = YogaOverflow.VISIBLE.intValue();
+    mDisplay = YogaDisplay.FLEX.intValue();
+    mFlex = UNDEFINED;
+    mFlexGrow = UNDEFINED;
+    mFlexShrink = UNDEFINED;
+    mFlexBasis = YogaValue.AUTO;
+    Arrays.fill(mMargin, YogaValue.UNDEFINED);
+    Arrays.fill(mPosition, YogaValue.UNDEFINED);
+    Arrays.fill(mPadding, YogaValue.UNDEFINED);
+    Arrays.fill(mBorder, YogaValue.UNDEFINED);
+    Arrays.fill(mDimensions, YogaValue.AUTO);
+    Arrays.fill(mMinDimensions, YogaValue.UNDEFINED);
+    Arrays.fill(mMaxDimensions, YogaValue.UNDEFINED);
+    mAspectRatio = UNDEFINED;
+
+    if (mConfig.mUseWebDefaults) {
+      mFlexDirection = FLEX_DIRECTION_ROW;
+      mAlignContent = YogaAlign.STRETCH.intValue();
+    } else {
+      mFlexDirection = FLEX_DIRECTION_COLUMN;
+      mAlignContent = YogaAlign.FLEX_START.intValue();
+    }
+  }
+
+  /** Copies the style of other and marks this node dirty if it changed, see YGNodeCopyStyle. */
+  void copyStyle(YogaJavaNode other) {
+    if (!hasSameStyle(other)) {
+      copyStyleFrom(other);
+      markDirtyAndPropagate();
+    }
+  }
+
+  private void copyStyleFrom(YogaJavaNode other) {
+    mDirection = other.mDirection;
+    mFlexDirection = other.mFlexDirection;
+    mJustifyContent = other.mJustifyContent;
+    mAlignContent = other.mAlignContent;
+    mAlignItems = other.mAlignItems;
+    mAlignSelf = other.mAlignSelf;
+    mPositionType = other.mPositionType;
+    mFlexWrap = other.mFlexWrap;
+    mOverflow = other.mOverflow;
+    mDisplay = other.mDisplay;
+    mFlex = other.mFlex;
+    mFlexGrow = other.mFlexGrow;
+    mFlexShrink = other.mFlexShrink;
+    mFlexBasis = other.mFlexBasis;
+    System.arraycopy(other.mMargin, 0, mMargin, 0, EDGE_COUNT);
+    System.arraycopy(other.mPosition, 0, mPosition, 0, EDGE_COUNT);
+    System.arraycopy(other.mPadding, 0, mPadding, 0, EDGE_COUNT);
+    System.arraycopy(other.mBorder, 0, mBorder, 0, EDGE_COUNT);
+    System.arraycopy(other.mDimensions, 0, mDimensions, 0, 2);
+    System.arraycopy(other.mMinDimensions, 0, mMinDimensions, 0, 2);
+    System.arraycopy(other.mMaxDimensions, 0, mMaxDimensions, 0, 2);
+    mAspectRatio = other.mAspectRatio;
+  }
+
+  private boolean hasSameStyle(YogaJavaNode other) {
+    return mDirection == other.mDirection
+        && mFlexDirection == other.mFlexDirection
+        && mJustifyContent == other.mJustifyContent
+        && mAlignContent == other.mAlignContent
+        && mAlignItems == other.mAlignItems
+        && mAlignSelf == other.mAlignSelf
+        && mPositionType == other.mPositionType
+        && mFlexWrap == other.mFlexWrap
+        && mOverflow == other.mOverflow
+        && mDisplay == other.mDisplay
+        && floatsEqualOrUndefined(mFlex, other.mFlex)
+        && floatsEqualOrUndefined(mFlexGrow, other.mFlexGrow)
+        && floatsEqualOrUndefined(mFlexShrink, other.mFlexShrink)
+        && mFlexBasis.equals(other.mFlexBasis)
+        && Arrays.equals(mMargin, other.mMargin)
+        && Arrays.equals(mPosition, other.mPosition)
+        && Arrays.equals(mPadding, other.mPadding)
+        && Arrays.equals(mBorder, other.mBorder)
+        && Arrays.equals(mDimensions, other.mDimensions)
+        && Arrays.equals(mMinDimensions, other.mMinDimensions)
+        && Arrays.equals(mMaxDimensions, other.mMaxDimensions)
+        && floatsEqualOrUndefined(mAspectRatio, other.mAspectRatio);
+  }
+
+  private static boolean floatsEqualOrUndefined(float a, float b) {
+    return (isUndefined(a) && isUndefined(b)) || a == b;
+  }
+
+  /** Applies a style update in the format of the batched ones of {@link YogaNode}. */
+  void applyStyle(int property, int argument, float value) {
+    switch (property) {
+      case YogaNode.STYLE_DIRECTION:
+        if (mDirection != argument) {
+          mDirection = argument;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_FLEX_DIRECTION:
+        if (mFlexDirection != argument) {
+          mFlexDirection = argument;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_JUSTIFY_CONTENT:
+        if (mJustifyContent != argument) {
+          mJustifyContent = argument;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_ALIGN_ITEMS:
+        if (mAlignItems != argument) {
+          mAlignItems = argument;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_ALIGN_SELF:
+        if (mAlignSelf != argument) {
+          mAlignSelf = argument;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_ALIGN_CONTENT:
+        if (mAlignContent != argument) {
+          mAlignContent = argument;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_POSITION_TYPE:
+        if (mPositionType != argument) {
+          mPositionType = argument;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_FLEX_WRAP:
+        if (mFlexWrap != argument) {
+          mFlexWrap = argument;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_OVERFLOW:
+        if (mOverflow != argument) {
+          mOverflow = argument;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_DISPLAY:
+        if (mDisplay != argument) {
+          mDisplay = argument;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_FLEX:
+        if (mFlex != value) {
+          mFlex = value;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_FLEX_GROW:
+        if (mFlexGrow != value) {
+          mFlexGrow = value;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_FLEX_SHRINK:
+        if (mFlexShrink != value) {
+          mFlexShrink = value;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_ASPECT_RATIO:
+        if (mAspectRatio != value) {
+          mAspectRatio = value;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_FLEX_BASIS:
+        if (isChanged(mFlexBasis, value, YogaUnit.POINT)) {
+          mFlexBasis = createValue(value, YogaUnit.POINT);
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_FLEX_BASIS_PERCENT:
+        if (mFlexBasis.value != value || mFlexBasis.unit != YogaUnit.PERCENT) {
+          mFlexBasis = createAutoOrPercentValue(value);
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_FLEX_BASIS_AUTO:
+        if (mFlexBasis.unit != YogaUnit.AUTO) {
+          mFlexBasis = YogaValue.AUTO;
+          markDirtyAndPropagate();
+        }
+        break;
+      case YogaNode.STYLE_MARGIN:
+        setValue(mMargin, argument, value, YogaUnit.POINT);
+        break;
+      case YogaNode.STYLE_MARGIN_PERCENT:
+        setValue(mMargin, argument, value, YogaUnit.PERCENT);
+        break;
+      case YogaNode.STYLE_MARGIN_AUTO:
+        setAutoValue(mMargin, argument);
+        break;
+      case YogaNode.STYLE_PADDING:
+        setValue(mPadding, argument, value, YogaUnit.POINT);
+        break;
+      case YogaNode.STYLE_PADDING_PERCENT:
+        setValue(mPadding, argument, value, YogaUnit.PERCENT);
+        break;
+      case YogaNode.STYLE_BORDER:
+        setValue(mBorder, argument, value, YogaUnit.POINT);
+        break;
+      case YogaNode.STYLE_POSITION:
+        setValue(mPosition, argument, value, YogaUnit.POINT);
+        break;
+      case YogaNode.STYLE_POSITION_PERCENT:
+        setValue(mPosition, argument, value, YogaUnit.PERCENT);
+        break;
+      case YogaNode.STYLE_WIDTH:
+        setValue(mDimensions, DIMENSION_WIDTH, value, YogaUnit.POINT);
+        break;
+      case YogaNode.STYLE_WIDTH_PERCENT:
+        setAutoOrPercentValue(mDimensions, DIMENSION_WIDTH, value);
+        break;
+      case YogaNode.STYLE_WIDTH_AUTO:
+        setAutoValue(mDimensions, DIMENSION_WIDTH);
+        break;
+      case YogaNode.STYLE_HEIGHT:
+        setValue(mDimensions, DIMENSION_HEIGHT, value, YogaUnit.POINT);
+        break;
+      case YogaNode.STYLE_HEIGHT_PERCENT:
+        setAutoOrPercentValue(mDimensions, DIMENSION_HEIGHT, value);
+        break;
+      case YogaNode.STYLE_HEIGHT_AUTO:
+        setAutoValue(mDimensions, DIMENSION_HEIGHT);
+        break;
+      case YogaNode.STYLE_MIN_WIDTH:
+        setValue(mMinDimensions, DIMENSION_WIDTH, value, YogaUnit.POINT);
+        break;
+      case YogaNode.STYLE_MIN_WIDTH_PERCENT:
+        setValue(mMinDimensions, DIMENSION_WIDTH, value, YogaUnit.PERCENT);
+        break;
+      case YogaNode.STYLE_MIN_HEIGHT:
+        setValue(mMinDimensions, DIMENSION_HEIGHT, value, YogaUnit.POINT);
+        break;
+      case YogaNode.STYLE_MIN_HEIGHT_PERCENT:
+        setValue(mMinDimensions, DIMENSION_HEIGHT, value, YogaUnit.PERCENT);
+        break;
+      case YogaNode.STYLE_MAX_WIDTH:
+        setValue(mMaxDimensions, DIMENSION_WIDTH, value, YogaUnit.POINT);
+        break;
+      case YogaNode.STYLE_MAX_WIDTH_PERCENT:
+        setValue(mMaxDimensions, DIMENSION_WIDTH, value, YogaUnit.PERCENT);
+        break;
+      case YogaNode.STYLE_MAX_HEIGHT:
+        setValue(mMaxDimensions, DIMENSION_HEIGHT, value, YogaUnit.POINT);
+        break;
+      case YogaNode.STYLE_MAX_HEIGHT_PERCENT:
+        setValue(mMaxDimensions, DIMENSION_HEIGHT, value, YogaUnit.PERCENT);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown style property: " + property);
+    }
+  }
+
+  private void setValue(YogaValue[] values, int index, float value, YogaUnit unit) {
+    if (isChanged(values[index], value, unit)) {
+      values[index] = createValue(value, unit);
+      markDirtyAndPropagate();
+    }
+  }
+
+  private void setAutoOrPercentValue(YogaValue[] values, int index, float value) {
+    if (values[index].value != value || values[index].unit != YogaUnit.PERCENT) {
+      values[index] = createAutoOrPercentValue(value);
+      markDirtyAndPropagate();
+    }
+  }
+
+  private void setAutoValue(YogaValue[] values, int index) {
+    if (values[index].unit != YogaUnit.AUTO) {
+      values[index] = YogaValue.AUTO;
+      markDirtyAndPropagate();
+    }
+  }
+
+  private static boolean isChanged(YogaValue oldValue, float value, YogaUnit unit) {
+    final YogaUnit newUnit = isUndefined(value) ? YogaUnit.UNDEFINED : unit;
+    return (oldValue.value != value && newUnit != YogaUnit.UNDEFINED) || oldValue.unit != newUnit;
+  }
+
+  private static YogaValue createValue(float value, YogaUnit unit) {
+    return isUndefined(value)
+        ? new YogaValue(value, YogaUnit.UNDEFINED)
+        : new YogaValue(value, unit);
+  }
+
+  private static YogaValue createAutoOrPercentValue(float value) {
+    return new YogaValue(value, isUndefined(value) ? YogaUnit.AUTO : YogaUnit.PERCENT);
+  }
+
+  float getStyleFlexGrow() {
+    return isUndefined(mFlexGrow) ? DEFAULT_FLEX_GROW : mFlexGrow;
+  }
+
+  float getStyleFlexShrink() {
+    if (isUndefined(mFlexShrink)) {
+      return mConfig.mUseWebDefaults ? WEB_DEFAULT_FLEX_SHRINK : DEFAULT_FLEX_SHRINK;
+    }
+    return mFlexShrink;
+  }
+
+  float getLayoutMargin(int edge) {
+    return getResolvedLayoutEdge(mLayoutMargin, edge);
+  }
+
+  float getLayoutPadding(int edge) {
+    return getResolvedLayoutEdge(mLayoutPadding, edge);
+  }
+
+  float getLayoutBorder(int edge) {
+    return getResolvedLayoutEdge(mLayoutBorder, edge);
+  }
+
+  private float getResolvedLayoutEdge(float[] values, int edge) {
+    if (edge == EDGE_LEFT) {
+      return mLayoutDirection == DIRECTION_RTL ? values[EDGE_END] : values[EDGE_START];
+    }
+    if (edge == EDGE_RIGHT) {
+      return mLayoutDirection == DIRECTION_RTL ? values[EDGE_START] : values[EDGE_END];
+    }
+    return values[edge];
+  }
+
+  // Tree
+
+  int getChildCount() {
+    return mNode.getChildCount();
+  }
+
+  YogaJavaNode getChild(int index) {
+    return mNode.getChildAt(index).mJavaNode;
+  }
+
+  @Nullable
+  YogaJavaNode getParent() {
+    final YogaNode parent = mNode.getParent();
+    return parent == null ? null : parent.mJavaNode;
+  }
+
+  boolean hasMeasureFunction() {
+    return mNode.isMeasureDefined();
+  }
+
+  boolean hasBaselineFunction() {
+    return mNode.isBaselineDefined();
+  }
+
+  void markDirtyAndPropagate() {
+    if (!mIsDirty) {
+      mIsDirty = true;
+      mComputedFlexBasis = UNDEFINED;
+      final YogaJavaNode parent = getParent();
+      if (parent != null) {
+        parent.markDirtyAndPropagate();
+      }
+    }
+  }
+
+  void markDirtyAndPropagateDownwards() {
+    mIsDirty = true;
+    for (int i = 0, count = getChildCount(); i < count; i++) {
+      getChild(i).markDirtyAndPropagateDownwards();
+    }
+  }
+
+  void invalidateCachedLayout() {
+    mNextCachedMeasurementsIndex = 0;
+    mCachedLayout.reset();
+  }
+
+  /** Resets the layout of a child that is removed from its parent. */
+  void resetLayout() {
+    Arrays.fill(mLayoutPosition, 0);
+    Arrays.fill(mLayoutDimensions, UNDEFINED);
+    Arrays.fill(mMeasuredDimensions, UNDEFINED);
+    Arrays.fill(mLayoutMargin, 0);
+    Arrays.fill(mLayoutBorder, 0);
+    Arrays.fill(mLayoutPadding, 0);
+    mLayoutDirection = DIRECTION_INHERIT;
+    mComputedFlexBasis = UNDEFINED;
+    mComputedFlexBasisGeneration = 0;
+    mHadOverflow = false;
+    mGenerationCount = 0;
+    mLastParentDirection = -1;
+    invalidateCachedLayout();
+  }
+
+  /** Zeroes the layout of a node that is not displayed, see YGZeroOutLayoutRecursivly. */
+  void zeroOutLayoutRecursively() {
+    Arrays.fill(mLayoutPosition, 0);
+    Arrays.fill(mLayoutDimensions, 0);
+    Arrays.fill(mMeasuredDimensions, 0);
+    Arrays.fill(mLayoutMargin, 0);
+    Arrays.fill(mLayoutBorder, 0);
+    Arrays.fill(mLayoutPadding, 0);
+    mLayoutDirection = DIRECTION_INHERIT;
+    mComputedFlexBasis = 0;
+    mComputedFlexBasisGeneration = 0;
+    mHadOverflow = false;
+    mGenerationCount = 0;
+    mLastParentDirection = DIRECTION_INHERIT;
+    mNextCachedMeasurementsIndex = 0;
+    mCachedLayout.clear();
+    for (int i = 0; i < MAX_CACHED_RESULT_COUNT; i++) {
+      mCachedMeasurements[i].clear();
+    }
+    mHasNewLayout = true;
+    mNode.cloneChildrenIfNeeded();
+    for (int i = 0, count = getChildCount(); i < count; i++) {
+      getChild(i).zeroOutLayoutRecursively();
+    }
+  }
+
+  // Style resolution, see YGNode.cpp
+
+  static boolean isRow(int flexDirection) {
+    return flexDirection == FLEX_DIRECTION_ROW || flexDirection == FLEX_DIRECTION_ROW_REVERSE;
+  }
+
+  static boolean isColumn(int flexDirection) {
+    return flexDirection == FLEX_DIRECTION_COLUMN
+        || flexDirection == FLEX_DIRECTION_COLUMN_REVERSE;
+  }
+
+  static int resolveFlexDirection(int flexDirection, int direction) {
+    if (direction == DIRECTION_RTL) {
+      if (flexDirection == FLEX_DIRECTION_ROW) {
+        return FLEX_DIRECTION_ROW_REVERSE;
+      } else if (flexDirection == FLEX_DIRECTION_ROW_REVERSE) {
+        return FLEX_DIRECTION_ROW;
+      }
+    }
+    return flexDirection;
+  }
+
+  static int crossFlexDirection(int flexDirection, int direction) {
+    return isColumn(flexDirection)
+        ? resolveFlexDirection(FLEX_DIRECTION_ROW, direction)
+        : FLEX_DIRECTION_COLUMN;
+  }
+
+  static float resolveValue(YogaValue value, float parentSize) {
+    switch (value.unit) {
+      case POINT:
+        return value.value;
+      case PERCENT:
+        return (float) (value.value * parentSize * 0.01);
+      default:
+        return UNDEFINED;
+    }
+  }
+
+  private static float resolveValueMargin(YogaValue value, float parentSize) {
+    return value.unit == YogaUnit.AUTO ? 0 : resolveValue(value, parentSize);
+  }
+
+  static YogaValue computedEdgeValue(YogaValue[] edges, int edge, YogaValue defaultValue) {
+    if (edges[edge].unit != YogaUnit.UNDEFINED) {
+      return edges[edge];
+    }
+
+    if ((edge == EDGE_TOP || edge == EDGE_BOTTOM)
+        && edges[EDGE_VERTICAL].unit != YogaUnit.UNDEFINED) {
+      return edges[EDGE_VERTICAL];
+    }
+
+    if ((edge == EDGE_LEFT || edge == EDGE_RIGHT || edge == EDGE_START || edge == EDGE_END)
+        && edges[EDGE_HORIZONTAL].unit != YogaUnit.UNDEFINED) {
+      return edges[EDGE_HORIZONTAL];
+    }
+
+    if (edges[EDGE_ALL].unit != YogaUnit.UNDEFINED) {
+      return edges[EDGE_ALL];
+    }
+
+    if (edge == EDGE_START || edge == EDGE_END) {
+      return YogaValue.UNDEFINED;
+    }
+
+    return defaultValue;
+  }
+
+  float getLeadingPosition(int axis, float axisSize) {
+    if (isRow(axis)) {
+      final YogaValue leadingPosition =
+          computedEdgeValue(mPosition, EDGE_START, YogaValue.UNDEFINED);
+      if (leadingPosition.unit != YogaUnit.UNDEFINED) {
+        return resolveValue(leadingPosition, axisSize);
+      }
+    }
+
+    final YogaValue leadingPosition =
+        computedEdgeValue(mPosition, LEADING[axis], YogaValue.UNDEFINED);
+    return leadingPosition.unit == YogaUnit.UNDEFINED
+        ? 0f
+        : resolveValue(leadingPosition, axisSize);
+  }
+
+  float getTrailingPosition(int axis, float axisSize) {
+    if (isRow(axis)) {
+      final YogaValue trailingPosition =
+          computedEdgeValue(mPosition, EDGE_END, YogaValue.UNDEFINED);
+      if (trailingPosition.unit != YogaUnit.UNDEFINED) {
+        return resolveValue(trailingPosition, axisSize);
+      }
+    }
+
+    final YogaValue trailingPosition =
+        computedEdgeValue(mPosition, TRAILING[axis], YogaValue.UNDEFINED);
+    return trailingPosition.unit == YogaUnit.UNDEFINED
+        ? 0f
+        : resolveValue(trailingPosition, axisSize);
+  }
+
+  boolean isLeadingPositionDefined(int axis) {
+    return (isRow(axis)
+            && computedEdgeValue(mPosition, EDGE_START, YogaValue.UNDEFINED).unit
+                != YogaUnit.UNDEFINED)
+        || computedEdgeValue(mPosition, LEADING[axis], YogaValue.UNDEFINED).unit
+            != YogaUnit.UNDEFINED;
+  }
+
+  boolean isTrailingPositionDefined(int axis) {
+    return (isRow(axis)
+            && computedEdgeValue(mPosition, EDGE_END, YogaValue.UNDEFINED).unit
+                != YogaUnit.UNDEFINED)
+        || computedEdgeValue(mPosition, TRAILING[axis], YogaValue.UNDEFINED).unit
+            != YogaUnit.UNDEFINED;
+  }
+
+  float getLeadingMargin(int axis, float widthSize) {
+    if (isRow(axis) && mMargin[EDGE_START].unit != YogaUnit.UNDEFINED) {
+      return resolveValueMargin(mMargin[EDGE_START], widthSize);
+    }
+    return resolveValueMargin(
+        computedEdgeValue(mMargin, LEADING[axis], YogaValue.ZERO), widthSize);
+  }
+
+  float getTrailingMargin(int axis, float widthSize) {
+    if (isRow(axis) && mMargin[EDGE_END].unit != YogaUnit.UNDEFINED) {
+      return resolveValueMargin(mMargin[EDGE_END], widthSize);
+    }
+    return resolveValueMargin(
+        computedEdgeValue(mMargin, TRAILING[axis], YogaValue.ZERO), widthSize);
+  }
+
+  float getMarginForAxis(int axis, float widthSize) {
+    return getLeadingMargin(axis, widthSize) + getTrailingMargin(axis, widthSize);
+  }
+
+  YogaValue marginLeadingValue(int axis) {
+    if (isRow(axis) && mMargin[EDGE_START].unit != YogaUnit.UNDEFINED) {
+      return mMargin[EDGE_START];
+    }
+    return mMargin[LEADING[axis]];
+  }
+
+  YogaValue marginTrailingValue(int axis) {
+    if (isRow(axis) && mMargin[EDGE_END].unit != YogaUnit.UNDEFINED) {
+      return mMargin[EDGE_END];
+    }
+    return mMargin[TRAILING[axis]];
+  }
+
+  float getLeadingBorder(int axis) {
+    final YogaValue start = mBorder[EDGE_START];
+    if (isRow(axis)
+        && start.unit != YogaUnit.UNDEFINED
+        && !isUndefined(start.value)
+        && start.value >= 0f) {
+      return start.value;
+    }
+    return floatMax(computedEdgeValue(mBorder, LEADING[axis], YogaValue.ZERO).value, 0f);
+  }
+
+  float getTrailingBorder(int axis) {
+    final YogaValue end = mBorder[EDGE_END];
+    if (isRow(axis) && end.unit != YogaUnit.UNDEFINED && !isUndefined(end.value)
+        && end.value >= 0f) {
+      return end.value;
+    }
+    return floatMax(computedEdgeValue(mBorder, TRAILING[axis], YogaValue.ZERO).value, 0f);
+  }
+
+  float getLeadingPadding(int axis, float widthSize) {
+    final YogaValue start = mPadding[EDGE_START];
+    if (isRow(axis)
+        && start.unit != YogaUnit.UNDEFINED
+        && !isUndefined(resolveValue(start, widthSize))
+        && resolveValue(start, widthSize) > 0f) {
+      return resolveValue(start, widthSize);
+    }
+    return floatMax(
+        resolveValue(computedEdgeValue(mPadding, LEADING[axis], YogaValue.ZERO), widthSize), 0f);
+  }
+
+  float getTrailingPadding(int axis, float widthSize) {
+    final YogaValue end = mPadding[EDGE_END];
+    if (isRow(axis)
+        && end.unit != YogaUnit.UNDEFINED
+        && !isUndefined(resolveValue(end, widthSize))
+        && resolveValue(end, widthSize) >= 0f) {
+      return resolveValue(end, widthSize);
+    }
+    return floatMax(
+        resolveValue(computedEdgeValue(mPadding, TRAILING[axis], YogaValue.ZERO), widthSize),
+        0f);
+  }
+
+  float getLeadingPaddingAndBorder(int axis, float widthSize) {
+    return getLeadingPadding(axis, widthSize) + getLeadingBorder(axis);
+  }
+
+  float getTrailingPaddingAndBorder(int axis, float widthSize) {
+    return getTrailingPadding(axis, widthSize) + getTrailingBorder(axis);
+  }
+
+  YogaValue resolveFlexBasis() {
+    final YogaValue flexBasis = mFlexBasis;
+    if (flexBasis.unit != YogaUnit.AUTO && flexBasis.unit != YogaUnit.UNDEFINED) {
+      return flexBasis;
+    }
+    if (!isUndefined(mFlex) && mFlex > 0f) {
+      return mConfig.mUseWebDefaults ? YogaValue.AUTO : YogaValue.ZERO;
+    }
+    return YogaValue.AUTO;
+  }
+
+  void resolveDimensions() {
+    for (int dimension = DIMENSION_WIDTH; dimension <= DIMENSION_HEIGHT; dimension++) {
+      if (mMaxDimensions[dimension].unit != YogaUnit.UNDEFINED
+          && valuesEqual(mMaxDimensions[dimension], mMinDimensions[dimension])) {
+        mResolvedDimensions[dimension] = mMaxDimensions[dimension];
+      } else {
+        mResolvedDimensions[dimension] = mDimensions[dimension];
+      }
+    }
+  }
+
+  int resolveDirection(int parentDirection) {
+    if (mDirection == DIRECTION_INHERIT) {
+      return parentDirection > DIRECTION_INHERIT ? parentDirection : DIRECTION_LTR;
+    }
+    return mDirection;
+  }
+
+  float resolveFlexGrow() {
+    // Root nodes flexGrow should always be 0
+    if (getParent() == null) {
+      return 0f;
+    }
+    if (!isUndefined(mFlexGrow)) {
+      return mFlexGrow;
+    }
+    if (!isUndefined(mFlex) && mFlex > 0f) {
+      return mFlex;
+    }
+    return DEFAULT_FLEX_GROW;
+  }
+
+  float resolveFlexShrink() {
+    if (getParent() == null) {
+      return 0f;
+    }
+    if (!isUndefined(mFlexShrink)) {
+      return mFlexShrink;
+    }
+    if (!mConfig.mUseWebDefaults && !isUndefined(mFlex) && mFlex < 0f) {
+      return -mFlex;
+    }
+    return mConfig.mUseWebDefaults ? WEB_DEFAULT_FLEX_SHRINK : DEFAULT_FLEX_SHRINK;
+  }
+
+  boolean isFlexible() {
+    return mPositionType == YogaPositionType.RELATIVE.intValue()
+        && (resolveFlexGrow() != 0 || resolveFlexShrink() != 0);
+  }
+
+  // If both left and right are defined, then use left. Otherwise return +left or -right depending
+  // on which is defined.
+  private float relativePosition(int axis, float axisSize) {
+    return isLeadingPositionDefined(axis)
+        ? getLeadingPosition(axis, axisSize)
+        : -getTrailingPosition(axis, axisSize);
+  }
+
+  void setPosition(int direction, float mainSize, float crossSize, float parentWidth) {
+    // Root nodes should be always layouted as LTR, so we don't return negative values.
+    final int directionRespectingRoot = getParent() != null ? direction : DIRECTION_LTR;
+    final int mainAxis = resolveFlexDirection(mFlexDirection, directionRespectingRoot);
+    final int crossAxis = crossFlexDirection(mainAxis, directionRespectingRoot);
+
+    final float relativePositionMain = relativePosition(mainAxis, mainSize);
+    final float relativePositionCross = relativePosition(crossAxis, crossSize);
+
+    mLayoutPosition[LEADING[mainAxis]] =
+        getLeadingMargin(mainAxis, parentWidth) + relativePositionMain;
+    mLayoutPosition[TRAILING[mainAxis]] =
+        getTrailingMargin(mainAxis, parentWidth) + relativePositionMain;
+    mLayoutPosition[LEADING[crossAxis]] =
+        getLeadingMargin(crossAxis, parentWidth) + relativePositionCross;
+    mLayoutPosition[TRAILING[crossAxis]] =
+        getTrailingMargin(crossAxis, parentWidth) + relativePositionCross;
+  }
+
+  // Float utilities, see Utils.cpp
+
+  static float floatMax(float a, float b) {
+    if (!isUndefined(a) && !isUndefined(b)) {
+      return Math.max(a, b);
+    }
+    return isUndefined(a) ? b : a;
+  }
+
+  static float floatMin(float a, float b) {
+    if (!isUndefined(a) && !isUndefined(b)) {
+      return Math.min(a, b);
+    }
+    return isUndefined(a) ? b : a;
+  }
+
+  static boolean floatsEqual(float a, float b) {
+    if (!isUndefined(a) && !isUndefined(b)) {
+      return Math.abs(a - b) < 0.0001f;
+    }
+    return isUndefined(a) && isUndefined(b);
+  }
+
+  private static boolean valuesEqual(YogaValue a, YogaValue b) {
+    if (a.unit != b.unit) {
+      return false;
+    }
+    if (a.unit == YogaUnit.UNDEFINED || (isUndefined(a.value) && isUndefined(b.value))) {
+      return true;
+    }
+    return Math.abs(a.value - b.value) < 0.0001f;
+  }
+
+  /** A measurement of the node, cached for the inputs it was computed with. */
+  static final class CachedMeasurement {
+    float availableWidth;
+    float availableHeight;
+    int widthMeasureMode;
+    int heightMeasureMode;
+    float computedWidth;
+    float computedHeight;
+
+    CachedMeasurement() {
+      reset();
+    }
+
+    void reset() {
+      availableWidth = 0;
+      availableHeight = 0;
+      widthMeasureMode = -1;
+      heightMeasureMode = -1;
+      computedWidth = -1;
+      computedHeight = -1;
+    }
+
+    void clear() {
+      availableWidth = 0;
+      availableHeight = 0;
+      widthMeasureMode = 0;
+      heightMeasureMode = 0;
+      computedWidth = 0;
+      computedHeight = 0;
+    }
+
+    void set(CachedMeasurement other) {
+      availableWidth = other.availableWidth;
+      availableHeight = other.availableHeight;
+      widthMeasureMode = other.widthMeasureMode;
+      heightMeasureMode = other.heightMeasureMode;
+      computedWidth = other.computedWidth;
+      computedHeight = other.computedHeight;
+    }
+  }
+}
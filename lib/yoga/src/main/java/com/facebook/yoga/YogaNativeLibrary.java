@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2014-present, Facebook, Inc.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.yoga;
+
+import com.facebook.soloader.SoLoader;
+import javax.annotation.Nullable;
+
+/**
+ * Loads the native Yoga library. Only the nodes and configs that don't use the Java layout, see
+ * {@link YogaConfig#YogaConfig(boolean)}, need it, so failing to load it is only reported when one
+ * of those is created.
+ */
+final class YogaNativeLibrary {
+
+  @Nullable private static final UnsatisfiedLinkError sLoadError;
+
+  static {
+    UnsatisfiedLinkError loadError = null;
+    try {
+      if (YogaConstants.shouldUseFastMath) {
+        SoLoader.loadLibrary("yogafastmath");
+      } else {
+        SoLoader.loadLibrary("yoga");
+      }
+    } catch (UnsatisfiedLinkError e) {
+      loadError = e;
+    }
+    sLoadError = loadError;
+  }
+
+  private YogaNativeLibrary() {}
+
+  /** Loads the library if that wasn't attempted yet, without failing if it can't be loaded. */
+  static void load() {
+    // Loading happens when this class is initialized.
+  }
+
+  /** @throws UnsatisfiedLinkError if the library couldn't be loaded. */
+  static void ensureLoaded() {
+    if (sLoadError != null) {
+      final UnsatisfiedLinkError error =
+          new UnsatisfiedLinkError(
+              "The native Yoga library is required by the nodes and configs that don't use the "
+                  + "Java layout");
+      error.initCause(sLoadError);
+      throw error;
+    }
+  }
+}
@@ -8,8 +8,8 @@
 package com.facebook.yoga;
 
 import com.facebook.proguard.annotations.DoNotStrip;
-import com.facebook.soloader.SoLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import javax.annotation.Nullable;
 
@@ -17,11 +17,7 @@ import javax.annotation.Nullable;
 public class YogaNode implements Cloneable {
 
   static {
-    if (YogaConstants.shouldUseFastMath) {
-      SoLoader.loadLibrary("yogafastmath");
-    } else {
-      SoLoader.loadLibrary("yoga");
-    }
+    YogaNativeLibrary.load();
   }
 
   /**
@@ -36,16 +32,71 @@ public class YogaNode implements Cloneable {
   private long mNativePointer;
   private Object mData;
 
+  // The style and layout of this node if its config uses the Java layout, in which case there is
+  // no native node.
+  @Nullable YogaJavaNode mJavaNode;
+
   /* Those flags needs be in sync with YGJNI.cpp */
   private static final int MARGIN = 1;
   private static final int PADDING = 2;
   private static final int BORDER = 4;
 
+  /* Those values need to be in sync with YGJNI.cpp and YogaJavaNode */
+  static final int STYLE_DIRECTION = 0;
+  static final int STYLE_FLEX_DIRECTION = 1;
+  static final int STYLE_JUSTIFY_CONTENT = 2;
+  static final int STYLE_ALIGN_ITEMS = 3;
+  static final int STYLE_ALIGN_SELF = 4;
+  static final int STYLE_ALIGN_CONTENT = 5;
+  static final int STYLE_POSITION_TYPE = 6;
+  static final int STYLE_FLEX_WRAP = 7;
+  static final int STYLE_OVERFLOW = 8;
+  static final int STYLE_DISPLAY = 9;
+  static final int STYLE_FLEX = 10;
+  static final int STYLE_FLEX_GROW = 11;
+  static final int STYLE_FLEX_SHRINK = 12;
+  static final int STYLE_FLEX_BASIS = 13;
+  static final int STYLE_FLEX_BASIS_PERCENT = 14;
+  static final int STYLE_FLEX_BASIS_AUTO = 15;
+  static final int STYLE_MARGIN = 16;
+  static final int STYLE_MARGIN_PERCENT = 17;
+  static final int STYLE_MARGIN_AUTO = 18;
+  static final int STYLE_PADDING = 19;
+  static final int STYLE_PADDING_PERCENT = 20;
+  static final int STYLE_BORDER = 21;
+  static final int STYLE_POSITION = 22;
+  static final int STYLE_POSITION_PERCENT = 23;
+  static final int STYLE_WIDTH = 24;
+  static final int STYLE_WIDTH_PERCENT = 25;
+  static final int STYLE_WIDTH_AUTO = 26;
+  static final int STYLE_HEIGHT = 27;
+  static final int STYLE_HEIGHT_PERCENT = 28;
+  static final int STYLE_HEIGHT_AUTO = 29;
+  static final int STYLE_MIN_WIDTH = 30;
+  static final int STYLE_MIN_WIDTH_PERCENT = 31;
+  static final int STYLE_MIN_HEIGHT = 32;
+  static final int STYLE_MIN_HEIGHT_PERCENT = 33;
+  static final int STYLE_MAX_WIDTH = 34;
+  static final int STYLE_MAX_WIDTH_PERCENT = 35;
+  static final int STYLE_MAX_HEIGHT = 36;
+  static final int STYLE_MAX_HEIGHT_PERCENT = 37;
+  static final int STYLE_ASPECT_RATIO = 38;
+
+  // A batched style update takes one int, with the property in its low byte and the edge or the
+  // enum value above, and one float.
+  static final int STYLE_PROPERTY_BITS = 8;
+  private static final int INITIAL_STYLE_BATCH_SIZE = 8;
+
   @DoNotStrip
   private int mEdgeSetFlag = 0;
 
   private boolean mHasSetPosition = false;
 
+  // The style updates that were not applied to the native node yet, if batching is enabled.
+  @Nullable private int[] mBatchedStyleProperties;
+  @Nullable private float[] mBatchedStyleValues;
+  private int mBatchedStyleCount;
+
   @DoNotStrip
   private float mWidth = YogaConstants.UNDEFINED;
   @DoNotStrip
@@ -85,6 +136,7 @@ public class YogaNode implements Cloneable {
 
   private native long jni_YGNodeNew();
   public YogaNode() {
+    YogaNativeLibrary.ensureLoaded();
     mNativePointer = jni_YGNodeNew();
     if (mNativePointer == 0) {
       throw new IllegalStateException("Failed to allocate native memory");
@@ -93,6 +145,11 @@ public class YogaNode implements Cloneable {
 
   private native long jni_YGNodeNewWithConfig(long configPointer);
   public YogaNode(YogaConfig config) {
+    if (config.mUseJavaLayout) {
+      mJavaNode = new YogaJavaNode(this, config);
+      return;
+    }
+
     mNativePointer = jni_YGNodeNewWithConfig(config.mNativePointer);
     if (mNativePointer == 0) {
       throw new IllegalStateException("Failed to allocate native memory");
@@ -103,7 +160,9 @@ public class YogaNode implements Cloneable {
   @Override
   protected void finalize() throws Throwable {
     try {
-      jni_YGNodeFree(mNativePointer);
+      if (mJavaNode == null) {
+        jni_YGNodeFree(mNativePointer);
+      }
     } finally {
       super.finalize();
     }
@@ -111,6 +170,7 @@ public class YogaNode implements Cloneable {
 
   private native void jni_YGNodeReset(long nativePointer);
   public void reset() {
+    mBatchedStyleCount = 0;
     mEdgeSetFlag = 0;
     mHasSetPosition = false;
     mHasNewLayout = true;
@@ -137,6 +197,10 @@ public class YogaNode implements Cloneable {
     mBaselineFunction = null;
     mData = null;
 
+    if (mJavaNode != null) {
+      mJavaNode.reset();
+      return;
+    }
     jni_YGNodeReset(mNativePointer);
   }
 
@@ -153,12 +217,21 @@ public class YogaNode implements Cloneable {
     if (child.mParent != null) {
       throw new IllegalStateException("Child already has a parent, it must be removed first.");
     }
+    if ((child.mJavaNode == null) != (mJavaNode == null)) {
+      throw new IllegalStateException("Child must use the same layout as its parent.");
+    }
 
     if (mChildren == null) {
       mChildren = new ArrayList<>(4);
+    } else if (mJavaNode != null) {
+      cloneChildrenIfNeeded();
     }
     mChildren.add(i, child);
     child.mParent = this;
+    if (mJavaNode != null) {
+      mJavaNode.markDirtyAndPropagate();
+      return;
+    }
     jni_YGNodeInsertChild(mNativePointer, child.mNativePointer, i);
   }
 
@@ -166,18 +239,65 @@ public class YogaNode implements Cloneable {
 
   @Override
   public YogaNode clone() throws CloneNotSupportedException {
+    flushStyle();
     YogaNode clonedYogaNode = (YogaNode) super.clone();
-    long clonedNativePointer = jni_YGNodeClone(mNativePointer, clonedYogaNode);
-    clonedYogaNode.mNativePointer = clonedNativePointer;
+    if (mBatchedStyleProperties != null) {
+      clonedYogaNode.mBatchedStyleProperties = new int[INITIAL_STYLE_BATCH_SIZE];
+      clonedYogaNode.mBatchedStyleValues = new float[INITIAL_STYLE_BATCH_SIZE];
+    }
+    if (mJavaNode != null) {
+      clonedYogaNode.mJavaNode = new YogaJavaNode(clonedYogaNode, mJavaNode);
+    } else {
+      long clonedNativePointer = jni_YGNodeClone(mNativePointer, clonedYogaNode);
+      clonedYogaNode.mNativePointer = clonedNativePointer;
+    }
     clonedYogaNode.mChildren =
         mChildren != null ? (List<YogaNode>) ((ArrayList) mChildren).clone() : null;
     return clonedYogaNode;
   }
 
+  /**
+   * Replaces the children this node shares with the node it was cloned from by clones of them, so
+   * that laying this node out doesn't change the layout of the other one, see
+   * YGCloneChildrenIfNeeded. Only used by the Java layout.
+   */
+  void cloneChildrenIfNeeded() {
+    final int childCount = getChildCount();
+    if (childCount == 0 || mChildren.get(0).mParent == this) {
+      // The children are already owned by this node.
+      return;
+    }
+
+    final YogaConfig config = mJavaNode.mConfig;
+    for (int i = 0; i < childCount; i++) {
+      final YogaNode oldChild = mChildren.get(i);
+      final YogaNode newChild;
+      try {
+        newChild = oldChild.clone();
+      } catch (CloneNotSupportedException e) {
+        throw new RuntimeException(e);
+      }
+      mChildren.set(i, newChild);
+      newChild.mParent = this;
+      if (config.hasOnNodeCloned()) {
+        config.onNodeCloned(oldChild, newChild, this, i);
+      }
+    }
+  }
+
   private native void jni_YGNodeRemoveChild(long nativePointer, long childPointer);
   public YogaNode removeChildAt(int i) {
 
     final YogaNode child = mChildren.remove(i);
+    if (mJavaNode != null) {
+      // A child shared with the node this one was cloned from still belongs to that node.
+      if (child.mParent == this) {
+        child.mParent = null;
+        child.mJavaNode.resetLayout();
+      }
+      mJavaNode.markDirtyAndPropagate();
+      return child;
+    }
     child.mParent = null;
     jni_YGNodeRemoveChild(mNativePointer, child.mNativePointer);
     return child;
@@ -195,31 +315,103 @@ public class YogaNode implements Cloneable {
 
   private native void jni_YGNodeCalculateLayout(long nativePointer, float width, float height);
   public void calculateLayout(float width, float height) {
+    if (mJavaNode != null) {
+      YogaJavaLayout.calculateLayout(mJavaNode, width, height, mJavaNode.mDirection);
+      transferLayoutOutputsRecursive();
+      return;
+    }
+    flushStyleOfTree();
     jni_YGNodeCalculateLayout(mNativePointer, width, height);
   }
 
+  /** Copies the layout computed by the Java layout to the fields, see YGJNI.cpp. */
+  private void transferLayoutOutputsRecursive() {
+    final YogaJavaNode javaNode = mJavaNode;
+    if (!javaNode.mHasNewLayout) {
+      return;
+    }
+
+    mWidth = javaNode.mLayoutDimensions[YogaJavaNode.DIMENSION_WIDTH];
+    mHeight = javaNode.mLayoutDimensions[YogaJavaNode.DIMENSION_HEIGHT];
+    mLeft = javaNode.mLayoutPosition[YogaJavaNode.EDGE_LEFT];
+    mTop = javaNode.mLayoutPosition[YogaJavaNode.EDGE_TOP];
+
+    if ((mEdgeSetFlag & MARGIN) == MARGIN) {
+      mMarginLeft = javaNode.getLayoutMargin(YogaJavaNode.EDGE_LEFT);
+      mMarginTop = javaNode.getLayoutMargin(YogaJavaNode.EDGE_TOP);
+      mMarginRight = javaNode.getLayoutMargin(YogaJavaNode.EDGE_RIGHT);
+      mMarginBottom = javaNode.getLayoutMargin(YogaJavaNode.EDGE_BOTTOM);
+    }
+
+    if ((mEdgeSetFlag & PADDING) == PADDING) {
+      mPaddingLeft = javaNode.getLayoutPadding(YogaJavaNode.EDGE_LEFT);
+      mPaddingTop = javaNode.getLayoutPadding(YogaJavaNode.EDGE_TOP);
+      mPaddingRight = javaNode.getLayoutPadding(YogaJavaNode.EDGE_RIGHT);
+      mPaddingBottom = javaNode.getLayoutPadding(YogaJavaNode.EDGE_BOTTOM);
+    }
+
+    if ((mEdgeSetFlag & BORDER) == BORDER) {
+      mBorderLeft = javaNode.getLayoutBorder(YogaJavaNode.EDGE_LEFT);
+      mBorderTop = javaNode.getLayoutBorder(YogaJavaNode.EDGE_TOP);
+      mBorderRight = javaNode.getLayoutBorder(YogaJavaNode.EDGE_RIGHT);
+      mBorderBottom = javaNode.getLayoutBorder(YogaJavaNode.EDGE_BOTTOM);
+    }
+
+    mHasNewLayout = true;
+    mLayoutDirection = javaNode.mLayoutDirection;
+    javaNode.mHasNewLayout = false;
+
+    for (int i = 0, count = getChildCount(); i < count; i++) {
+      mChildren.get(i).transferLayoutOutputsRecursive();
+    }
+  }
+
   public boolean hasNewLayout() {
     return mHasNewLayout;
   }
 
   private native void jni_YGNodeMarkDirty(long nativePointer);
   public void dirty() {
+    if (mJavaNode != null) {
+      if (!isMeasureDefined()) {
+        throw new IllegalStateException(
+            "Only leaf nodes with custom measure functions should manually mark themselves as "
+                + "dirty");
+      }
+      mJavaNode.markDirtyAndPropagate();
+      return;
+    }
     jni_YGNodeMarkDirty(mNativePointer);
   }
 
   private native void jni_YGNodeMarkDirtyAndPropogateToDescendants(long nativePointer);
 
   public void dirtyAllDescendants() {
+    if (mJavaNode != null) {
+      mJavaNode.markDirtyAndPropagateDownwards();
+      return;
+    }
     jni_YGNodeMarkDirtyAndPropogateToDescendants(mNativePointer);
   }
 
   private native boolean jni_YGNodeIsDirty(long nativePointer);
   public boolean isDirty() {
+    if (mJavaNode != null) {
+      return mJavaNode.mIsDirty;
+    }
+    flushStyle();
     return jni_YGNodeIsDirty(mNativePointer);
   }
 
   private native void jni_YGNodeCopyStyle(long dstNativePointer, long srcNativePointer);
   public void copyStyle(YogaNode srcNode) {
+    if (mJavaNode != null) {
+      mJavaNode.copyStyle(srcNode.mJavaNode);
+      return;
+    }
+    srcNode.flushStyle();
+    // The copied style replaces the updates that were batched before.
+    mBatchedStyleCount = 0;
     jni_YGNodeCopyStyle(mNativePointer, srcNode.mNativePointer);
   }
 
@@ -227,143 +419,299 @@ public class YogaNode implements Cloneable {
     mHasNewLayout = false;
   }
 
+  /**
+   * When enabled, style updates are recorded and applied to the native node in a single JNI call
+   * before they are needed, e.g. by {@link #calculateLayout(float, float)} or by a style getter,
+   * rather than with one JNI call per update.
+   */
+  public void setStyleBatchingEnabled(boolean enabled) {
+    if (enabled == (mBatchedStyleProperties != null)) {
+      return;
+    }
+
+    if (enabled) {
+      mBatchedStyleProperties = new int[INITIAL_STYLE_BATCH_SIZE];
+      mBatchedStyleValues = new float[INITIAL_STYLE_BATCH_SIZE];
+    } else {
+      flushStyle();
+      mBatchedStyleProperties = null;
+      mBatchedStyleValues = null;
+    }
+  }
+
+  /** @return false if batching is disabled and the update must be applied right away. */
+  private boolean batchStyle(int property, int argument, float value) {
+    if (mJavaNode != null) {
+      // The Java layout applies the updates right away, without any JNI call.
+      mJavaNode.applyStyle(property, argument, value);
+      return true;
+    }
+
+    if (mBatchedStyleProperties == null) {
+      return false;
+    }
+
+    if (mBatchedStyleCount == mBatchedStyleProperties.length) {
+      mBatchedStyleProperties = Arrays.copyOf(mBatchedStyleProperties, mBatchedStyleCount * 2);
+      mBatchedStyleValues = Arrays.copyOf(mBatchedStyleValues, mBatchedStyleCount * 2);
+    }
+
+    mBatchedStyleProperties[mBatchedStyleCount] = property | (argument << STYLE_PROPERTY_BITS);
+    mBatchedStyleValues[mBatchedStyleCount] = value;
+    mBatchedStyleCount++;
+    return true;
+  }
+
+  private native void jni_YGNodeStyleApplyBatch(
+      long nativePointer, int[] properties, float[] values, int count);
+  private void flushStyle() {
+    if (mBatchedStyleCount > 0) {
+      jni_YGNodeStyleApplyBatch(
+          mNativePointer, mBatchedStyleProperties, mBatchedStyleValues, mBatchedStyleCount);
+      mBatchedStyleCount = 0;
+    }
+  }
+
+  private void flushStyleOfTree() {
+    flushStyle();
+    for (int i = 0, count = getChildCount(); i < count; i++) {
+      mChildren.get(i).flushStyleOfTree();
+    }
+  }
+
   private native int jni_YGNodeStyleGetDirection(long nativePointer);
   public YogaDirection getStyleDirection() {
+    if (mJavaNode != null) {
+      return YogaDirection.fromInt(mJavaNode.mDirection);
+    }
+    flushStyle();
     return YogaDirection.fromInt(jni_YGNodeStyleGetDirection(mNativePointer));
   }
 
   private native void jni_YGNodeStyleSetDirection(long nativePointer, int direction);
   public void setDirection(YogaDirection direction) {
+    if (batchStyle(STYLE_DIRECTION, direction.intValue(), 0)) {
+      return;
+    }
     jni_YGNodeStyleSetDirection(mNativePointer, direction.intValue());
   }
 
   private native int jni_YGNodeStyleGetFlexDirection(long nativePointer);
   public YogaFlexDirection getFlexDirection() {
+    if (mJavaNode != null) {
+      return YogaFlexDirection.fromInt(mJavaNode.mFlexDirection);
+    }
+    flushStyle();
     return YogaFlexDirection.fromInt(jni_YGNodeStyleGetFlexDirection(mNativePointer));
   }
 
   private native void jni_YGNodeStyleSetFlexDirection(long nativePointer, int flexDirection);
   public void setFlexDirection(YogaFlexDirection flexDirection) {
+    if (batchStyle(STYLE_FLEX_DIRECTION, flexDirection.intValue(), 0)) {
+      return;
+    }
     jni_YGNodeStyleSetFlexDirection(mNativePointer, flexDirection.intValue());
   }
 
   private native int jni_YGNodeStyleGetJustifyContent(long nativePointer);
   public YogaJustify getJustifyContent() {
+    if (mJavaNode != null) {
+      return YogaJustify.fromInt(mJavaNode.mJustifyContent);
+    }
+    flushStyle();
     return YogaJustify.fromInt(jni_YGNodeStyleGetJustifyContent(mNativePointer));
   }
 
   private native void jni_YGNodeStyleSetJustifyContent(long nativePointer, int justifyContent);
   public void setJustifyContent(YogaJustify justifyContent) {
+    if (batchStyle(STYLE_JUSTIFY_CONTENT, justifyContent.intValue(), 0)) {
+      return;
+    }
     jni_YGNodeStyleSetJustifyContent(mNativePointer, justifyContent.intValue());
   }
 
   private native int jni_YGNodeStyleGetAlignItems(long nativePointer);
   public YogaAlign getAlignItems() {
+    if (mJavaNode != null) {
+      return YogaAlign.fromInt(mJavaNode.mAlignItems);
+    }
+    flushStyle();
     return YogaAlign.fromInt(jni_YGNodeStyleGetAlignItems(mNativePointer));
   }
 
   private native void jni_YGNodeStyleSetAlignItems(long nativePointer, int alignItems);
   public void setAlignItems(YogaAlign alignItems) {
+    if (batchStyle(STYLE_ALIGN_ITEMS, alignItems.intValue(), 0)) {
+      return;
+    }
     jni_YGNodeStyleSetAlignItems(mNativePointer, alignItems.intValue());
   }
 
   private native int jni_YGNodeStyleGetAlignSelf(long nativePointer);
   public YogaAlign getAlignSelf() {
+    if (mJavaNode != null) {
+      return YogaAlign.fromInt(mJavaNode.mAlignSelf);
+    }
+    flushStyle();
     return YogaAlign.fromInt(jni_YGNodeStyleGetAlignSelf(mNativePointer));
   }
 
   private native void jni_YGNodeStyleSetAlignSelf(long nativePointer, int alignSelf);
   public void setAlignSelf(YogaAlign alignSelf) {
+    if (batchStyle(STYLE_ALIGN_SELF, alignSelf.intValue(), 0)) {
+      return;
+    }
     jni_YGNodeStyleSetAlignSelf(mNativePointer, alignSelf.intValue());
   }
 
   private native int jni_YGNodeStyleGetAlignContent(long nativePointer);
   public YogaAlign getAlignContent() {
+    if (mJavaNode != null) {
+      return YogaAlign.fromInt(mJavaNode.mAlignContent);
+    }
+    flushStyle();
     return YogaAlign.fromInt(jni_YGNodeStyleGetAlignContent(mNativePointer));
   }
 
   private native void jni_YGNodeStyleSetAlignContent(long nativePointer, int alignContent);
   public void setAlignContent(YogaAlign alignContent) {
+    if (batchStyle(STYLE_ALIGN_CONTENT, alignContent.intValue(), 0)) {
+      return;
+    }
     jni_YGNodeStyleSetAlignContent(mNativePointer, alignContent.intValue());
   }
 
   private native int jni_YGNodeStyleGetPositionType(long nativePointer);
   public YogaPositionType getPositionType() {
+    if (mJavaNode != null) {
+      return YogaPositionType.fromInt(mJavaNode.mPositionType);
+    }
+    flushStyle();
     return YogaPositionType.fromInt(jni_YGNodeStyleGetPositionType(mNativePointer));
   }
 
   private native void jni_YGNodeStyleSetPositionType(long nativePointer, int positionType);
   public void setPositionType(YogaPositionType positionType) {
+    if (batchStyle(STYLE_POSITION_TYPE, positionType.intValue(), 0)) {
+      return;
+    }
     jni_YGNodeStyleSetPositionType(mNativePointer, positionType.intValue());
   }
 
   private native void jni_YGNodeStyleSetFlexWrap(long nativePointer, int wrapType);
   public void setWrap(YogaWrap flexWrap) {
+    if (batchStyle(STYLE_FLEX_WRAP, flexWrap.intValue(), 0)) {
+      return;
+    }
     jni_YGNodeStyleSetFlexWrap(mNativePointer, flexWrap.intValue());
   }
 
   private native int jni_YGNodeStyleGetOverflow(long nativePointer);
   public YogaOverflow getOverflow() {
+    if (mJavaNode != null) {
+      return YogaOverflow.fromInt(mJavaNode.mOverflow);
+    }
+    flushStyle();
     return YogaOverflow.fromInt(jni_YGNodeStyleGetOverflow(mNativePointer));
   }
 
   private native void jni_YGNodeStyleSetOverflow(long nativePointer, int overflow);
   public void setOverflow(YogaOverflow overflow) {
+    if (batchStyle(STYLE_OVERFLOW, overflow.intValue(), 0)) {
+      return;
+    }
     jni_YGNodeStyleSetOverflow(mNativePointer, overflow.intValue());
   }
 
   private native int jni_YGNodeStyleGetDisplay(long nativePointer);
   public YogaDisplay getDisplay() {
+    if (mJavaNode != null) {
+      return YogaDisplay.fromInt(mJavaNode.mDisplay);
+    }
+    flushStyle();
     return YogaDisplay.fromInt(jni_YGNodeStyleGetDisplay(mNativePointer));
   }
 
   private native void jni_YGNodeStyleSetDisplay(long nativePointer, int display);
   public void setDisplay(YogaDisplay display) {
+    if (batchStyle(STYLE_DISPLAY, display.intValue(), 0)) {
+      return;
+    }
     jni_YGNodeStyleSetDisplay(mNativePointer, display.intValue());
   }
 
   private native void jni_YGNodeStyleSetFlex(long nativePointer, float flex);
   public void setFlex(float flex) {
+    if (batchStyle(STYLE_FLEX, 0, flex)) {
+      return;
+    }
     jni_YGNodeStyleSetFlex(mNativePointer, flex);
   }
 
   private native float jni_YGNodeStyleGetFlexGrow(long nativePointer);
   public float getFlexGrow() {
+    if (mJavaNode != null) {
+      return mJavaNode.getStyleFlexGrow();
+    }
+    flushStyle();
     return jni_YGNodeStyleGetFlexGrow(mNativePointer);
   }
 
   private native void jni_YGNodeStyleSetFlexGrow(long nativePointer, float flexGrow);
   public void setFlexGrow(float flexGrow) {
+    if (batchStyle(STYLE_FLEX_GROW, 0, flexGrow)) {
+      return;
+    }
     jni_YGNodeStyleSetFlexGrow(mNativePointer, flexGrow);
   }
 
   private native float jni_YGNodeStyleGetFlexShrink(long nativePointer);
   public float getFlexShrink() {
+    if (mJavaNode != null) {
+      return mJavaNode.getStyleFlexShrink();
+    }
+    flushStyle();
     return jni_YGNodeStyleGetFlexShrink(mNativePointer);
   }
 
   private native void jni_YGNodeStyleSetFlexShrink(long nativePointer, float flexShrink);
   public void setFlexShrink(float flexShrink) {
+    if (batchStyle(STYLE_FLEX_SHRINK, 0, flexShrink)) {
+      return;
+    }
     jni_YGNodeStyleSetFlexShrink(mNativePointer, flexShrink);
   }
 
   private native Object jni_YGNodeStyleGetFlexBasis(long nativePointer);
   public YogaValue getFlexBasis() {
+    if (mJavaNode != null) {
+      return mJavaNode.mFlexBasis;
+    }
+    flushStyle();
     return (YogaValue) jni_YGNodeStyleGetFlexBasis(mNativePointer);
   }
 
   private native void jni_YGNodeStyleSetFlexBasis(long nativePointer, float flexBasis);
   public void setFlexBasis(float flexBasis) {
+    if (batchStyle(STYLE_FLEX_BASIS, 0, flexBasis)) {
+      return;
+    }
     jni_YGNodeStyleSetFlexBasis(mNativePointer, flexBasis);
   }
 
   private native void jni_YGNodeStyleSetFlexBasisPercent(long nativePointer, float percent);
   public void setFlexBasisPercent(float percent) {
+    if (batchStyle(STYLE_FLEX_BASIS_PERCENT, 0, percent)) {
+      return;
+    }
     jni_YGNodeStyleSetFlexBasisPercent(mNativePointer, percent);
   }
 
   private native void jni_YGNodeStyleSetFlexBasisAuto(long nativePointer);
   public void setFlexBasisAuto() {
+    if (batchStyle(STYLE_FLEX_BASIS_AUTO, 0, 0)) {
+      return;
+    }
     jni_YGNodeStyleSetFlexBasisAuto(mNativePointer);
   }
 
@@ -372,24 +720,37 @@ public class YogaNode implements Cloneable {
     if (!((mEdgeSetFlag & MARGIN) == MARGIN)) {
       return YogaValue.UNDEFINED;
     }
+    if (mJavaNode != null) {
+      return mJavaNode.mMargin[edge.intValue()];
+    }
+    flushStyle();
     return (YogaValue) jni_YGNodeStyleGetMargin(mNativePointer, edge.intValue());
   }
 
   private native void jni_YGNodeStyleSetMargin(long nativePointer, int edge, float margin);
   public void setMargin(YogaEdge edge, float margin) {
     mEdgeSetFlag |= MARGIN;
+    if (batchStyle(STYLE_MARGIN, edge.intValue(), margin)) {
+      return;
+    }
     jni_YGNodeStyleSetMargin(mNativePointer, edge.intValue(), margin);
   }
 
   private native void jni_YGNodeStyleSetMarginPercent(long nativePointer, int edge, float percent);
   public void setMarginPercent(YogaEdge edge, float percent) {
     mEdgeSetFlag |= MARGIN;
+    if (batchStyle(STYLE_MARGIN_PERCENT, edge.intValue(), percent)) {
+      return;
+    }
     jni_YGNodeStyleSetMarginPercent(mNativePointer, edge.intValue(), percent);
   }
 
   private native void jni_YGNodeStyleSetMarginAuto(long nativePointer, int edge);
   public void setMarginAuto(YogaEdge edge) {
     mEdgeSetFlag |= MARGIN;
+    if (batchStyle(STYLE_MARGIN_AUTO, edge.intValue(), 0)) {
+      return;
+    }
     jni_YGNodeStyleSetMarginAuto(mNativePointer, edge.intValue());
   }
 
@@ -398,18 +759,28 @@ public class YogaNode implements Cloneable {
     if (!((mEdgeSetFlag & PADDING) == PADDING)) {
       return YogaValue.UNDEFINED;
     }
+    if (mJavaNode != null) {
+      return mJavaNode.mPadding[edge.intValue()];
+    }
+    flushStyle();
     return (YogaValue) jni_YGNodeStyleGetPadding(mNativePointer, edge.intValue());
   }
 
   private native void jni_YGNodeStyleSetPadding(long nativePointer, int edge, float padding);
   public void setPadding(YogaEdge edge, float padding) {
     mEdgeSetFlag |= PADDING;
+    if (batchStyle(STYLE_PADDING, edge.intValue(), padding)) {
+      return;
+    }
     jni_YGNodeStyleSetPadding(mNativePointer, edge.intValue(), padding);
   }
 
   private native void jni_YGNodeStyleSetPaddingPercent(long nativePointer, int edge, float percent);
   public void setPaddingPercent(YogaEdge edge, float percent) {
     mEdgeSetFlag |= PADDING;
+    if (batchStyle(STYLE_PADDING_PERCENT, edge.intValue(), percent)) {
+      return;
+    }
     jni_YGNodeStyleSetPaddingPercent(mNativePointer, edge.intValue(), percent);
   }
 
@@ -418,12 +789,19 @@ public class YogaNode implements Cloneable {
     if (!((mEdgeSetFlag & BORDER) == BORDER)) {
       return YogaConstants.UNDEFINED;
     }
+    if (mJavaNode != null) {
+      return mJavaNode.mBorder[edge.intValue()].value;
+    }
+    flushStyle();
     return jni_YGNodeStyleGetBorder(mNativePointer, edge.intValue());
   }
 
   private native void jni_YGNodeStyleSetBorder(long nativePointer, int edge, float border);
   public void setBorder(YogaEdge edge, float border) {
     mEdgeSetFlag |= BORDER;
+    if (batchStyle(STYLE_BORDER, edge.intValue(), border)) {
+      return;
+    }
     jni_YGNodeStyleSetBorder(mNativePointer, edge.intValue(), border);
   }
 
@@ -432,128 +810,211 @@ public class YogaNode implements Cloneable {
     if (!mHasSetPosition) {
       return YogaValue.UNDEFINED;
     }
+    if (mJavaNode != null) {
+      return mJavaNode.mPosition[edge.intValue()];
+    }
+    flushStyle();
     return (YogaValue) jni_YGNodeStyleGetPosition(mNativePointer, edge.intValue());
   }
 
   private native void jni_YGNodeStyleSetPosition(long nativePointer, int edge, float position);
   public void setPosition(YogaEdge edge, float position) {
     mHasSetPosition = true;
+    if (batchStyle(STYLE_POSITION, edge.intValue(), position)) {
+      return;
+    }
     jni_YGNodeStyleSetPosition(mNativePointer, edge.intValue(), position);
   }
 
   private native void jni_YGNodeStyleSetPositionPercent(long nativePointer, int edge, float percent);
   public void setPositionPercent(YogaEdge edge, float percent) {
     mHasSetPosition = true;
+    if (batchStyle(STYLE_POSITION_PERCENT, edge.intValue(), percent)) {
+      return;
+    }
     jni_YGNodeStyleSetPositionPercent(mNativePointer, edge.intValue(), percent);
   }
 
   private native Object jni_YGNodeStyleGetWidth(long nativePointer);
   public YogaValue getWidth() {
+    if (mJavaNode != null) {
+      return mJavaNode.mDimensions[YogaJavaNode.DIMENSION_WIDTH];
+    }
+    flushStyle();
     return (YogaValue) jni_YGNodeStyleGetWidth(mNativePointer);
   }
 
   private native void jni_YGNodeStyleSetWidth(long nativePointer, float width);
   public void setWidth(float width) {
+    if (batchStyle(STYLE_WIDTH, 0, width)) {
+      return;
+    }
     jni_YGNodeStyleSetWidth(mNativePointer, width);
   }
 
   private native void jni_YGNodeStyleSetWidthPercent(long nativePointer, float percent);
   public void setWidthPercent(float percent) {
+    if (batchStyle(STYLE_WIDTH_PERCENT, 0, percent)) {
+      return;
+    }
     jni_YGNodeStyleSetWidthPercent(mNativePointer, percent);
   }
 
   private native void jni_YGNodeStyleSetWidthAuto(long nativePointer);
   public void setWidthAuto() {
+    if (batchStyle(STYLE_WIDTH_AUTO, 0, 0)) {
+      return;
+    }
     jni_YGNodeStyleSetWidthAuto(mNativePointer);
   }
 
   private native Object jni_YGNodeStyleGetHeight(long nativePointer);
   public YogaValue getHeight() {
+    if (mJavaNode != null) {
+      return mJavaNode.mDimensions[YogaJavaNode.DIMENSION_HEIGHT];
+    }
+    flushStyle();
     return (YogaValue) jni_YGNodeStyleGetHeight(mNativePointer);
   }
 
   private native void jni_YGNodeStyleSetHeight(long nativePointer, float height);
   public void setHeight(float height) {
+    if (batchStyle(STYLE_HEIGHT, 0, height)) {
+      return;
+    }
     jni_YGNodeStyleSetHeight(mNativePointer, height);
   }
 
   private native void jni_YGNodeStyleSetHeightPercent(long nativePointer, float percent);
   public void setHeightPercent(float percent) {
+    if (batchStyle(STYLE_HEIGHT_PERCENT, 0, percent)) {
+      return;
+    }
     jni_YGNodeStyleSetHeightPercent(mNativePointer, percent);
   }
 
   private native void jni_YGNodeStyleSetHeightAuto(long nativePointer);
   public void setHeightAuto() {
+    if (batchStyle(STYLE_HEIGHT_AUTO, 0, 0)) {
+      return;
+    }
     jni_YGNodeStyleSetHeightAuto(mNativePointer);
   }
 
   private native Object jni_YGNodeStyleGetMinWidth(long nativePointer);
   public YogaValue getMinWidth() {
+    if (mJavaNode != null) {
+      return mJavaNode.mMinDimensions[YogaJavaNode.DIMENSION_WIDTH];
+    }
+    flushStyle();
     return (YogaValue) jni_YGNodeStyleGetMinWidth(mNativePointer);
   }
 
   private native void jni_YGNodeStyleSetMinWidth(long nativePointer, float minWidth);
   public void setMinWidth(float minWidth) {
+    if (batchStyle(STYLE_MIN_WIDTH, 0, minWidth)) {
+      return;
+    }
     jni_YGNodeStyleSetMinWidth(mNativePointer, minWidth);
   }
 
   private native void jni_YGNodeStyleSetMinWidthPercent(long nativePointer, float percent);
   public void setMinWidthPercent(float percent) {
+    if (batchStyle(STYLE_MIN_WIDTH_PERCENT, 0, percent)) {
+      return;
+    }
     jni_YGNodeStyleSetMinWidthPercent(mNativePointer, percent);
   }
 
   private native Object jni_YGNodeStyleGetMinHeight(long nativePointer);
   public YogaValue getMinHeight() {
+    if (mJavaNode != null) {
+      return mJavaNode.mMinDimensions[YogaJavaNode.DIMENSION_HEIGHT];
+    }
+    flushStyle();
     return (YogaValue) jni_YGNodeStyleGetMinHeight(mNativePointer);
   }
 
   private native void jni_YGNodeStyleSetMinHeight(long nativePointer, float minHeight);
   public void setMinHeight(float minHeight) {
+    if (batchStyle(STYLE_MIN_HEIGHT, 0, minHeight)) {
+      return;
+    }
     jni_YGNodeStyleSetMinHeight(mNativePointer, minHeight);
   }
 
   private native void jni_YGNodeStyleSetMinHeightPercent(long nativePointer, float percent);
   public void setMinHeightPercent(float percent) {
+    if (batchStyle(STYLE_MIN_HEIGHT_PERCENT, 0, percent)) {
+      return;
+    }
     jni_YGNodeStyleSetMinHeightPercent(mNativePointer, percent);
   }
 
   private native Object jni_YGNodeStyleGetMaxWidth(long nativePointer);
   public YogaValue getMaxWidth() {
+    if (mJavaNode != null) {
+      return mJavaNode.mMaxDimensions[YogaJavaNode.DIMENSION_WIDTH];
+    }
+    flushStyle();
     return (YogaValue) jni_YGNodeStyleGetMaxWidth(mNativePointer);
   }
 
   private native void jni_YGNodeStyleSetMaxWidth(long nativePointer, float maxWidth);
   public void setMaxWidth(float maxWidth) {
+    if (batchStyle(STYLE_MAX_WIDTH, 0, maxWidth)) {
+      return;
+    }
     jni_YGNodeStyleSetMaxWidth(mNativePointer, maxWidth);
   }
 
   private native void jni_YGNodeStyleSetMaxWidthPercent(long nativePointer, float percent);
   public void setMaxWidthPercent(float percent) {
+    if (batchStyle(STYLE_MAX_WIDTH_PERCENT, 0, percent)) {
+      return;
+    }
     jni_YGNodeStyleSetMaxWidthPercent(mNativePointer, percent);
   }
 
   private native Object jni_YGNodeStyleGetMaxHeight(long nativePointer);
   public YogaValue getMaxHeight() {
+    if (mJavaNode != null) {
+      return mJavaNode.mMaxDimensions[YogaJavaNode.DIMENSION_HEIGHT];
+    }
+    flushStyle();
     return (YogaValue) jni_YGNodeStyleGetMaxHeight(mNativePointer);
   }
 
   private native void jni_YGNodeStyleSetMaxHeight(long nativePointer, float maxheight);
   public void setMaxHeight(float maxheight) {
+    if (batchStyle(STYLE_MAX_HEIGHT, 0, maxheight)) {
+      return;
+    }
     jni_YGNodeStyleSetMaxHeight(mNativePointer, maxheight);
   }
 
   private native void jni_YGNodeStyleSetMaxHeightPercent(long nativePointer, float percent);
   public void setMaxHeightPercent(float percent) {
+    if (batchStyle(STYLE_MAX_HEIGHT_PERCENT, 0, percent)) {
+      return;
+    }
     jni_YGNodeStyleSetMaxHeightPercent(mNativePointer, percent);
   }
 
   private native float jni_YGNodeStyleGetAspectRatio(long nativePointer);
   public float getAspectRatio() {
+    if (mJavaNode != null) {
+      return mJavaNode.mAspectRatio;
+    }
+    flushStyle();
     return jni_YGNodeStyleGetAspectRatio(mNativePointer);
   }
 
   private native void jni_YGNodeStyleSetAspectRatio(long nativePointer, float aspectRatio);
   public void setAspectRatio(float aspectRatio) {
+    if (batchStyle(STYLE_ASPECT_RATIO, 0, aspectRatio)) {
+      return;
+    }
     jni_YGNodeStyleSetAspectRatio(mNativePointer, aspectRatio);
   }
 
@@ -637,6 +1098,9 @@ public class YogaNode implements Cloneable {
   private native void jni_YGNodeSetHasMeasureFunc(long nativePointer, boolean hasMeasureFunc);
   public void setMeasureFunction(YogaMeasureFunction measureFunction) {
     mMeasureFunction = measureFunction;
+    if (mJavaNode != null) {
+      return;
+    }
     jni_YGNodeSetHasMeasureFunc(mNativePointer, measureFunction != null);
   }
 
@@ -659,9 +1123,18 @@ public class YogaNode implements Cloneable {
         YogaMeasureMode.fromInt(heightMode));
   }
 
+  /** Measures this node for the Java layout, like YGJNIMeasureFunc does for the native one. */
+  long measureFromJavaLayout(float width, int widthMode, float height, int heightMode) {
+    mLayoutDirection = mJavaNode.mLayoutDirection;
+    return measure(width, widthMode, height, heightMode);
+  }
+
   private native void jni_YGNodeSetHasBaselineFunc(long nativePointer, boolean hasMeasureFunc);
   public void setBaselineFunction(YogaBaselineFunction baselineFunction) {
     mBaselineFunction = baselineFunction;
+    if (mJavaNode != null) {
+      return;
+    }
     jni_YGNodeSetHasBaselineFunc(mNativePointer, baselineFunction != null);
   }
 
@@ -674,6 +1147,10 @@ public class YogaNode implements Cloneable {
     return mMeasureFunction != null;
   }
 
+  boolean isBaselineDefined() {
+    return mBaselineFunction != null;
+  }
+
   public void setData(Object data) {
     mData = data;
   }
@@ -689,6 +1166,43 @@ public class YogaNode implements Cloneable {
    * layout of the tree rooted at this node.
    */
   public void print() {
+    if (mJavaNode != null) {
+      final StringBuilder builder = new StringBuilder();
+      appendLayout(builder, 0);
+      final YogaLogger logger = mJavaNode.mConfig.getLogger();
+      if (logger != null) {
+        logger.log(this, YogaLogLevel.DEBUG, builder.toString());
+      }
+      return;
+    }
+    flushStyleOfTree();
     jni_YGNodePrint(mNativePointer);
   }
+
+  private void appendLayout(StringBuilder builder, int depth) {
+    for (int i = 0; i < depth; i++) {
+      builder.append("  ");
+    }
+    builder
+        .append("<div layout=\"width: ")
+        .append(mWidth)
+        .append("; height: ")
+        .append(mHeight)
+        .append("; top: ")
+        .append(mTop)
+        .append("; left: ")
+        .append(mLeft)
+        .append(";\"")
+        .append(getChildCount() == 0 ? " />" : ">")
+        .append('\n');
+    if (getChildCount() > 0) {
+      for (int i = 0, count = getChildCount(); i < count; i++) {
+        mChildren.get(i).appendLayout(builder, depth + 1);
+      }
+      for (int i = 0; i < depth; i++) {
+        builder.append("  ");
+      }
+      builder.append("</div>\n");
+    }
+  }
 }
@@ -444,6 +444,189 @@ YG_NODE_JNI_STYLE_UNIT_PROP(MaxHeight);
 // Yoga specific properties, not compatible with flexbox specification
 YG_NODE_JNI_STYLE_PROP(jfloat, float, AspectRatio);
 
+// Those values need to be in sync with YogaNode.java
+enum YGJNIStyleProperty {
+  YGJNIStyleDirection = 0,
+  YGJNIStyleFlexDirection = 1,
+  YGJNIStyleJustifyContent = 2,
+  YGJNIStyleAlignItems = 3,
+  YGJNIStyleAlignSelf = 4,
+  YGJNIStyleAlignContent = 5,
+  YGJNIStylePositionType = 6,
+  YGJNIStyleFlexWrap = 7,
+  YGJNIStyleOverflow = 8,
+  YGJNIStyleDisplay = 9,
+  YGJNIStyleFlex = 10,
+  YGJNIStyleFlexGrow = 11,
+  YGJNIStyleFlexShrink = 12,
+  YGJNIStyleFlexBasis = 13,
+  YGJNIStyleFlexBasisPercent = 14,
+  YGJNIStyleFlexBasisAuto = 15,
+  YGJNIStyleMargin = 16,
+  YGJNIStyleMarginPercent = 17,
+  YGJNIStyleMarginAuto = 18,
+  YGJNIStylePadding = 19,
+  YGJNIStylePaddingPercent = 20,
+  YGJNIStyleBorder = 21,
+  YGJNIStylePosition = 22,
+  YGJNIStylePositionPercent = 23,
+  YGJNIStyleWidth = 24,
+  YGJNIStyleWidthPercent = 25,
+  YGJNIStyleWidthAuto = 26,
+  YGJNIStyleHeight = 27,
+  YGJNIStyleHeightPercent = 28,
+  YGJNIStyleHeightAuto = 29,
+  YGJNIStyleMinWidth = 30,
+  YGJNIStyleMinWidthPercent = 31,
+  YGJNIStyleMinHeight = 32,
+  YGJNIStyleMinHeightPercent = 33,
+  YGJNIStyleMaxWidth = 34,
+  YGJNIStyleMaxWidthPercent = 35,
+  YGJNIStyleMaxHeight = 36,
+  YGJNIStyleMaxHeightPercent = 37,
+  YGJNIStyleAspectRatio = 38,
+};
+
+// The property of a batched style update is in the low byte of its int, the edge or the enum
+// value above.
+static const int kStylePropertyBits = 8;
+
+void jni_YGNodeStyleApplyBatch(alias_ref<jobject>,
+                               jlong nativePointer,
+                               alias_ref<JArrayInt> properties,
+                               alias_ref<JArrayFloat> values,
+                               jint count) {
+  const YGNodeRef node = _jlong2YGNodeRef(nativePointer);
+  const auto batchedProperties = properties->getRegion(0, count);
+  const auto batchedValues = values->getRegion(0, count);
+
+  for (jint i = 0; i < count; i++) {
+    const int property = batchedProperties[i] & ((1 << kStylePropertyBits) - 1);
+    const int argument = batchedProperties[i] >> kStylePropertyBits;
+    const float value = static_cast<float>(batchedValues[i]);
+
+    switch (property) {
+      case YGJNIStyleDirection:
+        YGNodeStyleSetDirection(node, static_cast<YGDirection>(argument));
+        break;
+      case YGJNIStyleFlexDirection:
+        YGNodeStyleSetFlexDirection(node, static_cast<YGFlexDirection>(argument));
+        break;
+      case YGJNIStyleJustifyContent:
+        YGNodeStyleSetJustifyContent(node, static_cast<YGJustify>(argument));
+        break;
+      case YGJNIStyleAlignItems:
+        YGNodeStyleSetAlignItems(node, static_cast<YGAlign>(argument));
+        break;
+      case YGJNIStyleAlignSelf:
+        YGNodeStyleSetAlignSelf(node, static_cast<YGAlign>(argument));
+        break;
+      case YGJNIStyleAlignContent:
+        YGNodeStyleSetAlignContent(node, static_cast<YGAlign>(argument));
+        break;
+      case YGJNIStylePositionType:
+        YGNodeStyleSetPositionType(node, static_cast<YGPositionType>(argument));
+        break;
+      case YGJNIStyleFlexWrap:
+        YGNodeStyleSetFlexWrap(node, static_cast<YGWrap>(argument));
+        break;
+      case YGJNIStyleOverflow:
+        YGNodeStyleSetOverflow(node, static_cast<YGOverflow>(argument));
+        break;
+      case YGJNIStyleDisplay:
+        YGNodeStyleSetDisplay(node, static_cast<YGDisplay>(argument));
+        break;
+      case YGJNIStyleFlex:
+        YGNodeStyleSetFlex(node, value);
+        break;
+      case YGJNIStyleFlexGrow:
+        YGNodeStyleSetFlexGrow(node, value);
+        break;
+      case YGJNIStyleFlexShrink:
+        YGNodeStyleSetFlexShrink(node, value);
+        break;
+      case YGJNIStyleFlexBasis:
+        YGNodeStyleSetFlexBasis(node, value);
+        break;
+      case YGJNIStyleFlexBasisPercent:
+        YGNodeStyleSetFlexBasisPercent(node, value);
+        break;
+      case YGJNIStyleFlexBasisAuto:
+        YGNodeStyleSetFlexBasisAuto(node);
+        break;
+      case YGJNIStyleMargin:
+        YGNodeStyleSetMargin(node, static_cast<YGEdge>(argument), value);
+        break;
+      case YGJNIStyleMarginPercent:
+        YGNodeStyleSetMarginPercent(node, static_cast<YGEdge>(argument), value);
+        break;
+      case YGJNIStyleMarginAuto:
+        YGNodeStyleSetMarginAuto(node, static_cast<YGEdge>(argument));
+        break;
+      case YGJNIStylePadding:
+        YGNodeStyleSetPadding(node, static_cast<YGEdge>(argument), value);
+        break;
+      case YGJNIStylePaddingPercent:
+        YGNodeStyleSetPaddingPercent(node, static_cast<YGEdge>(argument), value);
+        break;
+      case YGJNIStyleBorder:
+        YGNodeStyleSetBorder(node, static_cast<YGEdge>(argument), value);
+        break;
+      case YGJNIStylePosition:
+        YGNodeStyleSetPosition(node, static_cast<YGEdge>(argument), value);
+        break;
+      case YGJNIStylePositionPercent:
+        YGNodeStyleSetPositionPercent(node, static_cast<YGEdge>(argument), value);
+        break;
+      case YGJNIStyleWidth:
+        YGNodeStyleSetWidth(node, value);
+        break;
+      case YGJNIStyleWidthPercent:
+        YGNodeStyleSetWidthPercent(node, value);
+        break;
+      case YGJNIStyleWidthAuto:
+        YGNodeStyleSetWidthAuto(node);
+        break;
+      case YGJNIStyleHeight:
+        YGNodeStyleSetHeight(node, value);
+        break;
+      case YGJNIStyleHeightPercent:
+        YGNodeStyleSetHeightPercent(node, value);
+        break;
+      case YGJNIStyleHeightAuto:
+        YGNodeStyleSetHeightAuto(node);
+        break;
+      case YGJNIStyleMinWidth:
+        YGNodeStyleSetMinWidth(node, value);
+        break;
+      case YGJNIStyleMinWidthPercent:
+        YGNodeStyleSetMinWidthPercent(node, value);
+        break;
+      case YGJNIStyleMinHeight:
+        YGNodeStyleSetMinHeight(node, value);
+        break;
+      case YGJNIStyleMinHeightPercent:
+        YGNodeStyleSetMinHeightPercent(node, value);
+        break;
+      case YGJNIStyleMaxWidth:
+        YGNodeStyleSetMaxWidth(node, value);
+        break;
+      case YGJNIStyleMaxWidthPercent:
+        YGNodeStyleSetMaxWidthPercent(node, value);
+        break;
+      case YGJNIStyleMaxHeight:
+        YGNodeStyleSetMaxHeight(node, value);
+        break;
+      case YGJNIStyleMaxHeightPercent:
+        YGNodeStyleSetMaxHeightPercent(node, value);
+        break;
+      case YGJNIStyleAspectRatio:
+        YGNodeStyleSetAspectRatio(node, value);
+        break;
+    }
+  }
+}
+
 jlong jni_YGConfigNew(alias_ref<jobject>) {
   return reinterpret_cast<jlong>(YGConfigNew());
 }
@@ -620,6 +803,7 @@ jint JNI_OnLoad(JavaVM *vm, void *) {
             YGMakeNativeMethod(jni_YGNodeStyleSetMaxHeightPercent),
             YGMakeNativeMethod(jni_YGNodeStyleGetAspectRatio),
             YGMakeNativeMethod(jni_YGNodeStyleSetAspectRatio),
+            YGMakeNativeMethod(jni_YGNodeStyleApplyBatch),
             YGMakeNativeMethod(jni_YGNodeGetInstanceCount),
             YGMakeNativeMethod(jni_YGNodePrint),
             YGMakeNativeMethod(jni_YGNodeClone),
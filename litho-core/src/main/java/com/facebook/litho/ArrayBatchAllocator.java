@@ -8,23 +8,140 @@
  */
 package com.facebook.litho;
 
-import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import com.facebook.infer.annotation.ThreadSafe;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Allocates small primitive arrays in batches ("slabs") to reduce the number of individual
+ * allocations made while building layouts. Each thread owns its slabs, so arrays can be handed out
+ * without any locking from as many layout threads as needed.
+ *
+ * <p>Arrays of up to {@link #MAX_BATCHED_ARRAY_SIZE} elements are batched, bigger ones are simply
+ * allocated. A slab holds arrays of a single length and is dropped once it's been handed out in its
+ * entirety.
+ */
+@ThreadSafe
 public class ArrayBatchAllocator {
 
-  private static final int batchSize = 200;
+  /** Arrays longer than this are not batched. Covers one value for every YogaEdge. */
+  public static final int MAX_BATCHED_ARRAY_SIZE = 9;
+
+  // Roughly how many elements each slab holds, so that slabs of longer arrays hold fewer of them.
+  private static final int SLAB_ELEMENT_COUNT = 400;
+  private static final int MIN_SLAB_ARRAY_COUNT = 16;
 
-  @Nullable private static int[][] arrays = null;
-  private static int index = 0;
+  private static final AtomicLong sServedArrayCount = new AtomicLong();
+  private static final AtomicLong sSlabAllocationCount = new AtomicLong();
+
+  private static final ThreadLocal<Slabs> sSlabs =
+      new ThreadLocal<Slabs>() {
+        @Override
+        protected Slabs initialValue() {
+          return new Slabs();
+        }
+      };
 
   /** same as calling new int[2]; */
   public static int[] newArrayOfSize2() {
-    if (arrays == null || arrays.length == index) {
-      arrays = new int[batchSize][2];
-      index = 0;
+    return newIntArray(2);
+  }
+
+  /** Same as calling {@code new int[size]}. */
+  public static int[] newIntArray(int size) {
+    if (size <= 0 || size > MAX_BATCHED_ARRAY_SIZE) {
+      return new int[size];
+    }
+
+    final Slabs slabs = sSlabs.get();
+    slabs.mServedArrayCount++;
+
+    int[][] slab = slabs.mIntSlabs[size];
+    if (slab == null || slabs.mIntIndices[size] == slab.length) {
+      slab = new int[getSlabArrayCount(size)][size];
+      slabs.mIntSlabs[size] = slab;
+      slabs.mIntIndices[size] = 0;
+      slabs.onSlabAllocated();
+    }
+
+    final int index = slabs.mIntIndices[size]++;
+    final int[] array = slab[index];
+    slab[index] = null;
+    return array;
+  }
+
+  /** Same as calling {@code new float[size]}. */
+  public static float[] newFloatArray(int size) {
+    if (size <= 0 || size > MAX_BATCHED_ARRAY_SIZE) {
+      return new float[size];
+    }
+
+    final Slabs slabs = sSlabs.get();
+    slabs.mServedArrayCount++;
+
+    float[][] slab = slabs.mFloatSlabs[size];
+    if (slab == null || slabs.mFloatIndices[size] == slab.length) {
+      slab = new float[getSlabArrayCount(size)][size];
+      slabs.mFloatSlabs[size] = slab;
+      slabs.mFloatIndices[size] = 0;
+      slabs.onSlabAllocated();
+    }
+
+    final int index = slabs.mFloatIndices[size]++;
+    final float[] array = slab[index];
+    slab[index] = null;
+    return array;
+  }
+
+  /**
+   * @return how many batched arrays have been handed out. Each thread publishes its count when it
+   *     allocates a new slab, so the most recent arrays of every thread may not be included yet.
+   */
+  public static long getServedArrayCount() {
+    return sServedArrayCount.get();
+  }
+
+  /** @return how many slabs have been allocated by all threads. */
+  public static long getSlabAllocationCount() {
+    return sSlabAllocationCount.get();
+  }
+
+  /**
+   * @return the fraction of batched arrays that were served from an existing slab, i.e. without
+   *     allocating a new one, or 0 if no array has been served yet.
+   */
+  public static float getSlabHitRate() {
+    final long served = sServedArrayCount.get();
+    if (served == 0) {
+      return 0;
+    }
+
+    return 1f - (float) sSlabAllocationCount.get() / served;
+  }
+
+  @VisibleForTesting
+  static void reset() {
+    sSlabs.remove();
+    sServedArrayCount.set(0);
+    sSlabAllocationCount.set(0);
+  }
+
+  private static int getSlabArrayCount(int size) {
+    return Math.max(MIN_SLAB_ARRAY_COUNT, SLAB_ELEMENT_COUNT / size);
+  }
+
+  private static final class Slabs {
+    private final int[][][] mIntSlabs = new int[MAX_BATCHED_ARRAY_SIZE + 1][][];
+    private final int[] mIntIndices = new int[MAX_BATCHED_ARRAY_SIZE + 1];
+    private final float[][][] mFloatSlabs = new float[MAX_BATCHED_ARRAY_SIZE + 1][][];
+    private final int[] mFloatIndices = new int[MAX_BATCHED_ARRAY_SIZE + 1];
+    private long mServedArrayCount;
+
+    private void onSlabAllocated() {
+      // Publishing only here keeps the shared counters off the hot path.
+      sServedArrayCount.addAndGet(mServedArrayCount);
+      sSlabAllocationCount.incrementAndGet();
+      mServedArrayCount = 0;
     }
-    int[] toReturn = arrays[index];
-    arrays[index++] = null;
-    return toReturn;
   }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.os.Process;
+import com.facebook.litho.config.ComponentsConfiguration;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link ThreadPoolExecutor} with an unbounded queue, whose threads are named after the given
+ * prefix and run at a background {@link Process} priority. Threads above the core pool size are
+ * stopped after being idle for {@code keepAliveSeconds}.
+ */
+public class BackgroundThreadPoolExecutor extends ThreadPoolExecutor {
+
+  /**
+   * Creates an executor whose threads run at {@link
+   * ComponentsConfiguration#defaultBackgroundThreadPriority}, as set when each thread starts.
+   */
+  public BackgroundThreadPoolExecutor(
+      int corePoolSize, int maxPoolSize, long keepAliveSeconds, String threadNamePrefix) {
+    this(
+        corePoolSize,
+        maxPoolSize,
+        keepAliveSeconds,
+        new BackgroundThreadFactory(threadNamePrefix, true, 0));
+  }
+
+  /** Creates an executor whose threads run at the given priority. */
+  public BackgroundThreadPoolExecutor(
+      int corePoolSize,
+      int maxPoolSize,
+      long keepAliveSeconds,
+      String threadNamePrefix,
+      int threadPriority) {
+    this(
+        corePoolSize,
+        maxPoolSize,
+        keepAliveSeconds,
+        new BackgroundThreadFactory(threadNamePrefix, false, threadPriority));
+  }
+
+  private BackgroundThreadPoolExecutor(
+      int corePoolSize, int maxPoolSize, long keepAliveSeconds, ThreadFactory threadFactory) {
+    super(
+        corePoolSize,
+        maxPoolSize,
+        keepAliveSeconds,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        threadFactory);
+  }
+
+  private static class BackgroundThreadFactory implements ThreadFactory {
+    private final AtomicInteger mThreadNumber = new AtomicInteger(1);
+    private final String mThreadNamePrefix;
+    private final boolean mUseDefaultPriority;
+    private final int mThreadPriority;
+
+    BackgroundThreadFactory(
+        String threadNamePrefix, boolean useDefaultPriority, int threadPriority) {
+      mThreadNamePrefix = threadNamePrefix;
+      mUseDefaultPriority = useDefaultPriority;
+      mThreadPriority = threadPriority;
+    }
+
+    @Override
+    public Thread newThread(final Runnable r) {
+      final Runnable wrapperRunnable =
+          new Runnable() {
+            @Override
+            public void run() {
+              Process.setThreadPriority(
+                  mUseDefaultPriority
+                      ? ComponentsConfiguration.defaultBackgroundThreadPriority
+                      : mThreadPriority);
+              r.run();
+            }
+          };
+
+      return new Thread(wrapperRunnable, mThreadNamePrefix + mThreadNumber.getAndIncrement());
+    }
+  }
+}
@@ -101,9 +101,7 @@ public final class Column extends Component {
     }
 
     if (children != null) {
-      for (Component child : children) {
-        node.child(child);
-      }
+      node.children(children);
     }
 
     return node;
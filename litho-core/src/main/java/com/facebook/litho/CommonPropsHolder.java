@@ -1196,7 +1196,7 @@ class CommonPropsHolder implements CommonProps, CommonPropsCopyable {
           mValues = createArray(Math.max(2, index + 1));
         } else if (index >= mValues.length) {
           int[] oldValues = mValues;
-          mValues = new int[Math.min(oldValues.length * 2, YogaEdge.values().length)];
+          mValues = createArray(Math.min(oldValues.length * 2, YogaEdge.values().length));
           System.arraycopy(oldValues, 0, mValues, 0, oldValues.length);
         }
         mValues[index] = value;
@@ -1204,9 +1204,8 @@ class CommonPropsHolder implements CommonProps, CommonPropsCopyable {
     }
 
     private static int[] createArray(int size) {
-      boolean myGK = false;
-      if (myGK && size == 2) {
-        return ArrayBatchAllocator.newArrayOfSize2(); // = new int[2];
+      if (ComponentsConfiguration.useBatchArrayAllocator) {
+        return ArrayBatchAllocator.newIntArray(size); // = new int[size];
       } else {
         return new int[size];
       }
@@ -1291,10 +1290,18 @@ class CommonPropsHolder implements CommonProps, CommonPropsCopyable {
 
   private static class YogaEdgesWithFloats {
     private YogaEdge[] mEdges = new YogaEdge[2];
-    private float[] mValues = new float[2];
+    private float[] mValues = createArray(2);
     private int mNumEntries;
     private int mSize = 2;
 
+    private static float[] createArray(int size) {
+      if (ComponentsConfiguration.useBatchArrayAllocator) {
+        return ArrayBatchAllocator.newFloatArray(size); // = new float[size];
+      } else {
+        return new float[size];
+      }
+    }
+
     private void add(YogaEdge yogaEdge, float value) {
       if (mNumEntries == mSize) {
         increaseSize();
@@ -1311,7 +1318,7 @@ class CommonPropsHolder implements CommonProps, CommonPropsCopyable {
 
       mSize *= 2;
       mEdges = new YogaEdge[mSize];
-      mValues = new float[mSize];
+      mValues = createArray(mSize);
 
       System.arraycopy(oldEdges, 0, mEdges, 0, mNumEntries);
       System.arraycopy(oldValues, 0, mValues, 0, mNumEntries);
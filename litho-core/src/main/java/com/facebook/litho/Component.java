@@ -44,6 +44,7 @@ import com.facebook.yoga.YogaWrap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -91,6 +92,9 @@ public abstract class Component extends ComponentLifecycle
   // createLayout.
   @Nullable InternalNode mLayoutCreatedInWillRender;
 
+  // Lazily computed by getPropsHash(), 0 until then. Racy but idempotent, like String#hashCode().
+  private int mPropsHash;
+
   protected Component() {
     this(null);
   }
@@ -126,6 +130,73 @@ public abstract class Component extends ComponentLifecycle
     return this == other;
   }
 
+  /**
+   * Used by the generated {@link #isEquivalentTo(Component)} to avoid comparing the props one by
+   * one, and recursively for component props, when the components are known to be different.
+   *
+   * @return true if the props hashes of the components differ, in which case they can't be
+   *     equivalent.
+   */
+  protected final boolean hasDifferentPropsHash(Component other) {
+    return ComponentsConfiguration.useComponentPropsHash && getPropsHash() != other.getPropsHash();
+  }
+
+  /**
+   * Computes a hash of the props of this component, computed only once per instance since the
+   * props don't change once the component is built. Components that are equivalent must have the
+   * same hash: the props must be hashed in a way that is consistent with how {@link
+   * #isEquivalentTo(Component)} compares them, e.g. with the props hash of component props.
+   */
+  protected int computePropsHash() {
+    return 0;
+  }
+
+  final int getPropsHash() {
+    int hash = mPropsHash;
+    if (hash == 0) {
+      hash = computePropsHash();
+      mPropsHash = hash;
+    }
+
+    return hash;
+  }
+
+  /** @return the props hash of the component, to be used in {@link #computePropsHash()}. */
+  protected static int hashComponent(@Nullable Component component) {
+    return component == null ? 0 : component.getPropsHash();
+  }
+
+  /**
+   * @return a hash of the components in the collection, which can contain nested collections of
+   *     components, to be used in {@link #computePropsHash()}.
+   */
+  protected static int hashComponents(@Nullable Collection<?> components) {
+    if (components == null) {
+      return 0;
+    }
+
+    int hash = 1;
+    for (Object item : components) {
+      final int itemHash;
+      if (item instanceof Component) {
+        itemHash = ((Component) item).getPropsHash();
+      } else if (item instanceof Collection) {
+        itemHash = hashComponents((Collection<?>) item);
+      } else {
+        itemHash = 0;
+      }
+      hash = 31 * hash + itemHash;
+    }
+
+    return hash;
+  }
+
+  /** @return a hash consistent with {@link Double#compare(double, double)}. */
+  protected static int hashDouble(double value) {
+    final long bits = Double.doubleToLongBits(value);
+    return (int) (bits ^ (bits >>> 32));
+  }
+
   protected StateContainer getStateContainer() {
     return null;
   }
@@ -48,6 +48,12 @@ public class ComponentContext extends ContextWrapper {
   @ThreadConfined(ThreadConfined.ANY)
   private ComponentTree mComponentTree;
 
+  @ThreadConfined(ThreadConfined.ANY)
+  private @Nullable LayoutCancellationToken mLayoutCancellationToken;
+
+  @ThreadConfined(ThreadConfined.ANY)
+  private @Nullable ParallelLayoutExecutor mParallelLayoutExecutor;
+
   // Used to hold styling information applied to components
   @StyleRes
   @ThreadConfined(ThreadConfined.ANY)
@@ -108,6 +114,8 @@ public class ComponentContext extends ContextWrapper {
       mHeightSpec = componentContext.mHeightSpec;
       mComponentScope = componentContext.mComponentScope;
       mComponentTree = componentContext.mComponentTree;
+      mLayoutCancellationToken = componentContext.mLayoutCancellationToken;
+      mParallelLayoutExecutor = componentContext.mParallelLayoutExecutor;
     } else {
       mResourceCache = ResourceCache.getLatest(context.getResources().getConfiguration());
     }
@@ -232,6 +240,32 @@ public class ComponentContext extends ContextWrapper {
     return mComponentTree;
   }
 
+  /**
+   * Attaches the token that the layout computed with this context (and every context copied from
+   * it) should check to find out whether it has been superseded.
+   */
+  void setLayoutCancellationToken(@Nullable LayoutCancellationToken token) {
+    mLayoutCancellationToken = token;
+  }
+
+  @Nullable
+  LayoutCancellationToken getLayoutCancellationToken() {
+    return mLayoutCancellationToken;
+  }
+
+  /**
+   * Sets the executor used to create sibling subtrees in parallel for layouts computed with this
+   * context and every context copied from it, or null to create them sequentially.
+   */
+  void setParallelLayoutExecutor(@Nullable ParallelLayoutExecutor executor) {
+    mParallelLayoutExecutor = executor;
+  }
+
+  @Nullable
+  ParallelLayoutExecutor getParallelLayoutExecutor() {
+    return mParallelLayoutExecutor;
+  }
+
   protected void setTreeProps(TreeProps treeProps) {
     mTreeProps = treeProps;
   }
@@ -8,33 +8,109 @@
  */
 package com.facebook.litho;
 
+import com.facebook.litho.config.ComponentsConfiguration;
+
 public class ComponentKeyUtils {
 
+  private static final char KEY_SEPARATOR = ',';
+  private static final char CHILD_POSITION_SEPARATOR = '!';
+
+  // 64-bit FNV-1a.
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
   /**
    * @param keyParts a list of objects that will be concatenated to form another component's key
    * @return a key formed by concatenating the key parts delimited by a separator.
    */
   public static String getKeyWithSeparator(Object... keyParts) {
+    if (ComponentsConfiguration.useCompactGlobalKeys) {
+      // Builds the key one level at a time, like the global keys of nested components.
+      String key = String.valueOf(keyParts[0]);
+      for (int i = 1; i < keyParts.length; i++) {
+        key = getCompactKey(key, KEY_SEPARATOR, String.valueOf(keyParts[i]));
+      }
+
+      return key;
+    }
+
     final StringBuilder sb = new StringBuilder();
     sb.append(keyParts[0]);
     for (int i = 1; i < keyParts.length; i++) {
-      sb.append(',').append(keyParts[i]);
+      sb.append(KEY_SEPARATOR).append(keyParts[i]);
     }
 
     return sb.toString();
   }
 
   public static String getKeyWithSeparator(String parentGlobalKey, String key) {
+    if (ComponentsConfiguration.useCompactGlobalKeys) {
+      return getCompactKey(parentGlobalKey, KEY_SEPARATOR, key);
+    }
+
     final StringBuilder sb = new StringBuilder();
-    sb.append(parentGlobalKey).append(',').append(key);
+    sb.append(parentGlobalKey).append(KEY_SEPARATOR).append(key);
 
     return sb.toString();
   }
 
+  /**
+   * @param parentGlobalKey the global key of a component
+   * @param relativeKey the key of one of its descendants relative to it, written as in concatenated
+   *     global keys, e.g. "row,anchor" or "anchor!1"
+   * @return the global key of that descendant.
+   */
+  public static String getGlobalKeyForRelativeKey(String parentGlobalKey, String relativeKey) {
+    if (!ComponentsConfiguration.useCompactGlobalKeys) {
+      return getKeyWithSeparator(parentGlobalKey, relativeKey);
+    }
+
+    // Compact keys are hashed one level at a time, so each part is folded onto the key before it.
+    String key = parentGlobalKey;
+    char separator = KEY_SEPARATOR;
+    int partStart = 0;
+    for (int i = 0, length = relativeKey.length(); i <= length; i++) {
+      final char c = i < length ? relativeKey.charAt(i) : KEY_SEPARATOR;
+      if (c == KEY_SEPARATOR || c == CHILD_POSITION_SEPARATOR) {
+        key = getCompactKey(key, separator, relativeKey.substring(partStart, i));
+        separator = c;
+        partStart = i + 1;
+      }
+    }
+
+    return key;
+  }
+
   public static String getKeyForChildPosition(String currentKey, int index) {
+    if (ComponentsConfiguration.useCompactGlobalKeys) {
+      return getCompactKey(currentKey, CHILD_POSITION_SEPARATOR, Integer.toString(index));
+    }
+
     final StringBuilder sb = new StringBuilder();
-    sb.append(currentKey).append('!').append(index);
+    sb.append(currentKey).append(CHILD_POSITION_SEPARATOR).append(index);
 
     return sb.toString();
   }
+
+  /**
+   * @return a 64-bit hash of the key that would be formed by concatenating parentKey, separator
+   *     and key. Since parentKey is itself such a hash for nested components, the length of the
+   *     global keys doesn't grow with the depth of the tree.
+   */
+  private static String getCompactKey(String parentKey, char separator, String key) {
+    long hash = FNV_OFFSET_BASIS;
+    hash = hash(hash, parentKey);
+    hash = (hash ^ separator) * FNV_PRIME;
+    hash = hash(hash, key);
+
+    return Long.toString(hash, Character.MAX_RADIX);
+  }
+
+  private static long hash(long hash, String value) {
+    for (int i = 0, length = value.length(); i < length; i++) {
+      hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+    }
+
+    return hash;
+  }
 }
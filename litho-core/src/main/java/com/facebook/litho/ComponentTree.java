@@ -12,8 +12,12 @@ package com.facebook.litho;
 import static com.facebook.litho.ComponentLifecycle.StateUpdate;
 import static com.facebook.litho.FrameworkLogEvents.EVENT_LAYOUT_CALCULATE;
 import static com.facebook.litho.FrameworkLogEvents.EVENT_PRE_ALLOCATE_MOUNT_CONTENT;
+import static com.facebook.litho.FrameworkLogEvents.EVENT_WAIT_FOR_IN_FLIGHT_LAYOUT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_IS_BACKGROUND_LAYOUT;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_LAYOUT_CANCELLED;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_LAYOUT_TIME_SAVED_NS;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_LOG_TAG;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_REUSED_IN_FLIGHT_LAYOUT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_TREE_DIFF_ENABLED;
 import static com.facebook.litho.LayoutState.CalculateLayoutSource;
 import static com.facebook.litho.ThreadUtils.assertHoldsLock;
@@ -47,6 +51,8 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.CheckReturnValue;
 import javax.annotation.concurrent.GuardedBy;
@@ -158,6 +164,9 @@ public class ComponentTree {
 
   private volatile NewLayoutStateReadyListener mNewLayoutStateReadyListener;
 
+  // Only used when the layout handlers are PriorityLayoutHandlers.
+  private volatile int mLayoutPriority = PriorityLayoutHandler.PRIORITY_DEFAULT;
+
   private final Object mCurrentCalculateLayoutRunnableLock = new Object();
 
   @GuardedBy("mCurrentCalculateLayoutRunnableLock")
@@ -193,6 +202,16 @@ public class ComponentTree {
   @GuardedBy("this")
   private StateHandler mStateHandler;
 
+  // Tokens of the layouts that are currently being calculated for this tree. Only populated when
+  // ComponentsConfiguration.cancelSupersededLayouts is enabled.
+  @GuardedBy("this")
+  private final List<LayoutCancellationToken> mRunningLayoutTokens = new ArrayList<>();
+
+  // Layouts currently being calculated on a background thread, that measure() can wait for instead
+  // of computing an identical LayoutState on the main thread.
+  @GuardedBy("this")
+  private final List<InFlightLayout> mInFlightLayouts = new ArrayList<>();
+
   @ThreadConfined(ThreadConfined.UI)
   private RenderState mPreviousRenderState;
 
@@ -244,6 +263,10 @@ public class ComponentTree {
     mHasMounted = builder.hasMounted;
     mMeasureListener = builder.mMeasureListener;
 
+    if (builder.parallelLayout) {
+      mContext.setParallelLayoutExecutor(ParallelLayoutExecutor.getDefault());
+    }
+
     if (mLayoutThreadHandler == null) {
       mLayoutThreadHandler = new DefaultLayoutHandler(getDefaultLayoutThreadLooper());
     }
@@ -702,6 +725,7 @@ public class ComponentTree {
     assertMainThread();
 
     Component component = null;
+    InFlightLayout inFlightLayout = null;
     LayoutState toRelease;
     synchronized (this) {
       mIsMeasuring = true;
@@ -722,6 +746,10 @@ public class ComponentTree {
         // Since outputs get set on the same object during the lifecycle calls,
         // we need to copy it in order to use it concurrently.
         component = mRoot.makeShallowCopy();
+
+        if (!forceLayout && ComponentsConfiguration.measureWaitForInFlightLayoutTimeoutMs > 0) {
+          inFlightLayout = findInFlightLayout(mRoot.getId(), mWidthSpec, mHeightSpec);
+        }
       }
     }
 
@@ -730,7 +758,23 @@ public class ComponentTree {
       toRelease = null;
     }
 
+    if (inFlightLayout != null && waitForInFlightLayout(inFlightLayout)) {
+      // The background thread produced exactly the layout we were about to compute.
+      component = null;
+    }
+
     if (component != null) {
+      if (ComponentsConfiguration.measureWaitForInFlightLayoutTimeoutMs > 0) {
+        // Whatever is still queued on the layout thread would compute the very same root and specs
+        // we are about to compute here, so take that work over instead of letting it run again.
+        synchronized (mCurrentCalculateLayoutRunnableLock) {
+          if (mCurrentCalculateLayoutRunnable != null) {
+            mLayoutThreadHandler.removeCallbacks(mCurrentCalculateLayoutRunnable);
+            mCurrentCalculateLayoutRunnable = null;
+          }
+        }
+      }
+
       // TODO: We should re-use the existing CSSNodeDEPRECATED tree instead of re-creating it.
       if (mMainThreadLayoutState != null) {
         // It's beneficial to delete the old layout state before we start creating a new one since
@@ -915,7 +959,10 @@ public class ComponentTree {
           "You cannot update state synchronously from a thread without a looper, " +
               "using the default background layout thread instead");
       mLayoutThreadHandler.removeCallbacks(mUpdateStateSyncRunnable);
-      mLayoutThreadHandler.post(mUpdateStateSyncRunnable);
+      postWithPriority(
+          mLayoutThreadHandler,
+          mUpdateStateSyncRunnable,
+          PriorityLayoutHandler.PRIORITY_STATE_UPDATE);
       return;
     }
 
@@ -1079,6 +1126,41 @@ public class ComponentTree {
         CalculateLayoutSource.SET_SIZE_SPEC);
   }
 
+  /**
+   * Sets the priority of the layouts this tree posts to its layout handler, and updates the
+   * priority of the one that is currently pending, if any. Only has an effect when the layout
+   * handler is a {@link PriorityLayoutHandler}; lower values are more urgent. Layouts triggered by
+   * state updates always use {@link PriorityLayoutHandler#PRIORITY_STATE_UPDATE}.
+   */
+  public void setLayoutPriority(int priority) {
+    if (mLayoutPriority == priority) {
+      return;
+    }
+
+    mLayoutPriority = priority;
+
+    synchronized (mCurrentCalculateLayoutRunnableLock) {
+      if (mCurrentCalculateLayoutRunnable != null
+          && mCurrentCalculateLayoutRunnable.mSource != CalculateLayoutSource.UPDATE_STATE
+          && mLayoutThreadHandler instanceof PriorityLayoutHandler) {
+        ((PriorityLayoutHandler) mLayoutThreadHandler)
+            .updatePriority(mCurrentCalculateLayoutRunnable, priority);
+      }
+    }
+  }
+
+  public int getLayoutPriority() {
+    return mLayoutPriority;
+  }
+
+  private static void postWithPriority(LayoutHandler handler, Runnable runnable, int priority) {
+    if (handler instanceof PriorityLayoutHandler) {
+      ((PriorityLayoutHandler) handler).post(runnable, priority);
+    } else {
+      handler.post(runnable);
+    }
+  }
+
   public void setSizeSpecAsync(int widthSpec, int heightSpec) {
     setRootAndSizeSpecInternal(
         null,
@@ -1286,6 +1368,10 @@ public class ComponentTree {
       if (rootInitialized) {
         mRoot = root;
       }
+
+      if (ComponentsConfiguration.cancelSupersededLayouts) {
+        cancelSupersededLayouts();
+      }
     }
 
     if (isAsync && output != null) {
@@ -1297,7 +1383,12 @@ public class ComponentTree {
           mLayoutThreadHandler.removeCallbacks(mCurrentCalculateLayoutRunnable);
         }
         mCurrentCalculateLayoutRunnable = new CalculateLayoutRunnable(source);
-        mLayoutThreadHandler.post(mCurrentCalculateLayoutRunnable);
+        postWithPriority(
+            mLayoutThreadHandler,
+            mCurrentCalculateLayoutRunnable,
+            source == CalculateLayoutSource.UPDATE_STATE
+                ? PriorityLayoutHandler.PRIORITY_STATE_UPDATE
+                : mLayoutPriority);
       }
     } else {
       calculateLayout(output, source);
@@ -1314,6 +1405,8 @@ public class ComponentTree {
     final int heightSpec;
     final Component root;
     LayoutState previousLayoutState = null;
+    LayoutCancellationToken cancellationToken = null;
+    InFlightLayout inFlightLayout = null;
 
     // Cancel any scheduled layout requests we might have in the background queue
     // since we are starting a new layout computation.
@@ -1348,6 +1441,51 @@ public class ComponentTree {
       if (mMainThreadLayoutState != null) {
         previousLayoutState = mMainThreadLayoutState.acquireRef();
       }
+
+      // A caller waiting for the size needs a real result, so only fire-and-forget layouts can be
+      // cancelled.
+      if (ComponentsConfiguration.cancelSupersededLayouts && output == null) {
+        cancellationToken = new LayoutCancellationToken(root.getId(), widthSpec, heightSpec);
+        mRunningLayoutTokens.add(cancellationToken);
+      }
+
+      if (ComponentsConfiguration.measureWaitForInFlightLayoutTimeoutMs > 0 && !isMainThread()) {
+        inFlightLayout = new InFlightLayout(root.getId(), widthSpec, heightSpec);
+        mInFlightLayouts.add(inFlightLayout);
+      }
+    }
+
+    try {
+      calculateAndCommitLayout(
+          output, source, widthSpec, heightSpec, root, previousLayoutState, cancellationToken);
+    } finally {
+      if (inFlightLayout != null) {
+        synchronized (this) {
+          mInFlightLayouts.remove(inFlightLayout);
+        }
+        inFlightLayout.finish();
+      }
+    }
+  }
+
+  /**
+   * Runs the layout calculation that {@link #calculateLayout(Size, int)} set up and, if it is still
+   * compatible with the current root and specs, commits it as the background LayoutState.
+   */
+  private void calculateAndCommitLayout(
+      Size output,
+      @CalculateLayoutSource int source,
+      int widthSpec,
+      int heightSpec,
+      Component root,
+      @Nullable LayoutState previousLayoutState,
+      @Nullable LayoutCancellationToken cancellationToken) {
+    final ComponentContext layoutContext;
+    if (cancellationToken != null) {
+      layoutContext = mContext.makeNewCopy();
+      layoutContext.setLayoutCancellationToken(cancellationToken);
+    } else {
+      layoutContext = mContext;
     }
 
     final ComponentsLogger logger = mContext.getLogger();
@@ -1362,7 +1500,7 @@ public class ComponentTree {
     LayoutState localLayoutState =
         calculateLayoutState(
             mLayoutLock,
-            mContext,
+            layoutContext,
             root,
             widthSpec,
             heightSpec,
@@ -1370,6 +1508,29 @@ public class ComponentTree {
             previousLayoutState != null ? previousLayoutState.getDiffTree() : null,
             source);
 
+    if (cancellationToken != null) {
+      synchronized (this) {
+        mRunningLayoutTokens.remove(cancellationToken);
+      }
+    }
+
+    if (localLayoutState.isCancelled()) {
+      if (previousLayoutState != null) {
+        previousLayoutState.releaseRef();
+        previousLayoutState = null;
+      }
+
+      localLayoutState.releaseRef();
+      localLayoutState = null;
+
+      if (logger != null) {
+        layoutEvent.addParam(PARAM_LAYOUT_CANCELLED, String.valueOf(true));
+        logger.log(layoutEvent);
+      }
+
+      return;
+    }
+
     if (output != null) {
       output.width = localLayoutState.getWidth();
       output.height = localLayoutState.getHeight();
@@ -1430,14 +1591,103 @@ public class ComponentTree {
 
     if (mPreAllocateMountContentHandler != null) {
       mPreAllocateMountContentHandler.removeCallbacks(mPreAllocateMountContentRunnable);
-      mPreAllocateMountContentHandler.post(mPreAllocateMountContentRunnable);
+      postWithPriority(
+          mPreAllocateMountContentHandler,
+          mPreAllocateMountContentRunnable,
+          PriorityLayoutHandler.PRIORITY_PREALLOCATE);
     }
 
     if (logger != null) {
+      layoutEvent.addParam(PARAM_LAYOUT_CANCELLED, String.valueOf(false));
       logger.log(layoutEvent);
     }
   }
 
+  /**
+   * Cancels every running layout whose root or size specs no longer match the current ones: their
+   * results would be rejected by {@link #calculateLayout(Size, int)} anyway.
+   */
+  @GuardedBy("this")
+  private void cancelSupersededLayouts() {
+    assertHoldsLock(this);
+
+    final int rootId = mRoot.getId();
+    for (int i = mRunningLayoutTokens.size() - 1; i >= 0; i--) {
+      final LayoutCancellationToken token = mRunningLayoutTokens.get(i);
+      if (!token.isFor(rootId, mWidthSpec, mHeightSpec)) {
+        token.cancel();
+        mRunningLayoutTokens.remove(i);
+      }
+    }
+  }
+
+  @GuardedBy("this")
+  @Nullable
+  private InFlightLayout findInFlightLayout(int rootId, int widthSpec, int heightSpec) {
+    assertHoldsLock(this);
+
+    for (int i = 0, size = mInFlightLayouts.size(); i < size; i++) {
+      final InFlightLayout inFlightLayout = mInFlightLayouts.get(i);
+      if (inFlightLayout.isFor(rootId, widthSpec, heightSpec)) {
+        return inFlightLayout;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Blocks the main thread for a bounded amount of time until the given background layout
+   * completes and promotes its result to mMainThreadLayoutState.
+   *
+   * @return whether the main thread now holds a layout compatible with the current root and specs.
+   */
+  @ThreadConfined(ThreadConfined.UI)
+  private boolean waitForInFlightLayout(InFlightLayout inFlightLayout) {
+    final ComponentsLogger logger = mContext.getLogger();
+    LogEvent waitEvent = null;
+    if (logger != null) {
+      waitEvent = logger.newPerformanceEvent(EVENT_WAIT_FOR_IN_FLIGHT_LAYOUT);
+      waitEvent.addParam(PARAM_LOG_TAG, mContext.getLogTag());
+    }
+
+    final long waitStart = System.nanoTime();
+    inFlightLayout.await(ComponentsConfiguration.measureWaitForInFlightLayoutTimeoutMs);
+    final long waitDuration = System.nanoTime() - waitStart;
+
+    LayoutState toRelease;
+    final LayoutState oldMainThreadLayoutState;
+    final boolean isCompatible;
+    long savedDuration = 0;
+    synchronized (this) {
+      oldMainThreadLayoutState = mMainThreadLayoutState;
+      toRelease = setBestMainThreadLayoutAndReturnOldLayout();
+      isCompatible = isCompatibleComponentAndSpec(mMainThreadLayoutState);
+      if (isCompatible) {
+        // Waiting can take longer than the layout itself, if it was almost done already.
+        savedDuration =
+            Math.max(0, mMainThreadLayoutState.mCalculateLayoutDuration - waitDuration);
+      }
+    }
+
+    if (toRelease != null) {
+      toRelease.releaseRef();
+      toRelease = null;
+    }
+
+    if (isCompatible && mMainThreadLayoutState != oldMainThreadLayoutState) {
+      dispatchNewLayoutStateReady();
+    }
+
+    if (logger != null) {
+      waitEvent.addParam(PARAM_REUSED_IN_FLIGHT_LAYOUT, String.valueOf(isCompatible));
+      waitEvent.addParam(PARAM_LAYOUT_TIME_SAVED_NS, String.valueOf(savedDuration));
+      logger.log(waitEvent);
+    }
+
+    return isCompatible;
+  }
+
   private void bindEventAndTriggerHandlers(List<Component> components) {
     clearUnusedTriggerHandlers();
 
@@ -1495,6 +1745,11 @@ public class ComponentTree {
         mPreAllocateMountContentHandler.removeCallbacks(mPreAllocateMountContentRunnable);
       }
 
+      for (int i = 0, size = mRunningLayoutTokens.size(); i < size; i++) {
+        mRunningLayoutTokens.get(i).cancel();
+      }
+      mRunningLayoutTokens.clear();
+
       mReleased = true;
       mReleasedComponent = mRoot.getSimpleName();
       if (mLithoView != null) {
@@ -1741,6 +1996,40 @@ public class ComponentTree {
     return mEventHandlers;
   }
 
+  /**
+   * A layout that is currently being calculated on a background thread. The main thread can wait
+   * on it instead of duplicating the calculation when it needs the very same root and specs.
+   */
+  private static final class InFlightLayout {
+
+    private final int mRootId;
+    private final int mWidthSpec;
+    private final int mHeightSpec;
+    private final CountDownLatch mFinished = new CountDownLatch(1);
+
+    private InFlightLayout(int rootId, int widthSpec, int heightSpec) {
+      mRootId = rootId;
+      mWidthSpec = widthSpec;
+      mHeightSpec = heightSpec;
+    }
+
+    private boolean isFor(int rootId, int widthSpec, int heightSpec) {
+      return mRootId == rootId && mWidthSpec == widthSpec && mHeightSpec == heightSpec;
+    }
+
+    private void finish() {
+      mFinished.countDown();
+    }
+
+    private void await(long timeoutMs) {
+      try {
+        mFinished.await(timeoutMs, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
   private final class CalculateLayoutRunnable implements Runnable {
 
     private final @CalculateLayoutSource int mSource;
@@ -1781,6 +2070,7 @@ public class ComponentTree {
     private MeasureListener mMeasureListener;
     private boolean shouldPreallocatePerMountSpec;
     private boolean canPreallocateOnDefaultHandler;
+    private boolean parallelLayout;
 
     protected Builder() {
     }
@@ -1811,6 +2101,7 @@ public class ComponentTree {
       shouldClipChildren = true;
       hasMounted = false;
       preAllocateMountContentHandler = null;
+      parallelLayout = false;
     }
 
     /**
@@ -1981,6 +2272,17 @@ public class ComponentTree {
       return this;
     }
 
+    /**
+     * Whether the layouts of sibling subtrees in a Row or Column should be created in parallel, on
+     * a shared pool of layout threads. The resulting tree is the same as with a sequential layout.
+     * Only components whose onCreateLayout doesn't touch state shared with their siblings should be
+     * used with this option. False by default.
+     */
+    public Builder parallelLayout(boolean enabled) {
+      this.parallelLayout = enabled;
+      return this;
+    }
+
     /** Builds a {@link ComponentTree} using the parameters specified in this builder. */
     public ComponentTree build() {
       final ComponentTree componentTree = new ComponentTree(this);
@@ -14,6 +14,7 @@ import static android.support.v4.view.ViewCompat.IMPORTANT_FOR_ACCESSIBILITY_AUT
 import android.annotation.TargetApi;
 import android.app.Activity;
 import android.app.Application;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.ContextWrapper;
 import android.graphics.Rect;
@@ -49,6 +50,10 @@ import javax.annotation.concurrent.GuardedBy;
 public class ComponentsPools {
 
   private static final int SCRAP_ARRAY_INITIAL_SIZE = 4;
+  private static final int LAYOUT_POOL_THREAD_CACHE_SIZE = 32;
+  // Adaptive pools may shrink down to 1/ADAPTIVE_POOL_RANGE of, or grow up to ADAPTIVE_POOL_RANGE
+  // times, the size they are declared with.
+  private static final int ADAPTIVE_POOL_RANGE = 4;
 
   private static volatile YogaConfig sYogaConfig;
 
@@ -61,51 +66,51 @@ public class ComponentsPools {
   private static final Object sYogaConfigLock = new Object();
 
   static final RecyclePool<LayoutState> sLayoutStatePool =
-      new RecyclePool<>("LayoutState", 64, true);
+      createPool("LayoutState", 64);
 
   static final RecyclePool<InternalNode> sInternalNodePool =
-      new RecyclePool<>("InternalNode", 256, true);
+      createLayoutPool("InternalNode", 256);
 
   static final RecyclePool<NodeInfo> sNodeInfoPool =
-      new RecyclePool<>("NodeInfo", 256, true);
+      createLayoutPool("NodeInfo", 256);
 
   static final RecyclePool<ViewNodeInfo> sViewNodeInfoPool =
-      new RecyclePool<>("ViewNodeInfo", 64, true);
+      createPool("ViewNodeInfo", 64);
 
   static final RecyclePool<YogaNode> sYogaNodePool =
-      new RecyclePool<>("YogaNode", 256, true);
+      createLayoutPool("YogaNode", 256);
 
   static final RecyclePool<MountItem> sMountItemPool =
-      new RecyclePool<>("MountItem", 256, true);
+      createPool("MountItem", 256);
 
   @GuardedBy("sMountContentLock")
   private static final Map<Context, SparseArray<MountContentPool>> sMountContentPoolsByContext =
       new HashMap<>(4);
 
   static final RecyclePool<LayoutOutput> sLayoutOutputPool =
-      new RecyclePool<>("LayoutOutput", 256, true);
+      createLayoutPool("LayoutOutput", 256);
 
   static final RecyclePool<DisplayListContainer> sDisplayListContainerPool =
       new RecyclePool<>("DisplayListContainer", 64, true);
 
   static final RecyclePool<VisibilityOutput> sVisibilityOutputPool =
-      new RecyclePool<>("VisibilityOutput", 64, true);
+      createPool("VisibilityOutput", 64);
 
   // These are lazily initialized as they are only needed when we're in a test environment.
   static RecyclePool<TestOutput> sTestOutputPool = null;
   static RecyclePool<TestItem> sTestItemPool = null;
 
   static final RecyclePool<VisibilityItem> sVisibilityItemPool =
-      new RecyclePool<>("VisibilityItem", 64, true);
+      createPool("VisibilityItem", 64);
 
   static final RecyclePool<Output<?>> sOutputPool =
-      new RecyclePool<>("Output", 20, true);
+      createPool("Output", 20);
 
   static final RecyclePool<DiffNode> sDiffNodePool =
-      new RecyclePool<>("DiffNode", 256, true);
+      createLayoutPool("DiffNode", 256);
 
   static final RecyclePool<Diff<?>> sDiffPool =
-      new RecyclePool<>("Diff", 20, true);
+      createPool("Diff", 20);
 
   static final RecyclePool<ComponentTree.Builder> sComponentTreeBuilderPool =
       new RecyclePool<>("ComponentTree.Builder", 2, true);
@@ -120,10 +125,10 @@ public class ComponentsPools {
       new RecyclePool<>("RectF", 4, true);
 
   static final RecyclePool<Rect> sRectPool =
-      new RecyclePool<>("Rect", 30, true);
+      createPool("Rect", 30);
 
   static final RecyclePool<Edges> sEdgesPool =
-      new RecyclePool<>("Edges", 30, true);
+      createPool("Edges", 30);
 
   static final RecyclePool<TransitionContext> sTransitionContextPool =
       new RecyclePool<>("TransitionContext", 2, true);
@@ -159,6 +164,9 @@ public class ComponentsPools {
   @GuardedBy("sMountContentLock")
   private static PoolsActivityCallback sActivityCallbacks;
 
+  // Only written while holding sMountContentLock.
+  private static volatile TrimMemoryCallback sTrimMemoryCallbacks;
+
   /**
    * To support Gingerbread (where the registerActivityLifecycleCallbacks API
    * doesn't exist), we allow apps to explicitly invoke activity callbacks. If
@@ -167,7 +175,43 @@ public class ComponentsPools {
    */
   static boolean sIsManualCallbacks;
 
+  /**
+   * Creates a synchronized pool for one of the objects that are acquired and released in bulk
+   * during layout calculation. See {@link ComponentsConfiguration#useThreadLocalLayoutPools}.
+   */
+  private static <T> RecyclePool<T> createLayoutPool(String name, int size) {
+    if (!ComponentsConfiguration.useThreadLocalLayoutPools) {
+      return createPool(name, size);
+    }
+
+    return ComponentsConfiguration.useAdaptivePoolSizes
+        ? new ThreadLocalRecyclePool<T>(
+            name,
+            size,
+            getAdaptiveMinSize(size),
+            size * ADAPTIVE_POOL_RANGE,
+            LAYOUT_POOL_THREAD_CACHE_SIZE)
+        : new ThreadLocalRecyclePool<T>(name, size, LAYOUT_POOL_THREAD_CACHE_SIZE);
+  }
+
+  /**
+   * Creates a synchronized pool of the given size, which adapts to the observed demand when
+   * {@link ComponentsConfiguration#useAdaptivePoolSizes} is enabled.
+   */
+  private static <T> RecyclePool<T> createPool(String name, int size) {
+    return ComponentsConfiguration.useAdaptivePoolSizes
+        ? new RecyclePool<T>(
+            name, size, getAdaptiveMinSize(size), size * ADAPTIVE_POOL_RANGE, true /* sync */)
+        : new RecyclePool<T>(name, size, true /* sync */);
+  }
+
+  private static int getAdaptiveMinSize(int size) {
+    return Math.max(1, size / ADAPTIVE_POOL_RANGE);
+  }
+
   static LayoutState acquireLayoutState(ComponentContext context) {
+    ensureTrimMemoryCallbacks(context);
+
     LayoutState state = sLayoutStatePool.acquire();
     if (state == null) {
       state = new LayoutState();
@@ -181,7 +225,7 @@ public class ComponentsPools {
     if (sYogaConfig == null) {
       synchronized (sYogaConfigLock) {
         if (sYogaConfig == null) {
-          sYogaConfig = new YogaConfig();
+          sYogaConfig = new YogaConfig(ComponentsConfiguration.useJavaYogaLayout);
           sYogaConfig.setUseWebDefaults(true);
           sYogaConfig.setUseLegacyStretchBehaviour(true);
         }
@@ -198,6 +242,7 @@ public class ComponentsPools {
     if (node == null) {
       node = new YogaNode(sYogaConfig);
     }
+    node.setStyleBatchingEnabled(ComponentsConfiguration.batchYogaStyleUpdates);
 
     return node;
   }
@@ -631,6 +676,34 @@ public class ComponentsPools {
       ((Application) context.getApplicationContext())
           .registerActivityLifecycleCallbacks(sActivityCallbacks);
     }
+
+    ensureTrimMemoryCallbacks(context);
+  }
+
+  /**
+   * Registers the callback that trims the pools when memory runs low. The layout pools are created
+   * without a context, so this happens the first time they are used for a layout or a mount content
+   * pool is created.
+   */
+  private static void ensureTrimMemoryCallbacks(Context context) {
+    if (sTrimMemoryCallbacks != null
+        || !ComponentsConfiguration.useAdaptivePoolSizes
+        || Build.VERSION.SDK_INT < Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+      return;
+    }
+
+    synchronized (sMountContentLock) {
+      if (sTrimMemoryCallbacks == null) {
+        sTrimMemoryCallbacks =
+            new TrimMemoryCallback() {
+              @Override
+              public void onTrimMemory(int level) {
+                ComponentsPools.onTrimMemory(level);
+              }
+            };
+        context.getApplicationContext().registerComponentCallbacks(sTrimMemoryCallbacks);
+      }
+    }
   }
 
   static SparseArrayCompat<MountItem> acquireScrapMountItemsArray() {
@@ -763,6 +836,41 @@ public class ComponentsPools {
     }
   }
 
+  /**
+   * Gives memory back in response to {@link ComponentCallbacks2#onTrimMemory(int)}. Adaptive pools
+   * are shrunk to their minimum size when the app starts running low on memory or goes to the
+   * background, and all the internal pools are emptied when memory is critically low or the process
+   * is likely to be killed. This is called automatically once a layout has been calculated or mount
+   * content pools have been used, but it can also be forwarded manually.
+   */
+  public static void onTrimMemory(int level) {
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+        || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      clearInternalUtilPools();
+    }
+
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+      trimInternalUtilPools();
+    }
+  }
+
+  private static void trimInternalUtilPools() {
+    sLayoutStatePool.trimToMinSize();
+    sYogaNodePool.trimToMinSize();
+    sInternalNodePool.trimToMinSize();
+    sNodeInfoPool.trimToMinSize();
+    sViewNodeInfoPool.trimToMinSize();
+    sMountItemPool.trimToMinSize();
+    sLayoutOutputPool.trimToMinSize();
+    sVisibilityOutputPool.trimToMinSize();
+    sVisibilityItemPool.trimToMinSize();
+    sOutputPool.trimToMinSize();
+    sDiffNodePool.trimToMinSize();
+    sDiffPool.trimToMinSize();
+    sRectPool.trimToMinSize();
+    sEdgesPool.trimToMinSize();
+  }
+
   /**
    * Call from tests to clear external references.
    */
@@ -953,4 +1061,16 @@ public class ComponentsPools {
   static void clearActivityCallbacks() {
     sActivityCallbacks = null;
   }
+
+  /**
+   * Drops the Yoga config and the pooled nodes created with it, so that the next layouts use the
+   * implementation of Yoga selected by {@link ComponentsConfiguration#useJavaYogaLayout}.
+   */
+  @VisibleForTesting
+  static void resetYogaConfig() {
+    synchronized (sYogaConfigLock) {
+      sYogaConfig = null;
+      sYogaNodePool.clear();
+    }
+  }
 }
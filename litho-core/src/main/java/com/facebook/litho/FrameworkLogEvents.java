@@ -31,6 +31,7 @@ public interface FrameworkLogEvents {
   int EVENT_SECTIONS_ON_CREATE_CHILDREN = 14;
   int EVENT_SECTIONS_SET_ROOT = 15;
   int EVENT_CALCULATE_LAYOUT_STATE = 16;
+  int EVENT_WAIT_FOR_IN_FLIGHT_LAYOUT = 17;
 
   String PARAM_COMPONENT = "component";
   String PARAM_LOG_TAG = "log_tag";
@@ -60,4 +61,7 @@ public interface FrameworkLogEvents {
   String PARAM_SECTION_SET_ROOT_SOURCE = "section_set_root_source";
   String PARAM_SET_ROOT_ON_BG_THREAD = "sections_set_root_bg_thread";
   String PARAM_LAYOUT_STATE_SOURCE = "calculate_layout_state_source";
+  String PARAM_LAYOUT_CANCELLED = "layout_cancelled";
+  String PARAM_REUSED_IN_FLIGHT_LAYOUT = "reused_in_flight_layout";
+  String PARAM_LAYOUT_TIME_SAVED_NS = "layout_time_saved_ns";
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.graphics.Rect;
+import com.facebook.infer.annotation.ThreadConfined;
+import java.util.Arrays;
+
+/**
+ * Keeps track of which {@link VisibilityOutput}s of a {@link LayoutState} intersect the visible
+ * rect as it moves, so that {@link MountState} only needs to compute visibility events for the
+ * outputs that intersect the previous or the current visible rect.
+ *
+ * <p>An output intersects the visible rect when four conditions hold: its top is above the rect's
+ * bottom, its bottom below the rect's top, and likewise for left and right. For every condition
+ * there is a cursor over the outputs sorted by the relevant edge, so that when the rect moves only
+ * the outputs whose edge was crossed are touched.
+ */
+@ThreadConfined(ThreadConfined.UI)
+class IncrementalVisibilityProcessor {
+
+  private static final int ALL_CONDITIONS = 4;
+
+  private boolean mIsInitialized;
+
+  // Per visibility output index: how many of the four intersection conditions currently hold.
+  private byte[] mSatisfiedConditions = new byte[0];
+  private boolean[] mIsCandidate = new boolean[0];
+
+  // Indices of the outputs that intersected the visible rect after the last update, ascending.
+  private int[] mIntersecting = new int[8];
+  private int mIntersectingCount;
+
+  private int[] mCandidates = new int[8];
+  private int mCandidateCount;
+
+  // Number of outputs, in the respective sorted order, whose top (left) is above (before) the
+  // rect's bottom (right): these satisfy their condition.
+  private int mTopsIndex;
+  private int mLeftsIndex;
+  // Number of outputs, in the respective sorted order, whose bottom (right) is above (before) the
+  // rect's top (left): these don't satisfy their condition.
+  private int mBottomsIndex;
+  private int mRightsIndex;
+
+  /** Forgets the tracked state. Must be called whenever the mounted LayoutState changes. */
+  void reset() {
+    mIsInitialized = false;
+  }
+
+  /**
+   * Updates the tracked state for the new visible rect and collects the outputs that need to be
+   * processed: the ones that intersected the previous visible rect and the ones that intersect the
+   * new one.
+   *
+   * @return false if every output needs to be processed, in which case no candidates are
+   *     collected. This happens on the first update after {@link #reset()}.
+   */
+  boolean update(LayoutState layoutState, Rect visibleRect) {
+    if (!mIsInitialized) {
+      initialize(layoutState, visibleRect);
+      mIsInitialized = true;
+      return false;
+    }
+
+    mCandidateCount = 0;
+    for (int i = 0; i < mIntersectingCount; i++) {
+      addCandidate(mIntersecting[i]);
+    }
+
+    final int count = layoutState.getVisibilityOutputCount();
+
+    final int[] tops = layoutState.getVisibilityOutputTops();
+    while (mTopsIndex < count
+        && getBounds(layoutState, tops[mTopsIndex]).top < visibleRect.bottom) {
+      onConditionChanged(tops[mTopsIndex++], 1);
+    }
+    while (mTopsIndex > 0
+        && getBounds(layoutState, tops[mTopsIndex - 1]).top >= visibleRect.bottom) {
+      onConditionChanged(tops[--mTopsIndex], -1);
+    }
+
+    final int[] bottoms = layoutState.getVisibilityOutputBottoms();
+    while (mBottomsIndex < count
+        && getBounds(layoutState, bottoms[mBottomsIndex]).bottom <= visibleRect.top) {
+      onConditionChanged(bottoms[mBottomsIndex++], -1);
+    }
+    while (mBottomsIndex > 0
+        && getBounds(layoutState, bottoms[mBottomsIndex - 1]).bottom > visibleRect.top) {
+      onConditionChanged(bottoms[--mBottomsIndex], 1);
+    }
+
+    final int[] lefts = layoutState.getVisibilityOutputLefts();
+    while (mLeftsIndex < count
+        && getBounds(layoutState, lefts[mLeftsIndex]).left < visibleRect.right) {
+      onConditionChanged(lefts[mLeftsIndex++], 1);
+    }
+    while (mLeftsIndex > 0
+        && getBounds(layoutState, lefts[mLeftsIndex - 1]).left >= visibleRect.right) {
+      onConditionChanged(lefts[--mLeftsIndex], -1);
+    }
+
+    final int[] rights = layoutState.getVisibilityOutputRights();
+    while (mRightsIndex < count
+        && getBounds(layoutState, rights[mRightsIndex]).right <= visibleRect.left) {
+      onConditionChanged(rights[mRightsIndex++], -1);
+    }
+    while (mRightsIndex > 0
+        && getBounds(layoutState, rights[mRightsIndex - 1]).right > visibleRect.left) {
+      onConditionChanged(rights[--mRightsIndex], 1);
+    }
+
+    // Outputs must be processed in the same order as a full pass would.
+    Arrays.sort(mCandidates, 0, mCandidateCount);
+
+    mIntersectingCount = 0;
+    for (int i = 0; i < mCandidateCount; i++) {
+      final int index = mCandidates[i];
+      mIsCandidate[index] = false;
+      if (mSatisfiedConditions[index] == ALL_CONDITIONS) {
+        mIntersecting = append(mIntersecting, mIntersectingCount++, index);
+      }
+    }
+
+    return true;
+  }
+
+  int getCandidateCount() {
+    return mCandidateCount;
+  }
+
+  /** @return the index, in the LayoutState, of the visibility output to process. */
+  int getCandidateAt(int position) {
+    return mCandidates[position];
+  }
+
+  private void initialize(LayoutState layoutState, Rect visibleRect) {
+    final int count = layoutState.getVisibilityOutputCount();
+    if (mSatisfiedConditions.length < count) {
+      mSatisfiedConditions = new byte[count];
+      mIsCandidate = new boolean[count];
+    } else {
+      Arrays.fill(mIsCandidate, 0, count, false);
+    }
+
+    mIntersectingCount = 0;
+    mCandidateCount = 0;
+    mTopsIndex = 0;
+    mBottomsIndex = 0;
+    mLeftsIndex = 0;
+    mRightsIndex = 0;
+
+    for (int i = 0; i < count; i++) {
+      final Rect bounds = getBounds(layoutState, i);
+      int satisfied = 0;
+      if (bounds.top < visibleRect.bottom) {
+        satisfied++;
+        mTopsIndex++;
+      }
+      if (bounds.bottom > visibleRect.top) {
+        satisfied++;
+      } else {
+        mBottomsIndex++;
+      }
+      if (bounds.left < visibleRect.right) {
+        satisfied++;
+        mLeftsIndex++;
+      }
+      if (bounds.right > visibleRect.left) {
+        satisfied++;
+      } else {
+        mRightsIndex++;
+      }
+
+      mSatisfiedConditions[i] = (byte) satisfied;
+      if (satisfied == ALL_CONDITIONS) {
+        mIntersecting = append(mIntersecting, mIntersectingCount++, i);
+      }
+    }
+  }
+
+  private void onConditionChanged(int index, int delta) {
+    mSatisfiedConditions[index] += delta;
+    addCandidate(index);
+  }
+
+  private void addCandidate(int index) {
+    if (!mIsCandidate[index]) {
+      mIsCandidate[index] = true;
+      mCandidates = append(mCandidates, mCandidateCount++, index);
+    }
+  }
+
+  private static Rect getBounds(LayoutState layoutState, int index) {
+    return layoutState.getVisibilityOutputAt(index).getBounds();
+  }
+
+  private static int[] append(int[] array, int position, int value) {
+    if (position == array.length) {
+      array = Arrays.copyOf(array, array.length * 2);
+    }
+    array[position] = value;
+    return array;
+  }
+}
@@ -707,6 +707,80 @@ class InternalNode implements ComponentLayout {
     return this;
   }
 
+  /**
+   * Adds the given children in order. When parallel layout is enabled for this node's context,
+   * the layouts of the children that form independent subtrees are created concurrently; see
+   * {@link #canCreateLayoutInParallel(Component)}.
+   */
+  InternalNode children(List<Component> children) {
+    final ParallelLayoutExecutor executor = mComponentContext.getParallelLayoutExecutor();
+    final int count = children.size();
+
+    if (executor == null || count < 2 || ComponentsConfiguration.isDebugModeEnabled) {
+      for (int i = 0; i < count; i++) {
+        child(children.get(i));
+      }
+      return this;
+    }
+
+    final InternalNode[] layouts = new InternalNode[count];
+    final List<Runnable> tasks = new ArrayList<>(count);
+
+    for (int i = 0; i < count; i++) {
+      final Component child = children.get(i);
+      if (child == null) {
+        continue;
+      }
+
+      if (!canCreateLayoutInParallel(child)) {
+        layouts[i] = Layout.create(mComponentContext, child);
+        continue;
+      }
+
+      // Global keys and state depend on the order in which siblings are visited, so they're set up
+      // here, in order, exactly as Layout.create would. Only creating the layout is forked.
+      child.updateInternalChildState(mComponentContext);
+
+      final int index = i;
+      tasks.add(
+          new Runnable() {
+            @Override
+            public void run() {
+              final ComponentContext scopedContext = child.getScopedContext();
+              layouts[index] = child.createLayout(scopedContext, false);
+              scopedContext.setTreeProps(null);
+            }
+          });
+    }
+
+    if (tasks.size() == 1) {
+      tasks.get(0).run();
+    } else if (!tasks.isEmpty()) {
+      executor.runAll(tasks.toArray(new Runnable[tasks.size()]));
+    }
+
+    // Merge in the original order so that the tree, and thus the output ids, are the same as with
+    // a sequential layout.
+    for (int i = 0; i < count; i++) {
+      final InternalNode layout = layouts[i];
+      if (layout != null && layout != NULL_LAYOUT) {
+        addChildAt(layout, mYogaNode.getChildCount());
+      }
+    }
+
+    return this;
+  }
+
+  /**
+   * Whether the layout of the given child only touches its own subtree. Row and Column children
+   * are resolved in the scope of the component that created them, which is shared with their
+   * siblings, so they are resolved on the calling thread (their own children can still be forked).
+   * Layouts created in willRender are already resolved.
+   */
+  private static boolean canCreateLayoutInParallel(Component child) {
+    return child.mLayoutCreatedInWillRender == null && !child.isInternalComponent();
+  }
+
   InternalNode background(Reference<? extends Drawable> background) {
     mPrivateFlags |= PFLAG_BACKGROUND_IS_SET;
     mBackground = background;
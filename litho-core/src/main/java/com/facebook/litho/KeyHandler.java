@@ -20,7 +20,8 @@ import java.util.Set;
 
 /**
  * This class manages the {@link Component}s global keys for a {@link ComponentTree}. It provides
- * methods for detecting duplicate keys and logging duplicate key occurences.
+ * methods for detecting duplicate keys and logging duplicate key occurences. Keys may be
+ * registered from several threads when parallel layout is enabled.
  */
 public class KeyHandler {
 
@@ -38,7 +39,7 @@ public class KeyHandler {
     mLogger = logger;
   }
 
-  public void registerKey(Component component) {
+  public synchronized void registerKey(Component component) {
     /**
      * We still need to check whether the component's global key is unique, in case a duplicate key
      * has been manually set on sibling components.
@@ -48,7 +49,7 @@ public class KeyHandler {
   }
 
   /** Returns true if this KeyHandler has already recorded a component with the given key. */
-  public boolean hasKey(String key) {
+  public synchronized boolean hasKey(String key) {
     return mKnownGlobalKeys.contains(key);
   }
 
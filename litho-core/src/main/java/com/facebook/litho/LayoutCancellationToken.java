@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.infer.annotation.ThreadSafe;
+
+/**
+ * Cooperative cancellation signal for a layout calculation. A {@link ComponentTree} hands one out
+ * for every layout it starts and cancels it as soon as a newer root or size spec makes the result
+ * useless. The token travels with the {@link ComponentContext} so that {@link LayoutState} can
+ * check it between the expensive phases (tree creation, nested tree resolution, measurement) and
+ * bail out early instead of computing a layout that would be thrown away.
+ */
+@ThreadSafe
+class LayoutCancellationToken {
+
+  private final int mRootId;
+  private final int mWidthSpec;
+  private final int mHeightSpec;
+  private volatile boolean mIsCancelled;
+
+  LayoutCancellationToken(int rootId, int widthSpec, int heightSpec) {
+    mRootId = rootId;
+    mWidthSpec = widthSpec;
+    mHeightSpec = heightSpec;
+  }
+
+  /**
+   * @return whether the layout this token was created for still matches the given root and size
+   *     specs, i.e. whether its result could still be committed.
+   */
+  boolean isFor(int rootId, int widthSpec, int heightSpec) {
+    return mRootId == rootId && mWidthSpec == widthSpec && mHeightSpec == heightSpec;
+  }
+
+  void cancel() {
+    mIsCancelled = true;
+  }
+
+  boolean isCancelled() {
+    return mIsCancelled;
+  }
+
+  /** Null-safe check used by the layout code, where most contexts carry no token. */
+  static boolean isCancelled(ComponentContext c) {
+    final LayoutCancellationToken token = c.getLayoutCancellationToken();
+    return token != null && token.mIsCancelled;
+  }
+}
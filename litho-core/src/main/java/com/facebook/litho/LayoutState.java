@@ -28,6 +28,7 @@ import static com.facebook.litho.FrameworkLogEvents.EVENT_COLLECT_RESULTS;
 import static com.facebook.litho.FrameworkLogEvents.EVENT_CREATE_LAYOUT;
 import static com.facebook.litho.FrameworkLogEvents.EVENT_CSS_LAYOUT;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_COMPONENT;
+import static com.facebook.litho.FrameworkLogEvents.PARAM_LAYOUT_CANCELLED;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_LAYOUT_STATE_SOURCE;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_LOG_TAG;
 import static com.facebook.litho.FrameworkLogEvents.PARAM_TREE_DIFF_ENABLED;
@@ -75,6 +76,7 @@ import com.facebook.yoga.YogaNode;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -145,6 +147,45 @@ class LayoutState {
         }
       };
 
+  private static final int EDGE_TOP = 0;
+  private static final int EDGE_BOTTOM = 1;
+  private static final int EDGE_LEFT = 2;
+  private static final int EDGE_RIGHT = 3;
+
+  static final Comparator<LayoutOutput> sLeftsComparator =
+      new Comparator<LayoutOutput>() {
+        @Override
+        public int compare(LayoutOutput lhs, LayoutOutput rhs) {
+          final int lhsLeft = lhs.getBounds().left;
+          final int rhsLeft = rhs.getBounds().left;
+          return lhsLeft < rhsLeft
+              ? -1
+              : lhsLeft > rhsLeft
+              ? 1
+              // Hosts should be first for lefts so that they are mounted first if possible.
+              : isHostSpec(lhs.getComponent()) == isHostSpec(rhs.getComponent())
+              ? 0
+              : isHostSpec(lhs.getComponent()) ? -1 : 1;
+        }
+      };
+
+  static final Comparator<LayoutOutput> sRightsComparator =
+      new Comparator<LayoutOutput>() {
+        @Override
+        public int compare(LayoutOutput lhs, LayoutOutput rhs) {
+          final int lhsRight = lhs.getBounds().right;
+          final int rhsRight = rhs.getBounds().right;
+          return lhsRight < rhsRight
+              ? -1
+              : lhsRight > rhsRight
+              ? 1
+              // Hosts should be last for rights so that they are mounted first if possible.
+              : isHostSpec(lhs.getComponent()) == isHostSpec(rhs.getComponent())
+              ? 0
+              : isHostSpec(lhs.getComponent()) ? 1 : -1;
+        }
+      };
+
   private final Map<String, Rect> mComponentKeyToBounds = new HashMap<>();
   private final List<Component> mComponents = new ArrayList<>();
 
@@ -167,9 +208,19 @@ class LayoutState {
 
   private final List<LayoutOutput> mMountableOutputs = new ArrayList<>(8);
   private final List<VisibilityOutput> mVisibilityOutputs = new ArrayList<>(8);
+  // Indices into mVisibilityOutputs sorted by each edge of the outputs' bounds. Only populated
+  // when ComponentsConfiguration.incrementalVisibilityHandling is set.
+  @Nullable private int[] mVisibilityOutputTops;
+  @Nullable private int[] mVisibilityOutputBottoms;
+  @Nullable private int[] mVisibilityOutputLefts;
+  @Nullable private int[] mVisibilityOutputRights;
   private final LongSparseArray<Integer> mOutputsIdToPositionMap = new LongSparseArray<>(8);
   private final ArrayList<LayoutOutput> mMountableOutputTops = new ArrayList<>();
   private final ArrayList<LayoutOutput> mMountableOutputBottoms = new ArrayList<>();
+  // Only populated when ComponentsConfiguration.useTwoDimensionalIncrementalMount is set.
+  private final ArrayList<LayoutOutput> mMountableOutputLefts = new ArrayList<>();
+  private final ArrayList<LayoutOutput> mMountableOutputRights = new ArrayList<>();
+  private boolean mHasMountableOutputLeftsAndRights;
   private final Queue<Integer> mDisplayListsToPrefetch = new LinkedList<>();
 
   @Nullable private LayoutStateOutputIdCalculator mLayoutStateOutputIdCalculator;
@@ -211,6 +262,7 @@ class LayoutState {
   private SimpleArrayMap<String, LayoutOutput> mTransitionKeyMapping;
   private boolean mHasLithoViewWidthAnimation = false;
   private boolean mHasLithoViewHeightAnimation = false;
+  private boolean mIsCancelled;
   long mCalculateLayoutDuration;
 
   LayoutState() {
@@ -1166,11 +1218,23 @@ class LayoutState {
     // Reset markers before collecting layout outputs.
     layoutState.mCurrentHostMarker = -1;
 
+    if (LayoutCancellationToken.isCancelled(c)) {
+      // A newer root or size spec arrived while we were creating and measuring the tree: nobody
+      // is going to commit this result, so give the nodes back and skip collecting outputs.
+      if (root != NULL_LAYOUT) {
+        releaseNodeTree(root, false /* isNestedTree */);
+      }
+      layoutState.mIsCancelled = true;
+      return finishCalculate(layoutState, logger, logLayoutState, isTracing, timestampStartLayout);
+    }
+
     if (root == NULL_LAYOUT) {
       return layoutState;
     }
 
     layoutState.mLayoutRoot = root;
+    layoutState.mHasMountableOutputLeftsAndRights =
+        ComponentsConfiguration.useTwoDimensionalIncrementalMount;
 
     if (isTracing) {
       ComponentsSystrace.beginSection("collectResults:" + component.getSimpleName());
@@ -1186,6 +1250,13 @@ class LayoutState {
 
     Collections.sort(layoutState.mMountableOutputTops, sTopsComparator);
     Collections.sort(layoutState.mMountableOutputBottoms, sBottomsComparator);
+    if (layoutState.mHasMountableOutputLeftsAndRights) {
+      Collections.sort(layoutState.mMountableOutputLefts, sLeftsComparator);
+      Collections.sort(layoutState.mMountableOutputRights, sRightsComparator);
+    }
+    if (ComponentsConfiguration.incrementalVisibilityHandling) {
+      layoutState.sortVisibilityOutputs();
+    }
 
     if (logger != null) {
       logger.log(collectResultsEvent);
@@ -1214,6 +1285,15 @@ class LayoutState {
       }
     }
 
+    return finishCalculate(layoutState, logger, logLayoutState, isTracing, timestampStartLayout);
+  }
+
+  private static LayoutState finishCalculate(
+      LayoutState layoutState,
+      @Nullable ComponentsLogger logger,
+      @Nullable LogEvent logLayoutState,
+      boolean isTracing,
+      long timestampStartLayout) {
     layoutState.mCalculateLayoutDuration = System.nanoTime() - timestampStartLayout;
 
     if (isTracing) {
@@ -1221,6 +1301,7 @@ class LayoutState {
     }
 
     if (logger != null) {
+      logLayoutState.addParam(PARAM_LAYOUT_CANCELLED, String.valueOf(layoutState.mIsCancelled));
       logger.log(logLayoutState);
     }
 
@@ -1496,6 +1577,10 @@ class LayoutState {
   static InternalNode createTree(
       Component component,
       ComponentContext context) {
+    if (LayoutCancellationToken.isCancelled(context)) {
+      return NULL_LAYOUT;
+    }
+
     final ComponentsLogger logger = context.getLogger();
 
     LogEvent createLayoutEvent = null;
@@ -1576,6 +1661,12 @@ class LayoutState {
     final ComponentContext context = nestedTreeHolder.getContext();
     final Component component = nestedTreeHolder.getRootComponent();
 
+    if (LayoutCancellationToken.isCancelled(context)) {
+      // The result of this layout will be discarded: leave the holder untouched and report an
+      // empty size so that Yoga can unwind as quickly as possible.
+      return NULL_LAYOUT;
+    }
+
     InternalNode nestedTree =
         component.mLayoutCreatedInWillRender == null
             ? nestedTreeHolder.getNestedTree()
@@ -1704,6 +1795,11 @@ class LayoutState {
       return root;
     }
 
+    if (LayoutCancellationToken.isCancelled(c)) {
+      releaseNodeTree(root, hasNestedTreeHolder);
+      return NULL_LAYOUT;
+    }
+
     // If measuring a ComponentTree with a LayoutSpecWithSizeSpec at the root, the nested tree
     // holder argument will be null.
     if (hasNestedTreeHolder && isLayoutSpecWithSizeSpec(component)) {
@@ -1813,7 +1909,10 @@ class LayoutState {
       shouldUpdate |= shouldUpdateChild;
     }
 
-    shouldUpdate |= shouldComponentUpdate(layoutNode, diffNode);
+    if (!shouldUpdate || !ComponentsConfiguration.useComponentPropsHash) {
+      // The comparison can be skipped when the answer is already known.
+      shouldUpdate |= shouldComponentUpdate(layoutNode, diffNode);
+    }
 
     if (!shouldUpdate) {
       applyDiffNodeToLayoutNode(layoutNode, diffNode);
@@ -1901,6 +2000,22 @@ class LayoutState {
     return mMountableOutputBottoms;
   }
 
+  /**
+   * @return whether the outputs sorted by left and right edge are available, which is needed to
+   *     mount incrementally along the horizontal axis.
+   */
+  boolean hasMountableOutputLeftsAndRights() {
+    return mHasMountableOutputLeftsAndRights;
+  }
+
+  ArrayList<LayoutOutput> getMountableOutputLefts() {
+    return mMountableOutputLefts;
+  }
+
+  ArrayList<LayoutOutput> getMountableOutputRights() {
+    return mMountableOutputRights;
+  }
+
   int getVisibilityOutputCount() {
     return mVisibilityOutputs.size();
   }
@@ -1909,6 +2024,79 @@ class LayoutState {
     return mVisibilityOutputs.get(index);
   }
 
+  /**
+   * @return whether the visibility outputs sorted by each of their edges are available, which is
+   *     needed to process visibility events incrementally.
+   */
+  boolean hasSortedVisibilityOutputs() {
+    return mVisibilityOutputTops != null;
+  }
+
+  /** @return the indices of the visibility outputs, sorted by the top of their bounds. */
+  int[] getVisibilityOutputTops() {
+    return mVisibilityOutputTops;
+  }
+
+  /** @return the indices of the visibility outputs, sorted by the bottom of their bounds. */
+  int[] getVisibilityOutputBottoms() {
+    return mVisibilityOutputBottoms;
+  }
+
+  /** @return the indices of the visibility outputs, sorted by the left of their bounds. */
+  int[] getVisibilityOutputLefts() {
+    return mVisibilityOutputLefts;
+  }
+
+  /** @return the indices of the visibility outputs, sorted by the right of their bounds. */
+  int[] getVisibilityOutputRights() {
+    return mVisibilityOutputRights;
+  }
+
+  private void sortVisibilityOutputs() {
+    mVisibilityOutputTops = sortVisibilityOutputs(EDGE_TOP);
+    mVisibilityOutputBottoms = sortVisibilityOutputs(EDGE_BOTTOM);
+    mVisibilityOutputLefts = sortVisibilityOutputs(EDGE_LEFT);
+    mVisibilityOutputRights = sortVisibilityOutputs(EDGE_RIGHT);
+  }
+
+  private int[] sortVisibilityOutputs(final int edge) {
+    final int count = mVisibilityOutputs.size();
+    final Integer[] indices = new Integer[count];
+    for (int i = 0; i < count; i++) {
+      indices[i] = i;
+    }
+
+    Arrays.sort(
+        indices,
+        new Comparator<Integer>() {
+          @Override
+          public int compare(Integer lhs, Integer rhs) {
+            final int lhsEdge = getEdge(mVisibilityOutputs.get(lhs).getBounds(), edge);
+            final int rhsEdge = getEdge(mVisibilityOutputs.get(rhs).getBounds(), edge);
+            return lhsEdge < rhsEdge ? -1 : (lhsEdge == rhsEdge ? 0 : 1);
+          }
+        });
+
+    final int[] sorted = new int[count];
+    for (int i = 0; i < count; i++) {
+      sorted[i] = indices[i];
+    }
+    return sorted;
+  }
+
+  private static int getEdge(Rect bounds, int edge) {
+    switch (edge) {
+      case EDGE_TOP:
+        return bounds.top;
+      case EDGE_BOTTOM:
+        return bounds.bottom;
+      case EDGE_LEFT:
+        return bounds.left;
+      default:
+        return bounds.right;
+    }
+  }
+
   int getTestOutputCount() {
     return mTestOutputs == null ? 0 : mTestOutputs.size();
   }
@@ -1968,6 +2156,9 @@ class LayoutState {
       mMountableOutputs.clear();
       mMountableOutputTops.clear();
       mMountableOutputBottoms.clear();
+      mMountableOutputLefts.clear();
+      mMountableOutputRights.clear();
+      mHasMountableOutputLeftsAndRights = false;
       mOutputsIdToPositionMap.clear();
       mDisplayListsToPrefetch.clear();
 
@@ -1980,6 +2171,10 @@ class LayoutState {
         ComponentsPools.release(mVisibilityOutputs.get(i));
       }
       mVisibilityOutputs.clear();
+      mVisibilityOutputTops = null;
+      mVisibilityOutputBottoms = null;
+      mVisibilityOutputLefts = null;
+      mVisibilityOutputRights = null;
 
       if (mTestOutputs != null) {
         for (int i = 0, size = mTestOutputs.size(); i < size; i++) {
@@ -2018,6 +2213,7 @@ class LayoutState {
       mTransitionKeyMapping = null;
       mHasLithoViewWidthAnimation = false;
       mHasLithoViewHeightAnimation = false;
+      mIsCancelled = false;
 
       ComponentsPools.release(this);
     }
@@ -2181,6 +2377,10 @@ class LayoutState {
     layoutState.mMountableOutputs.add(layoutOutput);
     layoutState.mMountableOutputTops.add(layoutOutput);
     layoutState.mMountableOutputBottoms.add(layoutOutput);
+    if (layoutState.mHasMountableOutputLeftsAndRights) {
+      layoutState.mMountableOutputLefts.add(layoutOutput);
+      layoutState.mMountableOutputRights.add(layoutOutput);
+    }
   }
 
   private TransitionContext getOrCreateTransitionContext() {
@@ -2206,6 +2406,14 @@ class LayoutState {
     return mHasLithoViewHeightAnimation;
   }
 
+  /**
+   * @return whether this calculation was abandoned because its {@link LayoutCancellationToken}
+   *     was cancelled. A cancelled LayoutState has no outputs and must never be committed.
+   */
+  boolean isCancelled() {
+    return mIsCancelled;
+  }
+
   /** @return whether there are any items in the queue for Display Lists prefetching. */
   boolean hasItemsForDLPrefetch() {
     return !mDisplayListsToPrefetch.isEmpty();
@@ -71,7 +71,7 @@ public class LithoTooltipController {
     final String anchorGlobalKey =
         rootComponent == null
             ? anchorKey
-            : ComponentKeyUtils.getKeyWithSeparator(rootComponent.getGlobalKey(), anchorKey);
+            : ComponentKeyUtils.getGlobalKeyForRelativeKey(rootComponent.getGlobalKey(), anchorKey);
 
     componentTree.showTooltip(lithoTooltip, anchorGlobalKey, xOffset, yOffset);
   }
@@ -157,7 +157,7 @@ public class LithoTooltipController {
     final String anchorGlobalKey =
         rootComponent == null
             ? anchorKey
-            : ComponentKeyUtils.getKeyWithSeparator(rootComponent.getGlobalKey(), anchorKey);
+            : ComponentKeyUtils.getGlobalKeyForRelativeKey(rootComponent.getGlobalKey(), anchorKey);
 
     componentTree.showTooltip(tooltip, anchorGlobalKey, tooltipPosition, xOffset, yOffset);
   }
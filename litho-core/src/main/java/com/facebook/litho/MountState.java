@@ -113,6 +113,8 @@ class MountState implements TransitionManager.OnAnimationCompleteListener {
   private TransitionManager mTransitionManager;
   private int mPreviousTopsIndex;
   private int mPreviousBottomsIndex;
+  private int mPreviousLeftsIndex;
+  private int mPreviousRightsIndex;
   private int mLastMountedComponentTreeId = ComponentTree.INVALID_ID;
   private final HashMap<String, MountItem> mDisappearingMountItems = new HashMap<>();
   private final HashSet<String> mAnimatingTransitionKeys = new HashSet<>();
@@ -123,6 +125,9 @@ class MountState implements TransitionManager.OnAnimationCompleteListener {
 
   private final MountItem mRootHostMountItem;
 
+  private final IncrementalVisibilityProcessor mIncrementalVisibilityProcessor =
+      new IncrementalVisibilityProcessor();
+
   public MountState(LithoView view) {
     mIndexToItemMap = new LongSparseArray<>();
     mVisibilityIdToItemMap = new LongSparseArray<>();
@@ -192,6 +197,11 @@ class MountState implements TransitionManager.OnAnimationCompleteListener {
 
     ComponentsSystrace.beginSection("mount");
 
+    if (mIsDirty || layoutState != mLastMountedLayoutState) {
+      // The visibility outputs may have changed, so they all need to be processed again.
+      mIncrementalVisibilityProcessor.reset();
+    }
+
     final ComponentTree componentTree = mLithoView.getComponentTree();
     final ComponentsLogger logger = componentTree.getContext().getLogger();
     final int componentTreeId = layoutState.getComponentTreeId();
@@ -365,129 +375,152 @@ class MountState implements TransitionManager.OnAnimationCompleteListener {
     final boolean isDoingPerfLog = mMountStats.isLoggingEnabled;
     final boolean isTracing = ComponentsSystrace.isTracing();
     final long totalStartTime = isDoingPerfLog ? System.nanoTime() : 0;
-    for (int j = 0, size = layoutState.getVisibilityOutputCount(); j < size; j++) {
-      final VisibilityOutput visibilityOutput = layoutState.getVisibilityOutputAt(j);
-      if (isTracing) {
-        final String componentName =
-            visibilityOutput.getComponent() != null
-                ? visibilityOutput.getComponent().getSimpleName()
-                : "Unknown";
-        ComponentsSystrace.beginSection("visibilityHandlers:" + componentName);
-      }
-      final long handlerStartTime = isDoingPerfLog ? System.nanoTime() : 0;
-      final EventHandler<VisibleEvent> visibleHandler = visibilityOutput.getVisibleEventHandler();
-      final EventHandler<FocusedVisibleEvent> focusedHandler =
-          visibilityOutput.getFocusedEventHandler();
-      final EventHandler<UnfocusedVisibleEvent> unfocusedHandler =
-          visibilityOutput.getUnfocusedEventHandler();
-      final EventHandler<FullImpressionVisibleEvent> fullImpressionHandler =
-          visibilityOutput.getFullImpressionEventHandler();
-      final EventHandler<InvisibleEvent> invisibleHandler =
-          visibilityOutput.getInvisibleEventHandler();
-      final long visibilityOutputId = visibilityOutput.getId();
-      final Rect visibilityOutputBounds = visibilityOutput.getBounds();
-
-      sTempRect.set(visibilityOutputBounds);
-      final boolean isCurrentlyVisible = sTempRect.intersect(localVisibleRect)
-          && isInVisibleRange(visibilityOutput, visibilityOutputBounds, localVisibleRect);
-
-      VisibilityItem visibilityItem = mVisibilityIdToItemMap.get(visibilityOutputId);
-      if (visibilityItem != null) {
-        final String previousGlobalKey = visibilityItem.getGlobalKey();
-        final String currentGlobalKey =
-            visibilityOutput.getComponent() != null
-                ? visibilityOutput.getComponent().getGlobalKey()
-                : null;
-        final boolean hasGlobalKeyChanged =
-            previousGlobalKey != null && !previousGlobalKey.equals(currentGlobalKey);
-
-        if (!hasGlobalKeyChanged) {
-          // If we did a relayout due to e.g. a state update then the handlers will have changed,
-          // so we should keep them up to date.
-          visibilityItem.setUnfocusedHandler(unfocusedHandler);
-          visibilityItem.setInvisibleHandler(invisibleHandler);
-        }
 
-        if (!isCurrentlyVisible || hasGlobalKeyChanged) {
-          // Either the component is invisible now, but used to be visible, or the key on the
-          // component has changed so we should generate new visibility events for the new
-          // component.
-          if (visibilityItem.getInvisibleHandler() != null) {
-            EventDispatcherUtils.dispatchOnInvisible(visibilityItem.getInvisibleHandler());
-          }
+    if (ComponentsConfiguration.incrementalVisibilityHandling
+        && layoutState.hasSortedVisibilityOutputs()
+        && mIncrementalVisibilityProcessor.update(layoutState, localVisibleRect)) {
+      // Outputs that neither intersected the previous visible rect nor intersect the current one
+      // can't have any event to dispatch.
+      for (int j = 0, size = mIncrementalVisibilityProcessor.getCandidateCount(); j < size; j++) {
+        processVisibilityOutput(
+            layoutState.getVisibilityOutputAt(mIncrementalVisibilityProcessor.getCandidateAt(j)),
+            localVisibleRect,
+            isTracing,
+            isDoingPerfLog);
+      }
+    } else {
+      for (int j = 0, size = layoutState.getVisibilityOutputCount(); j < size; j++) {
+        processVisibilityOutput(
+            layoutState.getVisibilityOutputAt(j), localVisibleRect, isTracing, isDoingPerfLog);
+      }
+    }
 
-          if (visibilityItem.isInFocusedRange()) {
-            visibilityItem.setFocusedRange(false);
-            if (visibilityItem.getUnfocusedHandler() != null) {
-              EventDispatcherUtils.dispatchOnUnfocused(visibilityItem.getUnfocusedHandler());
-            }
-          }
+    if (isDoingPerfLog) {
+      mMountStats.visibilityHandlersTotalTime = (System.nanoTime() - totalStartTime) / NS_IN_MS;
+    }
+  }
+
+  private void processVisibilityOutput(
+      VisibilityOutput visibilityOutput,
+      Rect localVisibleRect,
+      boolean isTracing,
+      boolean isDoingPerfLog) {
+    if (isTracing) {
+      final String componentName =
+          visibilityOutput.getComponent() != null
+              ? visibilityOutput.getComponent().getSimpleName()
+              : "Unknown";
+      ComponentsSystrace.beginSection("visibilityHandlers:" + componentName);
+    }
+    final long handlerStartTime = isDoingPerfLog ? System.nanoTime() : 0;
+    final EventHandler<VisibleEvent> visibleHandler = visibilityOutput.getVisibleEventHandler();
+    final EventHandler<FocusedVisibleEvent> focusedHandler =
+        visibilityOutput.getFocusedEventHandler();
+    final EventHandler<UnfocusedVisibleEvent> unfocusedHandler =
+        visibilityOutput.getUnfocusedEventHandler();
+    final EventHandler<FullImpressionVisibleEvent> fullImpressionHandler =
+        visibilityOutput.getFullImpressionEventHandler();
+    final EventHandler<InvisibleEvent> invisibleHandler =
+        visibilityOutput.getInvisibleEventHandler();
+    final long visibilityOutputId = visibilityOutput.getId();
+    final Rect visibilityOutputBounds = visibilityOutput.getBounds();
+
+    sTempRect.set(visibilityOutputBounds);
+    final boolean isCurrentlyVisible = sTempRect.intersect(localVisibleRect)
+        && isInVisibleRange(visibilityOutput, visibilityOutputBounds, localVisibleRect);
+
+    VisibilityItem visibilityItem = mVisibilityIdToItemMap.get(visibilityOutputId);
+    if (visibilityItem != null) {
+      final String previousGlobalKey = visibilityItem.getGlobalKey();
+      final String currentGlobalKey =
+          visibilityOutput.getComponent() != null
+              ? visibilityOutput.getComponent().getGlobalKey()
+              : null;
+      final boolean hasGlobalKeyChanged =
+          previousGlobalKey != null && !previousGlobalKey.equals(currentGlobalKey);
+
+      if (!hasGlobalKeyChanged) {
+        // If we did a relayout due to e.g. a state update then the handlers will have changed,
+        // so we should keep them up to date.
+        visibilityItem.setUnfocusedHandler(unfocusedHandler);
+        visibilityItem.setInvisibleHandler(invisibleHandler);
+      }
+
+      if (!isCurrentlyVisible || hasGlobalKeyChanged) {
+        // Either the component is invisible now, but used to be visible, or the key on the
+        // component has changed so we should generate new visibility events for the new
+        // component.
+        if (visibilityItem.getInvisibleHandler() != null) {
+          EventDispatcherUtils.dispatchOnInvisible(visibilityItem.getInvisibleHandler());
+        }
 
-          mVisibilityIdToItemMap.remove(visibilityOutputId);
-          ComponentsPools.release(visibilityItem);
-          visibilityItem = null;
+        if (visibilityItem.isInFocusedRange()) {
+          visibilityItem.setFocusedRange(false);
+          if (visibilityItem.getUnfocusedHandler() != null) {
+            EventDispatcherUtils.dispatchOnUnfocused(visibilityItem.getUnfocusedHandler());
+          }
         }
+
+        mVisibilityIdToItemMap.remove(visibilityOutputId);
+        ComponentsPools.release(visibilityItem);
+        visibilityItem = null;
       }
+    }
 
-      if (isCurrentlyVisible) {
-        // The component is visible now, but used to be outside the viewport.
-        if (visibilityItem == null) {
-          final String globalKey =
-              visibilityOutput.getComponent() != null
-                  ? visibilityOutput.getComponent().getGlobalKey()
-                  : null;
-          visibilityItem =
-              ComponentsPools.acquireVisibilityItem(globalKey, invisibleHandler, unfocusedHandler);
-          mVisibilityIdToItemMap.put(visibilityOutputId, visibilityItem);
+    if (isCurrentlyVisible) {
+      // The component is visible now, but used to be outside the viewport.
+      if (visibilityItem == null) {
+        final String globalKey =
+            visibilityOutput.getComponent() != null
+                ? visibilityOutput.getComponent().getGlobalKey()
+                : null;
+        visibilityItem =
+            ComponentsPools.acquireVisibilityItem(globalKey, invisibleHandler, unfocusedHandler);
+        mVisibilityIdToItemMap.put(visibilityOutputId, visibilityItem);
 
-          if (visibleHandler != null) {
-            EventDispatcherUtils.dispatchOnVisible(visibleHandler);
-          }
+        if (visibleHandler != null) {
+          EventDispatcherUtils.dispatchOnVisible(visibleHandler);
         }
+      }
 
-        // Check if the component has entered or exited the focused range.
-        if (focusedHandler != null || unfocusedHandler != null) {
-          if (isInFocusedRange(visibilityOutputBounds, sTempRect)) {
-            if (!visibilityItem.isInFocusedRange()) {
-              visibilityItem.setFocusedRange(true);
-              if (focusedHandler != null) {
-                EventDispatcherUtils.dispatchOnFocused(focusedHandler);
-              }
+      // Check if the component has entered or exited the focused range.
+      if (focusedHandler != null || unfocusedHandler != null) {
+        if (isInFocusedRange(visibilityOutputBounds, sTempRect)) {
+          if (!visibilityItem.isInFocusedRange()) {
+            visibilityItem.setFocusedRange(true);
+            if (focusedHandler != null) {
+              EventDispatcherUtils.dispatchOnFocused(focusedHandler);
             }
-          } else {
-            if (visibilityItem.isInFocusedRange()) {
-              visibilityItem.setFocusedRange(false);
-              if (unfocusedHandler != null) {
-                EventDispatcherUtils.dispatchOnUnfocused(unfocusedHandler);
-              }
+          }
+        } else {
+          if (visibilityItem.isInFocusedRange()) {
+            visibilityItem.setFocusedRange(false);
+            if (unfocusedHandler != null) {
+              EventDispatcherUtils.dispatchOnUnfocused(unfocusedHandler);
             }
           }
         }
-        // If the component has not entered the full impression range yet, make sure to update the
-        // information about the visible edges.
-        if (fullImpressionHandler != null && !visibilityItem.isInFullImpressionRange()) {
-          visibilityItem.setVisibleEdges(visibilityOutputBounds, sTempRect);
+      }
+      // If the component has not entered the full impression range yet, make sure to update the
+      // information about the visible edges.
+      if (fullImpressionHandler != null && !visibilityItem.isInFullImpressionRange()) {
+        visibilityItem.setVisibleEdges(visibilityOutputBounds, sTempRect);
 
-          if (visibilityItem.isInFullImpressionRange()) {
-            EventDispatcherUtils.dispatchOnFullImpression(fullImpressionHandler);
-          }
+        if (visibilityItem.isInFullImpressionRange()) {
+          EventDispatcherUtils.dispatchOnFullImpression(fullImpressionHandler);
         }
       }
-      if (isDoingPerfLog) {
-        final String componentName =
-            visibilityOutput.getComponent() != null
-                ? visibilityOutput.getComponent().getSimpleName()
-                : "Unknown";
-        mMountStats.visibilityHandlerTimes.add((System.nanoTime() - handlerStartTime) / NS_IN_MS);
-        mMountStats.visibilityHandlerNames.add(componentName);
-      }
-      if (isTracing) {
-        ComponentsSystrace.endSection();
-      }
     }
-
     if (isDoingPerfLog) {
-      mMountStats.visibilityHandlersTotalTime = (System.nanoTime() - totalStartTime) / NS_IN_MS;
+      final String componentName =
+          visibilityOutput.getComponent() != null
+              ? visibilityOutput.getComponent().getSimpleName()
+              : "Unknown";
+      mMountStats.visibilityHandlerTimes.add((System.nanoTime() - handlerStartTime) / NS_IN_MS);
+      mMountStats.visibilityHandlerNames.add(componentName);
+    }
+    if (isTracing) {
+      ComponentsSystrace.endSection();
     }
   }
 
@@ -564,9 +597,34 @@ class MountState implements TransitionManager.OnAnimationCompleteListener {
         break;
       }
     }
+
+    if (!layoutState.hasMountableOutputLeftsAndRights()) {
+      return;
+    }
+
+    final ArrayList<LayoutOutput> layoutOutputLefts = layoutState.getMountableOutputLefts();
+    final ArrayList<LayoutOutput> layoutOutputRights = layoutState.getMountableOutputRights();
+
+    mPreviousLeftsIndex = mountableOutputCount;
+    for (int i = 0; i < mountableOutputCount; i++) {
+      if (localVisibleRect.right <= layoutOutputLefts.get(i).getBounds().left) {
+        mPreviousLeftsIndex = i;
+        break;
+      }
+    }
+
+    mPreviousRightsIndex = mountableOutputCount;
+    for (int i = 0; i < mountableOutputCount; i++) {
+      if (localVisibleRect.left < layoutOutputRights.get(i).getBounds().right) {
+        mPreviousRightsIndex = i;
+        break;
+      }
+    }
   }
 
   private void clearVisibilityItems() {
+    mIncrementalVisibilityProcessor.reset();
+
     for (int i = mVisibilityIdToItemMap.size() - 1; i >= 0; i--) {
       final VisibilityItem visibilityItem = mVisibilityIdToItemMap.valueAt(i);
       final EventHandler<InvisibleEvent> invisibleHandler = visibilityItem.getInvisibleHandler();
@@ -2529,8 +2587,11 @@ class MountState implements TransitionManager.OnAnimationCompleteListener {
       return false;
     }
 
-    if (localVisibleRect.left != mPreviousLocalVisibleRect.left ||
-        localVisibleRect.right != mPreviousLocalVisibleRect.right) {
+    // Without the outputs sorted by left and right edges we can only follow vertical movements.
+    final boolean isTwoDimensional = layoutState.hasMountableOutputLeftsAndRights();
+    if (!isTwoDimensional
+        && (localVisibleRect.left != mPreviousLocalVisibleRect.left
+            || localVisibleRect.right != mPreviousLocalVisibleRect.right)) {
       return false;
     }
 
@@ -2556,15 +2617,11 @@ class MountState implements TransitionManager.OnAnimationCompleteListener {
           localVisibleRect.top <
               layoutOutputBottoms.get(mPreviousBottomsIndex - 1).getBounds().bottom) {
         mPreviousBottomsIndex--;
-        final LayoutOutput layoutOutput = layoutOutputBottoms.get(mPreviousBottomsIndex);
-        final int layoutOutputIndex =
-            layoutState.getLayoutOutputPositionForId(layoutOutput.getId());
-        if (getItemAt(layoutOutputIndex) == null) {
-          mountLayoutOutput(
-              layoutState.getLayoutOutputPositionForId(layoutOutput.getId()),
-              layoutOutput,
-              layoutState);
-        }
+        mountEnteringLayoutOutput(
+            layoutState,
+            layoutOutputBottoms.get(mPreviousBottomsIndex),
+            localVisibleRect,
+            isTwoDimensional);
       }
     }
 
@@ -2574,15 +2631,11 @@ class MountState implements TransitionManager.OnAnimationCompleteListener {
       // that has changed.
       while (mPreviousTopsIndex < count &&
           localVisibleRect.bottom > layoutOutputTops.get(mPreviousTopsIndex).getBounds().top) {
-        final LayoutOutput layoutOutput = layoutOutputTops.get(mPreviousTopsIndex);
-        final int layoutOutputIndex =
-            layoutState.getLayoutOutputPositionForId(layoutOutput.getId());
-        if (getItemAt(layoutOutputIndex) == null) {
-          mountLayoutOutput(
-              layoutState.getLayoutOutputPositionForId(layoutOutput.getId()),
-              layoutOutput,
-              layoutState);
-        }
+        mountEnteringLayoutOutput(
+            layoutState,
+            layoutOutputTops.get(mPreviousTopsIndex),
+            localVisibleRect,
+            isTwoDimensional);
         mPreviousTopsIndex++;
       }
 
@@ -2598,6 +2651,10 @@ class MountState implements TransitionManager.OnAnimationCompleteListener {
       }
     }
 
+    if (isTwoDimensional) {
+      performHorizontalIncrementalMount(layoutState, localVisibleRect);
+    }
+
     for (int i = 0, size = mCanMountIncrementallyMountItems.size(); i < size; i++) {
       final MountItem mountItem = mCanMountIncrementallyMountItems.valueAt(i);
       final int layoutOutputPosition =
@@ -2612,6 +2669,82 @@ class MountState implements TransitionManager.OnAnimationCompleteListener {
     return true;
   }
 
+  /**
+   * Same as the vertical part of {@link #performIncrementalMount}, following the left and right
+   * edges of the visible rect with cursors over the outputs sorted by right and left edge.
+   */
+  private void performHorizontalIncrementalMount(LayoutState layoutState, Rect localVisibleRect) {
+    final ArrayList<LayoutOutput> layoutOutputLefts = layoutState.getMountableOutputLefts();
+    final ArrayList<LayoutOutput> layoutOutputRights = layoutState.getMountableOutputRights();
+    final int count = layoutState.getMountableOutputCount();
+
+    if (localVisibleRect.left > 0 || mPreviousLocalVisibleRect.left > 0) {
+      // View is going on/off the left of the screen.
+      while (mPreviousRightsIndex < count
+          && localVisibleRect.left
+              >= layoutOutputRights.get(mPreviousRightsIndex).getBounds().right) {
+        final long id = layoutOutputRights.get(mPreviousRightsIndex).getId();
+        final int layoutOutputIndex = layoutState.getLayoutOutputPositionForId(id);
+        if (!isAnimationLocked(layoutOutputIndex)) {
+          unmountItem(mContext, layoutOutputIndex, mHostsByMarker);
+        }
+        mPreviousRightsIndex++;
+      }
+
+      while (mPreviousRightsIndex > 0
+          && localVisibleRect.left
+              < layoutOutputRights.get(mPreviousRightsIndex - 1).getBounds().right) {
+        mPreviousRightsIndex--;
+        mountEnteringLayoutOutput(
+            layoutState, layoutOutputRights.get(mPreviousRightsIndex), localVisibleRect, true);
+      }
+    }
+
+    final int width = mLithoView.getWidth();
+    if (localVisibleRect.right < width || mPreviousLocalVisibleRect.right < width) {
+      // View is going on/off the right of the screen.
+      while (mPreviousLeftsIndex < count
+          && localVisibleRect.right > layoutOutputLefts.get(mPreviousLeftsIndex).getBounds().left) {
+        mountEnteringLayoutOutput(
+            layoutState, layoutOutputLefts.get(mPreviousLeftsIndex), localVisibleRect, true);
+        mPreviousLeftsIndex++;
+      }
+
+      while (mPreviousLeftsIndex > 0
+          && localVisibleRect.right
+              <= layoutOutputLefts.get(mPreviousLeftsIndex - 1).getBounds().left) {
+        mPreviousLeftsIndex--;
+        final long id = layoutOutputLefts.get(mPreviousLeftsIndex).getId();
+        final int layoutOutputIndex = layoutState.getLayoutOutputPositionForId(id);
+        if (!isAnimationLocked(layoutOutputIndex)) {
+          unmountItem(mContext, layoutOutputIndex, mHostsByMarker);
+        }
+      }
+    }
+  }
+
+  /**
+   * Mounts an output that just crossed one of the edges of the visible rect. When following both
+   * axes, crossing one edge doesn't mean the output is now visible: it may still be outside of the
+   * visible rect along the other axis.
+   */
+  private void mountEnteringLayoutOutput(
+      LayoutState layoutState,
+      LayoutOutput layoutOutput,
+      Rect localVisibleRect,
+      boolean checkIntersection) {
+    final int layoutOutputIndex = layoutState.getLayoutOutputPositionForId(layoutOutput.getId());
+    if (getItemAt(layoutOutputIndex) != null) {
+      return;
+    }
+
+    if (checkIntersection && !Rect.intersects(localVisibleRect, layoutOutput.getBounds())) {
+      return;
+    }
+
+    mountLayoutOutput(layoutOutputIndex, layoutOutput, layoutState);
+  }
+
   LithoView getLithoView() {
     return mLithoView;
   }
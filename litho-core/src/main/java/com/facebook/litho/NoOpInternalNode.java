@@ -31,6 +31,7 @@ import com.facebook.yoga.YogaJustify;
 import com.facebook.yoga.YogaNode;
 import com.facebook.yoga.YogaPositionType;
 import com.facebook.yoga.YogaWrap;
+import java.util.List;
 
 /**
  * Class representing an empty InternalNode with a null ComponentLayout. All methods have been
@@ -306,6 +307,11 @@ class NoOpInternalNode extends InternalNode {
     return this;
   }
 
+  @Override
+  public InternalNode children(List<Component> children) {
+    return this;
+  }
+
   @Override
   public InternalNode background(Reference<? extends Drawable> builder) {
     return this;
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.support.annotation.Nullable;
+import com.facebook.infer.annotation.ThreadSafe;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs independent pieces of a single layout calculation in parallel, fork/join style. The thread
+ * that forks the work always takes part in it: it runs the first task itself and then every task
+ * that no worker has picked up yet, only blocking on tasks that are already running elsewhere.
+ * This means that nested fan-outs can never deadlock on a busy pool, and that a layout is never
+ * slower than a sequential one just because the pool is saturated.
+ */
+@ThreadSafe
+class ParallelLayoutExecutor {
+
+  private static final long KEEP_ALIVE_SECONDS = 5;
+
+  @Nullable private static ParallelLayoutExecutor sDefaultInstance;
+
+  private final Executor mExecutor;
+
+  ParallelLayoutExecutor(Executor executor) {
+    mExecutor = executor;
+  }
+
+  /**
+   * @return a shared executor with one worker per additional CPU core. Its threads are only kept
+   *     alive while there is work to do.
+   */
+  static synchronized ParallelLayoutExecutor getDefault() {
+    if (sDefaultInstance == null) {
+      final int workerCount = Math.max(1, DeviceInfoUtils.getNumberOfCPUCores() - 1);
+      final ThreadPoolExecutor executor =
+          new BackgroundThreadPoolExecutor(
+              workerCount, workerCount, KEEP_ALIVE_SECONDS, "ComponentParallelLayoutThread");
+      executor.allowCoreThreadTimeOut(true);
+      sDefaultInstance = new ParallelLayoutExecutor(executor);
+    }
+
+    return sDefaultInstance;
+  }
+
+  /**
+   * Runs all the given tasks and returns once all of them have completed. If any task throws, the
+   * first exception (in task order) is rethrown once all tasks are done.
+   */
+  void runAll(Runnable[] tasks) {
+    final int count = tasks.length;
+    if (count == 0) {
+      return;
+    }
+
+    final ForkedTask[] forked = new ForkedTask[count];
+    for (int i = 0; i < count; i++) {
+      forked[i] = new ForkedTask(tasks[i]);
+    }
+
+    for (int i = 1; i < count; i++) {
+      try {
+        mExecutor.execute(forked[i]);
+      } catch (RejectedExecutionException e) {
+        // Not a problem, the task will simply be run by this thread when joining.
+        break;
+      }
+    }
+
+    forked[0].run();
+
+    for (int i = 1; i < count; i++) {
+      forked[i].join();
+    }
+
+    for (int i = 0; i < count; i++) {
+      forked[i].rethrowIfFailed();
+    }
+  }
+
+  private static final class ForkedTask implements Runnable {
+
+    private final Runnable mTask;
+    private final AtomicBoolean mIsClaimed = new AtomicBoolean(false);
+    private final CountDownLatch mDone = new CountDownLatch(1);
+    @Nullable private volatile Throwable mError;
+
+    private ForkedTask(Runnable task) {
+      mTask = task;
+    }
+
+    @Override
+    public void run() {
+      if (!mIsClaimed.compareAndSet(false, true)) {
+        return;
+      }
+
+      try {
+        mTask.run();
+      } catch (Throwable t) {
+        mError = t;
+      } finally {
+        mDone.countDown();
+      }
+    }
+
+    private void join() {
+      // Run the task here if no worker has started it yet, otherwise wait for it.
+      run();
+
+      boolean interrupted = false;
+      while (true) {
+        try {
+          mDone.await();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private void rethrowIfFailed() {
+      final Throwable error = mError;
+      if (error instanceof RuntimeException) {
+        throw (RuntimeException) error;
+      } else if (error instanceof Error) {
+        throw (Error) error;
+      } else if (error != null) {
+        throw new RuntimeException(error);
+      }
+    }
+  }
+}
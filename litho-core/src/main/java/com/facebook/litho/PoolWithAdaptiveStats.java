@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+package com.facebook.litho;
+
+/**
+ * A {@link PoolWithDebugInfo} that also reports how it is being used, for display in tools like
+ * Stetho. For adaptive pools {@link #getMaxSize()} is the current capacity.
+ */
+public interface PoolWithAdaptiveStats extends PoolWithDebugInfo {
+
+  /** @return whether the capacity of this pool is adjusted to the observed demand. */
+  boolean isAdaptive();
+
+  /** @return the largest number of objects this pool has held at once. */
+  int getHighWaterMark();
+
+  /** @return the total number of acquire calls on this pool. */
+  long getAcquireCount();
+
+  /** @return the number of acquire calls that found the pool empty. */
+  long getMissCount();
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+/**
+ * A {@link LayoutHandler} that runs the posted runnables in order of priority rather than in the
+ * order they were posted. Lower values are more urgent. Runnables posted through {@link
+ * #post(Runnable)} get {@link #PRIORITY_DEFAULT}.
+ */
+public interface PriorityLayoutHandler extends LayoutHandler {
+
+  /** Used for layouts triggered by a state update, which the user is usually waiting for. */
+  int PRIORITY_STATE_UPDATE = 0;
+
+  /** Used for layouts of content that is visible, or about to be. */
+  int PRIORITY_DEFAULT = 100;
+
+  /** Used for work that only helps later layouts or mounts, such as preallocation. */
+  int PRIORITY_PREALLOCATE = Integer.MAX_VALUE;
+
+  boolean post(Runnable runnable, int priority);
+
+  /**
+   * Changes the priority of a runnable that is still waiting to be run. Does nothing if the
+   * runnable isn't queued.
+   */
+  void updatePriority(Runnable runnable, int priority);
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+package com.facebook.litho;
+
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import com.facebook.infer.annotation.ThreadSafe;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * {@link PriorityLayoutHandler} implementation that uses a thread pool to calculate the layouts.
+ * Whenever a thread becomes available it runs the most urgent pending runnable, unless a runnable
+ * has been waiting for longer than the starvation timeout, in which case the one that has been
+ * waiting the longest runs first.
+ *
+ * <p>Posting a runnable that is already pending doesn't queue it a second time: it keeps its place
+ * and takes the more urgent of the two priorities.
+ */
+@ThreadSafe
+public class PriorityThreadPoolLayoutHandler implements PriorityLayoutHandler {
+
+  /** Default time after which a pending runnable is run regardless of its priority. */
+  public static final long DEFAULT_STARVATION_TIMEOUT_MS = 500;
+
+  private static final Comparator<Task> PRIORITY_COMPARATOR =
+      new Comparator<Task>() {
+        @Override
+        public int compare(Task lhs, Task rhs) {
+          if (lhs.mPriority != rhs.mPriority) {
+            return lhs.mPriority < rhs.mPriority ? -1 : 1;
+          }
+          return compareSequence(lhs, rhs);
+        }
+      };
+
+  private static final Comparator<Task> SEQUENCE_COMPARATOR =
+      new Comparator<Task>() {
+        @Override
+        public int compare(Task lhs, Task rhs) {
+          return compareSequence(lhs, rhs);
+        }
+      };
+
+  private final Executor mExecutor;
+  private final long mStarvationTimeoutMs;
+  private final Runnable mRunNextTask =
+      new Runnable() {
+        @Override
+        public void run() {
+          final Task task = pollNextTask();
+          if (task != null) {
+            task.mRunnable.run();
+          }
+        }
+      };
+
+  // All guarded by this.
+  private final Map<Runnable, Task> mPendingTasks = new HashMap<>();
+  private final TreeSet<Task> mTasksByPriority = new TreeSet<>(PRIORITY_COMPARATOR);
+  private final TreeSet<Task> mTasksBySequence = new TreeSet<>(SEQUENCE_COMPARATOR);
+  private long mNextSequence;
+
+  public PriorityThreadPoolLayoutHandler(int corePoolSize, int maxPoolSize) {
+    this(corePoolSize, maxPoolSize, DEFAULT_STARVATION_TIMEOUT_MS);
+  }
+
+  public PriorityThreadPoolLayoutHandler(
+      int corePoolSize, int maxPoolSize, long starvationTimeoutMs) {
+    this(createExecutor(corePoolSize, maxPoolSize), starvationTimeoutMs);
+  }
+
+  public PriorityThreadPoolLayoutHandler(
+      ThreadPoolLayoutHandler.PoolSizeCalculator poolSizeCalculator) {
+    this(
+        createExecutor(
+            poolSizeCalculator.getCorePoolSize(DeviceInfoUtils.getNumberOfCPUCores()),
+            poolSizeCalculator.getMaxPoolSize(DeviceInfoUtils.getNumberOfCPUCores())),
+        DEFAULT_STARVATION_TIMEOUT_MS);
+  }
+
+  @VisibleForTesting
+  PriorityThreadPoolLayoutHandler(Executor executor, long starvationTimeoutMs) {
+    mExecutor = executor;
+    mStarvationTimeoutMs = starvationTimeoutMs;
+  }
+
+  @Override
+  public boolean post(Runnable runnable) {
+    return post(runnable, PRIORITY_DEFAULT);
+  }
+
+  @Override
+  public boolean post(Runnable runnable, int priority) {
+    synchronized (this) {
+      final Task pending = mPendingTasks.get(runnable);
+      if (pending != null) {
+        if (priority < pending.mPriority) {
+          reprioritize(pending, priority);
+        }
+        return true;
+      }
+
+      final Task task = new Task(runnable, priority, mNextSequence++, SystemClock.uptimeMillis());
+      mPendingTasks.put(runnable, task);
+      mTasksByPriority.add(task);
+      mTasksBySequence.add(task);
+    }
+
+    try {
+      // Each execution runs whichever task is the most urgent at that point, not necessarily this
+      // one, so there is always one execution per pending task.
+      mExecutor.execute(mRunNextTask);
+      return true;
+    } catch (RejectedExecutionException e) {
+      removeCallbacks(runnable);
+      throw new RuntimeException("Cannot execute layout calculation task; " + e);
+    }
+  }
+
+  @Override
+  public synchronized void updatePriority(Runnable runnable, int priority) {
+    final Task pending = mPendingTasks.get(runnable);
+    if (pending != null && pending.mPriority != priority) {
+      reprioritize(pending, priority);
+    }
+  }
+
+  @Override
+  public synchronized void removeCallbacks(Runnable runnable) {
+    final Task task = mPendingTasks.remove(runnable);
+    if (task != null) {
+      mTasksByPriority.remove(task);
+      mTasksBySequence.remove(task);
+    }
+  }
+
+  @Override
+  public void removeCallbacksAndMessages(Object token) {
+    if (token != null) {
+      throw new RuntimeException("Operation not supported");
+    }
+
+    synchronized (this) {
+      mPendingTasks.clear();
+      mTasksByPriority.clear();
+      mTasksBySequence.clear();
+    }
+  }
+
+  /** @return the number of runnables waiting to be run. */
+  public synchronized int getPendingCount() {
+    return mPendingTasks.size();
+  }
+
+  @VisibleForTesting
+  @Nullable
+  synchronized Runnable pollNextRunnable() {
+    final Task task = pollNextTask();
+    return task == null ? null : task.mRunnable;
+  }
+
+  @Nullable
+  private synchronized Task pollNextTask() {
+    if (mPendingTasks.isEmpty()) {
+      return null;
+    }
+
+    final Task oldest = mTasksBySequence.first();
+    final Task next =
+        SystemClock.uptimeMillis() - oldest.mPostTimeMs >= mStarvationTimeoutMs
+            ? oldest
+            : mTasksByPriority.first();
+
+    mPendingTasks.remove(next.mRunnable);
+    mTasksByPriority.remove(next);
+    mTasksBySequence.remove(next);
+    return next;
+  }
+
+  private void reprioritize(Task task, int priority) {
+    // The priority is part of the TreeSet ordering, so the task must be re-inserted.
+    mTasksByPriority.remove(task);
+    task.mPriority = priority;
+    mTasksByPriority.add(task);
+  }
+
+  private static int compareSequence(Task lhs, Task rhs) {
+    return lhs.mSequence < rhs.mSequence ? -1 : (lhs.mSequence == rhs.mSequence ? 0 : 1);
+  }
+
+  private static final class Task {
+    private final Runnable mRunnable;
+    private final long mSequence;
+    private final long mPostTimeMs;
+    private int mPriority;
+
+    private Task(Runnable runnable, int priority, long sequence, long postTimeMs) {
+      mRunnable = runnable;
+      mPriority = priority;
+      mSequence = sequence;
+      mPostTimeMs = postTimeMs;
+    }
+  }
+
+  private static ThreadPoolExecutor createExecutor(int corePoolSize, int maxPoolSize) {
+    return new BackgroundThreadPoolExecutor(
+        corePoolSize, maxPoolSize, 1, "ComponentPriorityLayoutThread");
+  }
+}
@@ -15,45 +15,232 @@ import com.facebook.infer.annotation.ThreadSafe;
 /**
  * Used to recycle objects in Litho. Can be configured to be either syncronized or not. A {@link
  * RecyclePool} will keep track of its own size so that it can be queried to debug pool sizes.
+ *
+ * <p>An adaptive pool (see {@link #RecyclePool(String, int, int, int, boolean)}) starts with an
+ * initial capacity and, every time enough items have been acquired to fill it, looks at how it was
+ * used: if acquires missed, the capacity grows by the number of misses; if some items sat in the
+ * pool for the whole window, the capacity shrinks by half of them. The capacity always stays
+ * within the given bounds.
  */
 @ThreadSafe(enableChecks = false)
-public class RecyclePool<T> implements PoolWithDebugInfo {
+public class RecyclePool<T> implements PoolWithAdaptiveStats {
+
+  // Never evaluate usage over less than this many acquires, so that small pools don't resize on
+  // every layout.
+  private static final int MIN_ADAPT_WINDOW = 64;
+
   private final String mName;
+  private final int mMinSize;
   private final int mMaxSize;
   private final boolean mIsSync;
+  private final boolean mIsAdaptive;
   private final Pools.Pool<T> mPool;
   private int mCurrentSize = 0;
+  private int mCapacity;
+
+  private long mAcquireCount;
+  private long mMissCount;
+  private int mHighWaterMark;
+
+  private int mWindowAcquireCount;
+  private int mWindowMissCount;
+  private int mWindowLowWaterMark;
 
   public RecyclePool(String name, int maxSize, boolean sync) {
+    this(name, maxSize, maxSize, maxSize, sync, false);
+  }
+
+  /**
+   * Creates an adaptive pool whose capacity starts at {@code initialSize} and is resized according
+   * to the observed demand, never going below {@code minSize} or above {@code maxSize}.
+   */
+  public RecyclePool(String name, int initialSize, int minSize, int maxSize, boolean sync) {
+    this(name, initialSize, minSize, maxSize, sync, true);
+  }
+
+  private RecyclePool(
+      String name, int initialSize, int minSize, int maxSize, boolean sync, boolean adaptive) {
+    if (minSize > initialSize || initialSize > maxSize) {
+      throw new IllegalArgumentException(
+          "Pool sizes must satisfy min <= initial <= max, got "
+              + minSize
+              + ", "
+              + initialSize
+              + ", "
+              + maxSize);
+    }
+
     mIsSync = sync;
+    mIsAdaptive = adaptive;
     mName = name;
+    mMinSize = minSize;
     mMaxSize = maxSize;
-    mPool = sync ? new Pools.SynchronizedPool<T>(maxSize) : new Pools.SimplePool<T>(maxSize);
+    mCapacity = initialSize;
+    // When sync, every access to mPool already happens while holding this pool's monitor, so a
+    // SynchronizedPool would only add a second lock acquisition.
+    mPool = new Pools.SimplePool<T>(maxSize);
   }
 
   public T acquire() {
-    T item;
     if (mIsSync) {
       synchronized (this) {
-        item = mPool.acquire();
-        mCurrentSize = Math.max(0, mCurrentSize - 1);
+        return acquireInternal();
       }
     } else {
-      item = mPool.acquire();
-      mCurrentSize = Math.max(0, mCurrentSize - 1);
+      return acquireInternal();
     }
+  }
+
+  private T acquireInternal() {
+    final T item = mPool.acquire();
+    mCurrentSize = Math.max(0, mCurrentSize - 1);
+    recordAcquires(1, item == null ? 1 : 0);
     return item;
   }
 
   public void release(T item) {
     if (mIsSync) {
       synchronized (this) {
-        mPool.release(item);
-        mCurrentSize = Math.min(mMaxSize, mCurrentSize + 1);
+        releaseInternal(item);
+      }
+    } else {
+      releaseInternal(item);
+    }
+  }
+
+  private void releaseInternal(T item) {
+    // mPool throws if the item was already released, so items are always offered to it first to
+    // catch double releases even when they are not kept.
+    if (!mPool.release(item)) {
+      return;
+    }
+
+    if (mCurrentSize >= mCapacity) {
+      // The pool is full at its current capacity: take back the item that was just released, which
+      // is the next one mPool gives out, and let it be garbage collected.
+      mPool.acquire();
+      return;
+    }
+
+    mCurrentSize++;
+    mHighWaterMark = Math.max(mHighWaterMark, mCurrentSize);
+  }
+
+  /**
+   * Moves up to {@code count} items from this pool into {@code dest}, starting at index 0, while
+   * taking the pool's lock only once.
+   *
+   * @param localHits the number of acquires served by the caller since its last batch without
+   *     going through this pool, which are added to the stats.
+   * @return the number of items that were moved.
+   */
+  int acquireBatch(Object[] dest, int count, int localHits) {
+    if (mIsSync) {
+      synchronized (this) {
+        return acquireBatchInternal(dest, count, localHits);
       }
     } else {
-      mPool.release(item);
-      mCurrentSize = Math.min(mMaxSize, mCurrentSize + 1);
+      return acquireBatchInternal(dest, count, localHits);
+    }
+  }
+
+  private int acquireBatchInternal(Object[] dest, int count, int localHits) {
+    int acquired = 0;
+    while (acquired < count) {
+      final T item = mPool.acquire();
+      if (item == null) {
+        break;
+      }
+      dest[acquired++] = item;
+    }
+    mCurrentSize = Math.max(0, mCurrentSize - acquired);
+    // A batch is requested on behalf of a single acquire, which only missed if nothing came back.
+    // The other items of the batch are counted as local hits when they get acquired.
+    recordAcquires(localHits + 1, acquired == 0 ? 1 : 0);
+    return acquired;
+  }
+
+  /**
+   * Releases the items of {@code src} in [{@code from}, {@code to}) into this pool while taking
+   * the pool's lock only once. The released slots of {@code src} are nulled out.
+   *
+   * @param localHits see {@link #acquireBatch(Object[], int, int)}.
+   */
+  void releaseBatch(Object[] src, int from, int to, int localHits) {
+    if (mIsSync) {
+      synchronized (this) {
+        releaseBatchInternal(src, from, to, localHits);
+      }
+    } else {
+      releaseBatchInternal(src, from, to, localHits);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void releaseBatchInternal(Object[] src, int from, int to, int localHits) {
+    if (localHits > 0) {
+      recordAcquires(localHits, 0);
+    }
+
+    for (int i = from; i < to; i++) {
+      releaseInternal((T) src[i]);
+      src[i] = null;
+    }
+  }
+
+  private void recordAcquires(int acquires, int misses) {
+    mAcquireCount += acquires;
+    mMissCount += misses;
+
+    if (!mIsAdaptive) {
+      return;
+    }
+
+    if (mWindowAcquireCount == 0) {
+      mWindowLowWaterMark = mCurrentSize;
+    } else {
+      mWindowLowWaterMark = Math.min(mWindowLowWaterMark, mCurrentSize);
+    }
+
+    mWindowAcquireCount += acquires;
+    mWindowMissCount += misses;
+
+    if (mWindowAcquireCount >= Math.max(mCapacity, MIN_ADAPT_WINDOW)) {
+      adaptCapacity();
+    }
+  }
+
+  private void adaptCapacity() {
+    if (mWindowMissCount > 0) {
+      mCapacity = Math.min(mMaxSize, mCapacity + mWindowMissCount);
+    } else if (mWindowLowWaterMark > 0) {
+      // These items were never needed during the whole window.
+      setCapacityInternal(mCapacity - mWindowLowWaterMark / 2);
+    }
+
+    mWindowAcquireCount = 0;
+    mWindowMissCount = 0;
+  }
+
+  private void setCapacityInternal(int capacity) {
+    mCapacity = Math.max(mMinSize, Math.min(mMaxSize, capacity));
+
+    while (mCurrentSize > mCapacity && mPool.acquire() != null) {
+      mCurrentSize--;
+    }
+  }
+
+  /**
+   * Shrinks the capacity of the pool to its minimum size, dropping the items that don't fit
+   * anymore. Used to give memory back when the system is running low on it.
+   */
+  public void trimToMinSize() {
+    if (mIsSync) {
+      synchronized (this) {
+        setCapacityInternal(mMinSize);
+      }
+    } else {
+      setCapacityInternal(mMinSize);
     }
   }
 
@@ -62,9 +249,10 @@ public class RecyclePool<T> implements PoolWithDebugInfo {
     return mName;
   }
 
+  /** @return the current capacity of the pool, which for adaptive pools varies over time. */
   @Override
   public int getMaxSize() {
-    return mMaxSize;
+    return mCapacity;
   }
 
   @Override
@@ -72,21 +260,45 @@ public class RecyclePool<T> implements PoolWithDebugInfo {
     return mCurrentSize;
   }
 
+  @Override
+  public boolean isAdaptive() {
+    return mIsAdaptive;
+  }
+
+  @Override
+  public int getHighWaterMark() {
+    return mHighWaterMark;
+  }
+
+  @Override
+  public long getAcquireCount() {
+    return mAcquireCount;
+  }
+
+  @Override
+  public long getMissCount() {
+    return mMissCount;
+  }
+
   public boolean isFull() {
-    return mCurrentSize >= mMaxSize;
+    return mCurrentSize >= mCapacity;
   }
 
   public void clear() {
     if (mIsSync) {
       synchronized (this) {
-        while (acquire() != null) {
-          // no-op.
-        }
+        clearInternal();
       }
     } else {
-      while (acquire() != null) {
-        // no-op.
-      }
+      clearInternal();
+    }
+  }
+
+  // Drains mPool directly rather than through acquire(), which subclasses may override.
+  private void clearInternal() {
+    while (mPool.acquire() != null) {
+      // no-op.
     }
+    mCurrentSize = 0;
   }
 }
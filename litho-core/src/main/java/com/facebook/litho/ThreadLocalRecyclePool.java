@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.infer.annotation.ThreadSafe;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link RecyclePool} that keeps a small cache of items per thread in front of the shared,
+ * synchronized pool. Acquiring from and releasing to the calling thread's cache doesn't take any
+ * lock, so layout threads that allocate and release many objects of the same type don't contend
+ * on the pool's monitor. The shared pool is only touched when the local cache runs empty or full,
+ * and then half a cache worth of items is moved with a single lock acquisition.
+ */
+@ThreadSafe(enableChecks = false)
+public class ThreadLocalRecyclePool<T> extends RecyclePool<T> {
+
+  private final int mLocalCacheSize;
+  private final AtomicInteger mGeneration = new AtomicInteger(0);
+  // The caches of the threads that used this pool, so that their items can be counted.
+  private final List<LocalCache> mLocalCaches = new ArrayList<>();
+  private final ThreadLocal<LocalCache> mLocalCache =
+      new ThreadLocal<LocalCache>() {
+        @Override
+        protected LocalCache initialValue() {
+          final LocalCache cache = new LocalCache(mLocalCacheSize, mGeneration.get());
+          synchronized (mLocalCaches) {
+            pruneDeadCaches();
+            mLocalCaches.add(cache);
+          }
+          return cache;
+        }
+      };
+
+  /**
+   * @param maxSize max number of items held by the shared pool.
+   * @param localCacheSize max number of items cached by each thread, in addition to the shared
+   *     pool.
+   */
+  public ThreadLocalRecyclePool(String name, int maxSize, int localCacheSize) {
+    super(name, maxSize, true);
+    mLocalCacheSize = checkLocalCacheSize(localCacheSize);
+  }
+
+  /**
+   * Creates a pool whose shared part is adaptive, see {@link RecyclePool#RecyclePool(String, int,
+   * int, int, boolean)}.
+   */
+  public ThreadLocalRecyclePool(
+      String name, int initialSize, int minSize, int maxSize, int localCacheSize) {
+    super(name, initialSize, minSize, maxSize, true);
+    mLocalCacheSize = checkLocalCacheSize(localCacheSize);
+  }
+
+  private static int checkLocalCacheSize(int localCacheSize) {
+    if (localCacheSize < 2) {
+      throw new IllegalArgumentException("The local cache must be able to hold at least 2 items");
+    }
+    return localCacheSize;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T acquire() {
+    final LocalCache cache = getLocalCache();
+
+    if (cache.mSize == 0) {
+      cache.mSize = acquireBatch(cache.mItems, mLocalCacheSize / 2, cache.mLocalHits);
+      cache.mLocalHits = 0;
+
+      if (cache.mSize == 0) {
+        return null;
+      }
+    } else {
+      cache.mLocalHits++;
+    }
+
+    final int index = --cache.mSize;
+    final T item = (T) cache.mItems[index];
+    cache.mItems[index] = null;
+
+    return item;
+  }
+
+  @Override
+  public void release(T item) {
+    final LocalCache cache = getLocalCache();
+
+    // The shared pool checks this on its own, but items released here may never reach it.
+    for (int i = 0; i < cache.mSize; i++) {
+      if (cache.mItems[i] == item) {
+        throw new IllegalStateException("Already in the pool!");
+      }
+    }
+
+    if (cache.mSize == mLocalCacheSize) {
+      // Spill the older half to the shared pool so that other threads can pick it up.
+      final int spillCount = mLocalCacheSize / 2;
+      releaseBatch(cache.mItems, 0, spillCount, cache.mLocalHits);
+      cache.mLocalHits = 0;
+      System.arraycopy(cache.mItems, spillCount, cache.mItems, 0, cache.mSize - spillCount);
+      Arrays.fill(cache.mItems, cache.mSize - spillCount, cache.mSize, null);
+      cache.mSize -= spillCount;
+    }
+
+    cache.mItems[cache.mSize++] = item;
+  }
+
+  /**
+   * @return the number of items in the shared pool plus the items cached by all live threads. The
+   *     caches of other threads are read without synchronization, so the count is only accurate
+   *     once they stop using the pool.
+   */
+  @Override
+  public int getCurrentSize() {
+    final int generation = mGeneration.get();
+    int localSize = 0;
+
+    synchronized (mLocalCaches) {
+      pruneDeadCaches();
+      for (int i = 0, size = mLocalCaches.size(); i < size; i++) {
+        final LocalCache cache = mLocalCaches.get(i);
+        // Caches from before the last clear() are emptied the next time their thread uses them.
+        if (cache.mGeneration == generation) {
+          localSize += cache.mSize;
+        }
+      }
+    }
+
+    return super.getCurrentSize() + localSize;
+  }
+
+  /**
+   * Empties the shared pool. Caches owned by other threads can't be touched from here: they are
+   * invalidated and dropped the next time their thread uses this pool.
+   */
+  @Override
+  public void clear() {
+    mGeneration.incrementAndGet();
+    super.clear();
+  }
+
+  /**
+   * Trims the shared pool to its minimum size. The caches of all threads are dropped as well, the
+   * same way {@link #clear()} drops them.
+   */
+  @Override
+  public void trimToMinSize() {
+    mGeneration.incrementAndGet();
+    super.trimToMinSize();
+  }
+
+  /** Drops the caches of threads that died, along with the items they held. */
+  private void pruneDeadCaches() {
+    for (Iterator<LocalCache> iterator = mLocalCaches.iterator(); iterator.hasNext(); ) {
+      final Thread owner = iterator.next().mOwner.get();
+      if (owner == null || !owner.isAlive()) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private LocalCache getLocalCache() {
+    final LocalCache cache = mLocalCache.get();
+    final int generation = mGeneration.get();
+
+    if (cache.mGeneration != generation) {
+      Arrays.fill(cache.mItems, 0, cache.mSize, null);
+      cache.mSize = 0;
+      cache.mGeneration = generation;
+    }
+
+    return cache;
+  }
+
+  private static final class LocalCache {
+    private final Object[] mItems;
+    private final WeakReference<Thread> mOwner;
+    // Only written by the owning thread, volatile so that getCurrentSize() sees recent values.
+    private volatile int mSize;
+    private volatile int mGeneration;
+    // Acquires served by this cache that the shared pool doesn't know about yet. They are added to
+    // its stats with the next batch, so that counting them doesn't take the pool's lock.
+    private int mLocalHits;
+
+    private LocalCache(int size, int generation) {
+      mItems = new Object[size];
+      mOwner = new WeakReference<>(Thread.currentThread());
+      mGeneration = generation;
+    }
+  }
+}
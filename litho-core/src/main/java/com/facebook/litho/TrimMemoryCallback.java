@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import android.annotation.TargetApi;
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.os.Build;
+
+/**
+ * A {@link ComponentCallbacks2} for caches that only care about memory pressure. {@link
+ * #onLowMemory()} is reported as {@link ComponentCallbacks2#TRIM_MEMORY_COMPLETE} and configuration
+ * changes are ignored.
+ */
+@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+public abstract class TrimMemoryCallback implements ComponentCallbacks2 {
+
+  @Override
+  public abstract void onTrimMemory(int level);
+
+  @Override
+  public void onConfigurationChanged(Configuration newConfig) {
+    // Do nothing.
+  }
+
+  @Override
+  public void onLowMemory() {
+    onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+  }
+}
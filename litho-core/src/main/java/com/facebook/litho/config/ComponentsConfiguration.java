@@ -140,12 +140,106 @@ public class ComponentsConfiguration {
    */
   public static boolean doNotRelayoutForAsyncRootInMeasure = false;
 
-  /** If true then we'll allocate YogaEdgesWithIntsImplOptimized arrays in batches */
+  /**
+   * If greater than 0, ComponentTree#measure will wait up to this many milliseconds for a layout
+   * with the same root and size specs that is already being calculated on a background thread,
+   * instead of calculating the same layout again on the main thread.
+   */
+  public static long measureWaitForInFlightLayoutTimeoutMs = 0;
+
+  /**
+   * If true then we'll allocate the small arrays of YogaEdgesWithIntsImplOptimized and of the
+   * float edge values in batches, see {@link com.facebook.litho.ArrayBatchAllocator}. Safe to use
+   * with any number of layout threads.
+   */
   public static boolean useBatchArrayAllocator = false;
 
+  /**
+   * If true, LayoutState also sorts its outputs by left and right edge and MountState mounts
+   * incrementally when the visible rect moves horizontally, instead of falling back to a full
+   * mount.
+   */
+  public static boolean useTwoDimensionalIncrementalMount = false;
+
+  /**
+   * If true, LayoutState sorts its visibility outputs by each of their edges and MountState only
+   * processes the visibility outputs that intersect the previous or the current visible rect,
+   * rather than all of them, on every scroll.
+   */
+  public static boolean incrementalVisibilityHandling = false;
+
   /** If true then we'll lazily initialize the LayoutStateOutputIdCalculator */
   public static boolean lazilyInitializeLayoutStateOutputIdCalculator = false;
 
   /** Whether to unmount all contents of LithoView when its ComponentTree is set to null. */
   public static boolean unmountAllWhenComponentTreeSetToNull = false;
+
+  /**
+   * If true, a layout that is still being calculated when ComponentTree receives a newer root or
+   * size spec is cancelled and stops at the next checkpoint instead of running to completion.
+   */
+  public static boolean cancelSupersededLayouts = false;
+
+  /**
+   * If true, the pools of objects that are churned through during layout (InternalNode, YogaNode,
+   * NodeInfo, LayoutOutput, DiffNode) keep a lock-free per-thread cache in front of the shared
+   * pool. This is read once when ComponentsPools is initialized, so it must be set before any
+   * layout is calculated.
+   */
+  public static boolean useThreadLocalLayoutPools = false;
+
+  /**
+   * If true, the internal ComponentsPools grow and shrink their capacity according to the observed
+   * demand instead of using fixed sizes, and are trimmed when the system is low on memory. This is
+   * read once when ComponentsPools is initialized.
+   */
+  public static boolean useAdaptivePoolSizes = false;
+
+  /**
+   * If true, the generated isEquivalentTo() of components first compares a hash of the props that
+   * is computed once per component, so that components with different props are told apart
+   * without comparing their component props recursively. LayoutState also stops comparing a
+   * component to its previous version once one of its children is known to need an update.
+   */
+  public static boolean useComponentPropsHash = false;
+
+  /**
+   * If true, the global key of a child component is a 64-bit hash of its parent's global key and
+   * of its own key, rather than their concatenation, so that global keys don't get longer with the
+   * depth of the tree.
+   */
+  public static boolean useCompactGlobalKeys = false;
+
+  /**
+   * If true, the YogaNodes used by layouts record their style updates and apply them in a single
+   * JNI call per node when the layout is calculated, instead of crossing JNI for every update.
+   */
+  public static boolean batchYogaStyleUpdates = false;
+
+  /**
+   * If true, layouts are calculated by the pure-Java implementation of Yoga instead of the native
+   * one, e.g. to profile them on a plain JVM. Must be set before the first layout is calculated.
+   */
+  public static boolean useJavaYogaLayout = false;
+
+  /**
+   * If greater than 0, the maximum number of text layouts that Text components share through a
+   * process-wide cache, so that the same short text with the same style and width isn't laid out
+   * again by every component that shows it.
+   */
+  public static int textLayoutCacheSize = 0;
+
+  /**
+   * If true, a Text whose bounds are not the size it was measured at still draws the layout it was
+   * measured with, rather than building another one, when its lines provably don't change at the
+   * width of its bounds.
+   */
+  public static boolean reuseTextLayoutsAtCompatibleWidths = false;
+
+  /**
+   * If true, Text components queue the layouts they create off the main thread, e.g. those of the
+   * items a RecyclerBinder lays out ahead of scrolling, for glyph warming even if their
+   * glyphWarming prop is not set.
+   */
+  public static boolean warmGlyphsOfBackgroundTextLayouts = false;
 }
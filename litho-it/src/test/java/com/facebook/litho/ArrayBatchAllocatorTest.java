@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+package com.facebook.litho;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(ComponentsTestRunner.class)
+public class ArrayBatchAllocatorTest {
+
+  @Before
+  public void setup() {
+    ArrayBatchAllocator.reset();
+  }
+
+  @After
+  public void tearDown() {
+    ArrayBatchAllocator.reset();
+  }
+
+  @Test
+  public void testArraysHaveRequestedSizeAndAreDistinct() {
+    final int[] first = ArrayBatchAllocator.newIntArray(2);
+    final int[] second = ArrayBatchAllocator.newIntArray(2);
+    final int[] third = ArrayBatchAllocator.newIntArray(4);
+    final float[] floats = ArrayBatchAllocator.newFloatArray(3);
+
+    assertThat(first).hasSize(2);
+    assertThat(second).hasSize(2);
+    assertThat(first).isNotSameAs(second);
+    assertThat(third).hasSize(4);
+    assertThat(floats).hasSize(3);
+  }
+
+  @Test
+  public void testLargeArraysAreNotBatched() {
+    final int size = ArrayBatchAllocator.MAX_BATCHED_ARRAY_SIZE + 1;
+
+    assertThat(ArrayBatchAllocator.newIntArray(size)).hasSize(size);
+    assertThat(ArrayBatchAllocator.newIntArray(0)).hasSize(0);
+    assertThat(ArrayBatchAllocator.getSlabAllocationCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testSlabHitRate() {
+    // A slab of arrays of size 2 holds 200 of them.
+    for (int i = 0; i < 201; i++) {
+      ArrayBatchAllocator.newArrayOfSize2();
+    }
+
+    assertThat(ArrayBatchAllocator.getSlabAllocationCount()).isEqualTo(2);
+    assertThat(ArrayBatchAllocator.getServedArrayCount()).isEqualTo(201);
+    assertThat(ArrayBatchAllocator.getSlabHitRate()).isEqualTo(1f - 2f / 201);
+  }
+
+  @Test
+  public void testThreadsUseTheirOwnSlabs() throws InterruptedException {
+    final List<int[]> otherThreadArrays = new ArrayList<>();
+    final Thread thread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                for (int i = 0; i < 10; i++) {
+                  otherThreadArrays.add(ArrayBatchAllocator.newIntArray(2));
+                }
+              }
+            });
+    thread.start();
+
+    final List<int[]> arrays = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      arrays.add(ArrayBatchAllocator.newIntArray(2));
+    }
+    thread.join();
+
+    for (int[] array : arrays) {
+      for (int[] otherThreadArray : otherThreadArrays) {
+        assertThat(array).isNotSameAs(otherThreadArray);
+      }
+    }
+    assertThat(ArrayBatchAllocator.getSlabAllocationCount()).isEqualTo(2);
+  }
+}
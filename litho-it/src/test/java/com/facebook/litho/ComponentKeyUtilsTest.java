@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(ComponentsTestRunner.class)
+public class ComponentKeyUtilsTest {
+
+  private boolean mUseCompactGlobalKeys;
+
+  @Before
+  public void setup() {
+    mUseCompactGlobalKeys = ComponentsConfiguration.useCompactGlobalKeys;
+  }
+
+  @After
+  public void tearDown() {
+    ComponentsConfiguration.useCompactGlobalKeys = mUseCompactGlobalKeys;
+  }
+
+  @Test
+  public void testConcatenatedKeys() {
+    ComponentsConfiguration.useCompactGlobalKeys = false;
+
+    assertThat(ComponentKeyUtils.getKeyWithSeparator("1", "2")).isEqualTo("1,2");
+    assertThat(ComponentKeyUtils.getKeyWithSeparator(1, 2, "[Text1]")).isEqualTo("1,2,[Text1]");
+    assertThat(ComponentKeyUtils.getKeyForChildPosition("1,2", 3)).isEqualTo("1,2!3");
+  }
+
+  @Test
+  public void testCompactKeysDontGrowWithDepth() {
+    ComponentsConfiguration.useCompactGlobalKeys = true;
+
+    final Set<String> keys = new HashSet<>();
+    String key = "1";
+    for (int depth = 0; depth < 1000; depth++) {
+      key = ComponentKeyUtils.getKeyWithSeparator(key, "2");
+      assertThat(key.length()).isLessThanOrEqualTo(14);
+      keys.add(key);
+    }
+
+    assertThat(keys).hasSize(1000);
+  }
+
+  @Test
+  public void testCompactKeysAreStable() {
+    ComponentsConfiguration.useCompactGlobalKeys = true;
+
+    final String parentKey = ComponentKeyUtils.getKeyWithSeparator("1", "2");
+
+    assertThat(ComponentKeyUtils.getKeyWithSeparator(1, 2, "[Text1]"))
+        .isEqualTo(ComponentKeyUtils.getKeyWithSeparator(parentKey, "[Text1]"));
+    assertThat(ComponentKeyUtils.getKeyWithSeparator(parentKey, "3"))
+        .isNotEqualTo(ComponentKeyUtils.getKeyForChildPosition(parentKey, 3));
+  }
+
+  @Test
+  public void testCompactGlobalKeyForRelativeKey() {
+    ComponentsConfiguration.useCompactGlobalKeys = true;
+
+    final String parentKey = ComponentKeyUtils.getKeyWithSeparator("1", "2");
+    final String childKey = ComponentKeyUtils.getKeyWithSeparator(parentKey, "3");
+
+    assertThat(ComponentKeyUtils.getGlobalKeyForRelativeKey("1", "2,3")).isEqualTo(childKey);
+    assertThat(ComponentKeyUtils.getGlobalKeyForRelativeKey("1", "2,3!1,4"))
+        .isEqualTo(
+            ComponentKeyUtils.getKeyWithSeparator(
+                ComponentKeyUtils.getKeyForChildPosition(childKey, 1), "4"));
+  }
+
+  @Test
+  public void testConcatenatedGlobalKeyForRelativeKey() {
+    ComponentsConfiguration.useCompactGlobalKeys = false;
+
+    assertThat(ComponentKeyUtils.getGlobalKeyForRelativeKey("1", "2,3!1,4")).isEqualTo("1,2,3!1,4");
+  }
+}
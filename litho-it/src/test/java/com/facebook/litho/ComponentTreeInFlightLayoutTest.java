@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.makeSizeSpec;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import android.os.Looper;
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.reflect.Whitebox;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+import org.robolectric.shadows.ShadowLooper;
+
+/** Tests how {@link ComponentTree#measure} waits for an identical in-flight background layout. */
+@RunWith(ComponentsTestRunner.class)
+public class ComponentTreeInFlightLayoutTest {
+
+  private static final int WIDTH_SPEC = makeSizeSpec(100, EXACTLY);
+  private static final int HEIGHT_SPEC = makeSizeSpec(100, EXACTLY);
+
+  private ComponentContext mContext;
+  private ShadowLooper mLayoutThreadShadowLooper;
+  private long mDefaultWaitTimeoutMs;
+  private AtomicInteger mLayoutCount;
+
+  @Before
+  public void setup() throws Exception {
+    mContext = new ComponentContext(RuntimeEnvironment.application);
+    mLayoutThreadShadowLooper =
+        Shadows.shadowOf(
+            (Looper) Whitebox.invokeMethod(ComponentTree.class, "getDefaultLayoutThreadLooper"));
+    mDefaultWaitTimeoutMs = ComponentsConfiguration.measureWaitForInFlightLayoutTimeoutMs;
+    mLayoutCount = new AtomicInteger();
+  }
+
+  @After
+  public void tearDown() {
+    ComponentsConfiguration.measureWaitForInFlightLayoutTimeoutMs = mDefaultWaitTimeoutMs;
+    mLayoutThreadShadowLooper.runToEndOfTasks();
+  }
+
+  @Test
+  public void testMeasureDoesNotTakeOverQueuedLayoutByDefault() {
+    ComponentsConfiguration.measureWaitForInFlightLayoutTimeoutMs = 0;
+    final ComponentTree componentTree =
+        ComponentTree.create(mContext, TestDrawableComponent.create(mContext).build()).build();
+
+    componentTree.setSizeSpecAsync(WIDTH_SPEC, HEIGHT_SPEC);
+    componentTree.measure(WIDTH_SPEC, HEIGHT_SPEC, new int[2], false);
+
+    assertThat(mLayoutThreadShadowLooper.getScheduler().size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testMeasureTakesOverQueuedLayoutWhenWaitIsEnabled() {
+    ComponentsConfiguration.measureWaitForInFlightLayoutTimeoutMs = 100;
+    final ComponentTree componentTree =
+        ComponentTree.create(mContext, TestDrawableComponent.create(mContext).build()).build();
+
+    componentTree.setSizeSpecAsync(WIDTH_SPEC, HEIGHT_SPEC);
+    componentTree.measure(WIDTH_SPEC, HEIGHT_SPEC, new int[2], false);
+
+    assertThat(mLayoutThreadShadowLooper.getScheduler().size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testMeasureReusesInFlightLayout() throws Exception {
+    ComponentsConfiguration.measureWaitForInFlightLayoutTimeoutMs = 10000;
+    final CountDownLatch layoutStarted = new CountDownLatch(1);
+    final CountDownLatch finishLayout = new CountDownLatch(1);
+    final ComponentTree componentTree =
+        ComponentTree.create(mContext, createComponent(layoutStarted, finishLayout)).build();
+
+    final Thread layoutThread = startBackgroundLayout(componentTree);
+    assertThat(layoutStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // The background layout only finishes while measure waits for it.
+    new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                sleep(50);
+                finishLayout.countDown();
+              }
+            })
+        .start();
+
+    final int[] measureOutput = new int[2];
+    componentTree.measure(WIDTH_SPEC, HEIGHT_SPEC, measureOutput, false);
+    layoutThread.join();
+
+    assertThat(mLayoutCount.get()).isEqualTo(1);
+    assertThat(measureOutput[0]).isEqualTo(100);
+    assertThat(measureOutput[1]).isEqualTo(100);
+  }
+
+  @Test
+  public void testMeasureLaysOutItselfWhenWaitTimesOut() throws Exception {
+    ComponentsConfiguration.measureWaitForInFlightLayoutTimeoutMs = 10;
+    final CountDownLatch layoutStarted = new CountDownLatch(1);
+    final CountDownLatch finishLayout = new CountDownLatch(1);
+    final ComponentTree componentTree =
+        ComponentTree.create(mContext, createComponent(layoutStarted, finishLayout)).build();
+
+    final Thread layoutThread = startBackgroundLayout(componentTree);
+    assertThat(layoutStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    final int[] measureOutput = new int[2];
+    componentTree.measure(WIDTH_SPEC, HEIGHT_SPEC, measureOutput, false);
+    finishLayout.countDown();
+    layoutThread.join();
+
+    assertThat(mLayoutCount.get()).isEqualTo(2);
+    assertThat(measureOutput[0]).isEqualTo(100);
+    assertThat(measureOutput[1]).isEqualTo(100);
+  }
+
+  private static Thread startBackgroundLayout(final ComponentTree componentTree) {
+    final Thread thread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                componentTree.setSizeSpec(WIDTH_SPEC, HEIGHT_SPEC);
+              }
+            });
+    thread.start();
+    return thread;
+  }
+
+  /**
+   * @return a component whose layouts off the main thread block until finishLayout is counted
+   *     down.
+   */
+  private Component createComponent(
+      final CountDownLatch layoutStarted, final CountDownLatch finishLayout) {
+    return new InlineLayoutSpec() {
+      @Override
+      protected Component onCreateLayout(ComponentContext c) {
+        mLayoutCount.incrementAndGet();
+        if (!ThreadUtils.isMainThread()) {
+          layoutStarted.countDown();
+          try {
+            finishLayout.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+        }
+
+        return TestDrawableComponent.create(c).build();
+      }
+    };
+  }
+
+  private static void sleep(long durationMs) {
+    try {
+      Thread.sleep(durationMs);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.makeSizeSpec;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.reflect.Whitebox;
+import org.robolectric.RuntimeEnvironment;
+
+/** Tests how {@link ComponentTree} cancels the background layouts that a newer one supersedes. */
+@RunWith(ComponentsTestRunner.class)
+public class ComponentTreeLayoutCancellationTest {
+
+  private static final int WIDTH_SPEC = makeSizeSpec(100, EXACTLY);
+  private static final int HEIGHT_SPEC = makeSizeSpec(100, EXACTLY);
+
+  private ComponentContext mContext;
+  private boolean mCancelSupersededLayouts;
+  private CountDownLatch mLayoutStarted;
+  private CountDownLatch mFinishLayout;
+  private AtomicInteger mCancelledBackgroundLayouts;
+  private AtomicInteger mCompletedBackgroundLayouts;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(RuntimeEnvironment.application);
+    mCancelSupersededLayouts = ComponentsConfiguration.cancelSupersededLayouts;
+    ComponentsConfiguration.cancelSupersededLayouts = true;
+    mLayoutStarted = new CountDownLatch(1);
+    mFinishLayout = new CountDownLatch(1);
+    mCancelledBackgroundLayouts = new AtomicInteger();
+    mCompletedBackgroundLayouts = new AtomicInteger();
+  }
+
+  @After
+  public void tearDown() {
+    mFinishLayout.countDown();
+    ComponentsConfiguration.cancelSupersededLayouts = mCancelSupersededLayouts;
+  }
+
+  @Test
+  public void testSetRootCancelsRunningLayout() throws Exception {
+    final ComponentTree componentTree = createComponentTree();
+    final Thread layoutThread = startBackgroundLayout(componentTree);
+    assertThat(mLayoutStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    final LayoutCancellationToken token = getRunningLayoutToken(componentTree);
+    assertThat(token.isCancelled()).isFalse();
+
+    final Component newRoot = TestDrawableComponent.create(mContext).build();
+    componentTree.setRoot(newRoot);
+
+    assertThat(token.isCancelled()).isTrue();
+    assertThat(getRunningLayoutTokens(componentTree)).isEmpty();
+
+    assertRunningLayoutIsNotCommitted(componentTree, layoutThread);
+    assertThat(
+            componentTree
+                .getBackgroundLayoutState()
+                .isCompatibleComponentAndSpec(newRoot.getId(), WIDTH_SPEC, HEIGHT_SPEC))
+        .isTrue();
+  }
+
+  @Test
+  public void testSetSizeSpecCancelsRunningLayout() throws Exception {
+    final ComponentTree componentTree = createComponentTree();
+    final Thread layoutThread = startBackgroundLayout(componentTree);
+    assertThat(mLayoutStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    final LayoutCancellationToken token = getRunningLayoutToken(componentTree);
+    assertThat(token.isCancelled()).isFalse();
+
+    final int newWidthSpec = makeSizeSpec(50, EXACTLY);
+    componentTree.setSizeSpec(newWidthSpec, HEIGHT_SPEC);
+
+    assertThat(token.isCancelled()).isTrue();
+    assertThat(getRunningLayoutTokens(componentTree)).isEmpty();
+
+    assertRunningLayoutIsNotCommitted(componentTree, layoutThread);
+    assertThat(componentTree.getBackgroundLayoutState().getWidth()).isEqualTo(50);
+  }
+
+  @Test
+  public void testRunningLayoutIsNotCancelledByCompatibleUpdate() throws Exception {
+    final ComponentTree componentTree = createComponentTree();
+    final Thread layoutThread = startBackgroundLayout(componentTree);
+    assertThat(mLayoutStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    final LayoutCancellationToken token = getRunningLayoutToken(componentTree);
+    synchronized (componentTree) {
+      Whitebox.invokeMethod(componentTree, "cancelSupersededLayouts");
+    }
+
+    assertThat(token.isCancelled()).isFalse();
+
+    mFinishLayout.countDown();
+    layoutThread.join();
+
+    assertThat(mCancelledBackgroundLayouts.get()).isEqualTo(0);
+    assertThat(mCompletedBackgroundLayouts.get()).isEqualTo(1);
+    assertThat(componentTree.getBackgroundLayoutState().getWidth()).isEqualTo(100);
+  }
+
+  /**
+   * Lets the blocked background layout finish and checks that it took the cancelled path of
+   * calculateAndCommitLayout without replacing the LayoutStates committed in the meantime.
+   */
+  private void assertRunningLayoutIsNotCommitted(ComponentTree componentTree, Thread layoutThread)
+      throws InterruptedException {
+    final LayoutState backgroundLayoutState = componentTree.getBackgroundLayoutState();
+    final LayoutState mainThreadLayoutState = componentTree.getMainThreadLayoutState();
+
+    mFinishLayout.countDown();
+    layoutThread.join();
+
+    assertThat(mCancelledBackgroundLayouts.get()).isEqualTo(1);
+    assertThat(mCompletedBackgroundLayouts.get()).isEqualTo(0);
+    assertThat(componentTree.getBackgroundLayoutState()).isSameAs(backgroundLayoutState);
+    assertThat(componentTree.getMainThreadLayoutState()).isSameAs(mainThreadLayoutState);
+  }
+
+  /** @return a ComponentTree that records the outcome of its background layout calculations. */
+  private ComponentTree createComponentTree() {
+    return new ComponentTree(ComponentTree.create(mContext, createBlockingComponent())) {
+      @Override
+      protected LayoutState calculateLayoutState(
+          Object lock,
+          ComponentContext context,
+          Component root,
+          int widthSpec,
+          int heightSpec,
+          boolean diffingEnabled,
+          DiffNode diffNode,
+          int source) {
+        final LayoutState layoutState =
+            super.calculateLayoutState(
+                lock, context, root, widthSpec, heightSpec, diffingEnabled, diffNode, source);
+
+        if (!ThreadUtils.isMainThread()) {
+          if (layoutState.isCancelled()) {
+            mCancelledBackgroundLayouts.incrementAndGet();
+          } else {
+            mCompletedBackgroundLayouts.incrementAndGet();
+          }
+        }
+
+        return layoutState;
+      }
+    };
+  }
+
+  /**
+   * @return a component whose layouts off the main thread block until mFinishLayout is counted
+   *     down.
+   */
+  private Component createBlockingComponent() {
+    return new InlineLayoutSpec() {
+      @Override
+      protected Component onCreateLayout(ComponentContext c) {
+        if (!ThreadUtils.isMainThread()) {
+          mLayoutStarted.countDown();
+          try {
+            mFinishLayout.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+        }
+
+        return TestDrawableComponent.create(c).build();
+      }
+    };
+  }
+
+  private static Thread startBackgroundLayout(final ComponentTree componentTree) {
+    final Thread thread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                componentTree.setSizeSpec(WIDTH_SPEC, HEIGHT_SPEC);
+              }
+            });
+    thread.start();
+    return thread;
+  }
+
+  private static LayoutCancellationToken getRunningLayoutToken(ComponentTree componentTree) {
+    final List<LayoutCancellationToken> tokens = getRunningLayoutTokens(componentTree);
+    synchronized (componentTree) {
+      assertThat(tokens).hasSize(1);
+      return tokens.get(0);
+    }
+  }
+
+  private static List<LayoutCancellationToken> getRunningLayoutTokens(
+      ComponentTree componentTree) {
+    return Whitebox.getInternalState(componentTree, "mRunningLayoutTokens");
+  }
+}
@@ -19,11 +19,13 @@ import android.content.ContextWrapper;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
 import android.view.View;
+import com.facebook.litho.config.ComponentsConfiguration;
 import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.powermock.reflect.Whitebox;
 import org.robolectric.Robolectric;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.util.ActivityController;
@@ -204,4 +206,21 @@ public class ComponentsPoolsTest {
     assertThat(acquireMountContent(mContext1, mLifecycleWithEmptyPoolSize))
         .isSameAs(mNewMountContent);
   }
+
+  @Test
+  public void testCalculatingLayoutRegistersTrimMemoryCallback() {
+    final boolean useAdaptivePoolSizes = ComponentsConfiguration.useAdaptivePoolSizes;
+    ComponentsConfiguration.useAdaptivePoolSizes = true;
+    Whitebox.setInternalState(ComponentsPools.class, "sTrimMemoryCallbacks", (Object) null);
+
+    try {
+      ComponentsPools.acquireLayoutState(mContext1);
+
+      assertThat(Whitebox.getInternalState(ComponentsPools.class, "sTrimMemoryCallbacks"))
+          .isNotNull();
+    } finally {
+      ComponentsConfiguration.useAdaptivePoolSizes = useAdaptivePoolSizes;
+      Whitebox.setInternalState(ComponentsPools.class, "sTrimMemoryCallbacks", (Object) null);
+    }
+  }
 }
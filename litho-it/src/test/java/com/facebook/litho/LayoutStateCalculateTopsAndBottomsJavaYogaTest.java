@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs all the tests of {@link LayoutStateCalculateTopsAndBottomsTest} with the Java
+ * implementation of Yoga, see {@link ComponentsConfiguration#useJavaYogaLayout}.
+ */
+@RunWith(ComponentsTestRunner.class)
+public class LayoutStateCalculateTopsAndBottomsJavaYogaTest
+    extends LayoutStateCalculateTopsAndBottomsTest {
+
+  private boolean mDefaultUseJavaYogaLayout;
+
+  @Before
+  public void useJavaYogaLayout() {
+    mDefaultUseJavaYogaLayout = ComponentsConfiguration.useJavaYogaLayout;
+    ComponentsConfiguration.useJavaYogaLayout = true;
+    ComponentsPools.resetYogaConfig();
+  }
+
+  @After
+  public void restoreYogaLayout() {
+    ComponentsConfiguration.useJavaYogaLayout = mDefaultUseJavaYogaLayout;
+    ComponentsPools.resetYogaConfig();
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.makeSizeSpec;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(ComponentsTestRunner.class)
+public class LayoutStateCancellationTest {
+
+  private ComponentContext mContext;
+  private LayoutCancellationToken mToken;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(RuntimeEnvironment.application);
+    mToken = new LayoutCancellationToken(1, makeSizeSpec(100, EXACTLY), makeSizeSpec(100, EXACTLY));
+    mContext.setLayoutCancellationToken(mToken);
+  }
+
+  @Test
+  public void testLayoutCompletesWhenNotCancelled() {
+    final LayoutState layoutState = calculateLayoutState(createComponent(false));
+
+    assertThat(layoutState.isCancelled()).isFalse();
+    assertThat(layoutState.getMountableOutputCount()).isEqualTo(3);
+  }
+
+  @Test
+  public void testLayoutCancelledBeforeStartHasNoOutputs() {
+    mToken.cancel();
+
+    final LayoutState layoutState = calculateLayoutState(createComponent(false));
+
+    assertThat(layoutState.isCancelled()).isTrue();
+    assertThat(layoutState.getMountableOutputCount()).isEqualTo(0);
+    assertThat(layoutState.mLayoutRoot).isNull();
+  }
+
+  @Test
+  public void testLayoutCancelledWhileCreatingTreeHasNoOutputs() {
+    final LayoutState layoutState = calculateLayoutState(createComponent(true));
+
+    assertThat(layoutState.isCancelled()).isTrue();
+    assertThat(layoutState.getMountableOutputCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testTokenMatchesOnlyItsRootAndSpecs() {
+    final int spec = makeSizeSpec(100, EXACTLY);
+
+    assertThat(mToken.isFor(1, spec, spec)).isTrue();
+    assertThat(mToken.isFor(2, spec, spec)).isFalse();
+    assertThat(mToken.isFor(1, makeSizeSpec(50, EXACTLY), spec)).isFalse();
+  }
+
+  private Component createComponent(final boolean cancelDuringCreateLayout) {
+    return new InlineLayoutSpec() {
+      @Override
+      protected Component onCreateLayout(ComponentContext c) {
+        return Column.create(c)
+            .child(TestDrawableComponent.create(c))
+            .child(
+                new InlineLayoutSpec() {
+                  @Override
+                  protected Component onCreateLayout(ComponentContext c) {
+                    if (cancelDuringCreateLayout) {
+                      mToken.cancel();
+                    }
+                    return TestDrawableComponent.create(c).build();
+                  }
+                })
+            .build();
+      }
+    };
+  }
+
+  private LayoutState calculateLayoutState(Component component) {
+    return LayoutState.calculate(
+        mContext,
+        component,
+        -1,
+        makeSizeSpec(100, EXACTLY),
+        makeSizeSpec(100, EXACTLY),
+        LayoutState.CalculateLayoutSource.TEST);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import static org.mockito.Mockito.verify;
+
+import android.graphics.Rect;
+import android.view.View;
+import com.facebook.litho.annotations.OnCreateLayout;
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+import com.facebook.yoga.YogaEdge;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(ComponentsTestRunner.class)
+public class LithoTooltipControllerTest {
+
+  private static final int HOST_WIDTH = 400;
+  private static final int HOST_HEIGHT = 300;
+  private static final int ANCHOR_WIDTH = 200;
+  private static final int ANCHOR_HEIGHT = 100;
+  private static final int MARGIN_LEFT = 20;
+  private static final int MARGIN_TOP = 10;
+
+  @Mock public LithoTooltip mLithoTooltip;
+  private ComponentContext mContext;
+  private boolean mUseCompactGlobalKeys;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    mContext = new ComponentContext(RuntimeEnvironment.application);
+    mUseCompactGlobalKeys = ComponentsConfiguration.useCompactGlobalKeys;
+  }
+
+  @After
+  public void tearDown() {
+    ComponentsConfiguration.useCompactGlobalKeys = mUseCompactGlobalKeys;
+  }
+
+  @Test
+  public void testNestedAnchor() {
+    ComponentsConfiguration.useCompactGlobalKeys = false;
+
+    testShowTooltipOnNestedAnchor();
+  }
+
+  @Test
+  public void testNestedAnchorWithCompactGlobalKeys() {
+    ComponentsConfiguration.useCompactGlobalKeys = true;
+
+    testShowTooltipOnNestedAnchor();
+  }
+
+  private void testShowTooltipOnNestedAnchor() {
+    final Component component =
+        new InlineLayoutSpec() {
+          @Override
+          @OnCreateLayout
+          protected Component onCreateLayout(ComponentContext c) {
+            return Row.create(c)
+                .marginPx(YogaEdge.LEFT, MARGIN_LEFT)
+                .marginPx(YogaEdge.TOP, MARGIN_TOP)
+                .child(
+                    Column.create(c)
+                        .key("column")
+                        .child(
+                            TestDrawableComponent.create(c)
+                                .key("anchor")
+                                .widthPx(ANCHOR_WIDTH)
+                                .heightPx(ANCHOR_HEIGHT)))
+                .build();
+          }
+        };
+
+    final ComponentTree componentTree =
+        ComponentTree.create(mContext, component)
+            .incrementalMount(false)
+            .layoutDiffing(false)
+            .build();
+    final LithoView lithoView = getLithoView(componentTree);
+
+    ComponentContext scopedContext = ComponentContext.withComponentTree(mContext, componentTree);
+    scopedContext = ComponentContext.withComponentScope(scopedContext, component);
+
+    final String anchorKey = Row.create(mContext).build().getTypeId() + ",column,anchor";
+    LithoTooltipController.showTooltip(scopedContext, mLithoTooltip, anchorKey);
+
+    verify(mLithoTooltip)
+        .showLithoTooltip(
+            lithoView,
+            new Rect(
+                MARGIN_LEFT, MARGIN_TOP, MARGIN_LEFT + ANCHOR_WIDTH, MARGIN_TOP + ANCHOR_HEIGHT),
+            0,
+            0);
+  }
+
+  private LithoView getLithoView(ComponentTree componentTree) {
+    final LithoView lithoView = new LithoView(mContext);
+    lithoView.setComponentTree(componentTree);
+    lithoView.measure(
+        View.MeasureSpec.makeMeasureSpec(HOST_WIDTH, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(HOST_HEIGHT, View.MeasureSpec.EXACTLY));
+    lithoView.layout(0, 0, lithoView.getMeasuredWidth(), lithoView.getMeasuredHeight());
+    return lithoView;
+  }
+}
@@ -32,6 +32,7 @@ import static org.mockito.Mockito.when;
 import android.content.Context;
 import android.graphics.Rect;
 import android.view.ViewGroup;
+import com.facebook.litho.config.ComponentsConfiguration;
 import com.facebook.litho.testing.TestComponent;
 import com.facebook.litho.testing.TestComponentContextWithView;
 import com.facebook.litho.testing.TestDrawableComponent;
@@ -554,6 +555,106 @@ public class MountStateIncrementalMountTest {
     assertThat(child1.wasOnUnmountCalled()).isFalse();
   }
 
+  /**
+   * Tests two-dimensional incremental mount of a horizontal stack of components with a View mount
+   * type.
+   */
+  @Test
+  public void testIncrementalMountHorizontalViewStackScrollRight() {
+    ComponentsConfiguration.useTwoDimensionalIncrementalMount = true;
+
+    try {
+      final TestComponent child1 = create(mContext).build();
+      final TestComponent child2 = create(mContext).build();
+      final LithoView lithoView =
+          mountComponent(
+              mContext,
+              new InlineLayoutSpec() {
+                @Override
+                protected Component onCreateLayout(ComponentContext c) {
+                  return Row.create(c)
+                      .child(Wrapper.create(c).delegate(child1).widthPx(10).heightPx(10))
+                      .child(Wrapper.create(c).delegate(child2).widthPx(10).heightPx(10))
+                      .build();
+                }
+              });
+
+      verifyLoggingAndResetLogger(2, 0);
+
+      lithoView.getComponentTree().mountComponent(new Rect(-10, 0, -5, 10), true);
+      assertThat(child1.isMounted()).isFalse();
+      assertThat(child2.isMounted()).isFalse();
+      verifyLoggingAndResetLogger(0, 2);
+
+      lithoView.getComponentTree().mountComponent(new Rect(0, 0, 5, 10), true);
+      assertThat(child1.isMounted()).isTrue();
+      assertThat(child2.isMounted()).isFalse();
+      verifyLoggingAndResetLogger(1, 0);
+
+      lithoView.getComponentTree().mountComponent(new Rect(5, 0, 15, 10), true);
+      assertThat(child1.isMounted()).isTrue();
+      assertThat(child2.isMounted()).isTrue();
+      verifyLoggingAndResetLogger(1, 0);
+
+      lithoView.getComponentTree().mountComponent(new Rect(15, 0, 25, 10), true);
+      assertThat(child1.isMounted()).isFalse();
+      assertThat(child2.isMounted()).isTrue();
+      verifyLoggingAndResetLogger(0, 1);
+
+      lithoView.getComponentTree().mountComponent(new Rect(20, 0, 30, 10), true);
+      assertThat(child1.isMounted()).isFalse();
+      assertThat(child2.isMounted()).isFalse();
+      verifyLoggingAndResetLogger(0, 1);
+    } finally {
+      ComponentsConfiguration.useTwoDimensionalIncrementalMount = false;
+    }
+  }
+
+  /**
+   * Tests that with two-dimensional incremental mount, scrolling horizontally doesn't mount what
+   * is still outside of the visible rect vertically.
+   */
+  @Test
+  public void testIncrementalMountHorizontalScrollDoesNotMountVerticallyHiddenItems() {
+    ComponentsConfiguration.useTwoDimensionalIncrementalMount = true;
+
+    try {
+      final TestComponent child1 = create(mContext).build();
+      final TestComponent child2 = create(mContext).build();
+      final LithoView lithoView =
+          mountComponent(
+              mContext,
+              new InlineLayoutSpec() {
+                @Override
+                protected Component onCreateLayout(ComponentContext c) {
+                  return Column.create(c)
+                      .child(Wrapper.create(c).delegate(child1).widthPx(10).heightPx(10))
+                      .child(
+                          Wrapper.create(c)
+                              .delegate(child2)
+                              .widthPx(10)
+                              .heightPx(10)
+                              .marginPx(LEFT, 20))
+                      .build();
+                }
+              });
+
+      lithoView.getComponentTree().mountComponent(new Rect(0, 0, 5, 5), true);
+      assertThat(child1.isMounted()).isTrue();
+      assertThat(child2.isMounted()).isFalse();
+
+      lithoView.getComponentTree().mountComponent(new Rect(20, 0, 25, 5), true);
+      assertThat(child1.isMounted()).isFalse();
+      assertThat(child2.isMounted()).isFalse();
+
+      lithoView.getComponentTree().mountComponent(new Rect(20, 10, 25, 15), true);
+      assertThat(child1.isMounted()).isFalse();
+      assertThat(child2.isMounted()).isTrue();
+    } finally {
+      ComponentsConfiguration.useTwoDimensionalIncrementalMount = false;
+    }
+  }
+
   private void verifyLoggingAndResetLogger(int mountedCount, int unmountedCount) {
     final LogEvent event = mComponentsLogger.newPerformanceEvent(EVENT_MOUNT);
     event.addParam(PARAM_MOUNTED_COUNT, String.valueOf(mountedCount));
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import static com.facebook.litho.SizeSpec.EXACTLY;
+import static com.facebook.litho.SizeSpec.makeSizeSpec;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import com.facebook.litho.testing.TestDrawableComponent;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.litho.testing.util.InlineLayoutSpec;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(ComponentsTestRunner.class)
+public class ParallelLayoutTest {
+
+  private ExecutorService mThreadPool;
+  private ParallelLayoutExecutor mExecutor;
+
+  @Before
+  public void setup() {
+    mThreadPool = Executors.newFixedThreadPool(1);
+    mExecutor = new ParallelLayoutExecutor(mThreadPool);
+  }
+
+  @After
+  public void tearDown() {
+    mThreadPool.shutdownNow();
+  }
+
+  @Test
+  public void testRunAllRunsEveryTask() {
+    final AtomicInteger runCount = new AtomicInteger();
+    final Runnable[] tasks = new Runnable[5];
+    for (int i = 0; i < tasks.length; i++) {
+      tasks[i] =
+          new Runnable() {
+            @Override
+            public void run() {
+              runCount.incrementAndGet();
+            }
+          };
+    }
+
+    mExecutor.runAll(tasks);
+
+    assertThat(runCount.get()).isEqualTo(5);
+  }
+
+  @Test
+  public void testNestedRunAllDoesNotDeadlockOnSingleWorker() {
+    final AtomicInteger runCount = new AtomicInteger();
+    final Runnable leaf =
+        new Runnable() {
+          @Override
+          public void run() {
+            runCount.incrementAndGet();
+          }
+        };
+    final Runnable fork =
+        new Runnable() {
+          @Override
+          public void run() {
+            mExecutor.runAll(new Runnable[] {leaf, leaf, leaf});
+          }
+        };
+
+    mExecutor.runAll(new Runnable[] {fork, fork, fork});
+
+    assertThat(runCount.get()).isEqualTo(9);
+  }
+
+  @Test
+  public void testRunAllRethrowsTaskException() {
+    final Runnable[] tasks =
+        new Runnable[] {
+          new Runnable() {
+            @Override
+            public void run() {}
+          },
+          new Runnable() {
+            @Override
+            public void run() {
+              throw new IllegalStateException("failed");
+            }
+          }
+        };
+
+    try {
+      mExecutor.runAll(tasks);
+      fail("The exception should have been rethrown");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage()).isEqualTo("failed");
+    }
+  }
+
+  @Test
+  public void testParallelLayoutMatchesSequentialLayout() {
+    final ComponentContext sequentialContext =
+        new ComponentContext(RuntimeEnvironment.application);
+    final ComponentContext parallelContext = new ComponentContext(RuntimeEnvironment.application);
+    parallelContext.setParallelLayoutExecutor(mExecutor);
+
+    final LayoutState sequential = calculateLayoutState(sequentialContext);
+    final LayoutState parallel = calculateLayoutState(parallelContext);
+
+    assertThat(parallel.getMountableOutputCount())
+        .isEqualTo(sequential.getMountableOutputCount());
+    for (int i = 0; i < sequential.getMountableOutputCount(); i++) {
+      final LayoutOutput expected = sequential.getMountableOutputAt(i);
+      final LayoutOutput actual = parallel.getMountableOutputAt(i);
+
+      assertThat(actual.getId()).isEqualTo(expected.getId());
+      assertThat(actual.getBounds()).isEqualTo(expected.getBounds());
+    }
+  }
+
+  private static LayoutState calculateLayoutState(ComponentContext c) {
+    return LayoutState.calculate(
+        c,
+        createComponent(),
+        -1,
+        makeSizeSpec(100, EXACTLY),
+        makeSizeSpec(300, EXACTLY),
+        LayoutState.CalculateLayoutSource.TEST);
+  }
+
+  private static Component createComponent() {
+    return new InlineLayoutSpec() {
+      @Override
+      protected Component onCreateLayout(ComponentContext c) {
+        final Column.Builder builder = Column.create(c);
+        for (int i = 0; i < 4; i++) {
+          builder.child(createSubtree(i));
+        }
+        return builder.child(Row.create(c).child(createSubtree(4)).child(createSubtree(5))).build();
+      }
+    };
+  }
+
+  private static Component createSubtree(final int childCount) {
+    return new InlineLayoutSpec() {
+      @Override
+      protected Component onCreateLayout(ComponentContext c) {
+        final Column.Builder builder = Column.create(c);
+        for (int i = 0; i < childCount; i++) {
+          builder.child(TestDrawableComponent.create(c).heightPx(10));
+        }
+        return builder.build();
+      }
+    };
+  }
+}
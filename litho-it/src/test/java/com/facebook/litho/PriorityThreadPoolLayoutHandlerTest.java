@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(ComponentsTestRunner.class)
+public class PriorityThreadPoolLayoutHandlerTest {
+
+  private final Runnable mFirst = new EmptyRunnable();
+  private final Runnable mSecond = new EmptyRunnable();
+  private final Runnable mThird = new EmptyRunnable();
+
+  private List<Runnable> mExecutions;
+  private Executor mExecutor;
+
+  @Before
+  public void setup() {
+    mExecutions = new ArrayList<>();
+    mExecutor =
+        new Executor() {
+          @Override
+          public void execute(Runnable command) {
+            mExecutions.add(command);
+          }
+        };
+  }
+
+  @Test
+  public void testRunsMostUrgentFirst() {
+    final PriorityThreadPoolLayoutHandler handler =
+        new PriorityThreadPoolLayoutHandler(mExecutor, Long.MAX_VALUE);
+
+    handler.post(mFirst, 10);
+    handler.post(mSecond, 1);
+    handler.post(mThird);
+
+    assertThat(mExecutions).hasSize(3);
+    assertThat(handler.pollNextRunnable()).isSameAs(mSecond);
+    assertThat(handler.pollNextRunnable()).isSameAs(mFirst);
+    assertThat(handler.pollNextRunnable()).isSameAs(mThird);
+    assertThat(handler.pollNextRunnable()).isNull();
+  }
+
+  @Test
+  public void testSamePriorityRunsInPostOrder() {
+    final PriorityThreadPoolLayoutHandler handler =
+        new PriorityThreadPoolLayoutHandler(mExecutor, Long.MAX_VALUE);
+
+    handler.post(mFirst);
+    handler.post(mSecond);
+
+    assertThat(handler.pollNextRunnable()).isSameAs(mFirst);
+    assertThat(handler.pollNextRunnable()).isSameAs(mSecond);
+  }
+
+  @Test
+  public void testUpdatePriority() {
+    final PriorityThreadPoolLayoutHandler handler =
+        new PriorityThreadPoolLayoutHandler(mExecutor, Long.MAX_VALUE);
+
+    handler.post(mFirst, 1);
+    handler.post(mSecond, 2);
+    handler.updatePriority(mSecond, 0);
+
+    assertThat(handler.pollNextRunnable()).isSameAs(mSecond);
+    assertThat(handler.pollNextRunnable()).isSameAs(mFirst);
+  }
+
+  @Test
+  public void testRepostKeepsSingleEntryWithMostUrgentPriority() {
+    final PriorityThreadPoolLayoutHandler handler =
+        new PriorityThreadPoolLayoutHandler(mExecutor, Long.MAX_VALUE);
+
+    handler.post(mFirst, 5);
+    handler.post(mSecond, 3);
+    handler.post(mFirst, 1);
+    handler.post(mFirst, 10);
+
+    assertThat(handler.getPendingCount()).isEqualTo(2);
+    assertThat(handler.pollNextRunnable()).isSameAs(mFirst);
+    assertThat(handler.pollNextRunnable()).isSameAs(mSecond);
+  }
+
+  @Test
+  public void testRemoveCallbacks() {
+    final PriorityThreadPoolLayoutHandler handler =
+        new PriorityThreadPoolLayoutHandler(mExecutor, Long.MAX_VALUE);
+
+    handler.post(mFirst);
+    handler.post(mSecond);
+    handler.removeCallbacks(mFirst);
+
+    assertThat(handler.getPendingCount()).isEqualTo(1);
+    assertThat(handler.pollNextRunnable()).isSameAs(mSecond);
+    assertThat(handler.pollNextRunnable()).isNull();
+  }
+
+  @Test
+  public void testStarvedRunnableRunsFirst() {
+    final PriorityThreadPoolLayoutHandler handler =
+        new PriorityThreadPoolLayoutHandler(mExecutor, 0);
+
+    handler.post(mFirst, 10);
+    handler.post(mSecond, 1);
+
+    assertThat(handler.pollNextRunnable()).isSameAs(mFirst);
+    assertThat(handler.pollNextRunnable()).isSameAs(mSecond);
+  }
+
+  @Test
+  public void testExecutionRunsNextPendingRunnable() {
+    final PriorityThreadPoolLayoutHandler handler =
+        new PriorityThreadPoolLayoutHandler(mExecutor, Long.MAX_VALUE);
+    final List<String> ran = new ArrayList<>();
+
+    handler.post(
+        new Runnable() {
+          @Override
+          public void run() {
+            ran.add("low");
+          }
+        },
+        10);
+    handler.post(
+        new Runnable() {
+          @Override
+          public void run() {
+            ran.add("high");
+          }
+        },
+        1);
+
+    mExecutions.get(0).run();
+    mExecutions.get(1).run();
+
+    assertThat(ran).containsExactly("high", "low");
+  }
+
+  private static class EmptyRunnable implements Runnable {
+    @Override
+    public void run() {}
+  }
+}
@@ -10,6 +10,7 @@
 package com.facebook.litho;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 
 import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
 import org.junit.Test;
@@ -33,4 +34,95 @@ public class RecyclePoolTest {
 
     assertEquals(0, pool.getCurrentSize());
   }
+
+  @Test
+  public void testAdaptivePoolGrowsOnMisses() {
+    final RecyclePool<Object> pool = new RecyclePool<>("test", 4, 2, 16, false);
+
+    for (int i = 0; i < 64; i++) {
+      pool.acquire();
+    }
+
+    assertEquals(64, pool.getMissCount());
+    assertEquals(16, pool.getMaxSize());
+  }
+
+  @Test
+  public void testAdaptivePoolShrinksWhenItemsAreIdle() {
+    final RecyclePool<Object> pool = new RecyclePool<>("test", 16, 2, 32, false);
+
+    for (int i = 0; i < 16; i++) {
+      pool.release(new Object());
+    }
+
+    for (int i = 0; i < 64; i++) {
+      pool.release(pool.acquire());
+    }
+
+    // 15 items were never used during the window: half of them are given back.
+    assertEquals(9, pool.getMaxSize());
+    assertEquals(9, pool.getCurrentSize());
+    assertEquals(16, pool.getHighWaterMark());
+    assertEquals(0, pool.getMissCount());
+  }
+
+  @Test
+  public void testTrimToMinSize() {
+    final RecyclePool<Object> pool = new RecyclePool<>("test", 8, 2, 16, false);
+
+    for (int i = 0; i < 8; i++) {
+      pool.release(new Object());
+    }
+
+    pool.trimToMinSize();
+
+    assertEquals(2, pool.getMaxSize());
+    assertEquals(2, pool.getCurrentSize());
+  }
+
+  @Test
+  public void testFixedSizePoolIsNotAdaptive() {
+    final RecyclePool<Object> pool = new RecyclePool<>("test", 4, false);
+
+    for (int i = 0; i < 128; i++) {
+      pool.acquire();
+    }
+
+    assertEquals(false, pool.isAdaptive());
+    assertEquals(4, pool.getMaxSize());
+  }
+
+  @Test
+  public void testReleaseToFullPoolDropsItem() {
+    final RecyclePool<Object> pool = new RecyclePool<>("test", 2, 1, 8, false);
+    final Object item = new Object();
+
+    pool.release(new Object());
+    pool.release(new Object());
+    pool.release(item);
+
+    assertEquals(2, pool.getCurrentSize());
+    assertNotSame(item, pool.acquire());
+    assertNotSame(item, pool.acquire());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testDoubleReleaseToFullPoolThrows() {
+    final RecyclePool<Object> pool = new RecyclePool<>("test", 2, false);
+    final Object item = new Object();
+
+    pool.release(item);
+    pool.release(new Object());
+    pool.release(item);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testDoubleReleaseToAdaptivePoolAtCapacityThrows() {
+    final RecyclePool<Object> pool = new RecyclePool<>("test", 2, 1, 8, false);
+    final Object item = new Object();
+
+    pool.release(item);
+    pool.release(new Object());
+    pool.release(item);
+  }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(ComponentsTestRunner.class)
+public class ThreadLocalRecyclePoolTest {
+
+  @Test
+  public void testAcquireReturnsReleasedItem() {
+    final ThreadLocalRecyclePool<Object> pool = new ThreadLocalRecyclePool<>("test", 10, 4);
+    final Object item = new Object();
+
+    assertThat(pool.acquire()).isNull();
+
+    pool.release(item);
+
+    assertThat(pool.getCurrentSize()).isEqualTo(1);
+    assertThat(pool.acquire()).isSameAs(item);
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void testOverflowSpillsToSharedPool() {
+    final ThreadLocalRecyclePool<Object> pool = new ThreadLocalRecyclePool<>("test", 10, 4);
+
+    for (int i = 0; i < 7; i++) {
+      pool.release(new Object());
+    }
+
+    assertThat(pool.getCurrentSize()).isEqualTo(7);
+
+    for (int i = 0; i < 7; i++) {
+      assertThat(pool.acquire()).isNotNull();
+    }
+
+    assertThat(pool.acquire()).isNull();
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void testItemsReleasedOnOtherThreadAreShared() throws InterruptedException {
+    final ThreadLocalRecyclePool<Object> pool = new ThreadLocalRecyclePool<>("test", 10, 4);
+
+    final Thread releasingThread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                // Only what doesn't fit in the releasing thread's cache reaches the shared pool.
+                for (int i = 0; i < 6; i++) {
+                  pool.release(new Object());
+                }
+              }
+            });
+    releasingThread.start();
+    releasingThread.join();
+
+    // The cache of the dead thread is dropped along with its items.
+    assertThat(pool.getCurrentSize()).isEqualTo(2);
+    assertThat(pool.acquire()).isNotNull();
+    assertThat(pool.acquire()).isNotNull();
+    assertThat(pool.acquire()).isNull();
+  }
+
+  @Test
+  public void testClear() {
+    final ThreadLocalRecyclePool<Object> pool = new ThreadLocalRecyclePool<>("test", 10, 4);
+
+    for (int i = 0; i < 7; i++) {
+      pool.release(new Object());
+    }
+
+    pool.clear();
+
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+    assertThat(pool.acquire()).isNull();
+  }
+
+  @Test
+  public void testClearWhileOtherThreadHoldsItems() throws InterruptedException {
+    final ThreadLocalRecyclePool<Object> pool = new ThreadLocalRecyclePool<>("test", 10, 4);
+    final CountDownLatch released = new CountDownLatch(1);
+    final CountDownLatch cleared = new CountDownLatch(1);
+    final CountDownLatch releasedAgain = new CountDownLatch(1);
+    final CountDownLatch finish = new CountDownLatch(1);
+
+    final Thread releasingThread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                pool.release(new Object());
+                pool.release(new Object());
+                released.countDown();
+                awaitUninterruptibly(cleared);
+                pool.release(new Object());
+                releasedAgain.countDown();
+                awaitUninterruptibly(finish);
+              }
+            });
+    releasingThread.start();
+    released.await();
+
+    assertThat(pool.getCurrentSize()).isEqualTo(2);
+
+    pool.clear();
+
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+
+    pool.release(new Object());
+    cleared.countDown();
+    releasedAgain.await();
+
+    // The items cached before clear() are gone, the one released after it is counted.
+    assertThat(pool.getCurrentSize()).isEqualTo(2);
+
+    finish.countDown();
+    releasingThread.join();
+  }
+
+  @Test
+  public void testLocalHitsAreCountedInStats() {
+    final ThreadLocalRecyclePool<Object> pool = new ThreadLocalRecyclePool<>("test", 10, 4);
+
+    pool.release(new Object());
+    assertThat(pool.acquire()).isNotNull();
+    // The local hit is reported along with the next batch from the shared pool.
+    assertThat(pool.acquire()).isNull();
+
+    assertThat(pool.getAcquireCount()).isEqualTo(2);
+    assertThat(pool.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testTrimToMinSizeDropsLocalCaches() {
+    final ThreadLocalRecyclePool<Object> pool = new ThreadLocalRecyclePool<>("test", 4, 2, 8, 4);
+
+    for (int i = 0; i < 3; i++) {
+      pool.release(new Object());
+    }
+
+    pool.trimToMinSize();
+
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+    assertThat(pool.acquire()).isNull();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testDoubleReleaseToLocalCacheThrows() {
+    final ThreadLocalRecyclePool<Object> pool = new ThreadLocalRecyclePool<>("test", 10, 4);
+    final Object item = new Object();
+
+    pool.release(item);
+    pool.release(item);
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -17,6 +17,7 @@ import static org.assertj.core.api.Java6Assertions.assertThat;
 
 import android.graphics.Rect;
 import android.widget.FrameLayout;
+import com.facebook.litho.config.ComponentsConfiguration;
 import com.facebook.litho.testing.TestComponent;
 import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
 import com.facebook.litho.testing.util.InlineLayoutSpec;
@@ -520,4 +521,77 @@ public class VisibilityEventsTest {
     lithoView.setHasTransientState(false);
     assertThat(content.getDispatchedEventHandlers()).contains(visibleEventHandler);
   }
+
+  @Test
+  public void testIncrementalVisibilityHandlingWhileScrolling() {
+    final boolean incrementalVisibilityHandling =
+        ComponentsConfiguration.incrementalVisibilityHandling;
+    ComponentsConfiguration.incrementalVisibilityHandling = true;
+
+    try {
+      final TestComponent[] contents = new TestComponent[3];
+      final EventHandler<VisibleEvent>[] visibleEventHandlers = new EventHandler[3];
+      final EventHandler<InvisibleEvent>[] invisibleEventHandlers = new EventHandler[3];
+      for (int i = 0; i < contents.length; i++) {
+        contents[i] = create(mContext).build();
+        visibleEventHandlers[i] = new EventHandler<>(contents[i], 1);
+        invisibleEventHandlers[i] = new EventHandler<>(contents[i], 2);
+      }
+
+      final LithoView lithoView =
+          mountComponent(
+              mContext,
+              mLithoView,
+              new InlineLayoutSpec() {
+                @Override
+                protected Component onCreateLayout(ComponentContext c) {
+                  final Column.Builder builder = Column.create(c);
+                  for (int i = 0; i < contents.length; i++) {
+                    builder.child(
+                        Wrapper.create(c)
+                            .delegate(contents[i])
+                            .visibleHandler(visibleEventHandlers[i])
+                            .invisibleHandler(invisibleEventHandlers[i])
+                            .widthPx(10)
+                            .heightPx(5));
+                  }
+                  return builder.build();
+                }
+              },
+              true,
+              10,
+              15);
+
+      lithoView.performIncrementalMount(new Rect(LEFT, 0, RIGHT, 5), true);
+      assertThat(contents[0].getDispatchedEventHandlers()).contains(visibleEventHandlers[0]);
+      assertThat(contents[1].getDispatchedEventHandlers()).contains(invisibleEventHandlers[1]);
+      assertThat(contents[2].getDispatchedEventHandlers()).contains(invisibleEventHandlers[2]);
+
+      for (TestComponent content : contents) {
+        content.getDispatchedEventHandlers().clear();
+      }
+      lithoView.performIncrementalMount(new Rect(LEFT, 5, RIGHT, 10), true);
+      assertThat(contents[0].getDispatchedEventHandlers()).contains(invisibleEventHandlers[0]);
+      assertThat(contents[1].getDispatchedEventHandlers()).contains(visibleEventHandlers[1]);
+      assertThat(contents[2].getDispatchedEventHandlers()).isEmpty();
+
+      for (TestComponent content : contents) {
+        content.getDispatchedEventHandlers().clear();
+      }
+      lithoView.performIncrementalMount(new Rect(LEFT, 7, RIGHT, 12), true);
+      assertThat(contents[0].getDispatchedEventHandlers()).isEmpty();
+      assertThat(contents[1].getDispatchedEventHandlers()).isEmpty();
+      assertThat(contents[2].getDispatchedEventHandlers()).contains(visibleEventHandlers[2]);
+
+      for (TestComponent content : contents) {
+        content.getDispatchedEventHandlers().clear();
+      }
+      lithoView.performIncrementalMount(new Rect(LEFT, 0, RIGHT, 5), true);
+      assertThat(contents[0].getDispatchedEventHandlers()).contains(visibleEventHandlers[0]);
+      assertThat(contents[1].getDispatchedEventHandlers()).contains(invisibleEventHandlers[1]);
+      assertThat(contents[2].getDispatchedEventHandlers()).contains(invisibleEventHandlers[2]);
+    } finally {
+      ComponentsConfiguration.incrementalVisibilityHandling = incrementalVisibilityHandling;
+    }
+  }
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import static com.facebook.yoga.YogaConstants.UNDEFINED;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.yoga.YogaAlign;
+import com.facebook.yoga.YogaConfig;
+import com.facebook.yoga.YogaDirection;
+import com.facebook.yoga.YogaEdge;
+import com.facebook.yoga.YogaFlexDirection;
+import com.facebook.yoga.YogaJustify;
+import com.facebook.yoga.YogaMeasureFunction;
+import com.facebook.yoga.YogaMeasureMode;
+import com.facebook.yoga.YogaMeasureOutput;
+import com.facebook.yoga.YogaNode;
+import com.facebook.yoga.YogaPositionType;
+import com.facebook.yoga.YogaWrap;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(ComponentsTestRunner.class)
+public class YogaJavaLayoutTest {
+
+  private static final YogaMeasureFunction TEXT_MEASURE_FUNCTION =
+      new YogaMeasureFunction() {
+        @Override
+        public long measure(
+            YogaNode node,
+            float width,
+            YogaMeasureMode widthMode,
+            float height,
+            YogaMeasureMode heightMode) {
+          // Wraps 10.5 wide characters on lines of 12 high.
+          final float textWidth = 105;
+          if (widthMode == YogaMeasureMode.UNDEFINED || width >= textWidth) {
+            return YogaMeasureOutput.make(textWidth, 12);
+          }
+          final int lineCount = (int) Math.ceil(textWidth / Math.max(width, 10.5f));
+          return YogaMeasureOutput.make(width, 12 * lineCount);
+        }
+      };
+
+  @Test
+  public void testRowLayoutMatchesNativeLayout() {
+    assertSameLayoutAsNative(
+        new TreeFactory() {
+          @Override
+          public YogaNode create(YogaConfig config) {
+            final YogaNode root = new YogaNode(config);
+            root.setWidth(300);
+            root.setPadding(YogaEdge.ALL, 5);
+            root.setJustifyContent(YogaJustify.SPACE_AROUND);
+
+            for (int i = 0; i < 10; i++) {
+              final YogaNode child = new YogaNode(config);
+              child.setFlexGrow(i % 3);
+              child.setFlexBasisPercent(5);
+              child.setMinWidth(2);
+              child.setMaxWidth(60);
+              child.setHeightPercent(10);
+              child.setMargin(YogaEdge.HORIZONTAL, 1.5f);
+              child.setBorder(YogaEdge.TOP, i);
+              root.addChildAt(child, i);
+            }
+            return root;
+          }
+        });
+  }
+
+  @Test
+  public void testWrappingAndAbsoluteLayoutMatchesNativeLayout() {
+    assertSameLayoutAsNative(
+        new TreeFactory() {
+          @Override
+          public YogaNode create(YogaConfig config) {
+            final YogaNode root = new YogaNode(config);
+            root.setWidth(200);
+            root.setWrap(YogaWrap.WRAP);
+            root.setAlignContent(YogaAlign.SPACE_BETWEEN);
+            root.setAlignItems(YogaAlign.CENTER);
+            root.setMinHeight(150);
+
+            for (int i = 0; i < 7; i++) {
+              final YogaNode child = new YogaNode(config);
+              child.setWidth(30 + 7 * i);
+              child.setHeight(10 + 3 * i);
+              child.setMarginAuto(i % 2 == 0 ? YogaEdge.LEFT : YogaEdge.RIGHT);
+              root.addChildAt(child, i);
+            }
+
+            final YogaNode absoluteChild = new YogaNode(config);
+            absoluteChild.setPositionType(YogaPositionType.ABSOLUTE);
+            absoluteChild.setPosition(YogaEdge.RIGHT, 10);
+            absoluteChild.setPositionPercent(YogaEdge.BOTTOM, 5);
+            absoluteChild.setWidthPercent(25);
+            absoluteChild.setAspectRatio(1.5f);
+            root.addChildAt(absoluteChild, root.getChildCount());
+            return root;
+          }
+        });
+  }
+
+  @Test
+  public void testMeasuredRtlLayoutMatchesNativeLayout() {
+    assertSameLayoutAsNative(
+        new TreeFactory() {
+          @Override
+          public YogaNode create(YogaConfig config) {
+            final YogaNode root = new YogaNode(config);
+            root.setDirection(YogaDirection.RTL);
+            root.setWidth(250);
+            root.setAlignItems(YogaAlign.BASELINE);
+
+            for (int i = 0; i < 4; i++) {
+              final YogaNode column = new YogaNode(config);
+              column.setFlexDirection(YogaFlexDirection.COLUMN);
+              column.setFlexShrink(1);
+              column.setPadding(YogaEdge.START, 4);
+              column.setMargin(YogaEdge.END, 2);
+
+              final YogaNode text = new YogaNode(config);
+              text.setMeasureFunction(TEXT_MEASURE_FUNCTION);
+              text.setMargin(YogaEdge.TOP, i);
+              column.addChildAt(text, 0);
+              root.addChildAt(column, i);
+            }
+            return root;
+          }
+        });
+  }
+
+  @Test
+  public void testRelayoutAfterStyleChangeMatchesNativeLayout() {
+    final TreeFactory factory =
+        new TreeFactory() {
+          @Override
+          public YogaNode create(YogaConfig config) {
+            final YogaNode root = new YogaNode(config);
+            root.setWidth(100);
+            root.setHeight(100);
+            for (int i = 0; i < 3; i++) {
+              final YogaNode child = new YogaNode(config);
+              child.setFlexGrow(1);
+              root.addChildAt(child, i);
+            }
+            return root;
+          }
+        };
+    final YogaNode nativeRoot = factory.create(createConfig(false));
+    final YogaNode javaRoot = factory.create(createConfig(true));
+    nativeRoot.calculateLayout(UNDEFINED, UNDEFINED);
+    javaRoot.calculateLayout(UNDEFINED, UNDEFINED);
+
+    nativeRoot.getChildAt(1).setHeight(50);
+    javaRoot.getChildAt(1).setHeight(50);
+    assertThat(javaRoot.isDirty()).isTrue();
+
+    nativeRoot.calculateLayout(UNDEFINED, UNDEFINED);
+    javaRoot.calculateLayout(UNDEFINED, UNDEFINED);
+
+    assertThat(javaRoot.isDirty()).isFalse();
+    assertSameLayout(javaRoot, nativeRoot);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAddingNativeNodeToJavaNodeThrows() {
+    final YogaNode root = new YogaNode(createConfig(true));
+    root.addChildAt(new YogaNode(createConfig(false)), 0);
+  }
+
+  private interface TreeFactory {
+    YogaNode create(YogaConfig config);
+  }
+
+  private static YogaConfig createConfig(boolean useJavaLayout) {
+    final YogaConfig config = new YogaConfig(useJavaLayout);
+    config.setUseWebDefaults(true);
+    config.setUseLegacyStretchBehaviour(true);
+    return config;
+  }
+
+  private static void assertSameLayoutAsNative(TreeFactory factory) {
+    final YogaNode nativeRoot = factory.create(createConfig(false));
+    final YogaNode javaRoot = factory.create(createConfig(true));
+
+    nativeRoot.calculateLayout(UNDEFINED, UNDEFINED);
+    javaRoot.calculateLayout(UNDEFINED, UNDEFINED);
+
+    assertSameLayout(javaRoot, nativeRoot);
+  }
+
+  private static void assertSameLayout(YogaNode node, YogaNode expected) {
+    assertThat(node.getLayoutX()).isEqualTo(expected.getLayoutX());
+    assertThat(node.getLayoutY()).isEqualTo(expected.getLayoutY());
+    assertThat(node.getLayoutWidth()).isEqualTo(expected.getLayoutWidth());
+    assertThat(node.getLayoutHeight()).isEqualTo(expected.getLayoutHeight());
+    assertThat(node.getLayoutDirection()).isEqualTo(expected.getLayoutDirection());
+    assertThat(node.getChildCount()).isEqualTo(expected.getChildCount());
+
+    for (int i = 0; i < node.getChildCount(); i++) {
+      assertSameLayout(node.getChildAt(i), expected.getChildAt(i));
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho;
+
+import static com.facebook.yoga.YogaConstants.UNDEFINED;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import com.facebook.yoga.YogaAlign;
+import com.facebook.yoga.YogaEdge;
+import com.facebook.yoga.YogaFlexDirection;
+import com.facebook.yoga.YogaNode;
+import com.facebook.yoga.YogaUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(ComponentsTestRunner.class)
+public class YogaStyleBatchingTest {
+
+  @Test
+  public void testBatchedStylesProduceTheSameLayout() {
+    final YogaNode root = createTree(false);
+    final YogaNode batchedRoot = createTree(true);
+
+    root.calculateLayout(UNDEFINED, UNDEFINED);
+    batchedRoot.calculateLayout(UNDEFINED, UNDEFINED);
+
+    assertSameLayout(batchedRoot, root);
+  }
+
+  @Test
+  public void testGettersSeeBatchedStyles() {
+    final YogaNode node = new YogaNode();
+    node.setStyleBatchingEnabled(true);
+
+    node.setWidthPercent(50);
+    node.setMargin(YogaEdge.LEFT, 10);
+
+    assertThat(node.getWidth().value).isEqualTo(50);
+    assertThat(node.getWidth().unit).isEqualTo(YogaUnit.PERCENT);
+    assertThat(node.getMargin(YogaEdge.LEFT).value).isEqualTo(10);
+  }
+
+  @Test
+  public void testResetDropsBatchedStyles() {
+    final YogaNode node = new YogaNode();
+    node.setStyleBatchingEnabled(true);
+
+    node.setWidth(100);
+    node.reset();
+
+    assertThat(node.getWidth().unit).isEqualTo(YogaUnit.UNDEFINED);
+  }
+
+  private static YogaNode createTree(boolean batchStyles) {
+    final YogaNode root = new YogaNode();
+    root.setStyleBatchingEnabled(batchStyles);
+    root.setFlexDirection(YogaFlexDirection.ROW);
+    root.setAlignItems(YogaAlign.FLEX_START);
+    root.setWidth(300);
+    root.setPadding(YogaEdge.ALL, 5);
+
+    for (int i = 0; i < 20; i++) {
+      final YogaNode child = new YogaNode();
+      child.setStyleBatchingEnabled(batchStyles);
+      child.setFlexGrow(i % 3);
+      child.setMinWidth(2);
+      child.setHeightPercent(10);
+      child.setMargin(YogaEdge.HORIZONTAL, 1);
+      child.setBorder(YogaEdge.TOP, i);
+      root.addChildAt(child, i);
+    }
+
+    return root;
+  }
+
+  private static void assertSameLayout(YogaNode node, YogaNode expected) {
+    assertThat(node.getLayoutX()).isEqualTo(expected.getLayoutX());
+    assertThat(node.getLayoutY()).isEqualTo(expected.getLayoutY());
+    assertThat(node.getLayoutWidth()).isEqualTo(expected.getLayoutWidth());
+    assertThat(node.getLayoutHeight()).isEqualTo(expected.getLayoutHeight());
+    assertThat(node.getChildCount()).isEqualTo(expected.getChildCount());
+
+    for (int i = 0; i < node.getChildCount(); i++) {
+      assertSameLayout(node.getChildAt(i), expected.getChildAt(i));
+    }
+  }
+}
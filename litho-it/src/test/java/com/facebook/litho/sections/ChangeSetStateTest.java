@@ -13,6 +13,7 @@ import static com.facebook.litho.sections.Change.MOVE;
 import static org.assertj.core.api.Java6Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
+import com.facebook.litho.sections.config.SectionsConfiguration;
 import com.facebook.litho.sections.logger.SectionsDebugLogger;
 import com.facebook.litho.testing.sections.TestSectionCreator;
 import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
@@ -720,6 +721,69 @@ public class ChangeSetStateTest {
     assertThat(leaf3).isEqualTo(secondChangeSetState.getRemovedComponents().get(0));
   }
 
+  @Test
+  public void testParallelChangeSetGeneration() {
+    final boolean parallelChangeSetGeneration = SectionsConfiguration.parallelChangeSetGeneration;
+    SectionsConfiguration.parallelChangeSetGeneration = true;
+
+    try {
+      final Section leaf1 = createChangeSetComponent("leaf1", 3);
+      final Section leaf2 = createChangeSetComponent("leaf2", 2);
+      final Section leaf3 = createChangeSetComponent("leaf3", 2);
+      final Section leaf4 = createChangeSetComponent("leaf4", 4);
+
+      final Section root =
+          TestSectionCreator.createSectionComponent(
+              "root",
+              true,
+              TestSectionCreator.createSectionComponent("node1", true, leaf1, leaf2),
+              TestSectionCreator.createSectionComponent("node2", true, leaf3, leaf4));
+      TestSectionCreator.createTree(root, mSectionContext);
+
+      final ChangeSet changeSet =
+          ChangeSetState.generateChangeSet(
+                  mSectionContext,
+                  null,
+                  root,
+                  mSectionsDebugLogger,
+                  mSectionTreeTag,
+                  mCurrentPrefix,
+                  mNextPrefix)
+              .getChangeSet();
+
+      // The ChangeSets of the leaves are merged in order, whichever thread computed them.
+      assertThat(changeSet.getChangeCount()).isEqualTo(11);
+      assertThat(changeSet.getCount()).isEqualTo(11);
+      for (int i = 0; i < 11; i++) {
+        assertThat(changeSet.getChangeAt(i).getType()).isEqualTo(Change.INSERT);
+        assertThat(changeSet.getChangeAt(i).getIndex()).isEqualTo(i);
+      }
+
+      final Section newRoot =
+          TestSectionCreator.createSectionComponent(
+              "root",
+              true,
+              TestSectionCreator.createSectionComponent("node1", true, leaf1),
+              TestSectionCreator.createSectionComponent("node2", true, leaf4));
+      TestSectionCreator.createTree(newRoot, mSectionContext);
+
+      final ChangeSetState secondChangeSetState =
+          ChangeSetState.generateChangeSet(
+              mSectionContext,
+              root,
+              newRoot,
+              mSectionsDebugLogger,
+              mSectionTreeTag,
+              mCurrentPrefix,
+              mNextPrefix);
+
+      assertThat(secondChangeSetState.getChangeSet().getCount()).isEqualTo(7);
+      assertThat(secondChangeSetState.getRemovedComponents()).containsExactly(leaf2, leaf3);
+    } finally {
+      SectionsConfiguration.parallelChangeSetGeneration = parallelChangeSetGeneration;
+    }
+  }
+
   private static Section createChangeSetComponent(String key, int numChildren) {
     Change[] changes = new Change[numChildren];
     for (int i = 0; i < numChildren; i++) {
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.sections;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(ComponentsTestRunner.class)
+public class DiffResultCacheTest {
+
+  private static final String KEY = "key";
+
+  @Test
+  public void testResultsAreKeyedByIdentity() {
+    final DiffResultCache cache = new DiffResultCache();
+    final List<String> previous = new ArrayList<>();
+    final List<String> next = new ArrayList<>();
+    final Object result = new Object();
+
+    cache.put(KEY, previous, next, result);
+
+    assertThat(cache.get(KEY, previous, next)).isSameAs(result);
+    assertThat(cache.get(KEY, next, previous)).isNull();
+    assertThat(cache.get(KEY, new ArrayList<String>(), next)).isNull();
+  }
+
+  @Test
+  public void testResultsAreKeyedByGlobalKey() {
+    final DiffResultCache cache = new DiffResultCache();
+    final Object previous = new Object();
+    final Object next = new Object();
+
+    cache.put(KEY, previous, next, "result");
+
+    assertThat(cache.get(new String(KEY), previous, next)).isEqualTo("result");
+    assertThat(cache.get("otherKey", previous, next)).isNull();
+  }
+
+  @Test
+  public void testUnusedResultsAreDroppedAfterOneCalculation() {
+    final DiffResultCache cache = new DiffResultCache();
+    final Object previous = new Object();
+    final Object used = new Object();
+    final Object unused = new Object();
+
+    cache.onChangeSetCalculationStarted();
+    cache.put(KEY, previous, used, "used");
+    cache.put(KEY, previous, unused, "unused");
+
+    cache.onChangeSetCalculationStarted();
+    assertThat(cache.get(KEY, previous, used)).isEqualTo("used");
+
+    cache.onChangeSetCalculationStarted();
+    assertThat(cache.get(KEY, previous, used)).isEqualTo("used");
+    assertThat(cache.get(KEY, previous, unused)).isNull();
+  }
+
+  @Test
+  public void testClear() {
+    final DiffResultCache cache = new DiffResultCache();
+    final Object previous = new Object();
+    final Object next = new Object();
+
+    cache.put(KEY, previous, next, "result");
+    cache.clear();
+
+    assertThat(cache.get(KEY, previous, next)).isNull();
+  }
+}
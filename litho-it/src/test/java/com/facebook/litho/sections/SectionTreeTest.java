@@ -16,11 +16,14 @@ import static org.mockito.Mockito.mock;
 import android.os.Looper;
 import com.facebook.litho.Component;
 import com.facebook.litho.sections.SectionLifecycle.StateContainer;
+import com.facebook.litho.sections.config.SectionsConfiguration;
 import com.facebook.litho.testing.sections.TestSectionCreator;
 import com.facebook.litho.testing.sections.TestTarget;
 import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
 import com.facebook.litho.widget.ComponentRenderInfo;
 import com.facebook.litho.widget.RenderInfo;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -185,6 +188,157 @@ public class SectionTreeTest {
     assertThat(changeSetHandler.getNumChanges()).isEqualTo(9);
   }
 
+  @Test
+  public void testUnchangedSubtreeReusesPreviousChildren() {
+    final boolean reuseUnchangedSubtrees = SectionsConfiguration.reuseUnchangedSubtrees;
+    SectionsConfiguration.reuseUnchangedSubtrees = true;
+
+    try {
+      final Section leaf = TestSectionCreator.createChangeSetComponent(
+          "leaf",
+          Change.insert(0, makeComponentInfo()),
+          Change.insert(1, makeComponentInfo()));
+      final Section node = TestSectionCreator.createSectionComponent("node", leaf);
+
+      final TestTarget changeSetHandler = new TestTarget();
+      SectionTree tree = SectionTree.create(mSectionContext, changeSetHandler)
+          .build();
+
+      tree.setRoot(TestSectionCreator.createSectionComponent("root", true, node));
+      changeSetHandler.clear();
+
+      // The new node is equivalent to the previous one, so its children are not created again and
+      // the forced update of the new leaf never happens.
+      final Section newLeaf = TestSectionCreator.createChangeSetComponent(
+          "leaf",
+          true,
+          Change.update(0, makeComponentInfo()));
+      final Section newNode = TestSectionCreator.createSectionComponent("node", newLeaf);
+      tree.setRoot(TestSectionCreator.createSectionComponent("root", true, newNode));
+
+      assertThat(changeSetHandler.wereChangesHandled()).isFalse();
+      assertThat(newNode.getChildren()).containsExactly(leaf);
+      assertThat(newNode.getCount()).isEqualTo(2);
+    } finally {
+      SectionsConfiguration.reuseUnchangedSubtrees = reuseUnchangedSubtrees;
+    }
+  }
+
+  @Test
+  public void testDiscardedCalculationDoesNotReparentReusedChildren() {
+    final boolean reuseUnchangedSubtrees = SectionsConfiguration.reuseUnchangedSubtrees;
+    SectionsConfiguration.reuseUnchangedSubtrees = true;
+
+    try {
+      final Section leaf = TestSectionCreator.createChangeSetComponent(
+          "leaf",
+          Change.insert(0, makeComponentInfo()),
+          Change.insert(1, makeComponentInfo()));
+      final Section node = TestSectionCreator.createSectionComponent("node", leaf);
+
+      final TestTarget changeSetHandler = new TestTarget();
+      final SectionTree tree = SectionTree.create(mSectionContext, changeSetHandler)
+          .build();
+
+      tree.setRoot(TestSectionCreator.createSectionComponent("root", true, node));
+      assertThat(leaf.getParent()).isSameAs(node);
+
+      // The calculation of discardedRoot is made stale by restartRoot while it runs, after its node
+      // reused the committed leaf.
+      final Section lastNode =
+          TestSectionCreator.createSectionComponent(
+              "node", TestSectionCreator.createChangeSetComponent("leaf"));
+      final Section[] leafParentDuringRestart = new Section[1];
+      final Section restartRoot =
+          new CallbackSection(
+              "root",
+              lastNode,
+              new Runnable() {
+                @Override
+                public void run() {
+                  leafParentDuringRestart[0] = leaf.getParent();
+                }
+              });
+
+      final Section discardedNode =
+          TestSectionCreator.createSectionComponent(
+              "node", TestSectionCreator.createChangeSetComponent("leaf"));
+      final Section discardedRoot =
+          new CallbackSection(
+              "root",
+              discardedNode,
+              new Runnable() {
+                @Override
+                public void run() {
+                  tree.setRootAsync(restartRoot);
+                }
+              });
+      tree.setRoot(discardedRoot);
+
+      assertThat(leafParentDuringRestart[0]).isSameAs(node);
+      assertThat(discardedNode.getChildren()).isNotSameAs(node.getChildren());
+      assertThat(node.getChildren()).containsExactly(leaf);
+
+      // The committed tree makes its node the parent of the leaf it reused.
+      assertThat(lastNode.getChildren()).containsExactly(leaf);
+      assertThat(leaf.getParent()).isSameAs(lastNode);
+    } finally {
+      SectionsConfiguration.reuseUnchangedSubtrees = reuseUnchangedSubtrees;
+    }
+  }
+
+  @Test
+  public void testNewChangeSetDoesNotMutateCommittedTree() {
+    final Section leaf1 = TestSectionCreator.createChangeSetComponent(
+        "leaf1",
+        Change.insert(0, makeComponentInfo()),
+        Change.insert(1, makeComponentInfo()));
+    final Section leaf2 = TestSectionCreator.createChangeSetComponent(
+        "leaf2",
+        Change.insert(0, makeComponentInfo()));
+    final Section node = TestSectionCreator.createSectionComponent("node", leaf1, leaf2);
+
+    final TestTarget changeSetHandler = new TestTarget();
+    SectionTree tree = SectionTree.create(mSectionContext, changeSetHandler)
+        .build();
+
+    tree.setRoot(TestSectionCreator.createSectionComponent("root", true, node));
+    changeSetHandler.clear();
+
+    final Section committedRoot = Whitebox.getInternalState(tree, "mCurrentSection");
+    final List<Section> committedChildren = new ArrayList<>(committedRoot.getChildren());
+
+    final Section newLeaf1 = TestSectionCreator.createChangeSetComponent(
+        "leaf1",
+        true,
+        Change.update(1, makeComponentInfo()));
+    final Section newLeaf2 = TestSectionCreator.createChangeSetComponent(
+        "leaf2",
+        true,
+        Change.insert(1, makeComponentInfo()));
+    final Section newNode =
+        TestSectionCreator.createSectionComponent("node", true, newLeaf1, newLeaf2);
+    final Section newRoot = TestSectionCreator.createSectionComponent("root", true, newNode);
+    tree.setRoot(newRoot);
+
+    // The new tree was diffed against the committed one and replaced it.
+    final Section currentRoot = Whitebox.getInternalState(tree, "mCurrentSection");
+    assertThat(currentRoot).isNotSameAs(committedRoot);
+    assertThat(currentRoot.getChildren()).containsExactly(newNode);
+    assertThat(currentRoot.getCount()).isEqualTo(4);
+    assertThat(changeSetHandler.getNumChanges()).isEqualTo(2);
+
+    // Computing it didn't touch the committed tree, which it was reading from.
+    assertThat(committedRoot.getChildren()).containsExactlyElementsOf(committedChildren);
+    assertThat(committedRoot.getCount()).isEqualTo(3);
+    assertThat(node.getParent()).isSameAs(committedRoot);
+    assertThat(node.getChildren()).containsExactly(leaf1, leaf2);
+    assertThat(leaf1.getParent()).isSameAs(node);
+    assertThat(leaf1.getCount()).isEqualTo(2);
+    assertThat(leaf2.getParent()).isSameAs(node);
+    assertThat(leaf2.getCount()).isEqualTo(1);
+  }
+
   @Test
   public void testRefresh() {
     final Section leaf1 = TestSectionCreator.createChangeSetComponent(
@@ -725,6 +879,24 @@ public class SectionTreeTest {
     }
   }
 
+  /** A section with a single child, that runs a callback whenever it creates it. */
+  private static class CallbackSection extends TestSection {
+    private final Section mChild;
+    private final Runnable mOnCreateChildren;
+
+    CallbackSection(String key, Section child, Runnable onCreateChildren) {
+      super(0, key, true);
+      mChild = child;
+      mOnCreateChildren = onCreateChildren;
+    }
+
+    @Override
+    protected Children createChildren(SectionContext c) {
+      mOnCreateChildren.run();
+      return Children.create().child(mChild).build();
+    }
+  }
+
   private static RenderInfo makeComponentInfo() {
     return ComponentRenderInfo.create().component(mock(Component.class)).build();
   }
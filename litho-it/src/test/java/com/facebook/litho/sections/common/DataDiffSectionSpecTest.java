@@ -15,11 +15,14 @@ import static com.facebook.litho.testing.sections.TestTarget.MOVE;
 import static junit.framework.Assert.assertEquals;
 import static org.assertj.core.api.Java6Assertions.assertThat;
 
+import android.os.Looper;
+import android.support.annotation.Nullable;
 import com.facebook.litho.EventHandler;
 import com.facebook.litho.HasEventDispatcher;
 import com.facebook.litho.sections.Section;
 import com.facebook.litho.sections.SectionContext;
 import com.facebook.litho.sections.SectionTree;
+import com.facebook.litho.sections.config.SectionsConfiguration;
 import com.facebook.litho.testing.sections.TestGroupSection;
 import com.facebook.litho.testing.sections.TestTarget;
 import com.facebook.litho.testing.sections.TestTarget.Operation;
@@ -33,7 +36,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.powermock.reflect.Whitebox;
 import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
 
 /** Tests {@link DataDiffSectionSpec} */
 @RunWith(ComponentsTestRunner.class)
@@ -572,6 +577,273 @@ public class DataDiffSectionSpecTest {
     assertRangeOperation(executedOperations.get(0), TestTarget.INSERT_RANGE, 100, 100);
   }
 
+  @Test
+  public void testKeyedDiffAppendData() {
+    final boolean useKeyedDataDiff = SectionsConfiguration.useKeyedDataDiff;
+    SectionsConfiguration.useKeyedDataDiff = true;
+
+    try {
+      ArrayList<String> data = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        data.add("" + i);
+      }
+
+      mSectionTree.setRoot(TestGroupSection.create(mSectionContext).data(data).build());
+      mTestTarget.clear();
+
+      data = new ArrayList<>(data);
+      for (int i = 100; i < 120; i++) {
+        data.add("" + i);
+      }
+
+      mSectionTree.setRoot(TestGroupSection.create(mSectionContext).data(data).build());
+      final List<Operation> executedOperations = mTestTarget.getOperations();
+
+      assertThat(executedOperations.size()).isEqualTo(1);
+      assertRangeOperation(executedOperations.get(0), TestTarget.INSERT_RANGE, 100, 20);
+    } finally {
+      SectionsConfiguration.useKeyedDataDiff = useKeyedDataDiff;
+    }
+  }
+
+  @Test
+  public void testKeyedDiffMatchesItemsByIdentifier() {
+    final boolean useKeyedDataDiff = SectionsConfiguration.useKeyedDataDiff;
+    SectionsConfiguration.useKeyedDataDiff = true;
+
+    try {
+      final ArrayList<String> previousData = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        previousData.add("" + i);
+      }
+
+      mSectionTree.setRoot(
+          TestGroupSection.create(mSectionContext)
+              .data(previousData)
+              .useModelsAsIdentifiers(true)
+              .build());
+      mTestTarget.clear();
+
+      final ArrayList<String> nextData = new ArrayList<>(previousData);
+      nextData.remove("3");
+      nextData.remove("4");
+      nextData.add(5, "new item");
+      nextData.remove("12");
+      nextData.add(1, "12");
+      nextData.remove("8");
+      nextData.add(14, "8");
+      nextData.add(16, "other new item");
+
+      mSectionTree.setRoot(
+          TestGroupSection.create(mSectionContext)
+              .data(nextData)
+              .useModelsAsIdentifiers(true)
+              .build());
+
+      final List<String> expectedData = new ArrayList<>(nextData);
+      expectedData.set(expectedData.indexOf("new item"), "?");
+      expectedData.set(expectedData.indexOf("other new item"), "?");
+
+      assertThat(applyOperations(previousData, mTestTarget.getOperations()))
+          .isEqualTo(expectedData);
+      assertBulkOperations(mTestTarget.getOperations(), 2, 0, 2);
+    } finally {
+      SectionsConfiguration.useKeyedDataDiff = useKeyedDataDiff;
+    }
+  }
+
+  @Test
+  public void testRestartedCalculationReplaysCachedDiff() {
+    final boolean cacheDataDiffResults = SectionsConfiguration.cacheDataDiffResults;
+    SectionsConfiguration.cacheDataDiffResults = true;
+
+    try {
+      final CountingComparator comparator = new CountingComparator();
+      final int comparisonsOfOneDiff = diffWithRestart(comparator, comparator, null);
+
+      assertThat(comparisonsOfOneDiff).isGreaterThan(0);
+      assertThat(comparator.mComparisons).isEqualTo(comparisonsOfOneDiff);
+    } finally {
+      SectionsConfiguration.cacheDataDiffResults = cacheDataDiffResults;
+    }
+  }
+
+  @Test
+  public void testRestartedCalculationWithOtherComparatorDoesNotReplayCachedDiff() {
+    final boolean cacheDataDiffResults = SectionsConfiguration.cacheDataDiffResults;
+    SectionsConfiguration.cacheDataDiffResults = true;
+
+    try {
+      final CountingComparator comparator = new CountingComparator();
+      final CountingComparator otherComparator = new CountingComparator();
+      final int comparisonsOfOneDiff = diffWithRestart(comparator, otherComparator, null);
+
+      assertThat(otherComparator.mComparisons).isEqualTo(comparisonsOfOneDiff);
+    } finally {
+      SectionsConfiguration.cacheDataDiffResults = cacheDataDiffResults;
+    }
+  }
+
+  @Test
+  public void testRestartedCalculationWithOtherTrimmingDoesNotReplayCachedDiff() {
+    final boolean cacheDataDiffResults = SectionsConfiguration.cacheDataDiffResults;
+    SectionsConfiguration.cacheDataDiffResults = true;
+
+    try {
+      final CountingComparator comparator = new CountingComparator();
+      final int comparisonsOfOneDiff = diffWithRestart(comparator, comparator, true);
+
+      assertThat(comparator.mComparisons).isGreaterThan(comparisonsOfOneDiff);
+    } finally {
+      SectionsConfiguration.cacheDataDiffResults = cacheDataDiffResults;
+    }
+  }
+
+  /**
+   * Diffs the same data twice: once with the first comparator, in a changeset calculation that a
+   * new root with the restart comparator and trimming makes stale during its diff, and once in the
+   * calculation of that new root, which is the one that is committed.
+   *
+   * @return the number of comparisons a single diff of the data makes.
+   */
+  private int diffWithRestart(
+      CountingComparator comparator,
+      CountingComparator restartComparator,
+      @Nullable Boolean restartTrimHeadAndTail) {
+    final ArrayList<String> previousData = new ArrayList<>();
+    final ArrayList<String> nextData = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      previousData.add("" + i);
+      // Different instances, so that the diff has to compare them.
+      nextData.add(new String("" + i));
+    }
+    nextData.remove("3");
+    nextData.add(5, "new item");
+
+    mSectionTree.setRoot(
+        TestGroupSection.create(mSectionContext)
+            .data(previousData)
+            .isSameItemComparator(comparator)
+            .build());
+    mTestTarget.clear();
+
+    final TestGroupSection.Builder restartRoot =
+        TestGroupSection.create(mSectionContext)
+            .data(nextData)
+            .isSameItemComparator(restartComparator);
+    if (restartTrimHeadAndTail != null) {
+      restartRoot.trimHeadAndTail(restartTrimHeadAndTail);
+    }
+
+    comparator.mComparisons = 0;
+    comparator.mOnFirstComparison =
+        new Runnable() {
+          @Override
+          public void run() {
+            mSectionTree.setRootAsync(restartRoot.build());
+          }
+        };
+
+    mSectionTree.setRoot(
+        TestGroupSection.create(mSectionContext)
+            .data(nextData)
+            .isSameItemComparator(comparator)
+            .build());
+
+    final List<String> expectedData = new ArrayList<>(nextData);
+    expectedData.set(expectedData.indexOf("new item"), "?");
+    assertThat(applyOperations(previousData, mTestTarget.getOperations()))
+        .isEqualTo(expectedData);
+
+    // The stale calculation already ran a full diff by the time it's dropped.
+    final int comparisonsOfOneDiff =
+        restartComparator == comparator
+            ? countComparisonsOfOneDiff(previousData, nextData)
+            : comparator.mComparisons;
+    runChangeSetThreadTasks();
+    return comparisonsOfOneDiff;
+  }
+
+  private int countComparisonsOfOneDiff(List<String> previousData, List<String> nextData) {
+    final boolean cacheDataDiffResults = SectionsConfiguration.cacheDataDiffResults;
+    SectionsConfiguration.cacheDataDiffResults = false;
+
+    try {
+      final CountingComparator comparator = new CountingComparator();
+      final SectionTree sectionTree =
+          SectionTree.create(mSectionContext, new TestTarget()).build();
+      sectionTree.setRoot(
+          TestGroupSection.create(mSectionContext)
+              .data(previousData)
+              .isSameItemComparator(comparator)
+              .build());
+      comparator.mComparisons = 0;
+      sectionTree.setRoot(
+          TestGroupSection.create(mSectionContext)
+              .data(nextData)
+              .isSameItemComparator(comparator)
+              .build());
+      sectionTree.release();
+      return comparator.mComparisons;
+    } finally {
+      SectionsConfiguration.cacheDataDiffResults = cacheDataDiffResults;
+    }
+  }
+
+  /** Runs the changeset calculation that setRootAsync posted, which has nothing left to do. */
+  private static void runChangeSetThreadTasks() {
+    try {
+      final Looper looper =
+          Whitebox.invokeMethod(SectionTree.class, "getDefaultChangeSetThreadLooper");
+      Shadows.shadowOf(looper).runToEndOfTasks();
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static class CountingComparator implements Comparator {
+    private int mComparisons;
+    @Nullable private Runnable mOnFirstComparison;
+
+    @Override
+    public int compare(Object lhs, Object rhs) {
+      mComparisons++;
+      final Runnable onFirstComparison = mOnFirstComparison;
+      if (onFirstComparison != null) {
+        mOnFirstComparison = null;
+        onFirstComparison.run();
+      }
+
+      return lhs.equals(rhs) ? 0 : 1;
+    }
+  }
+
+  /** Applies the operations to data, representing the inserted items with "?". */
+  private static List<String> applyOperations(List<String> data, List<Operation> operations) {
+    final List<String> result = new ArrayList<>(data);
+    for (Operation operation : operations) {
+      switch (operation.mOp) {
+        case INSERT:
+        case TestTarget.INSERT_RANGE:
+          for (int i = 0; i < operation.mRangeCount; i++) {
+            result.add(operation.mIndex, "?");
+          }
+          break;
+        case DELETE:
+        case TestTarget.DELETE_RANGE:
+          for (int i = 0; i < operation.mRangeCount; i++) {
+            result.remove(operation.mIndex);
+          }
+          break;
+        case MOVE:
+          result.add(operation.mToIndex, result.remove(operation.mIndex));
+          break;
+      }
+    }
+
+    return result;
+  }
+
   private void assertRangeOperation(
       Operation operation,
       int opType,
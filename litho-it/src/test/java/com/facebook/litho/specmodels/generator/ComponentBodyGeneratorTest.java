@@ -207,6 +207,9 @@ public class ComponentBodyGeneratorTest {
                 + "  if (this.getId() == testRef.getId()) {\n"
                 + "    return true;\n"
                 + "  }\n"
+                + "  if (hasDifferentPropsHash(testRef)) {\n"
+                + "    return false;\n"
+                + "  }\n"
                 + "  if (arg0 != testRef.arg0) {\n"
                 + "    return false;\n"
                 + "  }\n"
@@ -264,6 +267,21 @@ public class ComponentBodyGeneratorTest {
                 + "}\n");
   }
 
+  @Test
+  public void testGenerateComputePropsHashMethod() {
+    assertThat(ComponentBodyGenerator.generateComputePropsHashMethod(mSpecModelDI).toString())
+        .isEqualTo(
+            "@java.lang.Override\n"
+                + "protected int computePropsHash() {\n"
+                + "  int result = 1;\n"
+                + "  result = 31 * result + (arg0 ? 1231 : 1237);\n"
+                + "  result = 31 * result + hashComponent(arg4);\n"
+                + "  result = 31 * result + hashComponents(arg5);\n"
+                + "  result = 31 * result + (arg6 != null ? arg6.hashCode() : 0);\n"
+                + "  return result;\n"
+                + "}\n");
+  }
+
   @Test
   public void testOnUpdateStateMethods() {
     TypeSpecDataHolder dataHolder =
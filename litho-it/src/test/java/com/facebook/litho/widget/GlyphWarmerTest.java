@@ -9,17 +9,27 @@
 
 package com.facebook.litho.widget;
 
+import static org.assertj.core.api.Java6Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.graphics.Picture;
 import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
 import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.powermock.reflect.Whitebox;
 import org.robolectric.Shadows;
 import org.robolectric.annotation.Config;
 import org.robolectric.annotation.Implementation;
@@ -39,6 +49,7 @@ public class GlyphWarmerTest {
   public void setup() {
     mGlyphWarmer = GlyphWarmer.getInstance();
     mShadowLooper = Shadows.shadowOf(mGlyphWarmer.getWarmerLooper());
+    mGlyphWarmer.reset();
   }
 
   @Test
@@ -47,6 +58,105 @@ public class GlyphWarmerTest {
     mGlyphWarmer.warmLayout(layout);
     mShadowLooper.runOneTask();
     verify(layout).draw(any(Canvas.class));
+    assertThat(GlyphWarmer.getWarmedLayoutCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testSameGlyphsAreWarmedOnce() {
+    // The queue only references the layouts weakly.
+    final Layout like = createLayout("Like");
+    final Layout otherLike = createLayout("Like");
+    final Layout comment = createLayout("Comment");
+
+    mGlyphWarmer.warmLayout(like);
+    mGlyphWarmer.warmLayout(otherLike);
+    mGlyphWarmer.warmLayout(comment);
+    mShadowLooper.runToEndOfTasks();
+
+    assertThat(GlyphWarmer.getWarmedLayoutCount()).isEqualTo(2);
+    assertThat(GlyphWarmer.getDroppedLayoutCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testCollectedLayoutIsReplacedBySameGlyphs() {
+    final Layout like = createLayout("Like");
+    final Layout otherLike = createLayout("Like");
+
+    mGlyphWarmer.warmLayout(like);
+    // Simulates the queued layout being garbage collected before its turn.
+    final Map<Object, WeakReference<Layout>> pendingLayouts =
+        Whitebox.getInternalState(mGlyphWarmer, "mPendingLayouts");
+    pendingLayouts.values().iterator().next().clear();
+
+    mGlyphWarmer.warmLayout(otherLike);
+
+    assertThat(pendingLayouts.values().iterator().next().get()).isSameAs(otherLike);
+
+    mShadowLooper.runToEndOfTasks();
+
+    assertThat(GlyphWarmer.getWarmedLayoutCount()).isEqualTo(1);
+    assertThat(GlyphWarmer.getDroppedLayoutCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testFakeBoldGlyphsAreNotDuplicates() {
+    final Layout like = createLayout("Like");
+    final Layout boldLike =
+        new StaticLayout(
+            "Like",
+            new TextPaint(Paint.FAKE_BOLD_TEXT_FLAG),
+            100,
+            Layout.Alignment.ALIGN_NORMAL,
+            1,
+            0,
+            false);
+
+    mGlyphWarmer.warmLayout(like);
+    mGlyphWarmer.warmLayout(boldLike);
+    mShadowLooper.runToEndOfTasks();
+
+    assertThat(GlyphWarmer.getWarmedLayoutCount()).isEqualTo(2);
+    assertThat(GlyphWarmer.getDroppedLayoutCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testLayoutsAreWarmedInBatches() {
+    final List<Layout> layouts = warmLayouts(GlyphWarmer.BATCH_SIZE + 1);
+
+    mShadowLooper.runOneTask();
+    for (int i = 0; i < GlyphWarmer.BATCH_SIZE; i++) {
+      verify(layouts.get(i)).draw(any(Canvas.class));
+    }
+    assertThat(GlyphWarmer.getWarmedLayoutCount()).isEqualTo(GlyphWarmer.BATCH_SIZE);
+
+    mShadowLooper.runOneTask();
+    verify(layouts.get(GlyphWarmer.BATCH_SIZE)).draw(any(Canvas.class));
+    assertThat(GlyphWarmer.getWarmedLayoutCount()).isEqualTo(GlyphWarmer.BATCH_SIZE + 1);
+  }
+
+  @Test
+  public void testOldestLayoutIsDroppedWhenQueueIsFull() {
+    final List<Layout> layouts = warmLayouts(GlyphWarmer.MAX_PENDING_LAYOUTS + 1);
+    mShadowLooper.runToEndOfTasks();
+
+    verify(layouts.get(0), never()).draw(any(Canvas.class));
+    verify(layouts.get(GlyphWarmer.MAX_PENDING_LAYOUTS)).draw(any(Canvas.class));
+    assertThat(GlyphWarmer.getWarmedLayoutCount()).isEqualTo(GlyphWarmer.MAX_PENDING_LAYOUTS);
+    assertThat(GlyphWarmer.getDroppedLayoutCount()).isEqualTo(1);
+  }
+
+  private List<Layout> warmLayouts(int count) {
+    final List<Layout> layouts = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final Layout layout = mock(Layout.class);
+      layouts.add(layout);
+      mGlyphWarmer.warmLayout(layout);
+    }
+    return layouts;
+  }
+
+  private static Layout createLayout(CharSequence text) {
+    return new StaticLayout(text, new TextPaint(), 100, Layout.Alignment.ALIGN_NORMAL, 1, 0, false);
   }
 
   @Implements(Picture.class)
@@ -23,6 +23,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.OrientationHelper;
@@ -301,7 +302,7 @@ public class RecyclerBinderTest {
     verify(recyclerView).setLayoutManager(mLayoutInfo.getLayoutManager());
     verify(recyclerView).setAdapter(any(RecyclerView.Adapter.class));
     verify(mLayoutInfo).setRenderInfoCollection(mRecyclerBinder);
-    verify(recyclerView, times(2)).addOnScrollListener(any(OnScrollListener.class));
+    verify(recyclerView, times(1)).addOnScrollListener(any(OnScrollListener.class));
   }
 
   @Test
@@ -311,18 +312,18 @@ public class RecyclerBinderTest {
 
     verify(recyclerView).setLayoutManager(mLayoutInfo.getLayoutManager());
     verify(recyclerView).setAdapter(any(RecyclerView.Adapter.class));
-    verify(recyclerView, times(2)).addOnScrollListener(any(OnScrollListener.class));
+    verify(recyclerView, times(1)).addOnScrollListener(any(OnScrollListener.class));
 
     RecyclerView secondRecyclerView = mock(RecyclerView.class);
     mRecyclerBinder.mount(secondRecyclerView);
 
     verify(recyclerView).setLayoutManager(null);
     verify(recyclerView).setAdapter(null);
-    verify(recyclerView, times(2)).removeOnScrollListener(any(OnScrollListener.class));
+    verify(recyclerView, times(1)).removeOnScrollListener(any(OnScrollListener.class));
 
     verify(secondRecyclerView).setLayoutManager(mLayoutInfo.getLayoutManager());
     verify(secondRecyclerView).setAdapter(any(RecyclerView.Adapter.class));
-    verify(secondRecyclerView, times(2)).addOnScrollListener(any(OnScrollListener.class));
+    verify(secondRecyclerView, times(1)).addOnScrollListener(any(OnScrollListener.class));
   }
 
   @Test
@@ -332,14 +333,14 @@ public class RecyclerBinderTest {
 
     verify(recyclerView).setLayoutManager(mLayoutInfo.getLayoutManager());
     verify(recyclerView).setAdapter(any(RecyclerView.Adapter.class));
-    verify(recyclerView, times(2)).addOnScrollListener(any(OnScrollListener.class));
+    verify(recyclerView, times(1)).addOnScrollListener(any(OnScrollListener.class));
 
     mRecyclerBinder.unmount(recyclerView);
 
     verify(recyclerView).setLayoutManager(null);
     verify(recyclerView).setAdapter(null);
     verify(mLayoutInfo).setRenderInfoCollection(null);
-    verify(recyclerView, times(2)).removeOnScrollListener(any(OnScrollListener.class));
+    verify(recyclerView, times(1)).removeOnScrollListener(any(OnScrollListener.class));
   }
 
   @Test
@@ -354,7 +355,7 @@ public class RecyclerBinderTest {
     mRecyclerBinder.mount(recyclerView);
 
     verify(recyclerView).setAdapter(any(RecyclerView.Adapter.class));
-    verify(recyclerView, times(3)).addOnScrollListener(any(OnScrollListener.class));
+    verify(recyclerView, times(2)).addOnScrollListener(any(OnScrollListener.class));
   }
 
   @Test
@@ -690,6 +691,124 @@ public class RecyclerBinderTest {
     }
   }
 
+  @Test
+  public void testMoveRangeOnlyTouchesHoldersEnteringOrLeavingRange() {
+    final List<ComponentRenderInfo> components = prepareLoadedBinder(mRecyclerBinder, 1000);
+    final int rangeTotal = (int) (RANGE_SIZE + (RANGE_RATIO * RANGE_SIZE));
+
+    mRecyclerBinder.onNewVisibleRange(40, 42);
+
+    for (int i = 0; i < components.size(); i++) {
+      mHoldersForComponents.get(components.get(i).getComponent()).mTreeValidCheckCount = 0;
+    }
+
+    final int newRangeStart = 41;
+    mRecyclerBinder.onNewVisibleRange(newRangeStart, 43);
+
+    TestComponentTreeHolder componentTreeHolder;
+    for (int i = 0; i < components.size(); i++) {
+      componentTreeHolder = mHoldersForComponents.get(components.get(i).getComponent());
+
+      // Only the previous and the new range are visited, no matter how many items there are.
+      if (i < newRangeStart - 1 - (RANGE_RATIO * RANGE_SIZE) || i > newRangeStart + rangeTotal) {
+        assertThat(componentTreeHolder.mTreeValidCheckCount).isEqualTo(0);
+      }
+
+      if (i >= newRangeStart - (RANGE_RATIO * RANGE_SIZE) && i <= newRangeStart + rangeTotal) {
+        assertThat(componentTreeHolder.isTreeValid()).isTrue();
+      } else {
+        assertThat(componentTreeHolder.isTreeValid()).isFalse();
+      }
+    }
+  }
+
+  @Test
+  public void testRetainedTreesAreReusedWhenComingBackInRange() {
+    final RecyclerBinder recyclerBinder =
+        mRecyclerBinderBuilder.retainedTreeCacheSize(5).build(mComponentContext);
+    final List<ComponentRenderInfo> components = prepareLoadedBinder(recyclerBinder, 100);
+    final int rangeTotal = (int) (RANGE_SIZE + (RANGE_RATIO * RANGE_SIZE));
+
+    recyclerBinder.onNewVisibleRange(40, 42);
+
+    // Only the 5 items that most recently went out of range keep their tree.
+    assertThat(recyclerBinder.getRetainedTreeCache().size()).isEqualTo(5);
+    TestComponentTreeHolder componentTreeHolder;
+    for (int i = 0; i <= rangeTotal; i++) {
+      componentTreeHolder = mHoldersForComponents.get(components.get(i).getComponent());
+      assertThat(componentTreeHolder.isTreeValid()).isEqualTo(i > rangeTotal - 5);
+      assertThat(componentTreeHolder.mDidAcquireStateHandler).isEqualTo(i <= rangeTotal - 5);
+      componentTreeHolder.mLayoutAsyncCalled = false;
+    }
+
+    recyclerBinder.onNewVisibleRange(0, 2);
+
+    for (int i = 0; i <= rangeTotal; i++) {
+      componentTreeHolder = mHoldersForComponents.get(components.get(i).getComponent());
+      assertThat(componentTreeHolder.isTreeValid()).isTrue();
+      assertThat(componentTreeHolder.mLayoutAsyncCalled).isEqualTo(i <= rangeTotal - 5);
+    }
+
+    RetainedComponentTreeCache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+
+    assertThat(recyclerBinder.getRetainedTreeCache().size()).isEqualTo(0);
+    for (int i = 40; i < 50; i++) {
+      componentTreeHolder = mHoldersForComponents.get(components.get(i).getComponent());
+      assertThat(componentTreeHolder.isTreeValid()).isFalse();
+    }
+  }
+
+  @Test
+  public void testBatchedLayoutsOnlyComputeHoldersStillInRange() {
+    final List<Runnable> postedRunnables = new ArrayList<>();
+    final LayoutHandler batchedLayoutHandler =
+        new LayoutHandler() {
+          @Override
+          public boolean post(Runnable runnable) {
+            postedRunnables.add(runnable);
+            return true;
+          }
+
+          @Override
+          public void removeCallbacks(Runnable runnable) {
+            postedRunnables.remove(runnable);
+          }
+
+          @Override
+          public void removeCallbacksAndMessages(Object token) {
+            postedRunnables.clear();
+          }
+        };
+    final RecyclerBinder recyclerBinder =
+        mRecyclerBinderBuilder.batchedLayoutHandler(batchedLayoutHandler).build(mComponentContext);
+    final List<ComponentRenderInfo> components = prepareLoadedBinder(recyclerBinder, 100);
+
+    final int newRangeStart = 40;
+    recyclerBinder.onNewVisibleRange(newRangeStart, 42);
+
+    // A single task for all the items entering the range, which hasn't run yet.
+    assertThat(postedRunnables).hasSize(1);
+    TestComponentTreeHolder componentTreeHolder;
+    for (int i = 1; i < components.size(); i++) {
+      componentTreeHolder = mHoldersForComponents.get(components.get(i).getComponent());
+      assertThat(componentTreeHolder.isTreeValid()).isFalse();
+      assertThat(componentTreeHolder.mLayoutAsyncCalled).isFalse();
+    }
+
+    postedRunnables.remove(0).run();
+
+    assertThat(postedRunnables).isEmpty();
+    final int rangeTotal = (int) (RANGE_SIZE + (RANGE_RATIO * RANGE_SIZE));
+    for (int i = 1; i < components.size(); i++) {
+      componentTreeHolder = mHoldersForComponents.get(components.get(i).getComponent());
+      final boolean isInRange =
+          i >= newRangeStart - (RANGE_RATIO * RANGE_SIZE) && i <= newRangeStart + rangeTotal;
+      assertThat(componentTreeHolder.isTreeValid()).isEqualTo(isInRange);
+      assertThat(componentTreeHolder.mLayoutSyncCalled).isEqualTo(isInRange);
+      assertThat(componentTreeHolder.mLayoutAsyncCalled).isFalse();
+    }
+  }
+
   @Test
   public void testRealRangeOverridesEstimatedRange() {
     final List<ComponentRenderInfo> components = prepareLoadedBinder();
@@ -1794,6 +1913,7 @@ public class RecyclerBinderTest {
     private boolean mReleased;
     private int mChildWidth;
     private int mChildHeight;
+    private int mTreeValidCheckCount;
 
     private TestComponentTreeHolder(RenderInfo renderInfo) {
       mRenderInfo = renderInfo;
@@ -1852,6 +1972,7 @@ public class RecyclerBinderTest {
 
     @Override
     public synchronized boolean isTreeValid() {
+      mTreeValidCheckCount++;
       return mTreeValid;
     }
 
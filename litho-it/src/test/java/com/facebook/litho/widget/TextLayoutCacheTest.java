@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.widget;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import android.graphics.Color;
+import android.text.Spannable;
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.litho.testing.helper.ComponentTestHelper;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(ComponentsTestRunner.class)
+public class TextLayoutCacheTest {
+
+  private ComponentContext mContext;
+  private int mDefaultTextLayoutCacheSize;
+
+  @Before
+  public void setup() {
+    mContext = new ComponentContext(RuntimeEnvironment.application);
+    mDefaultTextLayoutCacheSize = ComponentsConfiguration.textLayoutCacheSize;
+    ComponentsConfiguration.textLayoutCacheSize = 10;
+    TextLayoutCache.clear();
+  }
+
+  @After
+  public void tearDown() {
+    ComponentsConfiguration.textLayoutCacheSize = mDefaultTextLayoutCacheSize;
+    TextLayoutCache.clear();
+  }
+
+  @Test
+  public void testSameTextReusesLayout() {
+    mountText("Like", Color.BLUE);
+    final int missCount = TextLayoutCache.getMissCount();
+    assertThat(missCount).isGreaterThan(0);
+
+    mountText("Like", Color.BLUE);
+
+    assertThat(TextLayoutCache.getMissCount()).isEqualTo(missCount);
+    assertThat(TextLayoutCache.getHitCount()).isGreaterThan(0);
+  }
+
+  @Test
+  public void testDifferentStyleDoesNotReuseLayout() {
+    mountText("Like", Color.BLUE);
+    final int missCount = TextLayoutCache.getMissCount();
+
+    mountText("Like", Color.RED);
+
+    assertThat(TextLayoutCache.getMissCount()).isGreaterThan(missCount);
+    assertThat(TextLayoutCache.getHitCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testLongAndSpannedTextsAreNotCached() {
+    final char[] longText = new char[TextLayoutCache.MAX_CACHED_TEXT_LENGTH + 1];
+    Arrays.fill(longText, 'a');
+
+    mountText(new String(longText), Color.BLUE);
+    mountText(new String(longText), Color.BLUE);
+    mountText(Spannable.Factory.getInstance().newSpannable("Like"), Color.BLUE);
+
+    assertThat(TextLayoutCache.getMissCount()).isEqualTo(0);
+    assertThat(TextLayoutCache.getHitCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testDisabledCacheIsNotUsed() {
+    ComponentsConfiguration.textLayoutCacheSize = 0;
+
+    mountText("Like", Color.BLUE);
+    mountText("Like", Color.BLUE);
+
+    assertThat(TextLayoutCache.getMissCount()).isEqualTo(0);
+    assertThat(TextLayoutCache.getHitCount()).isEqualTo(0);
+  }
+
+  private void mountText(CharSequence text, int textColor) {
+    ComponentTestHelper.mountComponent(
+        mContext, Text.create(mContext).text(text).textColor(textColor).build());
+  }
+}
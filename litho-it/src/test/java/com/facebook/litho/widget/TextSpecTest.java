@@ -16,6 +16,7 @@ import static org.mockito.Mockito.verify;
 import android.content.res.ColorStateList;
 import android.graphics.Color;
 import android.graphics.Typeface;
+import android.text.Layout;
 import android.text.Spannable;
 import android.text.style.ClickableSpan;
 import android.util.SparseArray;
@@ -24,9 +25,12 @@ import android.view.View;
 import com.facebook.litho.ComponentContext;
 import com.facebook.litho.EventHandler;
 import com.facebook.litho.LithoView;
+import com.facebook.litho.Row;
+import com.facebook.litho.config.ComponentsConfiguration;
 import com.facebook.litho.testing.eventhandler.EventHandlerTestHelper;
 import com.facebook.litho.testing.helper.ComponentTestHelper;
 import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -39,10 +43,21 @@ import org.robolectric.RuntimeEnvironment;
 @RunWith(ComponentsTestRunner.class)
 public class TextSpecTest {
   private ComponentContext mContext;
+  private boolean mDefaultReuseTextLayoutsAtCompatibleWidths;
 
   @Before
   public void setup() {
     mContext = new ComponentContext(RuntimeEnvironment.application);
+    mDefaultReuseTextLayoutsAtCompatibleWidths =
+        ComponentsConfiguration.reuseTextLayoutsAtCompatibleWidths;
+    TextLayoutCache.clear();
+  }
+
+  @After
+  public void tearDown() {
+    ComponentsConfiguration.reuseTextLayoutsAtCompatibleWidths =
+        mDefaultReuseTextLayoutsAtCompatibleWidths;
+    TextLayoutCache.clear();
   }
 
   @Test
@@ -207,6 +222,43 @@ public class TextSpecTest {
     assertThat(drawable.getColor()).isEqualTo(Color.GREEN);
   }
 
+  @Test
+  public void testGrownTextReusesMeasureLayout() {
+    ComponentsConfiguration.reuseTextLayoutsAtCompatibleWidths = true;
+
+    mountGrownText("Like", Layout.Alignment.ALIGN_NORMAL);
+
+    assertThat(TextLayoutCache.getReusedMeasureLayoutCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testGrownCenteredTextDoesNotReuseMeasureLayout() {
+    ComponentsConfiguration.reuseTextLayoutsAtCompatibleWidths = true;
+
+    mountGrownText("Like", Layout.Alignment.ALIGN_CENTER);
+
+    assertThat(TextLayoutCache.getReusedMeasureLayoutCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testGrownTextDoesNotReuseMeasureLayoutWhenDisabled() {
+    ComponentsConfiguration.reuseTextLayoutsAtCompatibleWidths = false;
+
+    mountGrownText("Like", Layout.Alignment.ALIGN_NORMAL);
+
+    assertThat(TextLayoutCache.getReusedMeasureLayoutCount()).isEqualTo(0);
+  }
+
+  private void mountGrownText(CharSequence text, Layout.Alignment alignment) {
+    // The text is measured at its own width, and then grown to the width of the row.
+    ComponentTestHelper.mountComponent(
+        mContext,
+        Row.create(mContext)
+            .widthPx(100)
+            .child(Text.create(mContext).text(text).textAlignment(alignment).flexGrow(1))
+            .build());
+  }
+
   private TextDrawable getMountedDrawableForText(CharSequence text) {
     return (TextDrawable) ComponentTestHelper.mountComponent(
         mContext,
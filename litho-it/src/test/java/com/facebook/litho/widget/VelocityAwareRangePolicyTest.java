@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.widget;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import android.support.v7.widget.RecyclerView;
+import com.facebook.litho.PriorityLayoutHandler;
+import com.facebook.litho.testing.testrunner.ComponentsTestRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(ComponentsTestRunner.class)
+public class VelocityAwareRangePolicyTest {
+
+  private static final int RANGE_SIZE = 5;
+  private static final float RANGE_RATIO = 2f;
+
+  private VelocityAwareRangePolicy mPolicy;
+
+  @Before
+  public void setup() {
+    mPolicy = new VelocityAwareRangePolicy(4f, 1f);
+  }
+
+  @Test
+  public void testIdleRangeIsSymmetric() {
+    assertThat(getRange(50)).containsExactly(40, 65);
+  }
+
+  @Test
+  public void testFlingShiftsAndGrowsRangeTowardsScrollDirection() {
+    flingBy(100);
+
+    int[] range = getRange(50);
+    assertThat(50 - range[0]).isLessThan(10);
+    assertThat(range[1] - (50 + RANGE_SIZE)).isGreaterThan(10);
+    assertThat(range[1] - range[0]).isGreaterThan(25);
+
+    flingBy(-100);
+
+    range = getRange(50);
+    assertThat(50 - range[0]).isGreaterThan(10);
+    assertThat(range[1] - (50 + RANGE_SIZE)).isLessThan(10);
+  }
+
+  @Test
+  public void testItemsBehindViewportAreLaidOutLast() {
+    assertThat(mPolicy.getLayoutPriority(45, 50, 54))
+        .isEqualTo(mPolicy.getLayoutPriority(59, 50, 54));
+
+    flingBy(100);
+
+    assertThat(mPolicy.getLayoutPriority(52, 50, 54))
+        .isEqualTo(PriorityLayoutHandler.PRIORITY_DEFAULT);
+    assertThat(mPolicy.getLayoutPriority(49, 50, 54))
+        .isGreaterThan(mPolicy.getLayoutPriority(70, 50, 54));
+    assertThat(mPolicy.getLayoutPriority(60, 50, 54))
+        .isLessThan(mPolicy.getLayoutPriority(70, 50, 54));
+  }
+
+  @Test
+  public void testIdleResetsRange() {
+    flingBy(100);
+    mPolicy.onScrollStateChanged(RecyclerView.SCROLL_STATE_IDLE);
+
+    assertThat(mPolicy.getVelocity()).isEqualTo(0f);
+    assertThat(getRange(50)).containsExactly(40, 65);
+  }
+
+  private int[] getRange(int firstVisible) {
+    final int[] range = new int[2];
+    mPolicy.getRange(firstVisible, RANGE_SIZE, RANGE_RATIO, range);
+    return range;
+  }
+
+  private void flingBy(int deltaPerFrame) {
+    mPolicy.onScrollStateChanged(RecyclerView.SCROLL_STATE_IDLE);
+    mPolicy.onScrollStateChanged(RecyclerView.SCROLL_STATE_SETTLING);
+    for (int i = 0; i < 10; i++) {
+      mPolicy.onScrolled(deltaPerFrame, 1000 + i * 16);
+    }
+  }
+}
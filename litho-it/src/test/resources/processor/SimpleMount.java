@@ -54,6 +54,9 @@ public final class SimpleMount extends Component {
     if (this.getId() == simpleMountRef.getId()) {
       return true;
     }
+    if (hasDifferentPropsHash(simpleMountRef)) {
+      return false;
+    }
     if (content != null
         ? !content.isEquivalentTo(simpleMountRef.content)
         : simpleMountRef.content != null) {
@@ -65,6 +68,14 @@ public final class SimpleMount extends Component {
     return true;
   }
 
+  @Override
+  protected int computePropsHash() {
+    int result = 1;
+    result = 31 * result + hashComponent(content);
+    result = 31 * result + hashDouble(ratio);
+    return result;
+  }
+
   @Override
   public SimpleMount makeShallowCopy() {
     SimpleMount component = (SimpleMount) super.makeShallowCopy();
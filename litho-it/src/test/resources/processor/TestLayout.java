@@ -129,6 +129,9 @@ public final class TestLayout<S extends View> extends Component implements TestT
     if (this.getId() == testLayoutRef.getId()) {
       return true;
     }
+    if (hasDifferentPropsHash(testLayoutRef)) {
+      return false;
+    }
     if (child != null ? !child.isEquivalentTo(testLayoutRef.child) : testLayoutRef.child != null) {
       return false;
     }
@@ -165,6 +168,19 @@ public final class TestLayout<S extends View> extends Component implements TestT
     return true;
   }
 
+  @Override
+  protected int computePropsHash() {
+    int result = 1;
+    result = 31 * result + hashComponent(child);
+    result = 31 * result + prop1;
+    result = 31 * result + (prop2 ? 1231 : 1237);
+    result = 31 * result + (prop3 != null ? prop3.hashCode() : 0);
+    result = 31 * result + Arrays.hashCode(prop4);
+    result = 31 * result + prop5;
+    result = 31 * result + (int) (prop6 ^ (prop6 >>> 32));
+    return result;
+  }
+
   private UpdateCurrentStateStateUpdate createUpdateCurrentStateStateUpdate(int someParam) {
     return new UpdateCurrentStateStateUpdate(someParam);
   }
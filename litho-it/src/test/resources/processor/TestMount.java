@@ -143,6 +143,9 @@ public final class TestMount<S extends View> extends Component implements TestTa
     if (this.getId() == testMountRef.getId()) {
       return true;
     }
+    if (hasDifferentPropsHash(testMountRef)) {
+      return false;
+    }
     if (prop1 != testMountRef.prop1) {
       return false;
     }
@@ -179,6 +182,20 @@ public final class TestMount<S extends View> extends Component implements TestTa
     return true;
   }
 
+  @Override
+  protected int computePropsHash() {
+    int result = 1;
+    result = 31 * result + prop1;
+    result = 31 * result + (prop2 ? 1231 : 1237);
+    result = 31 * result + (prop3 != null ? prop3.hashCode() : 0);
+    result = 31 * result + Arrays.hashCode(prop4);
+    result = 31 * result + prop5;
+    result = 31 * result + (int) (prop6 ^ (prop6 >>> 32));
+    result = 31 * result + (prop7 != null ? prop7.hashCode() : 0);
+    result = 31 * result + (int) (prop8 ^ (prop8 >>> 32));
+    return result;
+  }
+
   @Override
   protected void copyInterStageImpl(Component component) {
     TestMount testMountRef = (TestMount) component;
@@ -94,6 +94,9 @@ public class ComponentBodyGenerator {
 
     builder.addMethod(generateGetSimpleName(specModel));
     builder.addMethod(generateIsEquivalentMethod(specModel));
+    if (hasPropsHash(specModel)) {
+      builder.addMethod(generateComputePropsHashMethod(specModel));
+    }
 
     builder.addTypeSpecDataHolder(generateCopyInterStageImpl(specModel));
     builder.addTypeSpecDataHolder(generateOnUpdateStateMethods(specModel));
@@ -359,6 +362,13 @@ public class ComponentBodyGenerator {
           .endControlFlow();
     }
 
+    if (hasPropsHash(specModel)) {
+      isEquivalentBuilder
+          .beginControlFlow("if (hasDifferentPropsHash($N))", instanceRefName)
+          .addStatement("return false")
+          .endControlFlow();
+    }
+
     for (PropModel prop : specModel.getProps()) {
       isEquivalentBuilder.addCode(getCompareStatement(specModel, instanceRefName, prop));
     }
@@ -376,6 +386,65 @@ public class ComponentBodyGenerator {
     return isEquivalentBuilder.build();
   }
 
+  /**
+   * Generates the hash of the props that the generated isEquivalentTo compares first. Every prop
+   * is hashed consistently with how isEquivalentTo compares it.
+   */
+  static MethodSpec generateComputePropsHashMethod(SpecModel specModel) {
+    final MethodSpec.Builder computePropsHashBuilder =
+        MethodSpec.methodBuilder("computePropsHash")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PROTECTED)
+            .returns(TypeName.INT)
+            .addStatement("int result = 1");
+
+    for (PropModel prop : specModel.getProps()) {
+      final CodeBlock propHash = getPropHash(specModel, prop);
+      if (propHash != null) {
+        computePropsHashBuilder.addStatement("result = 31 * result + $L", propHash);
+      }
+    }
+
+    return computePropsHashBuilder.addStatement("return result").build();
+  }
+
+  /** Only components have a props hash, and only if they have props. */
+  private static boolean hasPropsHash(SpecModel specModel) {
+    return specModel.getComponentClass().equals(ClassNames.COMPONENT)
+        && !specModel.getProps().isEmpty();
+  }
+
+  /** @return the hash of the prop, or null if the prop is not hashed. */
+  @Nullable
+  private static CodeBlock getPropHash(SpecModel specModel, MethodParamModel field) {
+    final String implAccessor = getImplAccessor(specModel, field);
+    final TypeName typeName = field.getTypeName();
+
+    if (typeName.equals(TypeName.FLOAT)) {
+      return CodeBlock.of("Float.floatToIntBits($L)", implAccessor);
+    } else if (typeName.equals(TypeName.DOUBLE)) {
+      return CodeBlock.of("hashDouble($L)", implAccessor);
+    } else if (typeName.equals(TypeName.BOOLEAN)) {
+      return CodeBlock.of("($L ? 1231 : 1237)", implAccessor);
+    } else if (typeName.equals(TypeName.LONG)) {
+      return CodeBlock.of("(int) ($L ^ ($L >>> 32))", implAccessor, implAccessor);
+    } else if (typeName instanceof ArrayTypeName) {
+      return CodeBlock.of("$T.hashCode($L)", Arrays.class, implAccessor);
+    } else if (typeName.isPrimitive()) {
+      return CodeBlock.of("$L", implAccessor);
+    } else if (typeName.equals(ClassNames.REFERENCE)) {
+      // References are compared with Reference.shouldUpdate(), which has no matching hash.
+      return null;
+    } else if (field.getTypeSpec().isSubInterface(ClassNames.COLLECTION)
+        && calculateLevelOfComponentInCollections((DeclaredTypeSpec) field.getTypeSpec()) > 0) {
+      return CodeBlock.of("hashComponents($L)", implAccessor);
+    } else if (shouldUseIsEquivalentTo(specModel, field)) {
+      return CodeBlock.of("hashComponent($L)", implAccessor);
+    }
+
+    return CodeBlock.of("($L != null ? $L.hashCode() : 0)", implAccessor, implAccessor);
+  }
+
   static TypeSpecDataHolder generateCopyInterStageImpl(SpecModel specModel) {
     final TypeSpecDataHolder.Builder typeSpecDataHolder = TypeSpecDataHolder.newBuilder();
     final ImmutableList<InterStageInputParamModel> interStageInputs =
@@ -13,15 +13,23 @@ import static com.facebook.litho.FrameworkLogEvents.EVENT_SECTIONS_GENERATE_CHAN
 import static com.facebook.litho.sections.Section.acquireChildrenMap;
 import static com.facebook.litho.sections.Section.releaseChildrenMap;
 
+import android.os.Process;
 import android.support.annotation.Nullable;
 import android.support.v4.util.Pair;
 import android.util.SparseArray;
+import com.facebook.litho.BackgroundThreadPoolExecutor;
 import com.facebook.litho.ComponentsLogger;
+import com.facebook.litho.DeviceInfoUtils;
 import com.facebook.litho.LogEvent;
+import com.facebook.litho.sections.config.SectionsConfiguration;
 import com.facebook.litho.sections.logger.SectionsDebugLogger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * ChangeSetState is responsible to generate a global ChangeSet between two {@link Section}s
@@ -31,6 +39,10 @@ public class ChangeSetState {
 
   private static final List<Section> sEmptyList = new ArrayList<>();
 
+  private static final String CHANGESET_THREAD_NAME = "SectionChangeSetWorker";
+
+  private static ThreadPoolExecutor sChangeSetExecutor;
+
   private Section mCurrentRoot;
   private Section mNewRoot;
   private ChangeSet mChangeSet;
@@ -283,14 +295,42 @@ public class ChangeSetState {
       }
     }
 
+    final ChildChangeSetTask[] tasks =
+        SectionsConfiguration.parallelChangeSetGeneration && newChildrenList.size() > 1
+            ? startChildChangeSetTasks(
+                sectionContext,
+                currentChildren,
+                currentChildrenList,
+                newChildrenList,
+                sectionsDebugLogger,
+                sectionTreeTag,
+                currentPrefix,
+                newPrefix)
+            : null;
+
     int activeChildIndex = 0;
     for (int i = 0; i < newChildrenList.size(); i++) {
       final Section newChild = newChildrenList.get(i);
       final Pair<Section, Integer> valueAndPosition = currentChildren.get(newChild.getGlobalKey());
       final int currentChildIndex = valueAndPosition != null ? valueAndPosition.second : -1;
 
-      // New child was added.
-      if (currentChildIndex < 0) {
+      if (tasks != null) {
+        if (currentChildIndex >= 0) {
+          activeChildIndex = currentChildIndex;
+        }
+
+        // The ChangeSets of the children are merged in the same order as in the sequential case.
+        final ChangeSet currentChangeSet = changeSets.get(activeChildIndex);
+        final ChangeSet changeSet = tasks[i].getChangeSet(removedComponents);
+
+        changeSets.put(activeChildIndex, ChangeSet.merge(currentChangeSet, changeSet));
+
+        if (currentChangeSet != null) {
+          currentChangeSet.release();
+        }
+
+        changeSet.release();
+      } else if (currentChildIndex < 0) { // New child was added.
         final ChangeSet currentChangeSet = changeSets.get(activeChildIndex);
         final ChangeSet changeSet =
             generateChangeSetRecursive(
@@ -343,6 +383,58 @@ public class ChangeSetState {
     return changeSets;
   }
 
+  /**
+   * Starts computing the ChangeSet of every new child on the worker pool. The task of the first
+   * child is not submitted, since the calling thread is going to wait for it first anyway.
+   */
+  private static ChildChangeSetTask[] startChildChangeSetTasks(
+      SectionContext sectionContext,
+      Map<String, Pair<Section, Integer>> currentChildren,
+      List<Section> currentChildrenList,
+      List<Section> newChildrenList,
+      SectionsDebugLogger sectionsDebugLogger,
+      String sectionTreeTag,
+      String currentPrefix,
+      String newPrefix) {
+    final ChildChangeSetTask[] tasks = new ChildChangeSetTask[newChildrenList.size()];
+    final ThreadPoolExecutor executor = getChangeSetExecutor();
+
+    for (int i = 0; i < tasks.length; i++) {
+      final Section newChild = newChildrenList.get(i);
+      final Pair<Section, Integer> valueAndPosition = currentChildren.get(newChild.getGlobalKey());
+      final Section currentChild =
+          valueAndPosition != null ? currentChildrenList.get(valueAndPosition.second) : null;
+
+      tasks[i] =
+          ChildChangeSetTask.create(
+              sectionContext,
+              currentChild,
+              newChild,
+              sectionsDebugLogger,
+              sectionTreeTag,
+              currentPrefix,
+              newPrefix);
+
+      if (i > 0) {
+        executor.execute(tasks[i]);
+      }
+    }
+
+    return tasks;
+  }
+
+  private static synchronized ThreadPoolExecutor getChangeSetExecutor() {
+    if (sChangeSetExecutor == null) {
+      final int poolSize = Math.max(DeviceInfoUtils.getNumberOfCPUCores() - 1, 1);
+      sChangeSetExecutor =
+          new BackgroundThreadPoolExecutor(
+              poolSize, poolSize, 1, CHANGESET_THREAD_NAME, Process.THREAD_PRIORITY_BACKGROUND);
+      sChangeSetExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    return sChangeSetExecutor;
+  }
+
   private static SparseArray<ChangeSet> acquireChangeSetSparseArray() {
     //TODO use pools instead t11953296
     return new SparseArray<>();
@@ -412,4 +504,75 @@ public class ChangeSetState {
     }
     return "";
   }
+
+  /**
+   * Computes the ChangeSet of a child subtree, collecting the sections it removes on its own so
+   * that they can be added to the ones of the whole tree in order.
+   */
+  private static class ChildChangeSetTask extends FutureTask<ChangeSet> {
+
+    private final List<Section> mRemovedComponents;
+
+    private ChildChangeSetTask(Callable<ChangeSet> callable, List<Section> removedComponents) {
+      super(callable);
+      mRemovedComponents = removedComponents;
+    }
+
+    static ChildChangeSetTask create(
+        final SectionContext sectionContext,
+        @Nullable final Section currentChild,
+        final Section newChild,
+        final SectionsDebugLogger sectionsDebugLogger,
+        final String sectionTreeTag,
+        final String currentPrefix,
+        final String newPrefix) {
+      final List<Section> removedComponents = new ArrayList<>();
+
+      return new ChildChangeSetTask(
+          new Callable<ChangeSet>() {
+            @Override
+            public ChangeSet call() {
+              return generateChangeSetRecursive(
+                  sectionContext,
+                  currentChild,
+                  newChild,
+                  removedComponents,
+                  sectionsDebugLogger,
+                  sectionTreeTag,
+                  currentPrefix,
+                  newPrefix,
+                  Thread.currentThread().getName());
+            }
+          },
+          removedComponents);
+    }
+
+    /**
+     * Waits for the ChangeSet of the child and adds the sections it removed to removedComponents.
+     * If no worker picked up the task yet, it is run on the calling thread instead, which is also
+     * what prevents nested tasks from waiting on each other when all the workers are busy.
+     */
+    ChangeSet getChangeSet(List<Section> removedComponents) {
+      run();
+
+      final ChangeSet changeSet;
+      try {
+        changeSet = get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } catch (ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+
+      removedComponents.addAll(mRemovedComponents);
+      return changeSet;
+    }
+  }
 }
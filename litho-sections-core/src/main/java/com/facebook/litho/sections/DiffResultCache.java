@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.sections;
+
+import java.util.HashMap;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Keeps the results of the diffs computed by the sections of a {@link SectionTree}, keyed by the
+ * global key of the section and the identity of the diffed objects. A result is dropped unless it
+ * is used again during the changeset calculation that follows the one where it was stored, so that
+ * only the diffs that a new calculation is likely to repeat are retained.
+ */
+class DiffResultCache {
+
+  @GuardedBy("this")
+  private HashMap<Key, Object> mResults = new HashMap<>();
+
+  @GuardedBy("this")
+  private HashMap<Key, Object> mPreviousResults = new HashMap<>();
+
+  @Nullable
+  synchronized Object get(
+      String globalKey, @Nullable Object previous, @Nullable Object next) {
+    final Key key = new Key(globalKey, previous, next);
+    Object result = mResults.get(key);
+    if (result == null) {
+      result = mPreviousResults.remove(key);
+      if (result != null) {
+        mResults.put(key, result);
+      }
+    }
+
+    return result;
+  }
+
+  synchronized void put(
+      String globalKey, @Nullable Object previous, @Nullable Object next, Object result) {
+    mResults.put(new Key(globalKey, previous, next), result);
+  }
+
+  /** Drops the results that were not used during the last changeset calculation. */
+  synchronized void onChangeSetCalculationStarted() {
+    final HashMap<Key, Object> previousResults = mPreviousResults;
+    previousResults.clear();
+    mPreviousResults = mResults;
+    mResults = previousResults;
+  }
+
+  synchronized void clear() {
+    mResults.clear();
+    mPreviousResults.clear();
+  }
+
+  private static class Key {
+
+    private final String mGlobalKey;
+    private final Object mPrevious;
+    private final Object mNext;
+
+    private Key(String globalKey, @Nullable Object previous, @Nullable Object next) {
+      mGlobalKey = globalKey;
+      mPrevious = previous;
+      mNext = next;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+
+      final Key other = (Key) o;
+      return mPrevious == other.mPrevious
+          && mNext == other.mNext
+          && mGlobalKey.equals(other.mGlobalKey);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = mGlobalKey.hashCode();
+      result = 31 * result + System.identityHashCode(mPrevious);
+      result = 31 * result + System.identityHashCode(mNext);
+      return result;
+    }
+  }
+}
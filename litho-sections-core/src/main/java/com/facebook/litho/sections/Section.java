@@ -129,6 +129,7 @@ public abstract class Section extends SectionLifecycle
   // The total count of leaf Components this subtree added to the global list.
   private int mCount;
   private List<Section> mChildren;
+  private boolean mHasReusedChildren;
   private String mGlobalKey;
   private String mKey;
 
@@ -190,6 +191,39 @@ public abstract class Section extends SectionLifecycle
     return mChildren;
   }
 
+  /**
+   * Takes over the children, and the count, of a previous version of this {@link Section} that
+   * is equivalent to it, instead of creating them again. The children still belong to the
+   * previous version until the tree of this one is committed, see {@link #adoptReusedChildren()},
+   * as its calculation might be discarded.
+   */
+  void reuseChildren(Section previous) {
+    mChildren = new ArrayList<>(previous.mChildren);
+    mCount = previous.mCount;
+    mHasReusedChildren = true;
+  }
+
+  /**
+   * Makes the sections of this subtree the parents of the children they reused. Only called once
+   * the tree of this {@link Section} is committed.
+   */
+  void adoptReusedChildren() {
+    if (mChildren == null) {
+      return;
+    }
+
+    for (int i = 0, size = mChildren.size(); i < size; i++) {
+      final Section child = mChildren.get(i);
+      if (mHasReusedChildren) {
+        child.setParent(this);
+      } else {
+        child.adoptReusedChildren();
+      }
+    }
+
+    mHasReusedChildren = false;
+  }
+
   /**
    * @return the parent of this {@link Section} in the tree.
    */
@@ -242,6 +276,7 @@ public abstract class Section extends SectionLifecycle
         if (clone.mChildren != null) {
           clone.mChildren = new ArrayList<>();
         }
+        clone.mHasReusedChildren = false;
         clone.mCount = 0;
         clone.setInvalidated(false);
       }
@@ -119,6 +119,39 @@ public class SectionContext extends ComponentContext {
     return section;
   }
 
+  /**
+   * @return the result that was cached with {@link #cacheDiffResult(Object, Object, Object)} by the
+   *     section of the same global key as the scope of this context, for the same previous and next
+   *     instances, during this or the previous changeset calculation of the {@link SectionTree}, or
+   *     null. The section has to check that the result was computed with its current configuration,
+   *     e.g. the same comparison event handlers.
+   */
+  public @Nullable Object getCachedDiffResult(@Nullable Object previous, @Nullable Object next) {
+    final SectionTree sectionTree = mSectionTree;
+    final Section section = mScope.get();
+    if (sectionTree == null || section == null || section.getGlobalKey() == null) {
+      return null;
+    }
+
+    return sectionTree.getDiffResultCache().get(section.getGlobalKey(), previous, next);
+  }
+
+  /**
+   * Caches the result of a diff between previous and next for the section that is the scope of this
+   * context, so that diffing the same instances again in the next changeset calculation can be
+   * skipped.
+   */
+  public void cacheDiffResult(
+      @Nullable Object previous, @Nullable Object next, Object diffResult) {
+    final SectionTree sectionTree = mSectionTree;
+    final Section section = mScope.get();
+    if (sectionTree != null && section != null && section.getGlobalKey() != null) {
+      sectionTree
+          .getDiffResultCache()
+          .put(section.getGlobalKey(), previous, next, diffResult);
+    }
+  }
+
   KeyHandler getKeyHandler() {
     return mKeyHandler;
   }
@@ -132,6 +132,7 @@ public class SectionTree {
   private final boolean mAsyncPropUpdates;
   private final String mTag;
   private final Map<String, Range> mLastRanges = new HashMap<>();
+  private final DiffResultCache mDiffResultCache = new DiffResultCache();
   private final boolean mForceSyncStateUpdates;
 
   // Holds a Pair where the first item is a section's global starting index
@@ -193,6 +194,9 @@ public class SectionTree {
     }
   }
 
+  // Once committed, the current tree is only read by changeset computations, which can therefore
+  // share it without copying it. The sections in subtrees that a next tree takes over, see
+  // canReuseChildren(), only get their new parent once that tree is committed in turn.
   @GuardedBy("this")
   private @Nullable Section mCurrentSection;
 
@@ -316,7 +320,7 @@ public class SectionTree {
         return;
       }
 
-      mNextSection = copy(section, false);
+      mNextSection = copy(section);
       isFirstSetRoot = mCurrentSection == null;
     }
 
@@ -349,7 +353,7 @@ public class SectionTree {
         return;
       }
 
-      mNextSection = copy(section, false);
+      mNextSection = copy(section);
     }
 
     mCalculateChangeSetRunnable.ensurePosted(ApplyNewChangeSet.SET_ROOT_ASYNC);
@@ -692,6 +696,7 @@ public class SectionTree {
       releaseRange(range);
     }
     mLastRanges.clear();
+    mDiffResultCache.clear();
     mSectionPositionInfo = null;
     clearUnusedTriggerHandlers();
     //TODO use pools t11953296
@@ -743,8 +748,8 @@ public class SectionTree {
     addStateUpdateInternal(key, stateUpdate, true);
   }
 
-  private static Section copy(Section section, boolean deep) {
-    return section != null ? section.makeShallowCopy(deep) : null;
+  private static Section copy(Section section) {
+    return section != null ? section.makeShallowCopy(false) : null;
   }
 
   private synchronized void addStateUpdateInternal(
@@ -768,9 +773,9 @@ public class SectionTree {
     // Need to calculate a new tree since the state changed. The next tree root will be the same
     // of the current tree or a copy of the next pending root.
     if (mNextSection == null) {
-      mNextSection = copy(mCurrentSection, false);
+      mNextSection = copy(mCurrentSection);
     } else {
-      mNextSection = copy(mNextSection, false);
+      mNextSection = copy(mNextSection);
     }
   }
 
@@ -794,8 +799,8 @@ public class SectionTree {
           return;
         }
 
-        currentRoot = copy(mCurrentSection, true);
-        nextRoot = copy(mNextSection, false);
+        currentRoot = mCurrentSection;
+        nextRoot = copy(mNextSection);
         logger = mContext.getLogger();
         logTag = mContext.getLogTag();
         pendingStateUpdates = mPendingStateUpdates.copy();
@@ -818,6 +823,7 @@ public class SectionTree {
       // Checking nextRoot is enough here since whenever we enqueue a new state update we also
       // re-assign nextRoot.
       while (nextRoot != null) {
+        mDiffResultCache.onChangeSetCalculationStarted();
         final ChangeSetState changeSetState =
             calculateNewChangeSet(
                 mContext,
@@ -832,13 +838,7 @@ public class SectionTree {
         Section newRoot = null;
 
         synchronized (this) {
-          boolean currentNotNull = currentRoot != null;
-          boolean instanceCurrentNotNull = mCurrentSection != null;
-          boolean currentIsSame =
-              (currentNotNull
-                      && instanceCurrentNotNull
-                      && currentRoot.getId() == mCurrentSection.getId())
-                  || (!currentNotNull && !instanceCurrentNotNull);
+          boolean currentIsSame = currentRoot == mCurrentSection;
           boolean nextIsSame = (mNextSection != null && nextRoot.getId() == mNextSection.getId());
 
           changeSetIsValid =
@@ -850,6 +850,9 @@ public class SectionTree {
 
             mCurrentSection = newRoot;
             mNextSection = null;
+            if (SectionsConfiguration.reuseUnchangedSubtrees) {
+              newRoot.adoptReusedChildren();
+            }
             mPendingStateUpdates.removeCompletedStateUpdates(pendingStateUpdates);
             mPendingChangeSets.add(changeSetState.getChangeSet());
 
@@ -880,8 +883,8 @@ public class SectionTree {
             return;
           }
 
-          currentRoot = copy(mCurrentSection, true);
-          nextRoot = copy(mNextSection, false);
+          currentRoot = mCurrentSection;
+          nextRoot = copy(mNextSection);
           if (nextRoot != null) {
             pendingStateUpdates = mPendingStateUpdates.copy();
           }
@@ -1133,6 +1136,12 @@ public class SectionTree {
       }
     }
 
+    if (SectionsConfiguration.reuseUnchangedSubtrees
+        && canReuseChildren(context, currentRoot, nextRoot, pendingStateUpdates)) {
+      nextRoot.reuseChildren(currentRoot);
+      return;
+    }
+
     if (!nextRoot.isDiffSectionSpec()) {
       final Map<String, Pair<Section, Integer>> currentComponentChildren = currentRoot == null ?
           null :
@@ -1195,6 +1204,41 @@ public class SectionTree {
     }
   }
 
+  /**
+   * @return true if the children of nextRoot would be the same as the ones of currentRoot: its
+   *     props and state didn't change, none of its descendants has pending state updates and no
+   *     tree props are in scope. ChangeSetState then skips the whole subtree too, since the
+   *     sections don't need to update.
+   */
+  private static boolean canReuseChildren(
+      SectionContext context,
+      @Nullable Section currentRoot,
+      Section nextRoot,
+      Map<String, List<StateUpdate>> pendingStateUpdates) {
+    if (currentRoot == null
+        || nextRoot.isDiffSectionSpec()
+        || !currentRoot.getClass().equals(nextRoot.getClass())
+        || currentRoot.getChildren() == null
+        || context.getTreeProps() != null
+        || nextRoot.shouldComponentUpdate(currentRoot, nextRoot)) {
+      return false;
+    }
+
+    // The global keys of the descendants of a section all start with its own global key.
+    final String globalKey = nextRoot.getGlobalKey();
+    for (String stateUpdateKey : pendingStateUpdates.keySet()) {
+      if (stateUpdateKey.startsWith(globalKey)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  DiffResultCache getDiffResultCache() {
+    return mDiffResultCache;
+  }
+
   private static synchronized Looper getDefaultChangeSetThreadLooper() {
     if (sDefaultChangeSetThreadLooper == null) {
       HandlerThread defaultThread =
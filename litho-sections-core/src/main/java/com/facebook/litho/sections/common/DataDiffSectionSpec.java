@@ -54,6 +54,10 @@ import java.util.List;
  *   {@link OnCheckIsSameContentEvent} whenever during a diffing it wants to check whether two items
  *   that represent the same piece of data have exactly the same content.
  *
+ *   {@link GetUniqueIdentifierEvent} whenever during a keyed diffing it needs the identifier of an
+ *   item, see {@link SectionsConfiguration#useKeyedDataDiff}. Two items represent the same piece
+ *   of data if and only if they have equal identifiers.
+ *
  * <p> For example:
  * <pre>
  * {@code
@@ -91,6 +95,7 @@ import java.util.List;
 @DiffSectionSpec(events = {
     OnCheckIsSameContentEvent.class,
     OnCheckIsSameItemEvent.class,
+    GetUniqueIdentifierEvent.class,
     RenderEvent.class})
 public class DataDiffSectionSpec<T> {
 
@@ -116,37 +121,127 @@ public class DataDiffSectionSpec<T> {
             ? SectionsConfiguration.trimSameInstancesOnly
             : trimSameInstancesOnly.getNext().booleanValue();
 
-    final Callback<T> callback =
-        Callback.acquire(
-            c, data.getPrevious(), data.getNext(), shouldTrim, shouldTrimSameInstanceOnly);
+    final boolean isDetectMovesEnabled = isDetectMovesEnabled(detectMoves);
+    final boolean isKeyed = SectionsConfiguration.useKeyedDataDiff;
+    final boolean shouldCacheDiff = SectionsConfiguration.cacheDataDiffResults;
+
+    RecordedDiff diff =
+        shouldCacheDiff
+            ? getCachedDiff(
+                c, data, isDetectMovesEnabled, shouldTrim, shouldTrimSameInstanceOnly, isKeyed)
+            : null;
+    if (diff == null) {
+      diff =
+          calculateDiff(
+              c, data, isDetectMovesEnabled, shouldTrim, shouldTrimSameInstanceOnly, isKeyed);
+
+      if (shouldCacheDiff) {
+        c.cacheDiffResult(data.getPrevious(), data.getNext(), diff);
+      }
+    }
+
+    final RecyclerBinderUpdateCallback<T> updatesCallback =
+        acquire(
+            data.getPrevious() != null ? data.getPrevious().size() : 0,
+            data.getNext(),
+            new ComponentRenderer(DataDiffSection.getRenderEventHandler(c)),
+            new DiffSectionOperationExecutor(changeSet),
+            diff.getHeadOffset());
+
+    diff.dispatchUpdatesTo(updatesCallback);
+    updatesCallback.applyChangeset();
+
+    release(updatesCallback);
+  }
+
+  /**
+   * Diffs the data, with {@link KeyedDataDiff} if it's enabled and can match the items, with
+   * DiffUtil otherwise.
+   */
+  private static <T> RecordedDiff calculateDiff(
+      SectionContext c,
+      Diff<List<T>> data,
+      boolean detectMoves,
+      boolean shouldTrim,
+      boolean shouldTrimSameInstanceOnly,
+      boolean isKeyed) {
+    final List<T> previousData = data.getPrevious();
+    final List<T> nextData = data.getNext();
+    final EventHandler<GetUniqueIdentifierEvent> getUniqueIdentifierEventHandler =
+        DataDiffSection.getGetUniqueIdentifierEventHandler(c);
+    final RecordedDiff diff =
+        new RecordedDiff(
+            detectMoves,
+            shouldTrim,
+            shouldTrimSameInstanceOnly,
+            isKeyed,
+            DataDiffSection.getOnCheckIsSameItemEventHandler(c),
+            DataDiffSection.getOnCheckIsSameContentEventHandler(c),
+            getUniqueIdentifierEventHandler);
 
     final ComponentsLogger logger = c.getLogger();
     LogEvent logEvent = null;
     if (logger != null) {
-      logEvent = c.getLogger().newPerformanceEvent(EVENT_SECTIONS_DATA_DIFF_CALCULATE_DIFF);
+      logEvent = logger.newPerformanceEvent(EVENT_SECTIONS_DATA_DIFF_CALCULATE_DIFF);
       logEvent.addParam(PARAM_LOG_TAG, c.getLogTag());
     }
 
-    DiffUtil.DiffResult result =
-        DiffUtil.calculateDiff(callback, isDetectMovesEnabled(detectMoves));
+    boolean isDiffed = false;
+    if (isKeyed) {
+      final Callback<T> callback = Callback.acquire(c, previousData, nextData, false, false);
+      isDiffed =
+          KeyedDataDiff.dispatchDiff(
+              callback,
+              getUniqueIdentifierEventHandler,
+              previousData,
+              nextData,
+              detectMoves,
+              diff);
+      Callback.release(callback);
+    }
+
+    if (!isDiffed) {
+      final Callback<T> callback =
+          Callback.acquire(c, previousData, nextData, shouldTrim, shouldTrimSameInstanceOnly);
+      DiffUtil.calculateDiff(callback, detectMoves).dispatchUpdatesTo(diff);
+      diff.setHeadOffset(callback.getTrimmedHeadItemsCount());
+      Callback.release(callback);
+    }
 
     if (logger != null) {
       logger.log(logEvent);
     }
 
-    final RecyclerBinderUpdateCallback<T> updatesCallback =
-        acquire(
-            data.getPrevious() != null ? data.getPrevious().size() : 0,
-            data.getNext(),
-            new ComponentRenderer(DataDiffSection.getRenderEventHandler(c)),
-            new DiffSectionOperationExecutor(changeSet),
-            callback.getTrimmedHeadItemsCount());
+    return diff;
+  }
 
-    result.dispatchUpdatesTo(updatesCallback);
-    updatesCallback.applyChangeset();
+  /**
+   * @return the diff of the same data instances that this section cached during this or the
+   *     previous changeset calculation, if it was computed with the same configuration.
+   */
+  @Nullable
+  private static <T> RecordedDiff getCachedDiff(
+      SectionContext c,
+      Diff<List<T>> data,
+      boolean detectMoves,
+      boolean shouldTrim,
+      boolean shouldTrimSameInstanceOnly,
+      boolean isKeyed) {
+    final Object cachedDiff = c.getCachedDiffResult(data.getPrevious(), data.getNext());
+    if (cachedDiff instanceof RecordedDiff
+        && ((RecordedDiff) cachedDiff)
+            .isComputedWith(
+                detectMoves,
+                shouldTrim,
+                shouldTrimSameInstanceOnly,
+                isKeyed,
+                DataDiffSection.getOnCheckIsSameItemEventHandler(c),
+                DataDiffSection.getOnCheckIsSameContentEventHandler(c),
+                DataDiffSection.getGetUniqueIdentifierEventHandler(c))) {
+      return (RecordedDiff) cachedDiff;
+    }
 
-    Callback.release(callback);
-    release(updatesCallback);
+    return null;
   }
 
   /**
@@ -286,7 +381,7 @@ public class DataDiffSectionSpec<T> {
       return areItemsTheSame(previous, next);
     }
 
-    private boolean areItemsTheSame(T previous, T next) {
+    boolean areItemsTheSame(T previous, T next) {
       if (previous == next) {
         return true;
       }
@@ -309,7 +404,7 @@ public class DataDiffSectionSpec<T> {
       return areContentsTheSame(previous, next);
     }
 
-    private boolean areContentsTheSame(T previous, T next) {
+    boolean areContentsTheSame(T previous, T next) {
       if (previous == next) {
         return true;
       }
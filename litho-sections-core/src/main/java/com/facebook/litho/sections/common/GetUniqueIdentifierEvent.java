@@ -12,7 +12,8 @@ package com.facebook.litho.sections.common;
 import com.facebook.litho.annotations.Event;
 /**
  * This event is triggered by {@link HideableDataDiffSectionSpec} when it needs to
- * get a unique identifier for the edge model provided.
+ * get a unique identifier for the edge model provided, and by {@link DataDiffSectionSpec} when it
+ * matches items by identifier.
  */
 @Event(returnType = Object.class)
 public class GetUniqueIdentifierEvent {
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.sections.common;
+
+import android.support.annotation.Nullable;
+import android.support.v7.util.BatchingListUpdateCallback;
+import android.support.v7.util.ListUpdateCallback;
+import com.facebook.litho.EventHandler;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Diffs the data of a {@link DataDiffSectionSpec} without {@link
+ * android.support.v7.util.DiffUtil}. The items that are the same at the head and at the tail of
+ * both lists are skipped first, which is enough to diff appends, prepends and removals at either
+ * end. What's left in the middle is matched through the identifiers returned by {@link
+ * GetUniqueIdentifierEvent}, using a hash map instead of DiffUtil's quadratic search.
+ */
+class KeyedDataDiff {
+
+  private KeyedDataDiff() {}
+
+  /**
+   * Dispatches to updateCallback the updates that turn previousData into nextData, the same way
+   * a DiffUtil.DiffResult would.
+   *
+   * @return false if the middle of the lists can't be matched, because there is no identifier
+   *     handler or the identifiers are not unique. Nothing is dispatched in that case and DiffUtil
+   *     must be used instead.
+   */
+  static <T> boolean dispatchDiff(
+      DataDiffSectionSpec.Callback<T> callback,
+      @Nullable EventHandler<GetUniqueIdentifierEvent> getUniqueIdentifierHandler,
+      @Nullable List<T> previousData,
+      @Nullable List<T> nextData,
+      boolean detectMoves,
+      ListUpdateCallback updateCallback) {
+    final int previousSize = previousData == null ? 0 : previousData.size();
+    final int nextSize = nextData == null ? 0 : nextData.size();
+
+    int head = 0;
+    while (head < previousSize
+        && head < nextSize
+        && callback.areItemsTheSame(previousData.get(head), nextData.get(head))) {
+      head++;
+    }
+
+    int tail = 0;
+    while (tail < previousSize - head
+        && tail < nextSize - head
+        && callback.areItemsTheSame(
+            previousData.get(previousSize - 1 - tail), nextData.get(nextSize - 1 - tail))) {
+      tail++;
+    }
+
+    final int previousCount = previousSize - head - tail;
+    final int nextCount = nextSize - head - tail;
+
+    // For every item in the middle of nextData, the position of the same item in the middle of
+    // previousData or -1 if it's a new item.
+    int[] previousPositions = null;
+    if (previousCount > 0 && nextCount > 0) {
+      if (getUniqueIdentifierHandler == null) {
+        return false;
+      }
+
+      previousPositions =
+          matchByIdentifier(
+              getUniqueIdentifierHandler, previousData, nextData, head, previousCount, nextCount);
+      if (previousPositions == null) {
+        return false;
+      }
+    }
+
+    final BatchingListUpdateCallback batchingCallback =
+        new BatchingListUpdateCallback(updateCallback);
+    final boolean[] isChanged = new boolean[nextSize];
+
+    if (previousPositions != null) {
+      dispatchMiddleUpdates(
+          callback,
+          previousData,
+          nextData,
+          head,
+          previousCount,
+          previousPositions,
+          detectMoves,
+          isChanged,
+          batchingCallback);
+    } else if (previousCount > 0) {
+      batchingCallback.onRemoved(head, previousCount);
+    } else if (nextCount > 0) {
+      batchingCallback.onInserted(head, nextCount);
+    }
+
+    for (int i = 0; i < head; i++) {
+      isChanged[i] = !callback.areContentsTheSame(previousData.get(i), nextData.get(i));
+    }
+    for (int i = 1; i <= tail; i++) {
+      isChanged[nextSize - i] =
+          !callback.areContentsTheSame(
+              previousData.get(previousSize - i), nextData.get(nextSize - i));
+    }
+
+    // The structure of the list now matches nextData, so the positions are the final ones.
+    for (int i = 0; i < nextSize; i++) {
+      if (isChanged[i]) {
+        batchingCallback.onChanged(i, 1, null);
+      }
+    }
+
+    batchingCallback.dispatchLastEvent();
+    return true;
+  }
+
+  @Nullable
+  private static <T> int[] matchByIdentifier(
+      EventHandler<GetUniqueIdentifierEvent> getUniqueIdentifierHandler,
+      List<T> previousData,
+      List<T> nextData,
+      int head,
+      int previousCount,
+      int nextCount) {
+    final HashMap<Object, Integer> previousPositionsById = new HashMap<>(previousCount);
+    for (int i = 0; i < previousCount; i++) {
+      final Object id =
+          DataDiffSection.dispatchGetUniqueIdentifierEvent(
+              getUniqueIdentifierHandler, previousData.get(head + i));
+      if (id == null || previousPositionsById.put(id, i) != null) {
+        return null;
+      }
+    }
+
+    final int[] previousPositions = new int[nextCount];
+    final boolean[] isMatched = new boolean[previousCount];
+    for (int i = 0; i < nextCount; i++) {
+      final Object id =
+          DataDiffSection.dispatchGetUniqueIdentifierEvent(
+              getUniqueIdentifierHandler, nextData.get(head + i));
+      if (id == null) {
+        return null;
+      }
+
+      final Integer previousPosition = previousPositionsById.get(id);
+      if (previousPosition == null) {
+        previousPositions[i] = -1;
+      } else if (isMatched[previousPosition]) {
+        return null;
+      } else {
+        isMatched[previousPosition] = true;
+        previousPositions[i] = previousPosition;
+      }
+    }
+
+    return previousPositions;
+  }
+
+  /**
+   * Removes, moves and inserts the items in the middle of the list. The items of the longest
+   * subsequence that kept its order stay in place; every other matched item is moved next to the
+   * item that follows it in nextData, or removed and inserted again if moves are not detected.
+   */
+  private static <T> void dispatchMiddleUpdates(
+      DataDiffSectionSpec.Callback<T> callback,
+      List<T> previousData,
+      List<T> nextData,
+      int head,
+      int previousCount,
+      int[] previousPositions,
+      boolean detectMoves,
+      boolean[] isChanged,
+      ListUpdateCallback updateCallback) {
+    final int nextCount = previousPositions.length;
+    final boolean[] isInPlace = findLongestIncreasingSubsequence(previousPositions);
+
+    final boolean[] isKept = new boolean[previousCount];
+    for (int i = 0; i < nextCount; i++) {
+      if (previousPositions[i] < 0) {
+        continue;
+      }
+
+      if (isInPlace[i] || detectMoves) {
+        isKept[previousPositions[i]] = true;
+      } else {
+        previousPositions[i] = -1;
+      }
+    }
+
+    // Removals go from the last item to the first one so that positions don't shift.
+    for (int i = previousCount - 1; i >= 0; i--) {
+      if (!isKept[i]) {
+        updateCallback.onRemoved(head + i, 1);
+      }
+    }
+
+    // Every item gets a slot, so that the order of the slots of the items in the list is the order
+    // of the items at any time: the items moved or inserted before an item that stays in place get
+    // the slots right before its slot, in the order of nextData. The position of an item is then
+    // the number of items in the slots before its own, which a Fenwick tree counts in O(log n).
+    final int[] inPlaceNextPositions = new int[previousCount];
+    Arrays.fill(inPlaceNextPositions, -1);
+    for (int i = 0; i < nextCount; i++) {
+      if (isInPlace[i]) {
+        inPlaceNextPositions[previousPositions[i]] = i;
+      }
+    }
+
+    final int[] previousSlots = new int[previousCount];
+    final int[] nextSlots = new int[nextCount];
+    int slotCount = 0;
+    int nextPosition = 0;
+    for (int i = 0; i <= previousCount; i++) {
+      if (i < previousCount && inPlaceNextPositions[i] < 0) {
+        previousSlots[i] = slotCount++;
+        continue;
+      }
+
+      final int inPlaceNextPosition = i < previousCount ? inPlaceNextPositions[i] : nextCount;
+      while (nextPosition < inPlaceNextPosition) {
+        nextSlots[nextPosition++] = slotCount++;
+      }
+
+      if (i < previousCount) {
+        previousSlots[i] = slotCount;
+        nextSlots[nextPosition++] = slotCount++;
+      }
+    }
+
+    final int[] slotTree = new int[slotCount + 1];
+    for (int i = 0; i < previousCount; i++) {
+      if (isKept[i]) {
+        addToSlot(slotTree, previousSlots[i], 1);
+      }
+    }
+
+    // Walks nextData backwards: every item is placed right before the item processed last, which
+    // is already in its final position.
+    for (int i = nextCount - 1; i >= 0; i--) {
+      final int previousPosition = previousPositions[i];
+
+      if (previousPosition < 0) {
+        updateCallback.onInserted(head + countBeforeSlot(slotTree, nextSlots[i]), 1);
+        addToSlot(slotTree, nextSlots[i], 1);
+        continue;
+      }
+
+      if (!isInPlace[i]) {
+        final int from = countBeforeSlot(slotTree, previousSlots[previousPosition]);
+        addToSlot(slotTree, previousSlots[previousPosition], -1);
+        final int to = countBeforeSlot(slotTree, nextSlots[i]);
+        addToSlot(slotTree, nextSlots[i], 1);
+        updateCallback.onMoved(head + from, head + to);
+      }
+
+      isChanged[head + i] =
+          !callback.areContentsTheSame(
+              previousData.get(head + previousPosition), nextData.get(head + i));
+    }
+  }
+
+  /** Adds delta to the number of items in the given slot of a Fenwick tree. */
+  private static void addToSlot(int[] slotTree, int slot, int delta) {
+    for (int i = slot + 1; i < slotTree.length; i += i & -i) {
+      slotTree[i] += delta;
+    }
+  }
+
+  /** @return the number of items in the slots before the given one in a Fenwick tree. */
+  private static int countBeforeSlot(int[] slotTree, int slot) {
+    int count = 0;
+    for (int i = slot; i > 0; i -= i & -i) {
+      count += slotTree[i];
+    }
+
+    return count;
+  }
+
+  /**
+   * @return for every position, whether it belongs to the longest strictly increasing
+   *     subsequence of the non negative values.
+   */
+  private static boolean[] findLongestIncreasingSubsequence(int[] values) {
+    final int size = values.length;
+    // The position of the last value of the best subsequence of each length found so far.
+    final int[] lastPositions = new int[size];
+    final int[] predecessors = new int[size];
+    int length = 0;
+
+    for (int i = 0; i < size; i++) {
+      final int value = values[i];
+      if (value < 0) {
+        continue;
+      }
+
+      int low = 0;
+      int high = length;
+      while (low < high) {
+        final int middle = (low + high) >>> 1;
+        if (values[lastPositions[middle]] < value) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+
+      predecessors[i] = low > 0 ? lastPositions[low - 1] : -1;
+      lastPositions[low] = i;
+      if (low == length) {
+        length++;
+      }
+    }
+
+    final boolean[] isInSubsequence = new boolean[size];
+    for (int i = length > 0 ? lastPositions[length - 1] : -1; i >= 0; i = predecessors[i]) {
+      isInSubsequence[i] = true;
+    }
+
+    return isInSubsequence;
+  }
+}
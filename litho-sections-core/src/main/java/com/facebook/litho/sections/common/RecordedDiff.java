@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.sections.common;
+
+import android.support.annotation.Nullable;
+import android.support.v7.util.ListUpdateCallback;
+import com.facebook.litho.ComponentContext;
+import com.facebook.litho.EventHandler;
+import com.facebook.litho.HasEventDispatcher;
+import com.facebook.litho.sections.Section;
+import java.util.Arrays;
+
+/**
+ * The updates that the diff of the data of a {@link DataDiffSectionSpec} dispatched, recorded so
+ * that they can be dispatched again, e.g. when the same data is diffed again by a later changeset
+ * calculation, without computing the diff again. Once recorded, a RecordedDiff is immutable and
+ * can be dispatched from any thread.
+ *
+ * <p>It also keeps the configuration the diff was computed with, so that it's only dispatched again
+ * for a section that would compute the same diff.
+ */
+class RecordedDiff implements ListUpdateCallback {
+
+  private static final int INSERTED = 0;
+  private static final int REMOVED = 1;
+  private static final int MOVED = 2;
+  private static final int CHANGED = 3;
+
+  // Every update takes three ints: its type, its position and either its count or, for moves, the
+  // position the item moved to.
+  private static final int UPDATE_SIZE = 3;
+
+  private final boolean mIsDetectingMoves;
+  private final boolean mIsTrimming;
+  private final boolean mIsTrimmingSameInstancesOnly;
+  private final boolean mIsKeyed;
+  @Nullable private final EventHandler<OnCheckIsSameItemEvent> mIsSameItemEventHandler;
+  @Nullable private final EventHandler<OnCheckIsSameContentEvent> mIsSameContentEventHandler;
+  @Nullable private final EventHandler<GetUniqueIdentifierEvent> mGetUniqueIdentifierEventHandler;
+  private int mHeadOffset;
+  private int[] mUpdates = new int[4 * UPDATE_SIZE];
+  private int mUpdatesSize;
+
+  RecordedDiff(
+      boolean isDetectingMoves,
+      boolean isTrimming,
+      boolean isTrimmingSameInstancesOnly,
+      boolean isKeyed,
+      @Nullable EventHandler<OnCheckIsSameItemEvent> isSameItemEventHandler,
+      @Nullable EventHandler<OnCheckIsSameContentEvent> isSameContentEventHandler,
+      @Nullable EventHandler<GetUniqueIdentifierEvent> getUniqueIdentifierEventHandler) {
+    mIsDetectingMoves = isDetectingMoves;
+    mIsTrimming = isTrimming;
+    mIsTrimmingSameInstancesOnly = isTrimmingSameInstancesOnly;
+    mIsKeyed = isKeyed;
+    mIsSameItemEventHandler = isSameItemEventHandler;
+    mIsSameContentEventHandler = isSameContentEventHandler;
+    mGetUniqueIdentifierEventHandler = getUniqueIdentifierEventHandler;
+  }
+
+  /**
+   * @return whether this diff was computed with the same configuration, i.e. whether diffing the
+   *     same data with this configuration would dispatch the same updates.
+   */
+  boolean isComputedWith(
+      boolean isDetectingMoves,
+      boolean isTrimming,
+      boolean isTrimmingSameInstancesOnly,
+      boolean isKeyed,
+      @Nullable EventHandler<OnCheckIsSameItemEvent> isSameItemEventHandler,
+      @Nullable EventHandler<OnCheckIsSameContentEvent> isSameContentEventHandler,
+      @Nullable EventHandler<GetUniqueIdentifierEvent> getUniqueIdentifierEventHandler) {
+    return mIsDetectingMoves == isDetectingMoves
+        && mIsTrimming == isTrimming
+        && mIsTrimmingSameInstancesOnly == isTrimmingSameInstancesOnly
+        && mIsKeyed == isKeyed
+        && isEquivalent(mIsSameItemEventHandler, isSameItemEventHandler)
+        && isEquivalent(mIsSameContentEventHandler, isSameContentEventHandler)
+        && isEquivalent(mGetUniqueIdentifierEventHandler, getUniqueIdentifierEventHandler);
+  }
+
+  /** @return the number of items trimmed from the head of the data the positions are relative to. */
+  int getHeadOffset() {
+    return mHeadOffset;
+  }
+
+  void setHeadOffset(int headOffset) {
+    mHeadOffset = headOffset;
+  }
+
+  @Override
+  public void onInserted(int position, int count) {
+    record(INSERTED, position, count);
+  }
+
+  @Override
+  public void onRemoved(int position, int count) {
+    record(REMOVED, position, count);
+  }
+
+  @Override
+  public void onMoved(int fromPosition, int toPosition) {
+    record(MOVED, fromPosition, toPosition);
+  }
+
+  @Override
+  public void onChanged(int position, int count, Object payload) {
+    // DataDiffSection doesn't use payloads.
+    record(CHANGED, position, count);
+  }
+
+  void dispatchUpdatesTo(ListUpdateCallback callback) {
+    for (int i = 0; i < mUpdatesSize; i += UPDATE_SIZE) {
+      final int position = mUpdates[i + 1];
+      final int value = mUpdates[i + 2];
+
+      switch (mUpdates[i]) {
+        case INSERTED:
+          callback.onInserted(position, value);
+          break;
+        case REMOVED:
+          callback.onRemoved(position, value);
+          break;
+        case MOVED:
+          callback.onMoved(position, value);
+          break;
+        case CHANGED:
+          callback.onChanged(position, value, null);
+          break;
+      }
+    }
+  }
+
+  /**
+   * @return whether both handlers dispatch the same event to equivalent sections, with equal
+   *     params, and so answer the same. The props the answer depends on are those of the section.
+   */
+  private static boolean isEquivalent(@Nullable EventHandler a, @Nullable EventHandler b) {
+    if (a == b) {
+      return true;
+    }
+
+    if (a == null || b == null || a.id != b.id || !areParamsEquivalent(a.params, b.params)) {
+      return false;
+    }
+
+    final HasEventDispatcher dispatcher = a.mHasEventDispatcher;
+    final HasEventDispatcher otherDispatcher = b.mHasEventDispatcher;
+    if (dispatcher == otherDispatcher) {
+      return true;
+    }
+
+    return dispatcher instanceof Section
+        && otherDispatcher instanceof Section
+        && ((Section) dispatcher).isEquivalentTo((Section) otherDispatcher);
+  }
+
+  /**
+   * @return whether the params are equal, except for the contexts that generated event handlers
+   *     pass first: they are scoped to the dispatching sections, which are compared separately.
+   */
+  private static boolean areParamsEquivalent(@Nullable Object[] params, @Nullable Object[] other) {
+    if (params == null || other == null) {
+      return params == other;
+    }
+
+    if (params.length != other.length) {
+      return false;
+    }
+
+    for (int i = 0; i < params.length; i++) {
+      final Object param = params[i];
+      final Object otherParam = other[i];
+      if (param instanceof ComponentContext && otherParam instanceof ComponentContext) {
+        continue;
+      }
+
+      if (param == null ? otherParam != null : !param.equals(otherParam)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private void record(int type, int position, int value) {
+    if (mUpdatesSize + UPDATE_SIZE > mUpdates.length) {
+      mUpdates = Arrays.copyOf(mUpdates, mUpdates.length * 2);
+    }
+
+    mUpdates[mUpdatesSize++] = type;
+    mUpdates[mUpdatesSize++] = position;
+    mUpdates[mUpdatesSize++] = value;
+  }
+}
@@ -38,4 +38,32 @@ public class SectionsConfiguration {
 
   /** Whether inserts/updates/removes should be async. */
   public static boolean asyncMutations = false;
+
+  /**
+   * If true, a GroupSection that is equivalent to its previous version and has no pending state
+   * updates in its subtree takes over the children of its previous version instead of creating
+   * them again.
+   */
+  public static boolean reuseUnchangedSubtrees = false;
+
+  /**
+   * If true, the ChangeSets of sibling sections are generated in parallel on a pool of worker
+   * threads and then merged in order. The {@link com.facebook.litho.sections.annotations.OnDiff}
+   * methods of DiffSections and the {@link SectionsDebugLogger}s must then be thread safe.
+   */
+  public static boolean parallelChangeSetGeneration = false;
+
+  /**
+   * If true, DataDiffSection skips the items that didn't change at the head and tail of its data
+   * and matches the remaining ones by their GetUniqueIdentifierEvent identifiers, only falling back
+   * to DiffUtil when identifiers are not available.
+   */
+  public static boolean useKeyedDataDiff = false;
+
+  /**
+   * If true, DataDiffSection caches its diffs in the SectionTree by its global key and the identity
+   * of the previous and next data, so that a changeset calculation that is restarted, e.g. because
+   * of a state update, doesn't diff the same data again with the same configuration.
+   */
+  public static boolean cacheDataDiffResults = false;
 }
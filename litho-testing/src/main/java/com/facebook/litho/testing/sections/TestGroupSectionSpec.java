@@ -20,6 +20,7 @@ import com.facebook.litho.sections.SectionContext;
 import com.facebook.litho.sections.annotations.GroupSectionSpec;
 import com.facebook.litho.sections.annotations.OnCreateChildren;
 import com.facebook.litho.sections.common.DataDiffSection;
+import com.facebook.litho.sections.common.GetUniqueIdentifierEvent;
 import com.facebook.litho.sections.common.OnCheckIsSameContentEvent;
 import com.facebook.litho.sections.common.OnCheckIsSameItemEvent;
 import com.facebook.litho.sections.common.RenderEvent;
@@ -42,7 +43,8 @@ public class TestGroupSectionSpec {
       @Prop(optional = true) Comparator isSameItemComparator,
       @Prop(optional = true) Comparator isSameContentComparator,
       @Prop(optional = true) boolean trimHeadAndTail,
-      @Prop(optional = true) boolean trimSameInstancesOnly) {
+      @Prop(optional = true) boolean trimSameInstancesOnly,
+      @Prop(optional = true) boolean useModelsAsIdentifiers) {
 
     DataDiffSection.Builder builder =
         DataDiffSection.create(c)
@@ -59,6 +61,10 @@ public class TestGroupSectionSpec {
       builder.onCheckIsSameContentEventHandler(TestGroupSection.onCheckIsSameContent(c));
     }
 
+    if (useModelsAsIdentifiers) {
+      builder.getUniqueIdentifierEventHandler(TestGroupSection.onGetUniqueIdentifier(c));
+    }
+
     return Children.create().child(builder.build()).build();
   }
 
@@ -89,4 +95,9 @@ public class TestGroupSectionSpec {
       @Prop(optional = true) Comparator isSameContentComparator) {
     return isSameContentComparator.compare(previousItem, nextItem) == 0;
   }
+
+  @OnEvent(GetUniqueIdentifierEvent.class)
+  protected static Object onGetUniqueIdentifier(SectionContext c, @FromEvent Object model) {
+    return model;
+  }
 }
@@ -15,6 +15,7 @@ import com.facebook.litho.ComponentContext;
 import com.facebook.litho.ComponentTree;
 import com.facebook.litho.ComponentTree.MeasureListener;
 import com.facebook.litho.LayoutHandler;
+import com.facebook.litho.PriorityLayoutHandler;
 import com.facebook.litho.Size;
 import com.facebook.litho.StateHandler;
 import javax.annotation.Nullable;
@@ -55,6 +56,9 @@ public class ComponentTreeHolder {
   @GuardedBy("this")
   private int mLastRequestedHeightSpec = UNINITIALIZED;
 
+  @GuardedBy("this")
+  private int mLayoutPriority = PriorityLayoutHandler.PRIORITY_DEFAULT;
+
   private boolean mIsTreeValid;
   private LayoutHandler mLayoutHandler;
   private boolean mCanPrefetchDisplayLists;
@@ -231,6 +235,17 @@ public class ComponentTreeHolder {
     }
   }
 
+  /**
+   * Sets the priority of the async layouts of this holder's ComponentTree, see {@link
+   * ComponentTree#setLayoutPriority(int)}.
+   */
+  public synchronized void setLayoutPriority(int priority) {
+    mLayoutPriority = priority;
+    if (mComponentTree != null) {
+      mComponentTree.setLayoutPriority(priority);
+    }
+  }
+
   public synchronized RenderInfo getRenderInfo() {
     return mRenderInfo;
   }
@@ -277,6 +292,7 @@ public class ComponentTreeHolder {
     mPendingNewLayoutListener = null;
     mLastRequestedWidthSpec = UNINITIALIZED;
     mLastRequestedHeightSpec = UNINITIALIZED;
+    mLayoutPriority = PriorityLayoutHandler.PRIORITY_DEFAULT;
   }
 
   @GuardedBy("this")
@@ -299,6 +315,7 @@ public class ComponentTreeHolder {
                       ? null
                       : mComponentTreeMeasureListenerFactory.create(this))
               .build();
+      mComponentTree.setLayoutPriority(mLayoutPriority);
       if (mPendingNewLayoutListener != null) {
         mComponentTree.setNewLayoutStateReadyListener(mPendingNewLayoutListener);
       }
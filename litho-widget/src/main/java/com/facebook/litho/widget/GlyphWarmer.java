@@ -14,14 +14,24 @@ import static android.os.Process.THREAD_PRIORITY_LOWEST;
 
 import android.graphics.Canvas;
 import android.graphics.Picture;
+import android.graphics.Typeface;
+import android.os.Build;
 import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Looper;
 import android.os.Message;
 import android.support.annotation.VisibleForTesting;
 import android.text.Layout;
+import android.text.TextPaint;
 import com.facebook.fbui.textlayoutbuilder.util.LayoutMeasureUtil;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 
 /**
  * A class that schedules a background draw of a {@link Layout}. Drawing a {@link Layout} in the
@@ -29,6 +39,13 @@ import java.lang.ref.WeakReference;
  * {@link Layout} on a real {@link Canvas}. This will substantially reduce drawing times for big
  * chunks of text. On the other hand over-using text warming might rotate the glyphs cache too
  * quickly and diminish the optimization.
+ *
+ * <p>Scheduled layouts are queued and drawn in batches. A layout whose glyphs are already queued,
+ * i.e. with the same text and the same paint attributes affecting glyphs, is dropped, unless the
+ * queued one was garbage collected in the meantime. So is the oldest queued layout when
+ * the queue is full, as it most likely belongs to an item that was scrolled away, and a layout that
+ * was garbage collected before its turn, e.g. because its item left the range of a
+ * {@link RecyclerBinder}.
  */
 public class GlyphWarmer {
 
@@ -37,9 +54,25 @@ public class GlyphWarmer {
   private static final int WARMER_THREAD_PRIORITY =
       (THREAD_PRIORITY_BACKGROUND + THREAD_PRIORITY_LOWEST) / 2;
 
+  /** The most layouts that wait to be drawn. */
+  @VisibleForTesting static final int MAX_PENDING_LAYOUTS = 64;
+
+  /** The most layouts drawn in one message of the warmer thread. */
+  @VisibleForTesting static final int BATCH_SIZE = 8;
+
+  private static final AtomicLong sWarmedLayoutCount = new AtomicLong();
+  private static final AtomicLong sDroppedLayoutCount = new AtomicLong();
+
   private static GlyphWarmer sInstance;
   private final WarmerHandler mHandler;
 
+  @GuardedBy("this")
+  private final LinkedHashMap<Object, WeakReference<Layout>> mPendingLayouts =
+      new LinkedHashMap<>();
+
+  @GuardedBy("this")
+  private boolean mIsBatchScheduled;
+
   /**
    * @return the global {@link GlyphWarmer} instance.
    */
@@ -56,7 +89,7 @@ public class GlyphWarmer {
     HandlerThread handlerThread = new HandlerThread(TAG, WARMER_THREAD_PRIORITY);
     handlerThread.start();
 
-    mHandler = new WarmerHandler(handlerThread.getLooper());
+    mHandler = new WarmerHandler(handlerThread.getLooper(), this);
   }
 
   @VisibleForTesting
@@ -69,17 +102,178 @@ public class GlyphWarmer {
    * that {@link Layout}.
    */
   public void warmLayout(Layout layout) {
-    mHandler.obtainMessage(WarmerHandler.WARM_LAYOUT, new WeakReference<>(layout)).sendToTarget();
+    final Object key = createKey(layout);
+
+    synchronized (this) {
+      final WeakReference<Layout> pending = mPendingLayouts.get(key);
+      if (pending != null) {
+        sDroppedLayoutCount.incrementAndGet();
+        if (pending.get() == null) {
+          // The queued layout was garbage collected: this one takes its place in the queue.
+          mPendingLayouts.put(key, new WeakReference<>(layout));
+        }
+        return;
+      }
+
+      if (mPendingLayouts.size() >= MAX_PENDING_LAYOUTS) {
+        final Iterator<Object> oldest = mPendingLayouts.keySet().iterator();
+        oldest.next();
+        oldest.remove();
+        sDroppedLayoutCount.incrementAndGet();
+      }
+
+      mPendingLayouts.put(key, new WeakReference<>(layout));
+
+      if (!mIsBatchScheduled) {
+        mIsBatchScheduled = true;
+        mHandler.sendEmptyMessage(WarmerHandler.WARM_BATCH);
+      }
+    }
+  }
+
+  /** @return the number of layouts that were drawn in the background. */
+  public static long getWarmedLayoutCount() {
+    return sWarmedLayoutCount.get();
+  }
+
+  /**
+   * @return the number of layouts that were dropped without being drawn, as duplicates, because
+   *     the queue was full, or because they were garbage collected first.
+   */
+  public static long getDroppedLayoutCount() {
+    return sDroppedLayoutCount.get();
+  }
+
+  @VisibleForTesting
+  synchronized void reset() {
+    mHandler.removeMessages(WarmerHandler.WARM_BATCH);
+    mPendingLayouts.clear();
+    mIsBatchScheduled = false;
+    sWarmedLayoutCount.set(0);
+    sDroppedLayoutCount.set(0);
+  }
+
+  /**
+   * Takes the next batch of queued layouts to draw, and schedules the batch after it if there are
+   * more.
+   */
+  private List<Layout> takeBatch() {
+    final List<Layout> batch = new ArrayList<>(BATCH_SIZE);
+
+    synchronized (this) {
+      final Iterator<WeakReference<Layout>> pending = mPendingLayouts.values().iterator();
+      while (batch.size() < BATCH_SIZE && pending.hasNext()) {
+        final Layout layout = pending.next().get();
+        pending.remove();
+
+        if (layout == null) {
+          sDroppedLayoutCount.incrementAndGet();
+        } else {
+          batch.add(layout);
+        }
+      }
+
+      // Other messages of the warmer thread get to run between two batches.
+      mIsBatchScheduled = !mPendingLayouts.isEmpty();
+      if (mIsBatchScheduled) {
+        mHandler.sendEmptyMessage(WarmerHandler.WARM_BATCH);
+      }
+    }
+
+    return batch;
+  }
+
+  /**
+   * @return the key under which layout is queued: the layouts drawing the same text with the same
+   *     typeface, size and other glyph-affecting paint attributes draw the same glyphs.
+   */
+  private static Object createKey(Layout layout) {
+    final TextPaint paint = layout.getPaint();
+    final CharSequence text = layout.getText();
+    if (paint == null || text == null) {
+      // Nothing to compare it with, so it's only a duplicate of itself.
+      return layout;
+    }
+
+    return new GlyphsKey(
+        paint.getTypeface(),
+        paint.getTextSize(),
+        paint.isFakeBoldText(),
+        paint.getTextSkewX(),
+        paint.getTextScaleX(),
+        Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP ? paint.getLetterSpacing() : 0,
+        text.toString());
+  }
+
+  private static final class GlyphsKey {
+    @Nullable private final Typeface mTypeface;
+    private final float mTextSize;
+    private final boolean mIsFakeBold;
+    private final float mTextSkewX;
+    private final float mTextScaleX;
+    private final float mLetterSpacing;
+    private final String mText;
+
+    private GlyphsKey(
+        @Nullable Typeface typeface,
+        float textSize,
+        boolean isFakeBold,
+        float textSkewX,
+        float textScaleX,
+        float letterSpacing,
+        String text) {
+      mTypeface = typeface;
+      mTextSize = textSize;
+      mIsFakeBold = isFakeBold;
+      mTextSkewX = textSkewX;
+      mTextScaleX = textScaleX;
+      mLetterSpacing = letterSpacing;
+      mText = text;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = mTypeface == null ? 0 : mTypeface.hashCode();
+      result = 31 * result + Float.floatToIntBits(mTextSize);
+      result = 31 * result + (mIsFakeBold ? 1 : 0);
+      result = 31 * result + Float.floatToIntBits(mTextSkewX);
+      result = 31 * result + Float.floatToIntBits(mTextScaleX);
+      result = 31 * result + Float.floatToIntBits(mLetterSpacing);
+      result = 31 * result + mText.hashCode();
+      return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+
+      final GlyphsKey other = (GlyphsKey) o;
+      return Float.compare(mTextSize, other.mTextSize) == 0
+          && mIsFakeBold == other.mIsFakeBold
+          && Float.compare(mTextSkewX, other.mTextSkewX) == 0
+          && Float.compare(mTextScaleX, other.mTextScaleX) == 0
+          && Float.compare(mLetterSpacing, other.mLetterSpacing) == 0
+          && (mTypeface == null ? other.mTypeface == null : mTypeface.equals(other.mTypeface))
+          && mText.equals(other.mText);
+    }
   }
 
   private static final class WarmerHandler extends Handler {
-    public static final int WARM_LAYOUT = 0;
+    public static final int WARM_BATCH = 0;
 
+    private final GlyphWarmer mGlyphWarmer;
     private final Picture mPicture;
 
-    private WarmerHandler(Looper looper) {
+    private WarmerHandler(Looper looper, GlyphWarmer glyphWarmer) {
       super(looper);
 
+      mGlyphWarmer = glyphWarmer;
+
       Picture picture;
       try {
         picture = new Picture();
@@ -92,25 +286,24 @@ public class GlyphWarmer {
 
     @Override
     public void handleMessage(Message msg) {
+      final List<Layout> batch = mGlyphWarmer.takeBatch();
       if (mPicture == null) {
         return;
       }
 
-      try {
-        final Layout layout = ((WeakReference<Layout>) msg.obj).get();
+      for (int i = 0, size = batch.size(); i < size; i++) {
+        try {
+          final Layout layout = batch.get(i);
+          final Canvas canvas = mPicture.beginRecording(
+              layout.getWidth(),
+              LayoutMeasureUtil.getHeight(layout));
 
-        if (layout == null) {
-          return;
+          layout.draw(canvas);
+          mPicture.endRecording();
+          sWarmedLayoutCount.incrementAndGet();
+        } catch (Exception e) {
+          // Nothing to do here. This is a best effort. No real problem if it fails.
         }
-
-        final Canvas canvas = mPicture.beginRecording(
-            layout.getWidth(),
-            LayoutMeasureUtil.getHeight(layout));
-
-        layout.draw(canvas);
-        mPicture.endRecording();
-      } catch (Exception e) {
-        // Nothing to do here. This is a best effort. No real problem if it fails.
       }
     }
   }
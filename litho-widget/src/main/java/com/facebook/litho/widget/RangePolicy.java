@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.widget;
+
+/**
+ * Decides which items a {@link RecyclerBinder} lays out ahead of time (its range) and in which
+ * order, based on the visible items and on how the RecyclerView is being scrolled. A RangePolicy
+ * holds the scroll state of a single RecyclerBinder and must not be shared between binders.
+ *
+ * <p>The scroll callbacks are invoked on the main thread, while the other methods can be invoked
+ * from any thread.
+ */
+public interface RangePolicy {
+
+  /**
+   * Called every time the RecyclerView scrolls.
+   *
+   * @param delta the distance scrolled along the scrolling axis of the RecyclerView, in pixels.
+   *     Positive when scrolling towards the end of the list.
+   */
+  void onScrolled(int delta);
+
+  /**
+   * Called when the scroll state of the RecyclerView changes, see {@link
+   * android.support.v7.widget.RecyclerView#SCROLL_STATE_IDLE} and the other states.
+   */
+  void onScrollStateChanged(int newState);
+
+  /**
+   * Computes the bounds of the range in one go, so that both are based on the same scroll state.
+   *
+   * @param firstVisible the position of the first visible item.
+   * @param rangeSize the estimated number of items needed to fill the viewport.
+   * @param rangeRatio the range ratio the RecyclerBinder was configured with, see {@link
+   *     RecyclerBinder.Builder#rangeRatio(float)}.
+   * @param outRange receives the position of the first item to lay out, possibly negative, at
+   *     index 0 and the position of the last one, possibly past the last item of the list, at
+   *     index 1.
+   */
+  void getRange(int firstVisible, int rangeSize, float rangeRatio, int[] outRange);
+
+  /**
+   * @return the priority of the layout of the item at the given position, see {@link
+   *     com.facebook.litho.PriorityLayoutHandler}. Lower values are laid out first.
+   */
+  int getLayoutPriority(int position, int firstVisible, int lastVisible);
+}
@@ -19,6 +19,7 @@ import static com.facebook.litho.widget.RenderInfoViewCreatorController.DEFAULT_
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.support.annotation.UiThread;
 import android.support.annotation.VisibleForTesting;
 import android.support.v4.view.ViewCompat;
@@ -33,10 +34,12 @@ import com.facebook.litho.Component;
 import com.facebook.litho.ComponentContext;
 import com.facebook.litho.ComponentTree;
 import com.facebook.litho.ComponentTree.MeasureListener;
+import com.facebook.litho.ComponentsSystrace;
 import com.facebook.litho.EventHandler;
 import com.facebook.litho.LayoutHandler;
 import com.facebook.litho.LithoView;
 import com.facebook.litho.MeasureComparisonUtils;
+import com.facebook.litho.PriorityLayoutHandler;
 import com.facebook.litho.Size;
 import com.facebook.litho.SizeSpec;
 import com.facebook.litho.ThreadUtils;
@@ -46,7 +49,9 @@ import com.facebook.litho.viewcompat.ViewBinder;
 import com.facebook.litho.viewcompat.ViewCreator;
 import com.facebook.litho.widget.ComponentTreeHolder.ComponentTreeMeasureListenerFactory;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
@@ -63,6 +68,8 @@ public class RecyclerBinder
   private static final int UNINITIALIZED = -1;
   private static final Size sDummySize = new Size();
   private static final String TAG = RecyclerBinder.class.getSimpleName();
+  // How long a batch of layouts runs before yielding to the other runnables of its handler.
+  private static final long BATCHED_LAYOUT_TIME_SLICE_MS = 8;
 
   @GuardedBy("this")
   private final List<ComponentTreeHolder> mComponentTreeHolders;
@@ -133,6 +140,25 @@ public class RecyclerBinder
   }
 
   private final boolean mIsCircular;
+  private final @Nullable RetainedComponentTreeCache mRetainedTreeCache;
+  private final @Nullable RangePolicy mRangePolicy;
+
+  @GuardedBy("this")
+  private final int[] mRangePolicyOutput = new int[2];
+
+  private final @Nullable LayoutHandler mBatchedLayoutHandler;
+  // The holders in range waiting to be laid out by mBatchedLayoutRunnable.
+  @GuardedBy("this")
+  private final Set<ComponentTreeHolder> mPendingBatchedLayouts = new HashSet<>();
+  @GuardedBy("this")
+  private boolean mIsBatchedLayoutPosted;
+  private final Runnable mBatchedLayoutRunnable =
+      new Runnable() {
+        @Override
+        public void run() {
+          computeBatchedLayouts();
+        }
+      };
   private final boolean mHasDynamicItemHeight;
   private final boolean mInsertPostAsyncLayoutEnabled;
   private int mLastWidthSpec = UNINITIALIZED;
@@ -143,6 +169,14 @@ public class RecyclerBinder
   private int mCurrentLastVisiblePosition = RecyclerView.NO_POSITION;
   private int mCurrentOffset;
   private @Nullable RangeCalculationResult mRange;
+  // The range computed last time. When the holders haven't changed since (see mIsRangeDirty), the
+  // next computation only needs to touch the holders entering or leaving the range.
+  @GuardedBy("this")
+  private int mLastRangeStart;
+  @GuardedBy("this")
+  private int mLastRangeEnd;
+  @GuardedBy("this")
+  private boolean mIsRangeDirty = true;
   private StickyHeaderController mStickyHeaderController;
   private final boolean mCanPrefetchDisplayLists;
   private final boolean mCanCacheDrawingDisplayLists;
@@ -233,6 +267,9 @@ public class RecyclerBinder
     private boolean customViewTypeEnabled;
     private int componentViewType;
     private @Nullable RecyclerView.Adapter overrideInternalAdapter;
+    private int retainedTreeCacheSize;
+    private @Nullable RangePolicy rangePolicy;
+    private @Nullable LayoutHandler batchedLayoutHandler;
 
     /**
      * @param rangeRatio specifies how big a range this binder should try to compute. The range is
@@ -349,6 +386,41 @@ public class RecyclerBinder
       return this;
     }
 
+    /**
+     * @param retainedTreeCacheSize how many of the items that most recently went out of range keep
+     *     their {@link ComponentTree} and layout, so that scrolling back to them doesn't require
+     *     computing their layouts again. These are released when the system runs low on memory.
+     *     Defaults to 0, meaning that items release their ComponentTree as soon as they go out of
+     *     range.
+     */
+    public Builder retainedTreeCacheSize(int retainedTreeCacheSize) {
+      this.retainedTreeCacheSize = retainedTreeCacheSize;
+      return this;
+    }
+
+    /**
+     * @param rangePolicy decides which items are laid out ahead of time depending on how the
+     *     RecyclerView is scrolled, e.g. a {@link VelocityAwareRangePolicy}. Must not be shared
+     *     with other binders. If not set, the range extends {@code rangeRatio} times the viewport
+     *     on both sides of it.
+     */
+    public Builder rangePolicy(RangePolicy rangePolicy) {
+      this.rangePolicy = rangePolicy;
+      return this;
+    }
+
+    /**
+     * @param batchedLayoutHandler if set, the items that enter the range are laid out one after
+     *     the other by a single task posted on this handler, closest to the viewport first, instead
+     *     of posting a task per item on their own layout handler. The task yields every few
+     *     milliseconds so that other runnables posted on the handler can run. Ignored by circular
+     *     binders.
+     */
+    public Builder batchedLayoutHandler(LayoutHandler batchedLayoutHandler) {
+      this.batchedLayoutHandler = batchedLayoutHandler;
+      return this;
+    }
+
     /**
      * Method for tests to allow mocking of the InternalAdapter to verify interaction with the
      * RecyclerView.
@@ -395,6 +467,12 @@ public class RecyclerBinder
                 : DEFAULT_COMPONENT_VIEW_TYPE);
 
     mIsCircular = builder.isCircular;
+    mRangePolicy = builder.rangePolicy;
+    mBatchedLayoutHandler = builder.isCircular ? null : builder.batchedLayoutHandler;
+    mRetainedTreeCache =
+        builder.retainedTreeCacheSize > 0
+            ? new RetainedComponentTreeCache(mComponentContext, builder.retainedTreeCacheSize)
+            : null;
     mHasDynamicItemHeight =
         mLayoutInfo.getScrollDirection() == HORIZONTAL ? builder.hasDynamicItemHeight : false;
     mInsertPostAsyncLayoutEnabled = builder.insertPostAsyncLayoutEnabled;
@@ -536,6 +614,7 @@ public class RecyclerBinder
     final ComponentTreeHolder holder = createComponentTreeHolder(renderInfo);
     synchronized (this) {
       mComponentTreeHolders.add(position, holder);
+      mIsRangeDirty = true;
       mRenderInfoViewCreatorController.maybeTrackViewCreator(renderInfo);
       maybeInitRangeOrRemeasureForMutation(position, holder);
     }
@@ -605,6 +684,7 @@ public class RecyclerBinder
         final ComponentTreeHolder holder = createComponentTreeHolder(renderInfo);
 
         mComponentTreeHolders.add(position + i, holder);
+        mIsRangeDirty = true;
         mRenderInfoViewCreatorController.maybeTrackViewCreator(renderInfo);
         maybeInitRangeOrRemeasureForMutation(position + i, holder);
       }
@@ -644,6 +724,7 @@ public class RecyclerBinder
 
       mRenderInfoViewCreatorController.maybeTrackViewCreator(renderInfo);
       holder.setRenderInfo(renderInfo);
+      mIsRangeDirty = true;
 
       // Range might not have been initialized if all previous items were views and we update
       // one of them to be a component.
@@ -683,6 +764,7 @@ public class RecyclerBinder
 
         mRenderInfoViewCreatorController.maybeTrackViewCreator(newRenderInfo);
         holder.setRenderInfo(newRenderInfo);
+        mIsRangeDirty = true;
         maybeInitRangeOrRemeasureForMutation(position + i, holder);
       }
     }
@@ -707,6 +789,7 @@ public class RecyclerBinder
     synchronized (this) {
       holder = mComponentTreeHolders.remove(fromPosition);
       mComponentTreeHolders.add(toPosition, holder);
+      mIsRangeDirty = true;
 
       isNewPositionInRange = mRangeSize > 0 &&
           toPosition >= mCurrentFirstVisiblePosition - (mRangeSize * mRangeRatio) &&
@@ -715,7 +798,7 @@ public class RecyclerBinder
     final boolean isTreeValid = holder.isTreeValid();
 
     if (isTreeValid && !isNewPositionInRange) {
-      holder.acquireStateHandlerAndReleaseTree();
+      releaseTreeOutOfRange(holder);
     }
     mInternalAdapter.notifyItemMoved(fromPosition, toPosition);
 
@@ -737,9 +820,14 @@ public class RecyclerBinder
     final ComponentTreeHolder holder;
     synchronized (this) {
       holder = mComponentTreeHolders.remove(position);
+      mPendingBatchedLayouts.remove(holder);
+      mIsRangeDirty = true;
     }
     mInternalAdapter.notifyItemRemoved(position);
 
+    if (mRetainedTreeCache != null) {
+      mRetainedTreeCache.remove(holder);
+    }
     holder.release();
 
     maybePostComputeRange();
@@ -759,8 +847,13 @@ public class RecyclerBinder
     synchronized (this) {
       for (int i = 0; i < count; i++) {
         final ComponentTreeHolder holder = mComponentTreeHolders.remove(position);
+        mPendingBatchedLayouts.remove(holder);
+        if (mRetainedTreeCache != null) {
+          mRetainedTreeCache.remove(holder);
+        }
         holder.release();
       }
+      mIsRangeDirty = true;
     }
     mInternalAdapter.notifyItemRangeRemoved(position, count);
 
@@ -964,6 +1057,8 @@ public class RecyclerBinder
 
     mMeasuredSize = new Size(outSize.width, outSize.height);
     mIsMeasured.set(true);
+    // The children specs may have changed.
+    mIsRangeDirty = true;
 
     if (mRange != null) {
       computeRange(mCurrentFirstVisiblePosition, mCurrentLastVisiblePosition);
@@ -1018,6 +1113,11 @@ public class RecyclerBinder
   @GuardedBy("this")
   private void invalidateLayoutData() {
     mRange = null;
+    mIsRangeDirty = true;
+    if (mRetainedTreeCache != null) {
+      // The retained layouts were computed with the old size specs.
+      mRetainedTreeCache.clear();
+    }
     for (int i = 0, size = mComponentTreeHolders.size(); i < size; i++) {
       mComponentTreeHolders.get(i).invalidateTree();
     }
@@ -1139,7 +1239,6 @@ public class RecyclerBinder
     view.setLayoutManager(layoutManager);
     view.setAdapter(mInternalAdapter);
     view.addOnScrollListener(mRangeScrollListener);
-    view.addOnScrollListener(mViewportManager.getScrollListener());
 
     mLayoutInfo.setRenderInfoCollection(this);
 
@@ -1210,7 +1309,6 @@ public class RecyclerBinder
     }
 
     view.removeOnScrollListener(mRangeScrollListener);
-    view.removeOnScrollListener(mViewportManager.getScrollListener());
     view.setAdapter(null);
     view.setLayoutManager(null);
 
@@ -1346,6 +1444,9 @@ public class RecyclerBinder
     final int rangeStart;
     final int rangeEnd;
     final int treeHoldersSize;
+    final boolean isRangeDirty;
+    final int lastRangeStart;
+    final int lastRangeEnd;
 
     synchronized (this) {
       if (!mIsMeasured.get() || mRange == null) {
@@ -1356,18 +1457,87 @@ public class RecyclerBinder
         firstVisible = lastVisible = 0;
       }
       rangeSize = Math.max(mRange.estimatedViewportCount, lastVisible - firstVisible);
-      rangeStart = firstVisible - (int) (rangeSize * mRangeRatio);
-      rangeEnd = firstVisible + rangeSize + (int) (rangeSize * mRangeRatio);
+      if (mRangePolicy != null) {
+        mRangePolicy.getRange(firstVisible, rangeSize, mRangeRatio, mRangePolicyOutput);
+        rangeStart = mRangePolicyOutput[0];
+        rangeEnd = mRangePolicyOutput[1];
+      } else {
+        rangeStart = firstVisible - (int) (rangeSize * mRangeRatio);
+        rangeEnd = firstVisible + rangeSize + (int) (rangeSize * mRangeRatio);
+      }
       treeHoldersSize = mComponentTreeHolders.size();
-    }
 
-    computeRangeLayout(treeHoldersSize, rangeStart, rangeEnd, mIsCircular);
+      // Circular lists lay out every item, so there's nothing to gain from tracking the range.
+      isRangeDirty = mIsRangeDirty || mIsCircular;
+      lastRangeStart = mLastRangeStart;
+      lastRangeEnd = mLastRangeEnd;
+      mIsRangeDirty = false;
+      mLastRangeStart = rangeStart;
+      mLastRangeEnd = rangeEnd;
+    }
+
+    if (isRangeDirty) {
+      computeRangeLayout(
+          0,
+          treeHoldersSize,
+          treeHoldersSize,
+          rangeStart,
+          rangeEnd,
+          firstVisible,
+          lastVisible,
+          mIsCircular);
+    } else {
+      // Lay out the new range first, so that the holders coming back in range are taken out of the
+      // retained tree cache before the ones leaving the range are put in it.
+      computeRangeLayout(
+          rangeStart,
+          rangeEnd + 1,
+          treeHoldersSize,
+          rangeStart,
+          rangeEnd,
+          firstVisible,
+          lastVisible,
+          false);
+      if (lastRangeStart < rangeStart) {
+        computeRangeLayout(
+            lastRangeStart,
+            Math.min(lastRangeEnd + 1, rangeStart),
+            treeHoldersSize,
+            rangeStart,
+            rangeEnd,
+            firstVisible,
+            lastVisible,
+            false);
+      }
+      if (lastRangeEnd > rangeEnd) {
+        computeRangeLayout(
+            Math.max(lastRangeStart, rangeEnd + 1),
+            lastRangeEnd + 1,
+            treeHoldersSize,
+            rangeStart,
+            rangeEnd,
+            firstVisible,
+            lastVisible,
+            false);
+      }
+    }
   }
 
+  /**
+   * Lays out or releases the holders in [from, to), depending on whether they fall within [{@code
+   * rangeStart}, {@code rangeEnd}]. Holders outside of [from, to) are expected to already be in
+   * the right state.
+   */
   private void computeRangeLayout(
-      int treeHoldersSize, int rangeStart, int rangeEnd, boolean ignoreRange) {
-    // TODO 16212153 optimize computeRange loop.
-    for (int i = 0; i < treeHoldersSize; i++) {
+      int from,
+      int to,
+      int treeHoldersSize,
+      int rangeStart,
+      int rangeEnd,
+      int firstVisible,
+      int lastVisible,
+      boolean ignoreRange) {
+    for (int i = Math.max(from, 0), end = Math.min(to, treeHoldersSize); i < end; i++) {
       final ComponentTreeHolder holder;
       final int childrenWidthSpec, childrenHeightSpec;
 
@@ -1375,6 +1545,7 @@ public class RecyclerBinder
         // Someone modified the ComponentsTreeHolders while we were computing this range. We
         // can just bail as another range will be computed.
         if (treeHoldersSize != mComponentTreeHolders.size()) {
+          mIsRangeDirty = true;
           return;
         }
 
@@ -1388,22 +1559,178 @@ public class RecyclerBinder
         childrenHeightSpec = getActualChildrenHeightSpec(holder);
       }
 
+      // With a PriorityLayoutHandler, items closer to the viewport are laid out first. Layouts that
+      // are already pending get reprioritized as the viewport moves.
+      holder.setLayoutPriority(
+          mRangePolicy != null
+              ? mRangePolicy.getLayoutPriority(i, firstVisible, lastVisible)
+              : PriorityLayoutHandler.PRIORITY_DEFAULT
+                  + getDistanceFromViewport(i, firstVisible, lastVisible));
+
       if (ignoreRange) {
         if (!holder.isTreeValid()) {
           holder.computeLayoutAsync(mComponentContext, childrenWidthSpec, childrenHeightSpec);
         }
       } else {
         if (i >= rangeStart && i <= rangeEnd) {
+          if (mRetainedTreeCache != null) {
+            mRetainedTreeCache.remove(holder);
+          }
           if (!holder.isTreeValid()) {
-            holder.computeLayoutAsync(mComponentContext, childrenWidthSpec, childrenHeightSpec);
+            if (mBatchedLayoutHandler != null) {
+              addPendingBatchedLayout(holder);
+            } else {
+              holder.computeLayoutAsync(mComponentContext, childrenWidthSpec, childrenHeightSpec);
+            }
           }
         } else if (holder.isTreeValid() && !holder.getRenderInfo().isSticky()) {
-          holder.acquireStateHandlerAndReleaseTree();
+          releaseTreeOutOfRange(holder);
+        }
+      }
+    }
+  }
+
+  private void addPendingBatchedLayout(ComponentTreeHolder holder) {
+    synchronized (this) {
+      mPendingBatchedLayouts.add(holder);
+      if (mIsBatchedLayoutPosted) {
+        return;
+      }
+      mIsBatchedLayoutPosted = true;
+    }
+
+    mBatchedLayoutHandler.post(mBatchedLayoutRunnable);
+  }
+
+  /**
+   * Lays out the pending holders, closest to the viewport first, until there are none left or the
+   * time slice is over, in which case the rest of the batch is posted again. Since the next holder
+   * is picked according to the current range, holders requested while the batch runs are picked up
+   * by the same batch and holders that went out of range are skipped.
+   */
+  private void computeBatchedLayouts() {
+    ComponentsSystrace.beginSection("computeBatchedLayouts");
+    try {
+      final long deadline = SystemClock.uptimeMillis() + BATCHED_LAYOUT_TIME_SLICE_MS;
+
+      while (true) {
+        final ComponentTreeHolder holder;
+        final int childrenWidthSpec;
+        final int childrenHeightSpec;
+
+        synchronized (this) {
+          holder = pollNextBatchedLayout();
+          if (holder == null) {
+            mIsBatchedLayoutPosted = false;
+            return;
+          }
+
+          childrenWidthSpec = getActualChildrenWidthSpec(holder);
+          childrenHeightSpec = getActualChildrenHeightSpec(holder);
+        }
+
+        holder.computeLayoutSync(mComponentContext, childrenWidthSpec, childrenHeightSpec, null);
+
+        if (SystemClock.uptimeMillis() >= deadline) {
+          synchronized (this) {
+            if (mPendingBatchedLayouts.isEmpty()) {
+              mIsBatchedLayoutPosted = false;
+              return;
+            }
+          }
+
+          // Yield, so that other layouts posted on the same handler don't wait for the whole batch.
+          mBatchedLayoutHandler.post(mBatchedLayoutRunnable);
+          return;
         }
       }
+    } finally {
+      ComponentsSystrace.endSection();
     }
   }
 
+  /**
+   * @return the pending holder within the current range that is closest to the viewport, or null
+   *     if there is none, in which case the holders that are still pending are out of range and are
+   *     dropped.
+   */
+  @GuardedBy("this")
+  private @Nullable ComponentTreeHolder pollNextBatchedLayout() {
+    if (mPendingBatchedLayouts.isEmpty()) {
+      return null;
+    }
+
+    final int rangeStart = Math.max(mLastRangeStart, 0);
+    final int rangeEnd = Math.min(mLastRangeEnd, mComponentTreeHolders.size() - 1);
+    final int firstVisible = Math.max(mCurrentFirstVisiblePosition, 0);
+    final int lastVisible = Math.max(mCurrentLastVisiblePosition, firstVisible);
+
+    for (int i = Math.max(firstVisible, rangeStart); i <= Math.min(lastVisible, rangeEnd); i++) {
+      final ComponentTreeHolder holder = takePendingBatchedLayout(i);
+      if (holder != null) {
+        return holder;
+      }
+    }
+
+    for (int distance = 1;
+        lastVisible + distance <= rangeEnd || firstVisible - distance >= rangeStart;
+        distance++) {
+      if (lastVisible + distance <= rangeEnd && lastVisible + distance >= rangeStart) {
+        final ComponentTreeHolder holder = takePendingBatchedLayout(lastVisible + distance);
+        if (holder != null) {
+          return holder;
+        }
+      }
+
+      if (firstVisible - distance >= rangeStart && firstVisible - distance <= rangeEnd) {
+        final ComponentTreeHolder holder = takePendingBatchedLayout(firstVisible - distance);
+        if (holder != null) {
+          return holder;
+        }
+      }
+    }
+
+    mPendingBatchedLayouts.clear();
+    return null;
+  }
+
+  @GuardedBy("this")
+  private @Nullable ComponentTreeHolder takePendingBatchedLayout(int position) {
+    final ComponentTreeHolder holder = mComponentTreeHolders.get(position);
+    if (mPendingBatchedLayouts.remove(holder) && !holder.isTreeValid()) {
+      return holder;
+    }
+
+    return null;
+  }
+
+  /**
+   * Releases the tree of a holder that went out of range, unless it can be retained so that it
+   * doesn't need to be laid out again if it comes back in range.
+   */
+  private void releaseTreeOutOfRange(ComponentTreeHolder holder) {
+    if (mRetainedTreeCache != null) {
+      mRetainedTreeCache.retain(holder);
+    } else {
+      holder.acquireStateHandlerAndReleaseTree();
+    }
+  }
+
+  @VisibleForTesting
+  @Nullable
+  RetainedComponentTreeCache getRetainedTreeCache() {
+    return mRetainedTreeCache;
+  }
+
+  private static int getDistanceFromViewport(int position, int firstVisible, int lastVisible) {
+    if (position < firstVisible) {
+      return firstVisible - position;
+    } else if (position > lastVisible) {
+      return position - lastVisible;
+    }
+    return 0;
+  }
+
   @VisibleForTesting
   @Nullable
   RangeCalculationResult getRangeCalculationResult() {
@@ -1443,6 +1770,26 @@ public class RecyclerBinder
       if (mCanPrefetchDisplayLists) {
         DisplayListUtils.prefetchDisplayLists(recyclerView);
       }
+
+      if (mRangePolicy != null) {
+        mRangePolicy.onScrolled(mLayoutInfo.getScrollDirection() == HORIZONTAL ? dx : dy);
+      }
+
+      // Forwarded from here rather than registered on the RecyclerView, so that the policy always
+      // knows about this scroll before the range of the new viewport is computed.
+      mViewportManager.getScrollListener().onScrolled(recyclerView, dx, dy);
+    }
+
+    @Override
+    public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+      if (mRangePolicy != null) {
+        mRangePolicy.onScrollStateChanged(newState);
+
+        if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+          // The range may have been shifted or grown while scrolling.
+          maybePostComputeRange();
+        }
+      }
     }
   }
 
@@ -1500,6 +1847,12 @@ public class RecyclerBinder
         if (!componentTreeHolder.isTreeValid()) {
           componentTreeHolder.computeLayoutSync(
               mComponentContext, childrenWidthSpec, childrenHeightSpec, null);
+          synchronized (RecyclerBinder.this) {
+            if (position < mLastRangeStart || position > mLastRangeEnd) {
+              // Make sure the next range computation releases this tree if it stays out of range.
+              mIsRangeDirty = true;
+            }
+          }
         }
         final boolean isOrientationVertical =
             mLayoutInfo.getScrollDirection() == OrientationHelper.VERTICAL;
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.widget;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.os.Build;
+import com.facebook.litho.TrimMemoryCallback;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Keeps the {@link com.facebook.litho.ComponentTree}s, and the layouts they hold, of the most
+ * recent {@link ComponentTreeHolder}s that went out of a {@link RecyclerBinder}'s range, so that
+ * scrolling back to them doesn't need to compute their layouts again. A holder's tree is only
+ * released once more than {@code maxSize} holders are retained, least recently retained first.
+ *
+ * <p>A retained tree is only reused as long as the holder still considers it valid, i.e. neither
+ * its {@link RenderInfo} nor the size specs of the binder changed in the meantime. All retained
+ * trees are released when the system starts running low on memory.
+ */
+@ThreadSafe
+class RetainedComponentTreeCache {
+
+  private static final Object sTrimMemoryLock = new Object();
+
+  @GuardedBy("sTrimMemoryLock")
+  private static final Set<RetainedComponentTreeCache> sCaches =
+      Collections.newSetFromMap(new WeakHashMap<RetainedComponentTreeCache, Boolean>());
+
+  @GuardedBy("sTrimMemoryLock")
+  private static ComponentCallbacks2 sTrimMemoryCallbacks;
+
+  private final int mMaxSize;
+
+  // Iterates from the least to the most recently retained holder.
+  @GuardedBy("this")
+  private final LinkedHashSet<ComponentTreeHolder> mHolders = new LinkedHashSet<>();
+
+  RetainedComponentTreeCache(Context context, int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("The cache must be able to retain at least one tree");
+    }
+
+    mMaxSize = maxSize;
+
+    synchronized (sTrimMemoryLock) {
+      sCaches.add(this);
+
+      if (sTrimMemoryCallbacks == null
+          && Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+        sTrimMemoryCallbacks = createTrimMemoryCallback();
+        context.getApplicationContext().registerComponentCallbacks(sTrimMemoryCallbacks);
+      }
+    }
+  }
+
+  /**
+   * Retains the tree of a holder that just went out of range instead of releasing it. If this
+   * makes the cache exceed its size, the least recently retained holders release their trees.
+   */
+  synchronized void retain(ComponentTreeHolder holder) {
+    if (!mHolders.add(holder)) {
+      // Already retained: keep the time it went out of range.
+      return;
+    }
+
+    final Iterator<ComponentTreeHolder> iterator = mHolders.iterator();
+    while (mHolders.size() > mMaxSize) {
+      final ComponentTreeHolder eldest = iterator.next();
+      iterator.remove();
+      eldest.acquireStateHandlerAndReleaseTree();
+    }
+  }
+
+  /**
+   * Stops tracking a holder, either because it's back in range and its tree is in use again or
+   * because the holder is being released. Its tree is not released.
+   */
+  synchronized void remove(ComponentTreeHolder holder) {
+    mHolders.remove(holder);
+  }
+
+  /** Releases the trees of all the retained holders. */
+  synchronized void clear() {
+    // Trees are released while holding the lock, so that a holder coming back in range through
+    // remove() never ends up with a tree released under its feet.
+    for (ComponentTreeHolder holder : mHolders) {
+      holder.acquireStateHandlerAndReleaseTree();
+    }
+    mHolders.clear();
+  }
+
+  synchronized int size() {
+    return mHolders.size();
+  }
+
+  /** Releases the retained trees of every cache when the system starts running low on memory. */
+  static void onTrimMemory(int level) {
+    if (level < ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+      return;
+    }
+
+    final List<RetainedComponentTreeCache> caches;
+    synchronized (sTrimMemoryLock) {
+      caches = new ArrayList<>(sCaches);
+    }
+
+    for (int i = 0, size = caches.size(); i < size; i++) {
+      caches.get(i).clear();
+    }
+  }
+
+  // Created from a static context so that the callback doesn't keep the first cache alive.
+  private static TrimMemoryCallback createTrimMemoryCallback() {
+    return new TrimMemoryCallback() {
+      @Override
+      public void onTrimMemory(int level) {
+        RetainedComponentTreeCache.onTrimMemory(level);
+      }
+    };
+  }
+}
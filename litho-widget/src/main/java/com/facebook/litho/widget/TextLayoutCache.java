@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.widget;
+
+import android.content.res.ColorStateList;
+import android.graphics.Typeface;
+import android.support.v4.text.TextDirectionHeuristicCompat;
+import android.support.v4.util.LruCache;
+import android.text.Layout;
+import android.text.Layout.Alignment;
+import android.text.TextUtils.TruncateAt;
+import com.facebook.litho.config.ComponentsConfiguration;
+import com.facebook.yoga.YogaDirection;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A process-wide cache of the text {@link Layout}s built by {@link TextSpec}, so that the Text
+ * components that show the same short text with the same style and width spec, e.g. the labels of
+ * the buttons of every story of a feed, share a layout instead of building one each.
+ *
+ * <p>It is enabled by {@link ComponentsConfiguration#textLayoutCacheSize}. Only plain {@link
+ * String}s of at most {@link #MAX_CACHED_TEXT_LENGTH} characters are cached: the layouts of spanned
+ * texts depend on their spans, and those of long texts are too large to retain. The layouts of
+ * texts with a stateful color aren't cached either, as their drawables change their paint.
+ */
+@ThreadSafe
+public final class TextLayoutCache {
+
+  static final int MAX_CACHED_TEXT_LENGTH = 100;
+
+  private static final Object sLock = new Object();
+
+  @GuardedBy("sLock")
+  @Nullable
+  private static LruCache<Key, Layout> sCache;
+
+  private static final AtomicInteger sReusedMeasureLayoutCount = new AtomicInteger();
+
+  private TextLayoutCache() {}
+
+  /** @return whether the layout of text can be cached, given the current configuration. */
+  static boolean canCache(CharSequence text) {
+    return ComponentsConfiguration.textLayoutCacheSize > 0
+        && text instanceof String
+        && text.length() <= MAX_CACHED_TEXT_LENGTH;
+  }
+
+  /** @return the layout cached for key, or null if there is none. */
+  @Nullable
+  static Layout get(Key key) {
+    return getCache().get(key);
+  }
+
+  static void put(Key key, Layout layout) {
+    getCache().put(key, layout);
+  }
+
+  /** @return the number of text layouts that were found in the cache since it was last cleared. */
+  public static int getHitCount() {
+    synchronized (sLock) {
+      return sCache == null ? 0 : sCache.hitCount();
+    }
+  }
+
+  /** @return the number of text layouts that had to be built since the cache was last cleared. */
+  public static int getMissCount() {
+    synchronized (sLock) {
+      return sCache == null ? 0 : sCache.missCount();
+    }
+  }
+
+  /**
+   * @return the number of times a Text drew the layout it was measured with at bounds of a
+   *     different width, rather than building another layout, see {@link
+   *     ComponentsConfiguration#reuseTextLayoutsAtCompatibleWidths}.
+   */
+  public static int getReusedMeasureLayoutCount() {
+    return sReusedMeasureLayoutCount.get();
+  }
+
+  static void onMeasureLayoutReused() {
+    sReusedMeasureLayoutCount.incrementAndGet();
+  }
+
+  /**
+   * Releases all the cached layouts and resets the metrics. The next cached layout creates a cache
+   * of the size that {@link ComponentsConfiguration#textLayoutCacheSize} has by then.
+   */
+  public static void clear() {
+    sReusedMeasureLayoutCount.set(0);
+    synchronized (sLock) {
+      if (sCache != null) {
+        sCache.evictAll();
+        sCache = null;
+      }
+    }
+  }
+
+  private static LruCache<Key, Layout> getCache() {
+    synchronized (sLock) {
+      if (sCache == null) {
+        sCache = new LruCache<>(Math.max(1, ComponentsConfiguration.textLayoutCacheSize));
+      }
+      return sCache;
+    }
+  }
+
+  /** The text and all the props of a Text that its layout depends on. */
+  static final class Key {
+    private final String mText;
+    private final int mWidthSpec;
+    @Nullable private final TruncateAt mEllipsize;
+    private final boolean mShouldIncludeFontPadding;
+    private final int mMaxLines;
+    private final float mShadowRadius;
+    private final float mShadowDx;
+    private final float mShadowDy;
+    private final int mShadowColor;
+    private final boolean mIsSingleLine;
+    private final int mTextColor;
+    @Nullable private final ColorStateList mTextColorStateList;
+    private final int mLinkColor;
+    private final int mTextSize;
+    private final float mExtraSpacing;
+    private final float mSpacingMultiplier;
+    private final int mTextStyle;
+    @Nullable private final Typeface mTypeface;
+    @Nullable private final Alignment mTextAlignment;
+    private final boolean mGlyphWarming;
+    @Nullable private final YogaDirection mLayoutDirection;
+    private final int mMinEms;
+    private final int mMaxEms;
+    private final int mMinTextWidth;
+    private final int mMaxTextWidth;
+    private final float mDensity;
+    private final int mBreakStrategy;
+    private final int mHyphenationFrequency;
+    @Nullable private final TextDirectionHeuristicCompat mTextDirection;
+    private final int mHashCode;
+
+    Key(
+        String text,
+        int widthSpec,
+        @Nullable TruncateAt ellipsize,
+        boolean shouldIncludeFontPadding,
+        int maxLines,
+        float shadowRadius,
+        float shadowDx,
+        float shadowDy,
+        int shadowColor,
+        boolean isSingleLine,
+        int textColor,
+        @Nullable ColorStateList textColorStateList,
+        int linkColor,
+        int textSize,
+        float extraSpacing,
+        float spacingMultiplier,
+        int textStyle,
+        @Nullable Typeface typeface,
+        @Nullable Alignment textAlignment,
+        boolean glyphWarming,
+        @Nullable YogaDirection layoutDirection,
+        int minEms,
+        int maxEms,
+        int minTextWidth,
+        int maxTextWidth,
+        float density,
+        int breakStrategy,
+        int hyphenationFrequency,
+        @Nullable TextDirectionHeuristicCompat textDirection) {
+      mText = text;
+      mWidthSpec = widthSpec;
+      mEllipsize = ellipsize;
+      mShouldIncludeFontPadding = shouldIncludeFontPadding;
+      mMaxLines = maxLines;
+      mShadowRadius = shadowRadius;
+      mShadowDx = shadowDx;
+      mShadowDy = shadowDy;
+      mShadowColor = shadowColor;
+      mIsSingleLine = isSingleLine;
+      mTextColor = textColor;
+      mTextColorStateList = textColorStateList;
+      mLinkColor = linkColor;
+      mTextSize = textSize;
+      mExtraSpacing = extraSpacing;
+      mSpacingMultiplier = spacingMultiplier;
+      mTextStyle = textStyle;
+      mTypeface = typeface;
+      mTextAlignment = textAlignment;
+      mGlyphWarming = glyphWarming;
+      mLayoutDirection = layoutDirection;
+      mMinEms = minEms;
+      mMaxEms = maxEms;
+      mMinTextWidth = minTextWidth;
+      mMaxTextWidth = maxTextWidth;
+      mDensity = density;
+      mBreakStrategy = breakStrategy;
+      mHyphenationFrequency = hyphenationFrequency;
+      mTextDirection = textDirection;
+      mHashCode = computeHashCode();
+    }
+
+    private int computeHashCode() {
+      int result = mText.hashCode();
+      result = 31 * result + mWidthSpec;
+      result = 31 * result + hashCode(mEllipsize);
+      result = 31 * result + (mShouldIncludeFontPadding ? 1 : 0);
+      result = 31 * result + mMaxLines;
+      result = 31 * result + Float.floatToIntBits(mShadowRadius);
+      result = 31 * result + Float.floatToIntBits(mShadowDx);
+      result = 31 * result + Float.floatToIntBits(mShadowDy);
+      result = 31 * result + mShadowColor;
+      result = 31 * result + (mIsSingleLine ? 1 : 0);
+      result = 31 * result + mTextColor;
+      result = 31 * result + hashCode(mTextColorStateList);
+      result = 31 * result + mLinkColor;
+      result = 31 * result + mTextSize;
+      result = 31 * result + Float.floatToIntBits(mExtraSpacing);
+      result = 31 * result + Float.floatToIntBits(mSpacingMultiplier);
+      result = 31 * result + mTextStyle;
+      result = 31 * result + hashCode(mTypeface);
+      result = 31 * result + hashCode(mTextAlignment);
+      result = 31 * result + (mGlyphWarming ? 1 : 0);
+      result = 31 * result + hashCode(mLayoutDirection);
+      result = 31 * result + mMinEms;
+      result = 31 * result + mMaxEms;
+      result = 31 * result + mMinTextWidth;
+      result = 31 * result + mMaxTextWidth;
+      result = 31 * result + Float.floatToIntBits(mDensity);
+      result = 31 * result + mBreakStrategy;
+      result = 31 * result + mHyphenationFrequency;
+      result = 31 * result + hashCode(mTextDirection);
+      return result;
+    }
+
+    private static int hashCode(@Nullable Object object) {
+      return object == null ? 0 : object.hashCode();
+    }
+
+    private static boolean equals(@Nullable Object a, @Nullable Object b) {
+      return a == null ? b == null : a.equals(b);
+    }
+
+    @Override
+    public int hashCode() {
+      return mHashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+
+      final Key other = (Key) o;
+      return mHashCode == other.mHashCode
+          && mWidthSpec == other.mWidthSpec
+          && mShouldIncludeFontPadding == other.mShouldIncludeFontPadding
+          && mMaxLines == other.mMaxLines
+          && Float.compare(mShadowRadius, other.mShadowRadius) == 0
+          && Float.compare(mShadowDx, other.mShadowDx) == 0
+          && Float.compare(mShadowDy, other.mShadowDy) == 0
+          && mShadowColor == other.mShadowColor
+          && mIsSingleLine == other.mIsSingleLine
+          && mTextColor == other.mTextColor
+          && mLinkColor == other.mLinkColor
+          && mTextSize == other.mTextSize
+          && Float.compare(mExtraSpacing, other.mExtraSpacing) == 0
+          && Float.compare(mSpacingMultiplier, other.mSpacingMultiplier) == 0
+          && mTextStyle == other.mTextStyle
+          && mGlyphWarming == other.mGlyphWarming
+          && mMinEms == other.mMinEms
+          && mMaxEms == other.mMaxEms
+          && mMinTextWidth == other.mMinTextWidth
+          && mMaxTextWidth == other.mMaxTextWidth
+          && Float.compare(mDensity, other.mDensity) == 0
+          && mBreakStrategy == other.mBreakStrategy
+          && mHyphenationFrequency == other.mHyphenationFrequency
+          && mEllipsize == other.mEllipsize
+          && mTextAlignment == other.mTextAlignment
+          && mLayoutDirection == other.mLayoutDirection
+          && mTextDirection == other.mTextDirection
+          && equals(mTextColorStateList, other.mTextColorStateList)
+          && equals(mTypeface, other.mTypeface)
+          && mText.equals(other.mText);
+    }
+  }
+}
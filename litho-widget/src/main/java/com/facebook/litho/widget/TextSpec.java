@@ -58,6 +58,7 @@ import com.facebook.litho.Output;
 import com.facebook.litho.R;
 import com.facebook.litho.Size;
 import com.facebook.litho.SizeSpec;
+import com.facebook.litho.ThreadUtils;
 import com.facebook.litho.annotations.FromBoundsDefined;
 import com.facebook.litho.annotations.FromMeasure;
 import com.facebook.litho.annotations.GetExtraAccessibilityNodeAt;
@@ -74,6 +75,7 @@ import com.facebook.litho.annotations.OnUnmount;
 import com.facebook.litho.annotations.Prop;
 import com.facebook.litho.annotations.PropDefault;
 import com.facebook.litho.annotations.ResType;
+import com.facebook.litho.config.ComponentsConfiguration;
 import com.facebook.litho.utils.DisplayListUtils;
 import com.facebook.widget.accessibility.delegates.AccessibleClickableSpan;
 import com.facebook.yoga.YogaDirection;
@@ -528,6 +530,49 @@ class TextSpec {
       TextDirectionHeuristicCompat textDirection) {
     Layout newLayout;
 
+    final TextLayoutCache.Key cacheKey;
+    if (canCacheLayout(text, textColor, textColorStateList)) {
+      cacheKey =
+          new TextLayoutCache.Key(
+              (String) text,
+              widthSpec,
+              ellipsize,
+              shouldIncludeFontPadding,
+              maxLines,
+              shadowRadius,
+              shadowDx,
+              shadowDy,
+              shadowColor,
+              isSingleLine,
+              textColor,
+              textColorStateList,
+              linkColor,
+              textSize,
+              extraSpacing,
+              spacingMultiplier,
+              textStyle,
+              typeface,
+              textAlignment,
+              glyphWarming,
+              layoutDirection,
+              minEms,
+              maxEms,
+              minTextWidth,
+              maxTextWidth,
+              density,
+              breakStrategy,
+              hyphenationFrequency,
+              textDirection);
+
+      newLayout = TextLayoutCache.get(cacheKey);
+      if (newLayout != null) {
+        // Its glyphs were already warmed, if needed, when it was built.
+        return newLayout;
+      }
+    } else {
+      cacheKey = null;
+    }
+
     TextLayoutBuilder layoutBuilder = sTextLayoutBuilderPool.acquire();
     if (layoutBuilder == null) {
       layoutBuilder = new TextLayoutBuilder();
@@ -609,13 +654,69 @@ class TextSpec {
     layoutBuilder.setText(null);
     sTextLayoutBuilderPool.release(layoutBuilder);
 
-    if (glyphWarming && !DisplayListUtils.isEligibleForCreatingDisplayLists()) {
+    // The layouts created off the main thread are mostly those of the items a RecyclerBinder lays
+    // out ahead of scrolling, which have time to be warmed before they are drawn.
+    final boolean shouldWarmGlyphs =
+        glyphWarming
+            || (ComponentsConfiguration.warmGlyphsOfBackgroundTextLayouts
+                && !ThreadUtils.isMainThread());
+    if (shouldWarmGlyphs && !DisplayListUtils.isEligibleForCreatingDisplayLists()) {
       GlyphWarmer.getInstance().warmLayout(newLayout);
     }
 
+    if (cacheKey != null) {
+      TextLayoutCache.put(cacheKey, newLayout);
+    }
+
     return newLayout;
   }
 
+  /**
+   * @return whether laying out the text of layout at the given width would break and position its
+   *     lines exactly as layout does, so that layout can be drawn at that width. This is only
+   *     provable for left-aligned lines that are not wrapped, ellipsized or cut, and that fit in
+   *     the width.
+   */
+  private static boolean isLayoutUnchangedAtWidth(
+      Layout layout, Alignment textAlignment, float width) {
+    if (textAlignment != ALIGN_NORMAL) {
+      return false;
+    }
+
+    final CharSequence text = layout.getText();
+    final int lineCount = layout.getLineCount();
+    if (lineCount == 0 || layout.getLineEnd(lineCount - 1) != text.length()) {
+      // The last lines were cut by maxLines.
+      return false;
+    }
+
+    for (int line = 0; line < lineCount; line++) {
+      if (layout.getParagraphDirection(line) != Layout.DIR_LEFT_TO_RIGHT
+          || layout.getEllipsisCount(line) > 0
+          || layout.getLineWidth(line) > width) {
+        return false;
+      }
+
+      // A line that doesn't end with a line break was wrapped, and may be wrapped elsewhere at a
+      // different width.
+      if (line < lineCount - 1 && text.charAt(layout.getLineEnd(line) - 1) != '\n') {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * The drawable of a text with a stateful color changes the color of the paint of its layout,
+   * which can't be shared with other texts then.
+   */
+  private static boolean canCacheLayout(
+      CharSequence text, int textColor, ColorStateList textColorStateList) {
+    return TextLayoutCache.canCache(text)
+        && (textColor != 0 || textColorStateList == TextSpec.textColorStateList);
+  }
+
   private static Alignment getAlignment(int viewTextAlignment, int gravity) {
     final Alignment alignment;
     switch (viewTextAlignment) {
@@ -743,6 +844,11 @@ class TextSpec {
         measuredWidth == layoutWidth &&
         measuredHeight == layoutHeight) {
       textLayout.set(measureLayout);
+    } else if (measureLayout != null
+        && ComponentsConfiguration.reuseTextLayoutsAtCompatibleWidths
+        && isLayoutUnchangedAtWidth(measureLayout, textAlignment, layoutWidth)) {
+      TextLayoutCache.onMeasureLayoutReused();
+      textLayout.set(measureLayout);
     } else {
       if (measureLayout != null) {
         Log.w(
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2017-present, Facebook, Inc.
+ * All rights reserved.
+ *
+ * This source code is licensed under the BSD-style license found in the
+ * LICENSE file in the root directory of this source tree. An additional grant
+ * of patent rights can be found in the PATENTS file in the same directory.
+ */
+
+package com.facebook.litho.widget;
+
+import android.os.SystemClock;
+import android.support.annotation.VisibleForTesting;
+import android.support.v7.widget.RecyclerView;
+import com.facebook.litho.PriorityLayoutHandler;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link RangePolicy} that looks at how fast the RecyclerView scrolls. While idle, the range is
+ * the same as the default one: {@code rangeSize * rangeRatio} items on each side of the viewport.
+ * The faster the scroll, the more the range is shifted towards the scrolling direction and the
+ * bigger it gets, so that a fling lays out the items that are about to appear instead of the ones
+ * that were just left behind. Layouts of items behind the viewport are also run after the ones of
+ * the items ahead of it.
+ */
+@ThreadSafe
+public class VelocityAwareRangePolicy implements RangePolicy {
+
+  /** Scroll speed, in pixels per millisecond, above which the range is fully shifted. */
+  public static final float DEFAULT_FLING_VELOCITY = 4f;
+  /** By how much the range can grow during a fling: 1 means up to twice as many items. */
+  public static final float DEFAULT_MAX_RANGE_GROWTH = 1f;
+
+  // Whatever the speed, keep this share of the range behind the viewport in case the scroll
+  // changes direction.
+  private static final float MIN_BEHIND_SHARE = 0.1f;
+  // Scroll events further apart than this belong to different gestures.
+  private static final long VELOCITY_RESET_MS = 100;
+  private static final long FRAME_MS = 16;
+  private static final float VELOCITY_SMOOTHING = 0.5f;
+  // Big enough to put every item behind the viewport after all the items ahead of it.
+  private static final int BEHIND_PRIORITY_OFFSET = 1 << 16;
+
+  private final float mFlingVelocity;
+  private final float mMaxRangeGrowth;
+
+  @GuardedBy("this")
+  private float mVelocity;
+
+  @GuardedBy("this")
+  private long mLastScrollTimeMs = -1;
+
+  public VelocityAwareRangePolicy() {
+    this(DEFAULT_FLING_VELOCITY, DEFAULT_MAX_RANGE_GROWTH);
+  }
+
+  /**
+   * @param flingVelocity the scroll speed, in pixels per millisecond, at which the range is fully
+   *     shifted towards the scrolling direction and fully grown.
+   * @param maxRangeGrowth how much bigger than the default range the range can get, as a fraction
+   *     of the default range.
+   */
+  public VelocityAwareRangePolicy(float flingVelocity, float maxRangeGrowth) {
+    if (flingVelocity <= 0 || maxRangeGrowth < 0) {
+      throw new IllegalArgumentException(
+          "Invalid fling velocity or range growth: " + flingVelocity + ", " + maxRangeGrowth);
+    }
+
+    mFlingVelocity = flingVelocity;
+    mMaxRangeGrowth = maxRangeGrowth;
+  }
+
+  @Override
+  public void onScrolled(int delta) {
+    onScrolled(delta, SystemClock.uptimeMillis());
+  }
+
+  @VisibleForTesting
+  synchronized void onScrolled(int delta, long timeMs) {
+    long elapsedMs = timeMs - mLastScrollTimeMs;
+    if (mLastScrollTimeMs < 0 || elapsedMs > VELOCITY_RESET_MS) {
+      // This scroll starts a new gesture: we can't tell how long it took, so assume a frame.
+      mVelocity = 0;
+      elapsedMs = FRAME_MS;
+    }
+    mLastScrollTimeMs = timeMs;
+
+    final float velocity = (float) delta / Math.max(elapsedMs, 1);
+    mVelocity = VELOCITY_SMOOTHING * velocity + (1 - VELOCITY_SMOOTHING) * mVelocity;
+  }
+
+  @Override
+  public synchronized void onScrollStateChanged(int newState) {
+    if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+      mVelocity = 0;
+      mLastScrollTimeMs = -1;
+    }
+  }
+
+  @Override
+  public void getRange(int firstVisible, int rangeSize, float rangeRatio, int[] outRange) {
+    final float velocity = getVelocity();
+    final int extraItems = getExtraItemCount(velocity, rangeSize, rangeRatio);
+    final int aheadItems = getAheadItemCount(velocity, extraItems);
+
+    outRange[0] = firstVisible - (velocity < 0 ? aheadItems : extraItems - aheadItems);
+    outRange[1] = firstVisible + rangeSize + (velocity < 0 ? extraItems - aheadItems : aheadItems);
+  }
+
+  @Override
+  public int getLayoutPriority(int position, int firstVisible, int lastVisible) {
+    final float velocity = getVelocity();
+
+    if (position < firstVisible) {
+      return PriorityLayoutHandler.PRIORITY_DEFAULT
+          + (velocity > 0 ? BEHIND_PRIORITY_OFFSET : 0)
+          + firstVisible
+          - position;
+    } else if (position > lastVisible) {
+      return PriorityLayoutHandler.PRIORITY_DEFAULT
+          + (velocity < 0 ? BEHIND_PRIORITY_OFFSET : 0)
+          + position
+          - lastVisible;
+    }
+
+    return PriorityLayoutHandler.PRIORITY_DEFAULT;
+  }
+
+  @VisibleForTesting
+  synchronized float getVelocity() {
+    return mVelocity;
+  }
+
+  /** @return the number of items to lay out outside of the viewport, on both sides. */
+  private int getExtraItemCount(float velocity, int rangeSize, float rangeRatio) {
+    final int defaultItemsPerSide = (int) (rangeSize * rangeRatio);
+    return (int) (2 * defaultItemsPerSide * (1 + mMaxRangeGrowth * getSpeedFraction(velocity)));
+  }
+
+  /** @return how many of the extra items go in the scrolling direction. */
+  private int getAheadItemCount(float velocity, int extraItems) {
+    final float aheadShare = 0.5f + (0.5f - MIN_BEHIND_SHARE) * getSpeedFraction(velocity);
+    return extraItems - (int) (extraItems * (1 - aheadShare));
+  }
+
+  /** @return 0 when idle, up to 1 when scrolling at least as fast as the fling velocity. */
+  private float getSpeedFraction(float velocity) {
+    return Math.min(Math.abs(velocity) / mFlingVelocity, 1f);
+  }
+}
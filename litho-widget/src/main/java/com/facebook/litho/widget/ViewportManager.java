@@ -26,7 +26,7 @@ import javax.annotation.concurrent.ThreadSafe;
  *
  * Classes that are interested to have its viewport changes handled by {@link ViewportManager}
  * should set the {@link OnScrollListener} returned from {@link ViewportManager#getScrollListener()}
- * in the {@link RecyclerView}
+ * in the {@link RecyclerView}, or forward the scroll events to it from their own listener.
  */
 @ThreadSafe
 final class ViewportManager {